@@ -0,0 +1,64 @@
+package com.bookingsystem.api;
+
+import com.bookingsystem.api.dto.Cursor;
+import com.bookingsystem.api.dto.CursorPage;
+import com.bookingsystem.api.dto.UnitResponseDto;
+import com.bookingsystem.mapper.UnitMapperImpl;
+import com.bookingsystem.model.*;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON response bodies of the unit and booking endpoints, written with the same mapper defaults Spring MVC uses
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializationBenchmark {
+    private static final int PAGE_SIZE = 20;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private Unit unit;
+    private Booking booking;
+    private CursorPage<UnitResponseDto> page;
+
+    @Setup
+    public void setUp() {
+        List<Unit> units = new ArrayList<>();
+        for (long id = 1; id <= PAGE_SIZE; id++) {
+            units.add(new Unit(id, 2, AccommodationType.FLAT, BookingStatus.AVAILABLE, 1, LocalDate.of(2025, 7, 15), 0, 115.0, 126.5, "Unit " + id, null, null));
+        }
+        unit = units.get(0);
+        booking = new Booking(1L, new HashSet<>(units.subList(0, 3)), new HashSet<>(), null, LocalDateTime.now(), null, null);
+        page = new CursorPage<>(
+                units.stream().map(new UnitMapperImpl()::toDto).toList(),
+                Cursor.byId(PAGE_SIZE).encode(),
+                1_000L
+        );
+    }
+
+    @Benchmark
+    public byte[] unit() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(unit);
+    }
+
+    @Benchmark
+    public byte[] booking() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(booking);
+    }
+
+    @Benchmark
+    public byte[] unitPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
@@ -0,0 +1,59 @@
+package com.bookingsystem.configuration;
+
+import com.bookingsystem.exceptions.UnitNotFoundException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Error bodies of {@link GlobalExceptionHandler}, built and written to JSON as they are on a rejected request
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ExceptionHandlerBenchmark {
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private UnitNotFoundException notFound;
+    private IllegalStateException illegalState;
+    private MethodArgumentNotValidException invalid;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        notFound = new UnitNotFoundException("Unit not found with id: 42");
+        illegalState = new IllegalStateException("Cannot update a paid booking");
+
+        BeanPropertyBindingResult bindingResult = new BeanPropertyBindingResult(new Object(), "dto");
+        bindingResult.addError(new FieldError("dto", "userId", "must not be null"));
+        bindingResult.addError(new FieldError("dto", "unitIds", "must not be empty"));
+        MethodParameter parameter = new MethodParameter(ExceptionHandlerBenchmark.class.getDeclaredMethod("target", Object.class), 0);
+        invalid = new MethodArgumentNotValidException(parameter, bindingResult);
+    }
+
+    @Benchmark
+    public byte[] entityNotFound() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(handler.handleEntityNotFound(notFound).getBody());
+    }
+
+    @Benchmark
+    public byte[] validationErrors() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(handler.handleValidationErrors(invalid).getBody());
+    }
+
+    @Benchmark
+    public byte[] runtimeException() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(handler.handleRuntimeExceptions(illegalState).getBody());
+    }
+
+    @SuppressWarnings("unused")
+    private void target(Object dto) {
+    }
+}
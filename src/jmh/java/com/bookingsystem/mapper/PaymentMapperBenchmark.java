@@ -0,0 +1,34 @@
+package com.bookingsystem.mapper;
+
+import com.bookingsystem.api.dto.PaymentResponseDto;
+import com.bookingsystem.model.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generated MapStruct mapping used by every payment endpoint
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PaymentMapperBenchmark {
+    private final PaymentMapper paymentMapper = new PaymentMapperImpl();
+
+    private Payment payment;
+
+    @Setup
+    public void setUp() {
+        Unit unit = new Unit(1L, 2, AccommodationType.FLAT, BookingStatus.RESERVED, 1, LocalDate.of(2025, 7, 15), 0, 115.0, 126.5, "", null, null);
+        Booking booking = new Booking(1L, Set.of(unit), Set.of(), null, LocalDateTime.now(), null, null);
+        payment = new Payment(booking, LocalDateTime.now().plusMinutes(15));
+    }
+
+    @Benchmark
+    public PaymentResponseDto toDto() {
+        return paymentMapper.toDto(payment);
+    }
+}
@@ -0,0 +1,53 @@
+package com.bookingsystem.model;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity construction on the booking write path: unit pricing and payment totals
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DomainBenchmark {
+    private static final LocalDate DATE = LocalDate.of(2025, 7, 15);
+
+    @Param({"1", "10", "100"})
+    int unitsPerBooking;
+
+    private Unit unit;
+    private Booking booking;
+    private LocalDateTime deadline;
+
+    @Setup
+    public void setUp() {
+        unit = new Unit(2, AccommodationType.FLAT, 3, 100.0, DATE, "Benchmark unit");
+
+        Set<Unit> units = new HashSet<>();
+        for (long id = 1; id <= unitsPerBooking; id++) {
+            units.add(new Unit(id, 2, AccommodationType.FLAT, BookingStatus.AVAILABLE, 1, DATE, 0, 115.0, 126.5, "", null, null));
+        }
+        booking = new Booking(units, null);
+        deadline = LocalDateTime.now().plusMinutes(15);
+    }
+
+    @Benchmark
+    public Unit unitConstruction() {
+        return new Unit(2, AccommodationType.FLAT, 3, 100.0, DATE, "Benchmark unit");
+    }
+
+    @Benchmark
+    public double unitTotalCost() {
+        return unit.getTotalCost(100.0);
+    }
+
+    @Benchmark
+    public Payment paymentConstruction() {
+        return new Payment(booking, deadline);
+    }
+}
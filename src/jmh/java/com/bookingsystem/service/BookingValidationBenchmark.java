@@ -0,0 +1,58 @@
+package com.bookingsystem.service;
+
+import com.bookingsystem.exceptions.UnitNotFoundException;
+import com.bookingsystem.model.AccommodationType;
+import com.bookingsystem.model.BookingStatus;
+import com.bookingsystem.model.Unit;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Availability pre-check of {@link BookingService}, both the passing path and the rejection
+ * that builds the list of unavailable unit ids
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BookingValidationBenchmark {
+
+    @Param({"1", "10", "100"})
+    int units;
+
+    private Set<Unit> available;
+    private Set<Unit> partlyReserved;
+
+    @Setup
+    public void setUp() {
+        available = new HashSet<>();
+        partlyReserved = new HashSet<>();
+        for (long id = 1; id <= units; id++) {
+            available.add(unit(id, BookingStatus.AVAILABLE));
+            partlyReserved.add(unit(id, id % 2 == 0 ? BookingStatus.RESERVED : BookingStatus.AVAILABLE));
+        }
+        partlyReserved.add(unit(units + 1L, BookingStatus.RESERVED));
+    }
+
+    @Benchmark
+    public void allAvailable() {
+        BookingService.validateAllUnitsAvailable(available);
+    }
+
+    @Benchmark
+    public String someUnavailable() {
+        try {
+            BookingService.validateAllUnitsAvailable(partlyReserved);
+            return null;
+        } catch (UnitNotFoundException e) {
+            return e.getMessage();
+        }
+    }
+
+    private static Unit unit(Long id, BookingStatus status) {
+        return new Unit(id, 2, AccommodationType.FLAT, status, 1, LocalDate.of(2025, 7, 15), 0, 115.0, 126.5, "", null, null);
+    }
+}
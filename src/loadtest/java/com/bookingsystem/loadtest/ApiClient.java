@@ -0,0 +1,72 @@
+package com.bookingsystem.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * Thin JSON client over the REST API, shared by all virtual users
+ */
+@RequiredArgsConstructor
+class ApiClient {
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final URI baseUri;
+
+    Response get(String path) throws IOException, InterruptedException {
+        return send(request(path).GET());
+    }
+
+    Response post(String path, Object body) throws IOException, InterruptedException {
+        return send(request(path).POST(json(body)));
+    }
+
+    Response delete(String path) throws IOException, InterruptedException {
+        return send(request(path).DELETE());
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json");
+    }
+
+    private HttpRequest.BodyPublisher json(Object body) throws IOException {
+        return body == null
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+    }
+
+    private Response send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        val response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        val ok = response.statusCode() / 100 == 2;
+        val body = ok && response.body().length > 0 ? objectMapper.readTree(response.body()) : null;
+        return new Response(response.statusCode(), body);
+    }
+
+    record Response(int status, JsonNode body) {
+
+        boolean ok() {
+            return status / 100 == 2;
+        }
+
+        long id() {
+            return body.get("id").asLong();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.bookingsystem.loadtest;
+
+import org.hibernate.SessionEventListener;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the JDBC executions Hibernate sends to the database, a batch counts as one round trip</br>
+ * Attached to every session through {@code hibernate.session.events.auto}
+ */
+public class JdbcRoundTrips implements SessionEventListener {
+    private static final LongAdder STATEMENTS = new LongAdder();
+    private static final LongAdder BATCHES = new LongAdder();
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        STATEMENTS.increment();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        BATCHES.increment();
+    }
+
+    static Snapshot snapshot() {
+        return new Snapshot(STATEMENTS.sum(), BATCHES.sum());
+    }
+
+    record Snapshot(long statements, long batches) {
+
+        Snapshot since(Snapshot before) {
+            return new Snapshot(statements - before.statements, batches - before.batches);
+        }
+
+        long roundTrips() {
+            return statements + batches;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.bookingsystem.loadtest;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Load test settings, read from {@code loadtest.*} system properties</br>
+ * The operation mix is a set of relative weights, e.g. {@code -Dloadtest.mix.search=50}
+ */
+record LoadProfile(
+        int clients,
+        Duration warmup,
+        Duration duration,
+        int users,
+        int units,
+        int hotUnits,
+        Map<Operation, Integer> mix
+) {
+
+    static LoadProfile fromSystemProperties() {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            mix.put(operation, Integer.getInteger("loadtest.mix." + operation.key(), operation.defaultWeight()));
+        }
+
+        return new LoadProfile(
+                Integer.getInteger("loadtest.clients", 200),
+                Duration.parse(System.getProperty("loadtest.warmup", "PT10S")),
+                Duration.parse(System.getProperty("loadtest.duration", "PT60S")),
+                Integer.getInteger("loadtest.users", 100),
+                Integer.getInteger("loadtest.units", 2_000),
+                Integer.getInteger("loadtest.hot-units", 5),
+                mix
+        );
+    }
+
+    Operation nextOperation() {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        int roll = ThreadLocalRandom.current().nextInt(total);
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        return Operation.SEARCH;
+    }
+}
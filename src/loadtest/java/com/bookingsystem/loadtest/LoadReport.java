@@ -0,0 +1,90 @@
+package com.bookingsystem.loadtest;
+
+import lombok.val;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms and outcome counters per operation, only samples taken after the warmup are kept
+ */
+class LoadReport {
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final double[] PERCENTILES = {50.0, 90.0, 99.0, 99.9};
+
+    private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> failures = new EnumMap<>(Operation.class);
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private volatile boolean measuring;
+
+    LoadReport() {
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3));
+            failures.put(operation, new LongAdder());
+        }
+    }
+
+    void startMeasuring() {
+        measuring = true;
+    }
+
+    void success(Operation operation, long elapsedNanos) {
+        if (measuring) {
+            record(operation, elapsedNanos);
+        }
+    }
+
+    void failure(Operation operation, long elapsedNanos, String reason) {
+        if (measuring) {
+            record(operation, elapsedNanos);
+            failures.get(operation).increment();
+            errors.computeIfAbsent(operation + " " + reason, __ -> new LongAdder()).increment();
+        }
+    }
+
+    private void record(Operation operation, long elapsedNanos) {
+        latencies.get(operation).recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(elapsedNanos), HIGHEST_TRACKABLE_MICROS));
+    }
+
+    void print(LoadProfile profile, Duration measured, Map<String, Double> retryCounters) {
+        val seconds = measured.toMillis() / 1000.0;
+        val out = System.out;
+
+        out.printf("%nLoad test: %d clients, %s measured after %s warmup%n", profile.clients(), measured, profile.warmup());
+        out.printf("%-18s %10s %10s %8s %9s %9s %9s %9s %9s%n",
+                "operation", "requests", "req/s", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+
+        long total = 0;
+        for (Operation operation : Operation.values()) {
+            val histogram = latencies.get(operation);
+            val count = histogram.getTotalCount();
+            total += count;
+
+            out.printf("%-18s %10d %10.1f %8d", operation, count, count / seconds, failures.get(operation).sum());
+            for (double percentile : PERCENTILES) {
+                out.printf(" %9.2f", histogram.getValueAtPercentile(percentile) / 1000.0);
+            }
+            out.printf(" %9.2f%n", histogram.getMaxValue() / 1000.0);
+        }
+        out.printf("%-18s %10d %10.1f%n", "TOTAL", total, total / seconds);
+
+        out.printf("%nRetries and recoveries (BookingService.createBooking)%n");
+        if (retryCounters.isEmpty()) {
+            out.println("  none");
+        }
+        new TreeMap<>(retryCounters).forEach((name, count) -> out.printf("  %-60s %10.0f%n", name, count));
+
+        out.printf("%nErrors%n");
+        if (errors.isEmpty()) {
+            out.println("  none");
+        }
+        new TreeMap<>(errors).forEach((reason, count) -> out.printf("  %-60s %10d%n", reason, count.sum()));
+    }
+}
@@ -0,0 +1,126 @@
+package com.bookingsystem.loadtest;
+
+import com.bookingsystem.BookingSystemApplication;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.search.Search;
+import lombok.val;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * End-to-end load generator: starts the application against Postgres and Redis containers, seeds users and units
+ * over the API and drives it with one virtual thread per client</br>
+ * Run with {@code ./gradlew loadTest}, see {@link LoadProfile} for the settings
+ */
+public class LoadTest {
+    private static final String BOOKING_METRICS_PREFIX = "booking.create.";
+
+    public static void main(String[] args) throws Exception {
+        val profile = LoadProfile.fromSystemProperties();
+        val application = SpringApplication.from(BookingSystemApplication::main)
+                .with(LoadTestContainers.class)
+                .run("--server.port=0", "--logging.level.root=WARN");
+
+        try (ConfigurableApplicationContext context = application.getApplicationContext()) {
+            val port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            val api = new ApiClient(URI.create("http://localhost:" + port));
+            run(profile, api, context.getBean(MeterRegistry.class));
+        }
+    }
+
+    private static void run(LoadProfile profile, ApiClient api, MeterRegistry meterRegistry) throws Exception {
+        val userIds = seed(profile.users(), index -> api.post("/api/users", Map.of(
+                "username", "load_user_" + index,
+                "email", "load.user." + index + "@example.com"
+        )));
+        val unitIds = seed(profile.units(), index -> api.post("/api/units", unit(index)));
+        val hotUnitIds = unitIds.subList(0, Math.min(profile.hotUnits(), unitIds.size()));
+
+        val report = new LoadReport();
+        val deadline = System.nanoTime() + profile.warmup().plus(profile.duration()).toNanos();
+        Map<String, Double> countersBefore;
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int client = 0; client < profile.clients(); client++) {
+                executor.submit(new VirtualUser(api, profile, report, userIds.get(client % userIds.size()), hotUnitIds, deadline));
+            }
+
+            Thread.sleep(profile.warmup());
+            countersBefore = bookingCounters(meterRegistry);
+            report.startMeasuring();
+        }
+
+        report.print(profile, profile.duration(), subtract(bookingCounters(meterRegistry), countersBefore));
+    }
+
+    private static Map<String, Object> unit(int index) {
+        val random = ThreadLocalRandom.current();
+        return Map.of(
+                "numberOfRooms", random.nextInt(1, 5),
+                "type", random.nextBoolean() ? "FLAT" : random.nextBoolean() ? "HOME" : "APARTMENT",
+                "floor", random.nextInt(0, 11),
+                "baseCost", 50 + random.nextDouble(450),
+                "bookingDate", LocalDate.now().plusDays(index % 365).toString(),
+                "description", "Load test unit " + index
+        );
+    }
+
+    private static List<Long> seed(int count, SeedCall call) throws Exception {
+        List<Future<ApiClient.Response>> responses = new ArrayList<>(count);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int index = 1; index <= count; index++) {
+                val current = index;
+                responses.add(executor.submit(() -> call.execute(current)));
+            }
+        }
+
+        List<Long> ids = new ArrayList<>(count);
+        for (val response : responses) {
+            val result = response.get();
+            if (!result.ok()) {
+                throw new IllegalStateException("Seeding failed with HTTP " + result.status());
+            }
+            ids.add(result.id());
+        }
+        return ids;
+    }
+
+    private static Map<String, Double> bookingCounters(MeterRegistry meterRegistry) {
+        Map<String, Double> counters = new HashMap<>();
+        Search.in(meterRegistry)
+                .name(name -> name.startsWith(BOOKING_METRICS_PREFIX))
+                .counters()
+                .forEach(counter -> counters.put(key(counter), counter.count()));
+        return counters;
+    }
+
+    private static String key(Counter counter) {
+        return counter.getId().getName() + " " + Optional.ofNullable(counter.getId().getTag("exception")).orElse("");
+    }
+
+    private static Map<String, Double> subtract(Map<String, Double> after, Map<String, Double> before) {
+        Map<String, Double> delta = new HashMap<>();
+        after.forEach((key, count) -> {
+            val value = count - before.getOrDefault(key, 0.0);
+            if (value > 0) {
+                delta.put(key, value);
+            }
+        });
+        return delta;
+    }
+
+    @FunctionalInterface
+    private interface SeedCall {
+        ApiClient.Response execute(int index) throws IOException, InterruptedException;
+    }
+}
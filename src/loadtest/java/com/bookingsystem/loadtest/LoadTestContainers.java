@@ -0,0 +1,34 @@
+package com.bookingsystem.loadtest;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * Postgres and Redis for the load test, the application runs with its default profile against them
+ */
+@TestConfiguration(proxyBeanMethods = false)
+class LoadTestContainers {
+
+    @Bean
+    @ServiceConnection
+    @SuppressWarnings("resource")
+    PostgreSQLContainer<?> postgresContainer() {
+        return new PostgreSQLContainer<>(DockerImageName.parse("postgres:16-alpine"))
+                .withDatabaseName("loadtest")
+                .withUsername("test")
+                .withPassword("test")
+                .withCommand("postgres", "-c", "max_connections=300");
+    }
+
+    @Bean
+    @ServiceConnection(name = "redis")
+    @SuppressWarnings("resource")
+    GenericContainer<?> redisContainer() {
+        return new GenericContainer<>(DockerImageName.parse("redis:7-alpine"))
+                .withExposedPorts(6379);
+    }
+}
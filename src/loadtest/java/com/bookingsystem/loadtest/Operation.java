@@ -0,0 +1,25 @@
+package com.bookingsystem.loadtest;
+
+enum Operation {
+    SEARCH("search", 50),
+    CREATE_BOOKING("create", 25),
+    PROCESS_PAYMENT("pay", 10),
+    CANCEL_BOOKING("cancel", 10),
+    HOT_UNIT_BOOKING("hot", 5);
+
+    private final String key;
+    private final int defaultWeight;
+
+    Operation(String key, int defaultWeight) {
+        this.key = key;
+        this.defaultWeight = defaultWeight;
+    }
+
+    String key() {
+        return key;
+    }
+
+    int defaultWeight() {
+        return defaultWeight;
+    }
+}
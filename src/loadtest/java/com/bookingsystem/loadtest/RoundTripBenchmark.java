@@ -0,0 +1,72 @@
+package com.bookingsystem.loadtest;
+
+import com.bookingsystem.BookingSystemApplication;
+import com.bookingsystem.api.dto.BookingCreateDto;
+import com.bookingsystem.api.dto.UnitCreateDto;
+import com.bookingsystem.model.AccommodationType;
+import com.bookingsystem.model.Unit;
+import com.bookingsystem.repository.UserRepository;
+import com.bookingsystem.service.BookingService;
+import com.bookingsystem.service.UnitService;
+import lombok.val;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Database round trips of a bulk unit import and of booking creation, once with the configured JDBC batching
+ * and once with batching switched off</br>
+ * Run with {@code ./gradlew roundTripBenchmark -Dloadtest.units=1000 -Dloadtest.bookings=100}
+ */
+public class RoundTripBenchmark {
+    private static final String ROUND_TRIPS = "hibernate.session.events.auto=" + JdbcRoundTrips.class.getName();
+
+    public static void main(String[] args) {
+        val units = Integer.getInteger("loadtest.units", 1_000);
+        val bookings = Integer.getInteger("loadtest.bookings", 100);
+
+        System.out.printf("%-10s %-28s %12s %12s %12s%n", "batching", "scenario", "statements", "batches", "round trips");
+        measure("on", units, bookings);
+        measure("off", units, bookings, "--spring.jpa.properties.hibernate.jdbc.batch_size=1");
+    }
+
+    private static void measure(String label, int units, int bookings, String... overrides) {
+        val args = new String[overrides.length + 3];
+        args[0] = "--server.port=0";
+        args[1] = "--logging.level.root=WARN";
+        args[2] = "--spring.jpa.properties." + ROUND_TRIPS;
+        System.arraycopy(overrides, 0, args, 3, overrides.length);
+
+        val application = SpringApplication.from(BookingSystemApplication::main)
+                .with(LoadTestContainers.class)
+                .run(args);
+
+        try (ConfigurableApplicationContext context = application.getApplicationContext()) {
+            val unitService = context.getBean(UnitService.class);
+            val bookingService = context.getBean(BookingService.class);
+            val userId = context.getBean(UserRepository.class).findAll().getFirst().getId();
+
+            var before = JdbcRoundTrips.snapshot();
+            val created = unitService.createUnits(IntStream.range(0, units).mapToObj(RoundTripBenchmark::unit).toList());
+            print(label, "import " + units + " units", JdbcRoundTrips.snapshot().since(before));
+
+            before = JdbcRoundTrips.snapshot();
+            created.stream()
+                    .limit(bookings)
+                    .map(Unit::getId)
+                    .forEach(unitId -> bookingService.createBooking(new BookingCreateDto(Set.of(unitId), userId, null, null)));
+            print(label, "create " + Math.min(bookings, units) + " bookings", JdbcRoundTrips.snapshot().since(before));
+        }
+    }
+
+    private static UnitCreateDto unit(int index) {
+        return new UnitCreateDto(2, AccommodationType.FLAT, index % 10, 100.0, LocalDate.now().plusDays(index % 365), "Round trip unit " + index);
+    }
+
+    private static void print(String label, String scenario, JdbcRoundTrips.Snapshot delta) {
+        System.out.printf("%-10s %-28s %12d %12d %12d%n", label, scenario, delta.statements(), delta.batches(), delta.roundTrips());
+    }
+}
@@ -0,0 +1,163 @@
+package com.bookingsystem.loadtest;
+
+import com.bookingsystem.model.AccommodationType;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * One simulated client: searches, books units from its last search results, then pays for or cancels
+ * its own open bookings, and now and then competes for one of the hot units</br>
+ * Runs on its own virtual thread until the deadline
+ */
+@RequiredArgsConstructor
+class VirtualUser implements Runnable {
+    private static final int PAGE_SIZE = 20;
+    private static final int SEARCH_PAGES = 5;
+    private static final int MAX_UNITS_PER_BOOKING = 2;
+
+    private final ApiClient api;
+    private final LoadProfile profile;
+    private final LoadReport report;
+    private final long userId;
+    private final List<Long> hotUnitIds;
+    private final long deadlineNanos;
+
+    private final Deque<Long> openBookings = new ArrayDeque<>();
+    private final Deque<Long> candidates = new ArrayDeque<>();
+
+    private AccommodationType searchType;
+    private String searchCursor;
+    private int searchPage;
+
+    @Override
+    public void run() {
+        try {
+            while (System.nanoTime() < deadlineNanos) {
+                step(profile.nextOperation());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void step(Operation operation) throws InterruptedException {
+        switch (operation) {
+            case SEARCH -> search();
+            case CREATE_BOOKING -> createBooking();
+            case PROCESS_PAYMENT -> {
+                if (openBookings.isEmpty()) {
+                    createBooking();
+                } else {
+                    pay(openBookings.pollFirst());
+                }
+            }
+            case CANCEL_BOOKING -> {
+                if (openBookings.isEmpty()) {
+                    createBooking();
+                } else {
+                    cancel(openBookings.pollLast());
+                }
+            }
+            case HOT_UNIT_BOOKING -> bookHotUnit();
+        }
+    }
+
+    /**
+     * Browses up to {@link #SEARCH_PAGES} pages of one type by following the cursor, then starts over with another type
+     */
+    private void search() throws InterruptedException {
+        val random = ThreadLocalRandom.current();
+        if (searchCursor == null || searchPage >= SEARCH_PAGES) {
+            searchType = AccommodationType.values()[random.nextInt(AccommodationType.values().length)];
+            searchCursor = null;
+            searchPage = 0;
+        }
+        val path = "/api/units/search?type=" + searchType + "&size=" + PAGE_SIZE
+                + (searchCursor == null ? "" : "&cursor=" + searchCursor);
+
+        val response = timed(Operation.SEARCH, () -> api.get(path));
+        if (response == null || !response.ok()) {
+            searchCursor = null;
+            return;
+        }
+
+        val nextCursor = response.body().path("nextCursor");
+        searchCursor = nextCursor.isTextual() ? nextCursor.asText() : null;
+        searchPage++;
+
+        val found = new ArrayList<Long>();
+        response.body().path("items").forEach(unit -> found.add(unit.get("id").asLong()));
+        Collections.shuffle(found, random);
+        candidates.clear();
+        candidates.addAll(found);
+    }
+
+    private void createBooking() throws InterruptedException {
+        if (candidates.isEmpty()) {
+            search();
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        val unitIds = new HashSet<Long>();
+        val size = ThreadLocalRandom.current().nextInt(1, MAX_UNITS_PER_BOOKING + 1);
+        while (unitIds.size() < size && !candidates.isEmpty()) {
+            unitIds.add(candidates.pollFirst());
+        }
+
+        val response = timed(Operation.CREATE_BOOKING, () -> api.post("/api/bookings", Map.of("unitIds", unitIds, "userId", userId)));
+        if (response != null && response.ok()) {
+            openBookings.addLast(response.id());
+        }
+    }
+
+    private void pay(Long bookingId) throws InterruptedException {
+        timed(Operation.PROCESS_PAYMENT, () -> api.post("/api/payments/bookings/" + bookingId + "/process?userId=" + userId, null));
+    }
+
+    private void cancel(Long bookingId) throws InterruptedException {
+        timed(Operation.CANCEL_BOOKING, () -> api.delete("/api/bookings/" + bookingId + "/cancel?userId=" + userId));
+    }
+
+    /**
+     * Every client fights over the same few units, a winner cancels right away so the unit is contended again
+     */
+    private void bookHotUnit() throws InterruptedException {
+        if (hotUnitIds.isEmpty()) {
+            return;
+        }
+
+        val unitId = hotUnitIds.get(ThreadLocalRandom.current().nextInt(hotUnitIds.size()));
+        val response = timed(Operation.HOT_UNIT_BOOKING, () -> api.post("/api/bookings", Map.of("unitIds", Set.of(unitId), "userId", userId)));
+        if (response != null && response.ok()) {
+            cancel(response.id());
+        }
+    }
+
+    private ApiClient.Response timed(Operation operation, Call call) throws InterruptedException {
+        val start = System.nanoTime();
+        try {
+            val response = call.execute();
+            val elapsed = System.nanoTime() - start;
+            if (response.ok()) {
+                report.success(operation, elapsed);
+            } else {
+                report.failure(operation, elapsed, "HTTP " + response.status());
+            }
+            return response;
+        } catch (IOException e) {
+            report.failure(operation, System.nanoTime() - start, e.getClass().getSimpleName());
+            return null;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Call {
+        ApiClient.Response execute() throws IOException, InterruptedException;
+    }
+}
@@ -32,10 +32,10 @@ public class BookingSystemApplication implements CommandLineRunner {
     public void run(String... args) throws Exception {
         val random = new Random();
 
-        IntStream.rangeClosed(1, 90)
-                .forEach(index -> {
+        val units = IntStream.rangeClosed(1, 90)
+                .mapToObj(index -> {
                     val type = AccommodationType.values()[random.nextInt(AccommodationType.values().length)];
-                    val dto = new UnitCreateDto(
+                    return new UnitCreateDto(
                             random.nextInt(1, 5),
                             type,
                             random.nextInt(1, 11),
@@ -43,8 +43,9 @@ public class BookingSystemApplication implements CommandLineRunner {
                             LocalDate.now().minusYears(1).plusDays(index),
                             "Unit " + index + " - " + type + " with random features"
                     );
+                })
+                .toList();
 
-                    unitService.createUnit(dto);
-                });
+        unitService.createUnits(units);
     }
 }
\ No newline at end of file
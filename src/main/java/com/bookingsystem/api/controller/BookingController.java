@@ -1,8 +1,16 @@
 package com.bookingsystem.api.controller;
 
+import com.bookingsystem.api.dto.CursorPage;
+import com.bookingsystem.api.dto.BookingAllocateDto;
 import com.bookingsystem.api.dto.BookingCreateDto;
+import com.bookingsystem.api.dto.BookingResponseDto;
+import com.bookingsystem.api.dto.BookingTicketDto;
 import com.bookingsystem.api.dto.BookingUpdateDto;
-import com.bookingsystem.model.Booking;
+import com.bookingsystem.mapper.BookingMapper;
+import com.bookingsystem.service.BookingAdmission;
+import com.bookingsystem.service.BookingAllocator;
+import com.bookingsystem.service.IdempotentRequests;
+import com.bookingsystem.service.Pagination;
 import com.bookingsystem.service.BookingService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -11,7 +19,9 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.annotation.Nullable;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import lombok.val;
 import org.springframework.http.HttpStatus;
@@ -19,7 +29,12 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static com.bookingsystem.service.IdempotentRequests.IDEMPOTENCY_KEY;
+import static com.bookingsystem.service.IdempotentRequests.REPLAYED;
 
 @RestController
 @Validated
@@ -28,13 +43,21 @@ import java.util.List;
 @Tag(name = "Bookings", description = "Booking management endpoints")
 public class BookingController {
     private final BookingService bookingService;
+    private final BookingAllocator bookingAllocator;
+    private final BookingMapper bookingMapper;
+    private final Pagination pagination;
+    private final IdempotentRequests idempotentRequests;
+    private final BookingAdmission bookingAdmission;
 
     @PostMapping
     @Operation(
             summary = "Create a new booking",
             description = "Book one or more units for a user. Units are immediately marked as RESERVED. " +
                     "Payment must be completed within 15 minutes or the booking will be automatically cancelled. " +
-                    "Units become unavailable for other users immediately upon booking creation.",
+                    "Units become unavailable for other users immediately upon booking creation. " +
+                    "A retry with the same Idempotency-Key returns the first response instead of booking again. " +
+                    "When the admission queue is enabled, the request is queued and answered with 202 and a ticket " +
+                    "to poll at /api/bookings/tickets/{ticket}.",
             requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
                     description = "BookingCreateDto request",
                     required = true,
@@ -43,13 +66,90 @@ public class BookingController {
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Booking created successfully"),
-            @ApiResponse(responseCode = "400", description = "Invalid input or units not available"),
+            @ApiResponse(
+                    responseCode = "202",
+                    description = "Booking request queued",
+                    content = @Content(schema = @Schema(implementation = BookingTicketDto.class))
+            ),
+            @ApiResponse(responseCode = "400", description = "Invalid input, units not available or Idempotency-Key reused"),
             @ApiResponse(responseCode = "404", description = "User or units not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error"),
+            @ApiResponse(responseCode = "503", description = "Booking queue is full")
+    })
+    public ResponseEntity<?> createBooking(
+            @Parameter(description = "Client key of the request, retries with the same key are not booked twice")
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) @Nullable String idempotencyKey,
+            @Valid @RequestBody BookingCreateDto dto
+    ) {
+        if (bookingAdmission.isEnabled()) {
+            val ticket = idempotentRequests.execute(
+                    "booking-tickets",
+                    idempotencyKey,
+                    dto,
+                    BookingTicketDto.class,
+                    bookingAdmission.getTicketTtl(),
+                    () -> bookingAdmission.submit(dto)
+            );
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/bookings/tickets/" + ticket.response().ticket()))
+                    .header(REPLAYED, String.valueOf(ticket.replayed()))
+                    .body(ticket.response());
+        }
+
+        val outcome = idempotentRequests.execute(
+                "bookings",
+                idempotencyKey,
+                dto,
+                BookingResponseDto.class,
+                () -> bookingMapper.toDto(bookingService.createBooking(dto))
+        );
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header(REPLAYED, String.valueOf(outcome.replayed()))
+                .body(outcome.response());
+    }
+
+    @GetMapping("/tickets/{ticket}")
+    @Operation(
+            summary = "Get a queued booking request",
+            description = "Long-poll: waits up to waitSeconds, capped by the server, for the outcome of the request " +
+                    "and returns its current state when the wait is over. Tickets are kept for a while after their outcome"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Ticket state"),
+            @ApiResponse(responseCode = "404", description = "Ticket not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public CompletableFuture<ResponseEntity<BookingTicketDto>> getTicket(
+            @Parameter(description = "Ticket ID", required = true)
+            @PathVariable String ticket,
+
+            @Parameter(description = "Seconds to wait for the outcome, 0 returns right away")
+            @RequestParam(defaultValue = "0") @Min(0) long waitSeconds
+    ) {
+        return bookingAdmission.await(ticket, Duration.ofSeconds(waitSeconds)).thenApply(ResponseEntity::ok);
+    }
+
+    @PostMapping("/allocate")
+    @Operation(
+            summary = "Book any matching unit",
+            description = "Book the first free unit of the given type and number of rooms that also matches the " +
+                    "cost range and, when both dates are given, is free for the whole stay. " +
+                    "The booking follows the same rules as a booking of chosen units.",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "BookingAllocateDto request",
+                    required = true,
+                    content = @Content(schema = @Schema(implementation = BookingAllocateDto.class))
+            )
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Booking created successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid input"),
+            @ApiResponse(responseCode = "404", description = "User not found or no free unit matches the request"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<Booking> createBooking(@Valid @RequestBody BookingCreateDto dto) {
-        val booking = bookingService.createBooking(dto);
-        return ResponseEntity.status(HttpStatus.CREATED).body(booking);
+    public ResponseEntity<BookingResponseDto> allocateBooking(@Valid @RequestBody BookingAllocateDto dto) {
+        val booking = bookingAllocator.allocateBooking(dto);
+        return ResponseEntity.status(HttpStatus.CREATED).body(bookingMapper.toDto(booking));
     }
 
     @PutMapping("/{id}")
@@ -70,13 +170,13 @@ public class BookingController {
             @ApiResponse(responseCode = "404", description = "Booking not found"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<Booking> updateBooking(
+    public ResponseEntity<BookingResponseDto> updateBooking(
             @Parameter(description = "Booking ID", required = true)
             @PathVariable Long id,
             @Valid @RequestBody BookingUpdateDto dto
     ) {
         val booking = bookingService.updateBooking(id, dto);
-        return ResponseEntity.ok(booking);
+        return ResponseEntity.ok(bookingMapper.toDto(booking));
     }
 
     @DeleteMapping("/{id}/cancel")
@@ -115,25 +215,35 @@ public class BookingController {
             @ApiResponse(responseCode = "404", description = "Booking not found"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<Booking> getBookingById(
+    public ResponseEntity<BookingResponseDto> getBookingById(
             @Parameter(description = "Booking ID", required = true)
             @PathVariable Long id
     ) {
-        Booking booking = bookingService.getBookingById(id);
+        val booking = bookingService.getBookingDetails(id);
         return ResponseEntity.ok(booking);
     }
 
     @GetMapping
     @Operation(
             summary = "Get all bookings",
-            description = "Retrieve a list of all bookings in the system"
+            description = "Retrieve all bookings ordered by id, follow nextCursor to read the next page"
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Bookings retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<List<Booking>> getAllBookings() {
-        val bookings = bookingService.getAllBookings();
+    public ResponseEntity<CursorPage<BookingResponseDto>> getAllBookings(
+            @Parameter(description = "nextCursor of the previous page, omit for the first page")
+            @RequestParam(required = false) @Nullable String cursor,
+
+            @Parameter(description = "Page size, capped by the server")
+            @RequestParam(required = false) @Nullable Integer size,
+
+            @Parameter(description = "Also count all bookings, costs an extra query")
+            @RequestParam(defaultValue = "false") boolean withTotal
+    ) {
+        val bookings = bookingService.getAllBookings(pagination.byId(cursor, size, withTotal));
         return ResponseEntity.ok(bookings);
     }
 }
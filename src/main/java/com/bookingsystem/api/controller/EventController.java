@@ -1,23 +1,36 @@
 package com.bookingsystem.api.controller;
 
+import com.bookingsystem.api.dto.CursorPage;
+import com.bookingsystem.api.dto.EventFilter;
+import com.bookingsystem.api.dto.EventResponseDto;
+import com.bookingsystem.api.dto.TimeWindow;
 import com.bookingsystem.model.EntityType;
-import com.bookingsystem.model.Event;
+import com.bookingsystem.model.EventOperation;
 import com.bookingsystem.service.EventService;
+import com.bookingsystem.service.EventStream;
+import com.bookingsystem.service.Pagination;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.annotation.Nullable;
 import lombok.RequiredArgsConstructor;
 import lombok.val;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.List;
+import java.time.LocalDateTime;
+import java.util.Set;
 
 @RestController
 @Validated
@@ -27,19 +40,40 @@ import java.util.List;
 public class EventController {
 
     private final EventService eventService;
+    private final Pagination pagination;
+    private final EventStream eventStream;
 
     @GetMapping
     @Operation(
             summary = "Get all events",
-            description = "Retrieve the complete audit trail of all events in the system. " +
+            description = "Retrieve the audit trail of all events in the system ordered by id, follow nextCursor to read the next page. " +
+                    "Pass from and to to keep the query on the monthly partitions of that time range. " +
                     "Events track all important operations: create, update, delete for users, units, bookings, and payments."
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Events retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or time range"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<List<Event>> getAllEvents() {
-        val events = eventService.getAllEvents();
+    public ResponseEntity<CursorPage<EventResponseDto>> getAllEvents(
+            @Parameter(description = "Created at or after (inclusive), narrows the scan to the matching monthly partitions")
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            @RequestParam(required = false) @Nullable LocalDateTime from,
+
+            @Parameter(description = "Created before (exclusive)")
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            @RequestParam(required = false) @Nullable LocalDateTime to,
+
+            @Parameter(description = "nextCursor of the previous page, omit for the first page")
+            @RequestParam(required = false) @Nullable String cursor,
+
+            @Parameter(description = "Page size, capped by the server")
+            @RequestParam(required = false) @Nullable Integer size,
+
+            @Parameter(description = "Also count all events, costs an extra query")
+            @RequestParam(defaultValue = "false") boolean withTotal
+    ) {
+        val events = eventService.getAllEvents(new TimeWindow(from, to), pagination.byId(cursor, size, withTotal));
         return ResponseEntity.ok(events);
     }
 
@@ -50,14 +84,98 @@ public class EventController {
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Events retrieved successfully"),
-            @ApiResponse(responseCode = "400", description = "Invalid entity type"),
+            @ApiResponse(responseCode = "400", description = "Invalid entity type, cursor or time range"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<CursorPage<EventResponseDto>> getEventsByType(
+            @Parameter(description = "Entity type (USER, UNIT, BOOKING, PAYMENT)", required = true)
+            @PathVariable EntityType entityType,
+
+            @Parameter(description = "Created at or after (inclusive), narrows the scan to the matching monthly partitions")
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            @RequestParam(required = false) @Nullable LocalDateTime from,
+
+            @Parameter(description = "Created before (exclusive)")
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            @RequestParam(required = false) @Nullable LocalDateTime to,
+
+            @Parameter(description = "nextCursor of the previous page, omit for the first page")
+            @RequestParam(required = false) @Nullable String cursor,
+
+            @Parameter(description = "Page size, capped by the server")
+            @RequestParam(required = false) @Nullable Integer size,
+
+            @Parameter(description = "Also count all events of the type, costs an extra query")
+            @RequestParam(defaultValue = "false") boolean withTotal
+    ) {
+        val events = eventService.findByEntityType(entityType, new TimeWindow(from, to), pagination.byId(cursor, size, withTotal));
+        return ResponseEntity.ok(events);
+    }
+
+    @GetMapping("/type/{entityType}/{entityId}")
+    @Operation(
+            summary = "Get the history of an entity",
+            description = "Retrieve the events of a single user, unit, booking or payment ordered by id"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Events retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid entity type, cursor or time range"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<List<Event>> getEventsByType(
+    public ResponseEntity<CursorPage<EventResponseDto>> getEntityHistory(
             @Parameter(description = "Entity type (USER, UNIT, BOOKING, PAYMENT)", required = true)
-            @PathVariable EntityType entityType
+            @PathVariable EntityType entityType,
+
+            @Parameter(description = "Entity id", required = true)
+            @PathVariable Long entityId,
+
+            @Parameter(description = "Created at or after (inclusive), narrows the scan to the matching monthly partitions")
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            @RequestParam(required = false) @Nullable LocalDateTime from,
+
+            @Parameter(description = "Created before (exclusive)")
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            @RequestParam(required = false) @Nullable LocalDateTime to,
+
+            @Parameter(description = "nextCursor of the previous page, omit for the first page")
+            @RequestParam(required = false) @Nullable String cursor,
+
+            @Parameter(description = "Page size, capped by the server")
+            @RequestParam(required = false) @Nullable Integer size,
+
+            @Parameter(description = "Also count all events of the entity, costs an extra query")
+            @RequestParam(defaultValue = "false") boolean withTotal
     ) {
-        val events = eventService.findByEntityType(entityType);
+        val events = eventService.findByEntity(entityType, entityId, new TimeWindow(from, to), pagination.byId(cursor, size, withTotal));
         return ResponseEntity.ok(events);
     }
-}
\ No newline at end of file
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+            summary = "Stream events live",
+            description = "Server-sent events pushed as they commit, each with its event id. " +
+                    "Reconnect with Last-Event-ID (or after) to resume without gaps. " +
+                    "A subscriber that falls too far behind is disconnected or skips events, depending on the server overflow policy"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stream opened"),
+            @ApiResponse(responseCode = "400", description = "Invalid filter, or the stream is full or unavailable"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public SseEmitter streamEvents(
+            @Parameter(description = "Entity types to receive (USER, UNIT, BOOKING, PAYMENT), omit for all")
+            @RequestParam(required = false) @Nullable Set<EntityType> entityType,
+
+            @Parameter(description = "Operations to receive (CREATE, UPDATE, DELETE), omit for all")
+            @RequestParam(required = false) @Nullable Set<EventOperation> operation,
+
+            @Parameter(description = "Resume after this event id, the Last-Event-ID header takes precedence")
+            @RequestParam(required = false) @Nullable Long after,
+
+            @Parameter(hidden = true)
+            @RequestHeader(name = "Last-Event-ID", required = false) @Nullable Long lastEventId
+    ) {
+        val resumeAfter = lastEventId != null ? lastEventId : after;
+        return eventStream.subscribe(EventFilter.of(entityType, operation), resumeAfter);
+    }
+}
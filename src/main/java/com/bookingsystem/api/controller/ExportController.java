@@ -0,0 +1,170 @@
+package com.bookingsystem.api.controller;
+
+import com.bookingsystem.api.dto.TimeWindow;
+import com.bookingsystem.model.EntityType;
+import com.bookingsystem.service.ExportService;
+import com.bookingsystem.service.NdjsonWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.annotation.Nullable;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+import java.util.function.ToLongFunction;
+
+@Slf4j
+@RestController
+@Validated
+@RequestMapping("/api/export")
+@RequiredArgsConstructor
+@Tag(name = "Export", description = "Streaming NDJSON exports for reconciliation")
+public class ExportController {
+
+    private final ExportService exportService;
+    private final ObjectMapper objectMapper;
+
+    @GetMapping("/units")
+    @Operation(
+            summary = "Export all units",
+            description = "Stream every unit as one JSON document per line, ordered by id"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Export streamed successfully"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<StreamingResponseBody> exportUnits(
+            @Parameter(description = "Compress the stream with gzip")
+            @RequestParam(defaultValue = "false") boolean gzip
+    ) {
+        return export("units", gzip, writer -> exportService.exportUnits(writer::write));
+    }
+
+    @GetMapping("/bookings")
+    @Operation(
+            summary = "Export bookings",
+            description = "Stream bookings with their units as one JSON document per line, ordered by id"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Export streamed successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid time range"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<StreamingResponseBody> exportBookings(
+            @Parameter(description = "Created at or after (inclusive)")
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            @RequestParam(required = false) @Nullable LocalDateTime from,
+
+            @Parameter(description = "Created before (exclusive)")
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            @RequestParam(required = false) @Nullable LocalDateTime to,
+
+            @Parameter(description = "Compress the stream with gzip")
+            @RequestParam(defaultValue = "false") boolean gzip
+    ) {
+        val window = new TimeWindow(from, to);
+        return export("bookings", gzip, writer -> exportService.exportBookings(window, writer::write));
+    }
+
+    @GetMapping("/payments")
+    @Operation(
+            summary = "Export payments",
+            description = "Stream payments as one JSON document per line, ordered by id"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Export streamed successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid time range"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<StreamingResponseBody> exportPayments(
+            @Parameter(description = "Created at or after (inclusive)")
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            @RequestParam(required = false) @Nullable LocalDateTime from,
+
+            @Parameter(description = "Created before (exclusive)")
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            @RequestParam(required = false) @Nullable LocalDateTime to,
+
+            @Parameter(description = "Compress the stream with gzip")
+            @RequestParam(defaultValue = "false") boolean gzip
+    ) {
+        val window = new TimeWindow(from, to);
+        return export("payments", gzip, writer -> exportService.exportPayments(window, writer::write));
+    }
+
+    @GetMapping("/events")
+    @Operation(
+            summary = "Export events",
+            description = "Stream the audit trail as one JSON document per line, ordered by id"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Export streamed successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid entity type or time range"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<StreamingResponseBody> exportEvents(
+            @Parameter(description = "Entity type (USER, UNIT, BOOKING, PAYMENT), omit for all")
+            @RequestParam(required = false) @Nullable EntityType entityType,
+
+            @Parameter(description = "Created at or after (inclusive)")
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            @RequestParam(required = false) @Nullable LocalDateTime from,
+
+            @Parameter(description = "Created before (exclusive)")
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            @RequestParam(required = false) @Nullable LocalDateTime to,
+
+            @Parameter(description = "Compress the stream with gzip")
+            @RequestParam(defaultValue = "false") boolean gzip
+    ) {
+        val window = new TimeWindow(from, to);
+        return export("events", gzip, writer -> exportService.exportEvents(entityType, window, writer::write));
+    }
+
+    /**
+     * The export runs on the async request thread once the headers are sent, so a failure midway
+     * can only cut the stream short, it cannot turn into an error status anymore</br>
+     * The writer is aborted before the exception goes on, a gzip stream then lacks its trailer and fails to decompress
+     */
+    private ResponseEntity<StreamingResponseBody> export(String name, boolean gzip, ToLongFunction<NdjsonWriter> export) {
+        StreamingResponseBody body = out -> {
+            val writer = new NdjsonWriter(objectMapper, out, gzip);
+            final long exported;
+            try {
+                exported = export.applyAsLong(writer);
+            } catch (RuntimeException e) {
+                writer.abort();
+                throw e;
+            }
+            writer.close();
+            log.info("Exported {} {}", exported, name);
+        };
+
+        val response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(name + ".ndjson")
+                        .build()
+                        .toString());
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+}
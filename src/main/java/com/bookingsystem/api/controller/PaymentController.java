@@ -1,12 +1,16 @@
 package com.bookingsystem.api.controller;
 
+import com.bookingsystem.api.dto.CursorPage;
 import com.bookingsystem.api.dto.PaymentResponseDto;
+import com.bookingsystem.service.IdempotentRequests;
+import com.bookingsystem.service.Pagination;
 import com.bookingsystem.service.PaymentService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.annotation.Nullable;
 import lombok.RequiredArgsConstructor;
 import lombok.val;
 import org.springframework.http.ResponseEntity;
@@ -15,6 +19,9 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 
+import static com.bookingsystem.service.IdempotentRequests.IDEMPOTENCY_KEY;
+import static com.bookingsystem.service.IdempotentRequests.REPLAYED;
+
 @RestController
 @Validated
 @RequestMapping("/api/payments")
@@ -22,6 +29,8 @@ import java.util.List;
 @Tag(name = "Payments", description = "Payment processing endpoints")
 public class PaymentController {
     private final PaymentService paymentService;
+    private final Pagination pagination;
+    private final IdempotentRequests idempotentRequests;
 
     @PostMapping("/bookings/{bookingId}/process")
     @Operation(
@@ -31,11 +40,12 @@ public class PaymentController {
                     "After successful payment: " +
                     "- Payment status changes to COMPLETED " +
                     "- Units status changes from RESERVED to BOOKED " +
-                    "- Booking is confirmed and cannot be cancelled"
+                    "- Booking is confirmed and cannot be cancelled. " +
+                    "A retry with the same Idempotency-Key returns the first response instead of paying again."
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Payment processed successfully"),
-            @ApiResponse(responseCode = "400", description = "Payment already completed or expired"),
+            @ApiResponse(responseCode = "400", description = "Payment already completed or expired, or Idempotency-Key reused"),
             @ApiResponse(responseCode = "403", description = "Only booking owner can process payment"),
             @ApiResponse(responseCode = "404", description = "Booking or payment not found"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
@@ -45,10 +55,21 @@ public class PaymentController {
             @PathVariable Long bookingId,
 
             @Parameter(description = "User ID making the payment", required = true)
-            @RequestParam Long userId
+            @RequestParam Long userId,
+
+            @Parameter(description = "Client key of the request, retries with the same key are not processed twice")
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) @Nullable String idempotencyKey
     ) {
-        val payment = paymentService.processPayment(bookingId, userId);
-        return ResponseEntity.ok(payment);
+        val outcome = idempotentRequests.execute(
+                "payments",
+                idempotencyKey,
+                List.of(bookingId, userId),
+                PaymentResponseDto.class,
+                () -> paymentService.processPayment(bookingId, userId)
+        );
+        return ResponseEntity.ok()
+                .header(REPLAYED, String.valueOf(outcome.replayed()))
+                .body(outcome.response());
     }
 
     @GetMapping("/{id}")
@@ -72,14 +93,24 @@ public class PaymentController {
     @GetMapping
     @Operation(
             summary = "Get all payments",
-            description = "Retrieve a list of all payments in the system"
+            description = "Retrieve all payments ordered by id, follow nextCursor to read the next page"
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Payments retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<List<PaymentResponseDto>> getAllPayments() {
-        val payments = paymentService.getAllPayments();
+    public ResponseEntity<CursorPage<PaymentResponseDto>> getAllPayments(
+            @Parameter(description = "nextCursor of the previous page, omit for the first page")
+            @RequestParam(required = false) @Nullable String cursor,
+
+            @Parameter(description = "Page size, capped by the server")
+            @RequestParam(required = false) @Nullable Integer size,
+
+            @Parameter(description = "Also count all payments, costs an extra query")
+            @RequestParam(defaultValue = "false") boolean withTotal
+    ) {
+        val payments = paymentService.getAllPayments(pagination.byId(cursor, size, withTotal));
         return ResponseEntity.ok(payments);
     }
 }
\ No newline at end of file
@@ -20,7 +20,7 @@ public class StatisticsController {
     @GetMapping("/count/available")
     @Operation(
             summary = "Get count of available units",
-            description = "Get the total number of units available for booking (cached for performance)"
+            description = "Get the total number of units available for booking (served from a counter maintained on every status change)"
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Count retrieved successfully"),
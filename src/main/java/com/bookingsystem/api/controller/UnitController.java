@@ -1,9 +1,14 @@
 package com.bookingsystem.api.controller;
 
+import com.bookingsystem.api.dto.CursorPage;
 import com.bookingsystem.api.dto.UnitCreateDto;
+import com.bookingsystem.api.dto.UnitResponseDto;
+import com.bookingsystem.api.dto.UnitSearchCriteria;
+import com.bookingsystem.api.dto.UnitSortKey;
 import com.bookingsystem.api.dto.UnitUpdateDto;
+import com.bookingsystem.mapper.UnitMapper;
 import com.bookingsystem.model.AccommodationType;
-import com.bookingsystem.model.Unit;
+import com.bookingsystem.service.Pagination;
 import com.bookingsystem.service.UnitService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -16,8 +21,7 @@ import jakarta.annotation.Nullable;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.val;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -25,7 +29,6 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
-import java.util.List;
 
 @RestController
 @Validated
@@ -35,6 +38,8 @@ import java.util.List;
 public class UnitController {
 
     private final UnitService unitService;
+    private final UnitMapper unitMapper;
+    private final Pagination pagination;
 
     @PostMapping
     @Operation(
@@ -52,9 +57,9 @@ public class UnitController {
             @ApiResponse(responseCode = "400", description = "Invalid input"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<Unit> createUnit(@Valid @RequestBody UnitCreateDto dto) {
+    public ResponseEntity<UnitResponseDto> createUnit(@Valid @RequestBody UnitCreateDto dto) {
         val unit = unitService.createUnit(dto);
-        return ResponseEntity.status(HttpStatus.CREATED).body(unit);
+        return ResponseEntity.status(HttpStatus.CREATED).body(unitMapper.toDto(unit));
     }
 
     @PutMapping("/{id}")
@@ -73,13 +78,13 @@ public class UnitController {
             @ApiResponse(responseCode = "400", description = "Invalid input"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<Unit> updateUnit(
+    public ResponseEntity<UnitResponseDto> updateUnit(
             @Parameter(description = "Unit ID", required = true)
             @PathVariable Long id,
             @Valid @RequestBody UnitUpdateDto dto
     ) {
         val unit = unitService.updateUnit(id, dto);
-        return ResponseEntity.ok(unit);
+        return ResponseEntity.ok(unitMapper.toDto(unit));
     }
 
     @GetMapping("/{id}")
@@ -92,40 +97,52 @@ public class UnitController {
             @ApiResponse(responseCode = "404", description = "Unit not found"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<Unit> getUnitById(
+    public ResponseEntity<UnitResponseDto> getUnitById(
             @Parameter(description = "Unit ID", required = true)
             @PathVariable Long id
     ) {
         val unit = unitService.getUnitById(id);
-        return ResponseEntity.ok(unit);
+        return ResponseEntity.ok(unitMapper.toDto(unit));
     }
 
     @GetMapping("/all")
     @Operation(
-            summary = "Get all units (no pagination)",
-            description = "Retrieve a complete list of all units without pagination"
+            summary = "Get all units page by page",
+            description = "Retrieve all units ordered by id, follow nextCursor to read the next page"
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Units retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<List<Unit>> getAllUnitsList() {
-        val units = unitService.getAllUnits();
+    public ResponseEntity<CursorPage<UnitResponseDto>> getAllUnitsList(
+            @Parameter(description = "nextCursor of the previous page, omit for the first page")
+            @RequestParam(required = false) @Nullable String cursor,
+
+            @Parameter(description = "Page size, capped by the server")
+            @RequestParam(required = false) @Nullable Integer size,
+
+            @Parameter(description = "Also count all units, costs an extra query")
+            @RequestParam(defaultValue = "false") boolean withTotal
+    ) {
+        val units = unitService.getAllUnits(pagination.byId(cursor, size, withTotal));
         return ResponseEntity.ok(units);
     }
 
     @GetMapping("/search")
     @Operation(
             summary = "Search units by criteria with pagination",
-            description = "Search for units based on number of rooms, accommodation type, and cost range. " +
-                    "All parameters are optional - omit to get all units."
+            description = "Search for units based on number of rooms, accommodation type, cost range " +
+                    "and the nights they are free for (checkIn, checkOut). " +
+                    "All parameters are optional - omit to get all units. " +
+                    "Results are ordered by the sort key and id, follow nextCursor to read the next page."
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Search completed successfully"),
             @ApiResponse(responseCode = "400", description = "Invalid search parameters"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<Page<Unit>> searchUnits(
+    public ResponseEntity<CursorPage<UnitResponseDto>> searchUnits(
             @Parameter(description = "Number of rooms (exact match)")
             @RequestParam(required = false) @Nullable Integer numberOfRooms,
 
@@ -146,10 +163,32 @@ public class UnitController {
             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
             @RequestParam(required = false) @Nullable LocalDate to,
 
-            @Parameter(description = "Page number")
-            @RequestParam(required = false) @Nullable Pageable pageable
+            @Parameter(description = "Free from this night (inclusive), requires checkOut")
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            @RequestParam(required = false) @Nullable LocalDate checkIn,
+
+            @Parameter(description = "Free until this check-out day (exclusive), requires checkIn")
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            @RequestParam(required = false) @Nullable LocalDate checkOut,
+
+            @Parameter(description = "Sort key (ID, NUMBER_OF_ROOMS, TOTAL_COST)")
+            @RequestParam(defaultValue = "ID") UnitSortKey sort,
+
+            @Parameter(description = "Sort direction (ASC, DESC)")
+            @RequestParam(defaultValue = "ASC") Sort.Direction direction,
+
+            @Parameter(description = "nextCursor of the previous page, omit for the first page")
+            @RequestParam(required = false) @Nullable String cursor,
+
+            @Parameter(description = "Page size, capped by the server")
+            @RequestParam(required = false) @Nullable Integer size,
+
+            @Parameter(description = "Also count all matching units")
+            @RequestParam(defaultValue = "false") boolean withTotal
     ) {
-        val units = unitService.searchUnits(numberOfRooms, type, minCost, maxCost, from, to, pageable);
+        val criteria = new UnitSearchCriteria(numberOfRooms, type, minCost, maxCost, from, to, checkIn, checkOut);
+        val request = pagination.request(sort.sortName(direction), cursor, size, withTotal);
+        val units = unitService.searchUnits(criteria, sort, direction, request);
         return ResponseEntity.ok(units);
     }
 
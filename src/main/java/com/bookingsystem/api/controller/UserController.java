@@ -1,14 +1,19 @@
 package com.bookingsystem.api.controller;
 
+import com.bookingsystem.api.dto.CursorPage;
 import com.bookingsystem.api.dto.UserCreateDto;
+import com.bookingsystem.api.dto.UserResponseDto;
 import com.bookingsystem.api.dto.UserUpdateDto;
+import com.bookingsystem.mapper.UserMapper;
 import com.bookingsystem.model.User;
+import com.bookingsystem.service.Pagination;
 import com.bookingsystem.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.annotation.Nullable;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -16,8 +21,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @Validated
 @RequestMapping("/api/users")
@@ -26,6 +29,8 @@ import java.util.List;
 public class UserController {
 
     private final UserService userService;
+    private final UserMapper userMapper;
+    private final Pagination pagination;
 
     @PostMapping
     @Operation(
@@ -37,9 +42,9 @@ public class UserController {
             @ApiResponse(responseCode = "400", description = "Invalid input"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<User> createUser(@Valid @RequestBody UserCreateDto dto) {
+    public ResponseEntity<UserResponseDto> createUser(@Valid @RequestBody UserCreateDto dto) {
         User user = userService.createUser(dto);
-        return ResponseEntity.status(HttpStatus.CREATED).body(user);
+        return ResponseEntity.status(HttpStatus.CREATED).body(userMapper.toDto(user));
     }
 
     @PutMapping("/{id}")
@@ -53,13 +58,13 @@ public class UserController {
             @ApiResponse(responseCode = "400", description = "Invalid input"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<User> updateUser(
+    public ResponseEntity<UserResponseDto> updateUser(
             @Parameter(description = "User ID", required = true)
             @PathVariable Long id,
             @Valid @RequestBody UserUpdateDto dto
     ) {
         User user = userService.updateUser(id, dto);
-        return ResponseEntity.ok(user);
+        return ResponseEntity.ok(userMapper.toDto(user));
     }
 
     @GetMapping("/{id}")
@@ -72,25 +77,35 @@ public class UserController {
             @ApiResponse(responseCode = "404", description = "User not found"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<User> getUserById(
+    public ResponseEntity<UserResponseDto> getUserById(
             @Parameter(description = "User ID", required = true)
             @PathVariable Long id
     ) {
-        User user = userService.getUserById(id);
+        UserResponseDto user = userService.getUserById(id);
         return ResponseEntity.ok(user);
     }
 
     @GetMapping
     @Operation(
             summary = "Get all users",
-            description = "Retrieve a list of all users in the system"
+            description = "Retrieve all users ordered by id, follow nextCursor to read the next page"
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Users retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<List<User>> getAllUsers() {
-        List<User> users = userService.getAllUsers();
+    public ResponseEntity<CursorPage<UserResponseDto>> getAllUsers(
+            @Parameter(description = "nextCursor of the previous page, omit for the first page")
+            @RequestParam(required = false) @Nullable String cursor,
+
+            @Parameter(description = "Page size, capped by the server")
+            @RequestParam(required = false) @Nullable Integer size,
+
+            @Parameter(description = "Also count all users, costs an extra query")
+            @RequestParam(defaultValue = "false") boolean withTotal
+    ) {
+        CursorPage<UserResponseDto> users = userService.getAllUsers(pagination.byId(cursor, size, withTotal));
         return ResponseEntity.ok(users);
     }
 
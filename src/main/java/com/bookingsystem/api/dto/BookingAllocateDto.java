@@ -0,0 +1,66 @@
+package com.bookingsystem.api.dto;
+
+import com.bookingsystem.model.AccommodationType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.annotation.Nullable;
+import jakarta.validation.constraints.FutureOrPresent;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDate;
+
+@Schema(description = "DTO for booking any free unit that matches the criteria")
+public record BookingAllocateDto(
+        @Schema(
+                description = "ID of the user making the booking",
+                example = "5",
+                requiredMode = Schema.RequiredMode.REQUIRED
+        )
+        @NotNull(message = "User ID is required")
+        Long userId,
+
+        @Schema(
+                description = "Type of accommodation",
+                example = "FLAT",
+                requiredMode = Schema.RequiredMode.REQUIRED
+        )
+        @NotNull(message = "Accommodation type is required")
+        AccommodationType type,
+
+        @Schema(
+                description = "Number of rooms in the unit",
+                example = "2",
+                requiredMode = Schema.RequiredMode.REQUIRED
+        )
+        @NotNull(message = "Number of rooms is required")
+        @Min(value = 1, message = "Number of rooms must be at least 1")
+        @Max(value = 10, message = "Number of rooms cannot exceed 10")
+        Integer numberOfRooms,
+
+        @Schema(description = "Minimum total cost (inclusive)", example = "100.0", requiredMode = Schema.RequiredMode.NOT_REQUIRED)
+        @Nullable
+        Double minCost,
+
+        @Schema(description = "Maximum total cost (inclusive)", example = "200.0", requiredMode = Schema.RequiredMode.NOT_REQUIRED)
+        @Nullable
+        Double maxCost,
+
+        @Schema(
+                description = "First night of the stay. If null together with checkOut, a unit is booked as a whole",
+                example = "2025-10-20",
+                requiredMode = Schema.RequiredMode.NOT_REQUIRED
+        )
+        @Nullable
+        @FutureOrPresent(message = "Check-in cannot be in the past")
+        LocalDate checkIn,
+
+        @Schema(description = "Check-out day of the stay", example = "2025-10-23", requiredMode = Schema.RequiredMode.NOT_REQUIRED)
+        @Nullable
+        LocalDate checkOut
+) {
+
+    public boolean isStay() {
+        return checkIn != null && checkOut != null;
+    }
+}
@@ -1,9 +1,12 @@
 package com.bookingsystem.api.dto;
 
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.annotation.Nullable;
+import jakarta.validation.constraints.FutureOrPresent;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 
+import java.time.LocalDate;
 import java.util.Set;
 
 @Schema(description = "DTO for creating a new booking")
@@ -23,6 +26,23 @@ public record BookingCreateDto(
                 requiredMode = Schema.RequiredMode.REQUIRED
         )
         @NotNull(message = "User ID is required")
-        Long userId
+        Long userId,
+
+        @Schema(
+                description = "First night of the stay. If null together with checkOut, the units are booked as a whole",
+                example = "2025-10-20",
+                requiredMode = Schema.RequiredMode.NOT_REQUIRED
+        )
+        @Nullable
+        @FutureOrPresent(message = "Check-in cannot be in the past")
+        LocalDate checkIn,
+
+        @Schema(
+                description = "Check-out day, the night before it is the last night of the stay",
+                example = "2025-10-23",
+                requiredMode = Schema.RequiredMode.NOT_REQUIRED
+        )
+        @Nullable
+        LocalDate checkOut
 ) {
 }
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.bookingsystem.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.annotation.Nullable;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Schema(description = "Response DTO for booking information")
+public record BookingResponseDto(
+        @Schema(description = "Booking ID", example = "1")
+        Long id,
+
+        @Schema(description = "ID of the user who made the booking", example = "5")
+        Long userId,
+
+        @Schema(description = "Booked units")
+        List<UnitResponseDto> units,
+
+        @Schema(description = "Booking creation timestamp", example = "2025-10-18T08:00:00")
+        LocalDateTime createdAt,
+
+        @Schema(description = "First night of the stay, null when the units are booked as a whole", example = "2025-10-20")
+        @Nullable
+        LocalDate checkIn,
+
+        @Schema(description = "Check-out day of the stay", example = "2025-10-23")
+        @Nullable
+        LocalDate checkOut
+) {
+}
@@ -0,0 +1,30 @@
+package com.bookingsystem.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.annotation.Nullable;
+
+@Schema(description = "Queued booking request and its outcome")
+public record BookingTicketDto(
+        @Schema(description = "Ticket ID", example = "0b7e6d52-93c4-4f0e-a8a1-5d2f3c9e1b47")
+        String ticket,
+
+        @Schema(description = "Where the request is", example = "QUEUED")
+        Status status,
+
+        @Schema(description = "Requests ahead in the queue while QUEUED", example = "42")
+        @Nullable
+        Long position,
+
+        @Schema(description = "The booking once COMPLETED")
+        @Nullable
+        BookingResponseDto booking,
+
+        @Schema(description = "Why the booking was not made once FAILED", example = "Units are not available: 3")
+        @Nullable
+        String error
+) {
+
+    public enum Status {
+        QUEUED, PROCESSING, COMPLETED, FAILED
+    }
+}
@@ -0,0 +1,42 @@
+package com.bookingsystem.api.dto;
+
+import lombok.val;
+
+import java.util.Base64;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Position of the last item of a page: the sort it was produced by, its sort key and its id</br>
+ * The id breaks ties between equal keys, so the next page starts strictly after (key, id)</br>
+ * Travels as an opaque url-safe token, clients are not meant to build or read it
+ */
+public record Cursor(String sort, double key, long id) {
+    public static final String BY_ID = "id";
+
+    private static final String SEPARATOR = ":";
+
+    public static Cursor byId(long id) {
+        return new Cursor(BY_ID, 0, id);
+    }
+
+    public String encode() {
+        val raw = sort + SEPARATOR + key + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException when the token was not produced by {@link #encode()}
+     */
+    public static Cursor decode(String token) {
+        try {
+            val parts = new String(Base64.getUrlDecoder().decode(token), UTF_8).split(SEPARATOR, -1);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException();
+            }
+            return new Cursor(parts[0], Double.parseDouble(parts[1]), Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+    }
+}
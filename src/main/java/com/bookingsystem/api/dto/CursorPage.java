@@ -0,0 +1,27 @@
+package com.bookingsystem.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.annotation.Nullable;
+
+import java.util.List;
+import java.util.function.Function;
+
+@Schema(description = "One page of a keyset paginated list")
+public record CursorPage<T>(
+        @Schema(description = "Items of this page in sort order")
+        List<T> items,
+
+        @Schema(description = "Opaque token to pass as the cursor parameter for the next page, absent on the last page",
+                example = "aWQ6MC4wOjIw")
+        @Nullable
+        String nextCursor,
+
+        @Schema(description = "Number of items across all pages, only present when requested with withTotal", example = "240")
+        @Nullable
+        Long total
+) {
+
+    public <R> CursorPage<R> map(Function<? super T, ? extends R> mapper) {
+        return new CursorPage<>(items.stream().<R>map(mapper).toList(), nextCursor, total);
+    }
+}
@@ -0,0 +1,46 @@
+package com.bookingsystem.api.dto;
+
+import jakarta.annotation.Nullable;
+import lombok.val;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Resolved page request: one row more than the page size is fetched to tell whether there is a next page</br>
+ * {@code after} is empty for the first page
+ */
+public record CursorRequest(String sort, @Nullable Cursor after, int size, boolean withTotal) {
+
+    public static CursorRequest first(String sort, int size) {
+        return new CursorRequest(sort, null, size, false);
+    }
+
+    public Limit limit() {
+        return Limit.of(size + 1);
+    }
+
+    /**
+     * Id of the last item of the previous page, ids start at 1 so 0 reads the first page
+     */
+    public long afterId() {
+        return after == null ? 0 : after.id();
+    }
+
+    /**
+     * @param rows     up to {@link #limit()} rows in sort order
+     * @param cursorOf position of a row, becomes the next cursor when there are more rows than the page size
+     * @param total    only called when the total was requested
+     */
+    public <T> CursorPage<T> page(List<T> rows, Function<T, Cursor> cursorOf, LongSupplier total) {
+        val hasNext = rows.size() > size;
+        val items = hasNext ? rows.subList(0, size) : rows;
+        return new CursorPage<>(
+                List.copyOf(items),
+                hasNext ? cursorOf.apply(items.getLast()).encode() : null,
+                withTotal ? total.getAsLong() : null
+        );
+    }
+}
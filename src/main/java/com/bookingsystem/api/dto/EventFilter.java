@@ -0,0 +1,26 @@
+package com.bookingsystem.api.dto;
+
+import com.bookingsystem.model.EntityType;
+import com.bookingsystem.model.EventOperation;
+import jakarta.annotation.Nullable;
+
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Entity types and operations a live event subscriber wants, an empty set lets everything through
+ */
+public record EventFilter(Set<EntityType> entityTypes, Set<EventOperation> operations) {
+
+    public static EventFilter of(@Nullable Set<EntityType> entityTypes, @Nullable Set<EventOperation> operations) {
+        return new EventFilter(
+                Optional.ofNullable(entityTypes).map(Set::copyOf).orElse(Set.of()),
+                Optional.ofNullable(operations).map(Set::copyOf).orElse(Set.of())
+        );
+    }
+
+    public boolean matches(EventResponseDto event) {
+        return (entityTypes.isEmpty() || entityTypes.contains(event.entityType()))
+                && (operations.isEmpty() || operations.contains(event.eventOperation()));
+    }
+}
@@ -0,0 +1,52 @@
+package com.bookingsystem.api.dto;
+
+import com.bookingsystem.model.EntityType;
+import com.bookingsystem.model.EventOperation;
+import com.bookingsystem.model.EventTemplate;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.annotation.Nullable;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+@Schema(description = "Response DTO for audit events")
+public record EventResponseDto(
+        @Schema(description = "Event ID", example = "1")
+        Long id,
+
+        @Schema(description = "Type of the affected entity", example = "BOOKING")
+        EntityType entityType,
+
+        @Schema(description = "Operation performed on the entity", example = "CREATE")
+        EventOperation eventOperation,
+
+        @Schema(description = "ID of the affected entity", example = "5")
+        Long entityId,
+
+        @Schema(description = "Event template, absent on events recorded before templates", example = "BOOKING_CREATED")
+        @Nullable EventTemplate template,
+
+        @Schema(description = "Template arguments", example = "{\"userId\": 2, \"units\": 3}")
+        @Nullable Map<String, Object> payload,
+
+        @JsonIgnore
+        @Nullable String storedDescription,
+
+        @Schema(description = "Event timestamp", example = "2025-10-18T08:00:00")
+        LocalDateTime createdAt
+) {
+
+    /**
+     * Rendered from the template only when the event is serialized, events recorded before templates keep their stored text
+     */
+    @JsonProperty("description")
+    @Schema(description = "Event description", example = "Booking created: 5 (user 2, 3 units)")
+    public String description() {
+        return template == null
+                ? storedDescription
+                : template.render(entityId, Optional.ofNullable(payload).orElse(Map.of()));
+    }
+}
@@ -0,0 +1,27 @@
+package com.bookingsystem.api.dto;
+
+import jakarta.annotation.Nullable;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Creation time window of a query or export, {@code from} is inclusive and {@code to} exclusive, both are optional</br>
+ * Open ends are replaced by fixed bounds, so the window can always be bound as a range and prune partitions at run time
+ */
+public record TimeWindow(@Nullable LocalDateTime from, @Nullable LocalDateTime to) {
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    public static TimeWindow unbounded() {
+        return new TimeWindow(null, null);
+    }
+
+    public LocalDateTime fromOrEarliest() {
+        return Optional.ofNullable(from).orElse(EARLIEST);
+    }
+
+    public LocalDateTime toOrLatest() {
+        return Optional.ofNullable(to).orElse(LATEST);
+    }
+}
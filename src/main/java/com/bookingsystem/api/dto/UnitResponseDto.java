@@ -0,0 +1,41 @@
+package com.bookingsystem.api.dto;
+
+import com.bookingsystem.model.AccommodationType;
+import com.bookingsystem.model.BookingStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDate;
+
+@Schema(description = "Response DTO for accommodation unit information")
+public record UnitResponseDto(
+        @Schema(description = "Unit ID", example = "1")
+        Long id,
+
+        @Schema(description = "Number of rooms in the unit", example = "2")
+        int numberOfRooms,
+
+        @Schema(description = "Type of accommodation", example = "APARTMENT")
+        AccommodationType type,
+
+        @Schema(description = "Booking status of the unit", example = "AVAILABLE")
+        BookingStatus status,
+
+        @Schema(description = "Floor number where the unit is located", example = "3")
+        int floor,
+
+        @Schema(description = "Booking date of the unit", example = "2025-10-20")
+        LocalDate bookingDate,
+
+        @Schema(description = "Optimistic locking version", example = "0")
+        int version,
+
+        @Schema(description = "Base cost per night including the system markup", example = "172.50")
+        double baseCost,
+
+        @Schema(description = "Total cost per night", example = "198.38")
+        double totalCost,
+
+        @Schema(description = "Description of the unit", example = "Spacious 2-bedroom apartment with ocean view")
+        String description
+) {
+}
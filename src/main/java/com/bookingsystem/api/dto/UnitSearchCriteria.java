@@ -0,0 +1,39 @@
+package com.bookingsystem.api.dto;
+
+import com.bookingsystem.model.AccommodationType;
+import jakarta.annotation.Nullable;
+
+import java.time.LocalDate;
+
+/**
+ * Unit search filters, every one is optional and only AVAILABLE units are ever matched</br>
+ * from and to bound the booking date, checkIn and checkOut keep the units that are free every night of that stay
+ */
+public record UnitSearchCriteria(
+        @Nullable Integer numberOfRooms,
+        @Nullable AccommodationType type,
+        @Nullable Double minCost,
+        @Nullable Double maxCost,
+        @Nullable LocalDate from,
+        @Nullable LocalDate to,
+        @Nullable LocalDate checkIn,
+        @Nullable LocalDate checkOut
+) {
+
+    public UnitSearchCriteria {
+        if ((checkIn == null) != (checkOut == null)) {
+            throw new IllegalArgumentException("Check-in and check-out must be given together");
+        }
+        if (checkIn != null && !checkOut.isAfter(checkIn)) {
+            throw new IllegalArgumentException("Check-out must be after check-in");
+        }
+    }
+
+    public static UnitSearchCriteria any() {
+        return new UnitSearchCriteria(null, null, null, null, null, null, null, null);
+    }
+
+    public boolean hasStay() {
+        return checkIn != null && checkOut != null;
+    }
+}
@@ -0,0 +1,34 @@
+package com.bookingsystem.api.dto;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Keys unit search results can be ordered by, the unit id always breaks ties</br>
+ * Only non-null numeric columns, so a (key, id) cursor is a strict position in the order
+ */
+@Getter
+@RequiredArgsConstructor
+public enum UnitSortKey {
+    ID("id"),
+    NUMBER_OF_ROOMS("numberOfRooms"),
+    TOTAL_COST("totalCost");
+
+    private final String property;
+
+    public double keyOf(UnitResponseDto unit) {
+        return switch (this) {
+            case ID -> 0;
+            case NUMBER_OF_ROOMS -> unit.numberOfRooms();
+            case TOTAL_COST -> unit.totalCost();
+        };
+    }
+
+    /**
+     * Sort name carried in the cursor, a cursor only continues the order it was produced by
+     */
+    public String sortName(Sort.Direction direction) {
+        return property + "," + direction.name().toLowerCase();
+    }
+}
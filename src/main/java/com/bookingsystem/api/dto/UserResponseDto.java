@@ -0,0 +1,21 @@
+package com.bookingsystem.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Response DTO for user information")
+public record UserResponseDto(
+        @Schema(description = "User ID", example = "1")
+        Long id,
+
+        @Schema(description = "Username", example = "john_doe")
+        String username,
+
+        @Schema(description = "Email address", example = "john.doe@example.com")
+        String email,
+
+        @Schema(description = "Bookings of the user")
+        List<BookingResponseDto> bookings
+) {
+}
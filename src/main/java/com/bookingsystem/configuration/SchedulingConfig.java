@@ -0,0 +1,34 @@
+package com.bookingsystem.configuration;
+
+import com.bookingsystem.properties.PaymentExpiryProperties;
+import lombok.val;
+import org.springframework.boot.task.ThreadPoolTaskSchedulerBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+@Configuration
+public class SchedulingConfig {
+    public static final String PAYMENT_DEADLINE_TIMERS = "paymentDeadlineTimers";
+
+    /**
+     * Runs the @Scheduled jobs, declared here since any other TaskScheduler bean turns the auto-configured one off
+     */
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler(ThreadPoolTaskSchedulerBuilder builder) {
+        return builder.build();
+    }
+
+    /**
+     * Fires the payment deadline timers, a burst of deadlines never holds up the scheduled jobs
+     */
+    @Bean(PAYMENT_DEADLINE_TIMERS)
+    public ThreadPoolTaskScheduler paymentDeadlineTimers(PaymentExpiryProperties paymentExpiryProperties) {
+        val scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(paymentExpiryProperties.getDeadlinePoolSize());
+        scheduler.setThreadNamePrefix("payment-deadline-");
+        // disarmed timers leave the delay queue right away instead of at their deadline
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+}
@@ -0,0 +1,155 @@
+package com.bookingsystem.configuration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.val;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Read-through cache with a bounded in-process Caffeine L1 in front of a shared Redis L2</br>
+ * Reads try L1, then L2 (promoting the entry to L1), then load</br>
+ * Writes go to both levels, evictions are also announced to the other nodes so they drop their L1 copy</br>
+ * Every eviction bumps an invalidation epoch for its key (striped by hash). A load that saw the epoch move while it ran
+ * takes its value back out of Redis, so a value read before an update cannot outlive the eviction of that update.
+ * L1 needs no check, Caffeine makes an invalidation of a key wait for a running load of that key
+ */
+public class TwoLevelCache extends AbstractValueAdaptingCache {
+    private static final int EPOCH_STRIPES = 256;
+
+    private final String name;
+    private final Cache<Object, Object> local;
+    private final org.springframework.cache.Cache redis;
+    private final Consumer<Object> invalidation;
+    private final Counter redisHits;
+    private final Counter redisMisses;
+    private final AtomicLongArray epochs = new AtomicLongArray(EPOCH_STRIPES);
+
+    TwoLevelCache(
+            String name,
+            Cache<Object, Object> local,
+            org.springframework.cache.Cache redis,
+            Consumer<Object> invalidation,
+            MeterRegistry meterRegistry
+    ) {
+        super(true);
+        this.name = name;
+        this.local = local;
+        this.redis = redis;
+        this.invalidation = invalidation;
+        this.redisHits = redisCounter(meterRegistry, name, "hit");
+        this.redisMisses = redisCounter(meterRegistry, name, "miss");
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        val cached = local.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        val shared = redis.get(key);
+        if (shared == null) {
+            redisMisses.increment();
+            return null;
+        }
+        redisHits.increment();
+        val value = toStoreValue(shared.get());
+        local.put(key, value);
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return (T) fromStoreValue(local.get(key, k -> {
+            val shared = redis.get(k);
+            if (shared != null) {
+                redisHits.increment();
+                return toStoreValue(shared.get());
+            }
+            redisMisses.increment();
+            val epoch = epochs.get(stripe(k));
+            try {
+                val loaded = valueLoader.call();
+                if (loaded != null) {
+                    redis.put(k, loaded);
+                    if (epochs.get(stripe(k)) != epoch) {
+                        redis.evict(k);
+                    }
+                }
+                return toStoreValue(loaded);
+            } catch (Exception e) {
+                throw new ValueRetrievalException(k, valueLoader, e);
+            }
+        }));
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value != null) {
+            redis.put(key, value);
+        }
+        local.put(key, toStoreValue(value));
+    }
+
+    @Override
+    public void evict(Object key) {
+        epochs.incrementAndGet(stripe(key));
+        redis.evict(key);
+        local.invalidate(key);
+        invalidation.accept(key);
+    }
+
+    @Override
+    public void clear() {
+        bumpAllEpochs();
+        redis.clear();
+        local.invalidateAll();
+        invalidation.accept(null);
+    }
+
+    /**
+     * Another node changed the entry, only the local copy is dropped
+     */
+    void evictLocal(Object key) {
+        if (key == null) {
+            bumpAllEpochs();
+            local.invalidateAll();
+        } else {
+            epochs.incrementAndGet(stripe(key));
+            local.invalidate(key);
+        }
+    }
+
+    private void bumpAllEpochs() {
+        for (int i = 0; i < EPOCH_STRIPES; i++) {
+            epochs.incrementAndGet(i);
+        }
+    }
+
+    private static int stripe(Object key) {
+        return Math.floorMod(key.hashCode(), EPOCH_STRIPES);
+    }
+
+    private static Counter redisCounter(MeterRegistry meterRegistry, String name, String result) {
+        return Counter.builder("cache.redis.gets")
+                .description("Lookups that reached the Redis level of a two-level cache")
+                .tag("cache", name)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
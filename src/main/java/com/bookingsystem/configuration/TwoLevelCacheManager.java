@@ -0,0 +1,111 @@
+package com.bookingsystem.configuration;
+
+import com.bookingsystem.properties.CacheProperties;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Creates a {@link TwoLevelCache} per cache name on top of the Redis cache manager</br>
+ * Invalidations are published as "cache|node|key" on the invalidation channel, see {@link #onInvalidation}</br>
+ * Caches are transaction aware: puts and evictions inside a transaction are applied after it commits
+ */
+@Slf4j
+public class TwoLevelCacheManager implements CacheManager {
+    private static final String ALL_KEYS = "*";
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final RedisCacheManager redisCacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final CacheProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+    private final Map<String, Cache> decorated = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(
+            RedisCacheManager redisCacheManager,
+            StringRedisTemplate redisTemplate,
+            CacheProperties properties,
+            MeterRegistry meterRegistry
+    ) {
+        this.redisCacheManager = redisCacheManager;
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return decorated.computeIfAbsent(name, key -> new TransactionAwareCacheDecorator(create(key)));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return decorated.keySet();
+    }
+
+    /**
+     * Drops the L1 entry named by an invalidation message, messages sent by this node are ignored
+     */
+    public void onInvalidation(String message) {
+        val parts = message.split("\\|", 3);
+        if (parts.length < 3 || nodeId.equals(parts[1])) {
+            return;
+        }
+        val cache = caches.get(parts[0]);
+        if (cache != null) {
+            cache.evictLocal(ALL_KEYS.equals(parts[2]) ? null : parseKey(parts[2]));
+        }
+    }
+
+    private TwoLevelCache create(String name) {
+        val local = Caffeine.newBuilder()
+                .maximumSize(properties.getLocalMaximumSize())
+                .expireAfterWrite(properties.getLocalTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, local, name, "level", "local");
+
+        val cache = new TwoLevelCache(
+                name,
+                local,
+                redisCacheManager.getCache(name),
+                key -> publish(name, key),
+                meterRegistry
+        );
+        caches.put(name, cache);
+        return cache;
+    }
+
+    private void publish(String name, Object key) {
+        val message = String.join("|", name, nodeId, key == null ? ALL_KEYS : String.valueOf(key));
+        try {
+            redisTemplate.convertAndSend(properties.getInvalidationChannel(), message);
+        } catch (RuntimeException e) {
+            log.warn("Failed to publish invalidation {}, other nodes will expire it after {}", message, properties.getLocalTtl(), e);
+        }
+    }
+
+    /**
+     * Cached services key their entries by entity id
+     */
+    private static Object parseKey(String key) {
+        try {
+            return Long.valueOf(key);
+        } catch (NumberFormatException e) {
+            return key;
+        }
+    }
+}
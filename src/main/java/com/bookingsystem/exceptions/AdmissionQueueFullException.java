@@ -0,0 +1,10 @@
+package com.bookingsystem.exceptions;
+
+import lombok.experimental.StandardException;
+
+/**
+ * The booking admission queue is at capacity, the client should retry later
+ */
+@StandardException
+public class AdmissionQueueFullException extends RuntimeException {
+}
@@ -0,0 +1,10 @@
+package com.bookingsystem.exceptions;
+
+import lombok.experimental.StandardException;
+
+/**
+ * A booking shard is at capacity or did not get to the command in time, the client should retry later
+ */
+@StandardException
+public class ShardsBusyException extends RuntimeException {
+}
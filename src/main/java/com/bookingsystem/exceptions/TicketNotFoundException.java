@@ -0,0 +1,7 @@
+package com.bookingsystem.exceptions;
+
+public class TicketNotFoundException extends BookingSystemEntityNotFoundException {
+    public TicketNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,23 @@
+package com.bookingsystem.mapper;
+
+import com.bookingsystem.api.dto.BookingResponseDto;
+import com.bookingsystem.api.dto.UnitResponseDto;
+import com.bookingsystem.model.Booking;
+import com.bookingsystem.model.Unit;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.mapstruct.MappingConstants.ComponentModel.SPRING;
+
+@Mapper(componentModel = SPRING, uses = UnitMapper.class)
+public interface BookingMapper {
+
+    @Mapping(source = "user.id", target = "userId")
+    @Mapping(target = "units", expression = "java(toUnitDtos(booking.heldUnits()))")
+    BookingResponseDto toDto(Booking booking);
+
+    List<UnitResponseDto> toUnitDtos(Set<Unit> units);
+}
@@ -0,0 +1,15 @@
+package com.bookingsystem.mapper;
+
+import com.bookingsystem.api.dto.EventResponseDto;
+import com.bookingsystem.model.Event;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import static org.mapstruct.MappingConstants.ComponentModel.SPRING;
+
+@Mapper(componentModel = SPRING)
+public interface EventMapper {
+
+    @Mapping(target = "storedDescription", source = "description")
+    EventResponseDto toDto(Event event);
+}
@@ -0,0 +1,13 @@
+package com.bookingsystem.mapper;
+
+import com.bookingsystem.api.dto.UnitResponseDto;
+import com.bookingsystem.model.Unit;
+import org.mapstruct.Mapper;
+
+import static org.mapstruct.MappingConstants.ComponentModel.SPRING;
+
+@Mapper(componentModel = SPRING)
+public interface UnitMapper {
+
+    UnitResponseDto toDto(Unit unit);
+}
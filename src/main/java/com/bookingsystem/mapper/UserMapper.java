@@ -0,0 +1,13 @@
+package com.bookingsystem.mapper;
+
+import com.bookingsystem.api.dto.UserResponseDto;
+import com.bookingsystem.model.User;
+import org.mapstruct.Mapper;
+
+import static org.mapstruct.MappingConstants.ComponentModel.SPRING;
+
+@Mapper(componentModel = SPRING, uses = BookingMapper.class)
+public interface UserMapper {
+
+    UserResponseDto toDto(User user);
+}
@@ -3,48 +3,107 @@ package com.bookingsystem.model;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.annotation.Nullable;
 import jakarta.persistence.*;
-import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
 import java.util.Optional;
 import java.util.Set;
 
 @Entity
 @Table(name = "bookings")
+@NamedEntityGraph(name = Booking.WITH_UNITS, attributeNodes = {@NamedAttributeNode("units"), @NamedAttributeNode("stayUnits")})
 @Getter
 @FieldDefaults(level = AccessLevel.PRIVATE)
 @NoArgsConstructor
 @AllArgsConstructor
 @EqualsAndHashCode(of = "id")
 public class Booking {
+    public static final String WITH_UNITS = "Booking.withUnits";
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_id_seq")
+    @SequenceGenerator(name = "bookings_id_seq", sequenceName = "bookings_id_seq", allocationSize = 50)
     Long id;
 
-    @NotEmpty
+    /**
+     * Units held as a whole through their status, empty for a stay
+     */
     @OneToMany(mappedBy = "booking", cascade = {CascadeType.PERSIST, CascadeType.MERGE})
     Set<Unit> units;
 
+    /**
+     * Units whose nights [checkIn, checkOut) are held by this booking, see {@link Unit#bookNights}
+     */
+    @ManyToMany
+    @JoinTable(
+            name = "booking_stays",
+            joinColumns = @JoinColumn(name = "booking_id"),
+            inverseJoinColumns = @JoinColumn(name = "unit_id")
+    )
+    Set<Unit> stayUnits;
+
     @NotNull
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", referencedColumnName = "id")
     @JsonIgnore
     User user;
 
     LocalDateTime createdAt;
 
+    @Nullable
+    LocalDate checkIn;
+
+    @Nullable
+    LocalDate checkOut;
+
     public Booking(Set<Unit> units, User user) {
         this.units = units;
+        this.stayUnits = new HashSet<>();
+        this.user = user;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    /**
+     * Stay of the given units for the nights [checkIn, checkOut)
+     */
+    public Booking(Set<Unit> units, User user, LocalDate checkIn, LocalDate checkOut) {
+        this.units = new HashSet<>();
+        this.stayUnits = units;
         this.user = user;
         this.createdAt = LocalDateTime.now();
+        this.checkIn = checkIn;
+        this.checkOut = checkOut;
     }
 
     public Booking update(@Nullable Set<Unit> units) {
-        this.units = Optional.ofNullable(units).orElse(this.units);
+        if (isStay()) {
+            this.stayUnits = Optional.ofNullable(units).orElse(this.stayUnits);
+        } else {
+            this.units = Optional.ofNullable(units).orElse(this.units);
+        }
         return this;
     }
+
+    public boolean isStay() {
+        return checkIn != null;
+    }
+
+    /**
+     * Units of the booking whichever way they are held
+     */
+    public Set<Unit> heldUnits() {
+        return isStay() ? stayUnits : units;
+    }
+
+    /**
+     * Nights paid per unit, a whole-unit booking counts as one
+     */
+    public int nights() {
+        return isStay() ? Math.toIntExact(ChronoUnit.DAYS.between(checkIn, checkOut)) : 1;
+    }
 }
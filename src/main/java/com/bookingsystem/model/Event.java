@@ -4,7 +4,11 @@ import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
 
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
 import java.time.LocalDateTime;
+import java.util.Map;
 
 @Entity
 @Table(name = "events")
@@ -15,7 +19,8 @@ import java.time.LocalDateTime;
 public class Event {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "events_id_seq")
+    @SequenceGenerator(name = "events_id_seq", sequenceName = "events_id_seq", allocationSize = 50)
     Long id;
 
     @Enumerated(EnumType.STRING)
@@ -26,21 +31,31 @@ public class Event {
 
     Long entityId;
 
+    @Enumerated(EnumType.STRING)
+    @Column(length = 32)
+    EventTemplate template;
+
+    /**
+     * Arguments of the template: ids, statuses, amounts, rendered into a description only when the event is read
+     */
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb")
+    Map<String, Object> payload;
+
+    /**
+     * Only set on events written before templates, see {@link EventTemplate}
+     */
     @Column(columnDefinition = "TEXT")
     String description;
 
     LocalDateTime createdAt;
 
-    public Event(
-            EntityType entityType,
-            EventOperation eventOperation,
-            Long entityId,
-            String description
-    ) {
-        this.entityType = entityType;
-        this.eventOperation = eventOperation;
+    public Event(EventTemplate template, Long entityId, Map<String, Object> payload) {
+        this.entityType = template.getEntityType();
+        this.eventOperation = template.getEventOperation();
         this.entityId = entityId;
-        this.description = description;
+        this.template = template;
+        this.payload = payload;
         this.createdAt = LocalDateTime.now();
     }
 }
\ No newline at end of file
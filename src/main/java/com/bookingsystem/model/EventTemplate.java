@@ -0,0 +1,54 @@
+package com.bookingsystem.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.bookingsystem.model.EntityType.*;
+import static com.bookingsystem.model.EventOperation.*;
+
+/**
+ * What happened to an entity, stored as a code next to the event arguments instead of a rendered sentence</br>
+ * {@code {id}} in a pattern stands for the entity id, any other {@code {name}} for the payload argument of that name
+ */
+@Getter
+@RequiredArgsConstructor
+public enum EventTemplate {
+    USER_CREATED(USER, CREATE, "User created: {username} ({email})"),
+    USER_UPDATED(USER, UPDATE, "User updated: {username} ({email})"),
+    USER_DELETED(USER, DELETE, "User deleted: {id}"),
+    UNIT_CREATED(UNIT, CREATE, "Unit created: {id}"),
+    UNIT_UPDATED(UNIT, UPDATE, "Unit updated: {id} ({status})"),
+    UNIT_DELETED(UNIT, DELETE, "Unit deleted: {id}"),
+    BOOKING_CREATED(BOOKING, CREATE, "Booking created: {id} (user {userId}, {units} units)"),
+    BOOKING_UPDATED(BOOKING, UPDATE, "Booking updated: {id} ({units} units)"),
+    BOOKING_DELETED(BOOKING, DELETE, "Booking deleted: {id} (user {userId})"),
+    BOOKING_EXPIRED(BOOKING, DELETE, "Booking expired without payment: {id}"),
+    /**
+     * A status change of all the units of a booking at once, in place of one UNIT_UPDATED per unit
+     */
+    UNITS_TRANSITIONED(BOOKING, UPDATE, "Units of booking {id} {from} -> {to}: {unitIds}"),
+    PAYMENT_CREATED(PAYMENT, CREATE, "Payment created: {id} (booking {bookingId}, amount {amount})"),
+    PAYMENT_EXPIRED(PAYMENT, DELETE, "Payment expired: {id} (booking {bookingId})");
+
+    private static final Pattern ARGUMENT = Pattern.compile("\\{(\\w+)}");
+
+    private final EntityType entityType;
+    private final EventOperation eventOperation;
+    private final String pattern;
+
+    /**
+     * Arguments missing from the payload are rendered as "-"
+     */
+    public String render(Long entityId, Map<String, ?> payload) {
+        return ARGUMENT.matcher(pattern).replaceAll(argument -> {
+            val name = argument.group(1);
+            val value = "id".equals(name) ? entityId : payload.get(name);
+            return Matcher.quoteReplacement(value == null ? "-" : value.toString());
+        });
+    }
+}
@@ -0,0 +1,129 @@
+package com.bookingsystem.model;
+
+import jakarta.annotation.Nullable;
+import lombok.EqualsAndHashCode;
+import lombok.val;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.stream.IntStream;
+
+/**
+ * Booked nights of a unit, one bit per night counted from {@link #EPOCH}</br>
+ * Immutable, every change returns a new bitmap. Stored as a 4-byte big-endian base night, a multiple of eight,
+ * followed by the little-endian bytes of a {@link BitSet} counted from it, the bit order Postgres get_bit() uses
+ * on bytea. The base is the byte of the first booked night, so a stored value spans only its booked nights
+ * and shrinks again once past nights are pruned</br>
+ * A stay [checkIn, checkOut) covers the nights from check-in up to, not including, the check-out day
+ */
+@EqualsAndHashCode
+public final class NightBitmap {
+    /**
+     * Night 0, moving it reinterprets every stored bitmap
+     */
+    public static final LocalDate EPOCH = LocalDate.of(2025, 1, 1);
+
+    private static final NightBitmap EMPTY = new NightBitmap(new BitSet());
+    private static final int BASE_BYTES = Integer.BYTES;
+
+    private final BitSet nights;
+
+    private NightBitmap(BitSet nights) {
+        this.nights = nights;
+    }
+
+    public static NightBitmap empty() {
+        return EMPTY;
+    }
+
+    public static NightBitmap of(@Nullable byte[] bytes) {
+        if (bytes == null || bytes.length <= BASE_BYTES) {
+            return EMPTY;
+        }
+        val buffer = ByteBuffer.wrap(bytes);
+        val base = buffer.getInt();
+        val relative = BitSet.valueOf(buffer);
+        val nights = new BitSet(base + relative.length());
+        relative.stream().forEach(night -> nights.set(base + night));
+        return new NightBitmap(nights);
+    }
+
+    /**
+     * @return null when no night is booked, so untouched units keep a NULL column
+     */
+    @Nullable
+    public byte[] toBytes() {
+        if (nights.isEmpty()) {
+            return null;
+        }
+        val base = nights.nextSetBit(0) & ~(Byte.SIZE - 1);
+        val relative = nights.get(base, nights.length()).toByteArray();
+        return ByteBuffer.allocate(BASE_BYTES + relative.length)
+                .putInt(base)
+                .put(relative)
+                .array();
+    }
+
+    public static int night(LocalDate date) {
+        val night = date.toEpochDay() - EPOCH.toEpochDay();
+        if (night < 0) {
+            throw new IllegalArgumentException("Nights before " + EPOCH + " cannot be booked: " + date);
+        }
+        return Math.toIntExact(night);
+    }
+
+    public boolean isEmpty() {
+        return nights.isEmpty();
+    }
+
+    /**
+     * True when none of the nights in [checkIn, checkOut) is booked
+     */
+    public boolean isFree(LocalDate checkIn, LocalDate checkOut) {
+        val booked = nights.nextSetBit(night(checkIn));
+        return booked < 0 || booked >= night(checkOut);
+    }
+
+    /**
+     * True when a night on or after the given day is booked, nights of past stays do not count
+     */
+    public boolean hasNightsFrom(LocalDate day) {
+        return nights.nextSetBit(night(day)) >= 0;
+    }
+
+    /**
+     * Drops the nights before the given day, they can no longer be booked or released
+     */
+    public NightBitmap pruneBefore(LocalDate day) {
+        val first = night(day);
+        if (nights.isEmpty() || nights.nextSetBit(0) >= first) {
+            return this;
+        }
+        val pruned = (BitSet) nights.clone();
+        pruned.clear(0, first);
+        return new NightBitmap(pruned);
+    }
+
+    public NightBitmap book(LocalDate checkIn, LocalDate checkOut) {
+        val booked = (BitSet) nights.clone();
+        booked.set(night(checkIn), night(checkOut));
+        return new NightBitmap(booked);
+    }
+
+    public NightBitmap release(LocalDate checkIn, LocalDate checkOut) {
+        if (nights.isEmpty()) {
+            return this;
+        }
+        val released = (BitSet) nights.clone();
+        released.clear(night(checkIn), night(checkOut));
+        return new NightBitmap(released);
+    }
+
+    /**
+     * Indexes of the booked nights in ascending order
+     */
+    public IntStream bookedNights() {
+        return nights.stream();
+    }
+}
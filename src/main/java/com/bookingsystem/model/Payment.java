@@ -17,7 +17,8 @@ import java.util.Set;
 @EqualsAndHashCode(of = "id")
 public class Payment {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payments_id_seq")
+    @SequenceGenerator(name = "payments_id_seq", sequenceName = "payments_id_seq", allocationSize = 50)
     Long id;
 
     @NotNull
@@ -46,8 +47,8 @@ public class Payment {
         this.booking = booking;
         this.status = PaymentStatus.PENDING;
         this.paid = false;
-        this.paymentAmount = getTotalAmount(booking.getUnits());
-        this.amountOfBookedDays = getAmountOfBookedDays(booking.getUnits());
+        this.paymentAmount = getTotalAmount(booking.heldUnits()) * booking.nights();
+        this.amountOfBookedDays = getAmountOfBookedDays(booking.heldUnits()) * booking.nights();
         this.paymentTimestamp = LocalDateTime.now();
         this.paymentDeadline = paymentDeadline;
     }
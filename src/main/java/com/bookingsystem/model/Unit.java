@@ -18,7 +18,8 @@ import java.util.Optional;
 @EqualsAndHashCode(of = "id")
 public class Unit {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "units_id_seq")
+    @SequenceGenerator(name = "units_id_seq", sequenceName = "units_id_seq", allocationSize = 50)
     Long id;
 
     int numberOfRooms;
@@ -47,11 +48,18 @@ public class Unit {
 
     @Nullable
     @Setter
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "booking_id", referencedColumnName = "id")
     @JsonIgnore
     Booking booking;
 
+    /**
+     * {@link NightBitmap} bytes, NULL until a night is booked
+     */
+    @Getter(AccessLevel.NONE)
+    @Column(name = "booked_nights")
+    byte[] bookedNights;
+
     public Unit(
             int numberOfRooms,
             AccommodationType type,
@@ -90,6 +98,58 @@ public class Unit {
         return this;
     }
 
+    /**
+     * Copy that is not attached to any persistence context and does not reference its booking,
+     * safe to keep in caches and indexes
+     */
+    public Unit detachedCopy() {
+        return new Unit(id, numberOfRooms, type, status, floor, bookingDate, version, baseCost, totalCost, description, null, bookedNights);
+    }
+
+    /**
+     * Upcoming nights only, a unit whose stays are all over can be booked as a whole again
+     */
+    public boolean hasBookedNights() {
+        return bookedNights != null && nights().hasNightsFrom(LocalDate.now());
+    }
+
+    /**
+     * Clears the nights before today, the column goes back to NULL once no upcoming night is left
+     *
+     * @return true when the bitmap changed
+     */
+    public boolean prunePastNights() {
+        if (bookedNights == null) {
+            return false;
+        }
+        val current = nights();
+        val pruned = current.pruneBefore(LocalDate.now());
+        if (pruned == current) {
+            return false;
+        }
+        this.bookedNights = pruned.toBytes();
+        return true;
+    }
+
+    public NightBitmap nights() {
+        return NightBitmap.of(bookedNights);
+    }
+
+    /**
+     * Whole-unit bookings and night bookings exclude each other, only an AVAILABLE unit sells nights
+     */
+    public boolean isFree(LocalDate checkIn, LocalDate checkOut) {
+        return status == BookingStatus.AVAILABLE && nights().isFree(checkIn, checkOut);
+    }
+
+    public void bookNights(LocalDate checkIn, LocalDate checkOut) {
+        this.bookedNights = nights().book(checkIn, checkOut).toBytes();
+    }
+
+    public void releaseNights(LocalDate checkIn, LocalDate checkOut) {
+        this.bookedNights = nights().release(checkIn, checkOut).toBytes();
+    }
+
     public double getTotalCost(double cost) {
         //baseCost + 15% system markup
         return Math.round(cost * 1.15 * 100.0) / 100.0;
@@ -21,7 +21,8 @@ import java.util.Optional;
 public class User {
     public static final String EMAIL_PATTERN = "^[A-Za-z0-9.-]+@[A-Za-z0-9.-]+\\.com$";
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_id_seq")
+    @SequenceGenerator(name = "users_id_seq", sequenceName = "users_id_seq", allocationSize = 50)
     Long id;
 
     @NotBlank
@@ -40,6 +41,13 @@ public class User {
         this.bookings = Collections.emptyList();
     }
 
+    /**
+     * Copy without the bookings collection, safe to keep in caches
+     */
+    public User detachedCopy() {
+        return new User(id, username, email, null);
+    }
+
     public User update(
             @Nullable String username,
             @Nullable String email
@@ -0,0 +1,24 @@
+package com.bookingsystem.properties;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.validation.annotation.Validated;
+
+@Configuration
+@ConfigurationProperties(prefix = "booking.availability-counter")
+@PropertySource("classpath:system.properties")
+@Validated
+@Data
+public class AvailabilityCounterProperties {
+
+    /**
+     * When disabled, the available units count is always read from the database
+     */
+    private boolean enabled = true;
+
+    @NotBlank(message = "Availability counter key is required")
+    private String key = "booking:available-units";
+}
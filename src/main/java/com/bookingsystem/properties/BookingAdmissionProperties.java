@@ -0,0 +1,54 @@
+package com.bookingsystem.properties;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "booking.admission")
+@PropertySource("classpath:system.properties")
+@Validated
+@Data
+public class BookingAdmissionProperties {
+
+    /**
+     * When enabled, booking creation is queued and answered with a ticket instead of the booking
+     */
+    private boolean enabled = false;
+
+    /**
+     * Bookings created at the same time, the concurrency the database is given
+     */
+    @Min(value = 1, message = "Number of workers must be positive")
+    private int workers = 4;
+
+    /**
+     * Queued requests per node, further requests are turned away
+     */
+    @Min(value = 1, message = "Queue capacity must be positive")
+    private int capacity = 10_000;
+
+    /**
+     * Upper bound of a long-poll on a ticket
+     */
+    @NotNull(message = "Maximum wait is required")
+    private Duration maxWait = Duration.ofSeconds(30);
+
+    /**
+     * How long the outcome of a ticket can be read once it is known
+     */
+    @NotNull(message = "Ticket time to live is required")
+    private Duration ticketTtl = Duration.ofMinutes(10);
+
+    /**
+     * How long shutdown waits for queued requests, those still queued after it fail
+     */
+    @NotNull(message = "Shutdown timeout is required")
+    private Duration shutdownTimeout = Duration.ofSeconds(20);
+}
@@ -0,0 +1,22 @@
+package com.bookingsystem.properties;
+
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.validation.annotation.Validated;
+
+@Configuration
+@ConfigurationProperties(prefix = "booking.allocation")
+@PropertySource("classpath:system.properties")
+@Validated
+@Data
+public class BookingAllocationProperties {
+
+    /**
+     * Free list candidates looked at by one allocation before it gives up
+     */
+    @Min(value = 1, message = "Max probes must be positive")
+    private int maxProbes = 32;
+}
@@ -0,0 +1,31 @@
+package com.bookingsystem.properties;
+
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.validation.annotation.Validated;
+
+@Configuration
+@ConfigurationProperties(prefix = "booking.calendar")
+@PropertySource("classpath:system.properties")
+@Validated
+@Data
+public class BookingCalendarProperties {
+
+    /**
+     * How many days ahead of today a stay may end
+     */
+    @Min(value = 1, message = "Horizon must be at least one day")
+    private int horizonDays = 365;
+
+    @Min(value = 1, message = "A stay must allow at least one night")
+    private int maxNights = 30;
+
+    /**
+     * Units whose past nights are cleared per transaction by the daily prune
+     */
+    @Min(value = 1, message = "Prune chunk size must be positive")
+    private int pruneChunkSize = 1000;
+}
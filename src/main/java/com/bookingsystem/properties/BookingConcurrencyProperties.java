@@ -0,0 +1,66 @@
+package com.bookingsystem.properties;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "booking.concurrency")
+@PropertySource("classpath:system.properties")
+@Validated
+@Data
+public class BookingConcurrencyProperties {
+
+    /**
+     * SERIALIZABLE - serializable transactions recovered by retries</br>
+     * ORDERED_LOCKING - READ COMMITTED transactions that lock the requested units in ascending id order</br>
+     * SHARDED - READ COMMITTED transactions run one at a time per unit by the {@link com.bookingsystem.service.BookingShards}
+     */
+    @NotNull(message = "Booking concurrency mode is required")
+    private Mode mode = Mode.SERIALIZABLE;
+
+    /**
+     * How ORDERED_LOCKING behaves when a unit row is already locked by another booking
+     */
+    @NotNull(message = "Lock wait policy is required")
+    private LockWait lockWait = LockWait.WAIT;
+
+    /**
+     * Single-threaded booking shards of the SHARDED mode
+     */
+    @Min(value = 1, message = "Number of shards must be positive")
+    private int shards = 4;
+
+    /**
+     * Commands waiting per shard, a command arriving at a full shard is turned away with 503
+     */
+    @Min(value = 1, message = "Shard queue capacity must be positive")
+    private int shardQueueCapacity = 1000;
+
+    /**
+     * Longest wait for a command on the shards, its outcome is unknown to the caller after that
+     */
+    @NotNull(message = "Shard timeout is required")
+    private Duration shardTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Retries only make sense for serialization failures, the locking mode fails fast instead
+     */
+    public int getMaxAttempts() {
+        return mode == Mode.SERIALIZABLE ? 5 : 1;
+    }
+
+    public enum Mode {
+        SERIALIZABLE, ORDERED_LOCKING, SHARDED
+    }
+
+    public enum LockWait {
+        WAIT, NOWAIT, SKIP_LOCKED
+    }
+}
@@ -0,0 +1,41 @@
+package com.bookingsystem.properties;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "booking.cache")
+@PropertySource("classpath:system.properties")
+@Validated
+@Data
+public class CacheProperties {
+
+    /**
+     * Entries kept in the in-process L1 of each cache
+     */
+    @Min(value = 1, message = "L1 maximum size must be positive")
+    private long localMaximumSize = 10_000;
+
+    /**
+     * Bounds how long a node can serve an entry whose invalidation message it missed
+     */
+    @NotNull(message = "L1 time to live is required")
+    private Duration localTtl = Duration.ofMinutes(5);
+
+    /**
+     * Bounds how long a stale L2 entry can survive when another node's invalidation races a load on this node
+     */
+    @NotNull(message = "L2 time to live is required")
+    private Duration redisTtl = Duration.ofMinutes(15);
+
+    @NotBlank(message = "Invalidation channel is required")
+    private String invalidationChannel = "booking:cache-invalidation";
+}
@@ -0,0 +1,53 @@
+package com.bookingsystem.properties;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.validation.annotation.Validated;
+
+import java.nio.file.Path;
+import java.util.Set;
+
+@Configuration
+@ConfigurationProperties(prefix = "events.feed")
+@PropertySource("classpath:system.properties")
+@Validated
+@Data
+public class EventFeedProperties {
+
+    /**
+     * Change feed of the events table, published to every sink in sinks
+     */
+    private boolean enabled = true;
+
+    /**
+     * REDIS - XADD to a Redis stream</br>
+     * FILE - appended as NDJSON to a local file</br>
+     * MEMORY - kept in memory, for tests
+     */
+    @NotNull(message = "Event feed sinks are required")
+    private Set<Sink> sinks = Set.of(Sink.REDIS);
+
+    @Min(value = 1, message = "Batch size must be positive")
+    private int batchSize = 500;
+
+    @NotBlank(message = "Stream key is required")
+    private String streamKey = "booking:events";
+
+    /**
+     * Approximate length the Redis stream is trimmed to after every batch
+     */
+    @Min(value = 1, message = "Stream max length must be positive")
+    private long streamMaxLength = 1_000_000;
+
+    @NotNull(message = "File path is required")
+    private Path filePath = Path.of("events-feed.ndjson");
+
+    public enum Sink {
+        REDIS, FILE, MEMORY
+    }
+}
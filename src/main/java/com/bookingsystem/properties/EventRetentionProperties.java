@@ -0,0 +1,46 @@
+package com.bookingsystem.properties;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.validation.annotation.Validated;
+
+@Configuration
+@ConfigurationProperties(prefix = "events.retention")
+@PropertySource("classpath:system.properties")
+@Validated
+@Data
+public class EventRetentionProperties {
+
+    /**
+     * Partition maintenance of the events table, off where events is not partitioned (e.g. a schema built by Hibernate)
+     */
+    private boolean enabled = true;
+
+    /**
+     * Monthly partitions kept attached, counting the current month
+     */
+    @Min(value = 1, message = "Retention must keep at least the current month")
+    private int retentionMonths = 12;
+
+    /**
+     * Monthly partitions created ahead of time, so new events never land in the default partition
+     */
+    @Min(value = 1, message = "At least the next month must be created ahead")
+    private int premakeMonths = 3;
+
+    /**
+     * DETACH - expired partitions are detached and kept as events_archive_yyyy_mm tables to be dumped and dropped by hand</br>
+     * DROP - expired partitions are dropped
+     */
+    @NotNull(message = "Retention mode is required")
+    private Mode mode = Mode.DETACH;
+
+    public enum Mode {
+        DETACH,
+        DROP
+    }
+}
@@ -0,0 +1,56 @@
+package com.bookingsystem.properties;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "events.stream")
+@PropertySource("classpath:system.properties")
+@Validated
+@Data
+public class EventStreamProperties {
+
+    /**
+     * Live event stream over SSE, new subscriptions are refused while disabled
+     */
+    private boolean enabled = true;
+
+    @Min(value = 1, message = "Max subscribers must be positive")
+    private int maxSubscribers = 1000;
+
+    /**
+     * Events buffered per subscriber, see overflow for what happens to a subscriber that falls behind
+     */
+    @Min(value = 1, message = "Buffer capacity must be positive")
+    private int bufferCapacity = 1024;
+
+    /**
+     * DROP_OLDEST - the oldest buffered event makes room, the subscriber is told how many it missed</br>
+     * DISCONNECT - the subscription is closed, the client reconnects with Last-Event-ID and resumes from the database
+     */
+    @NotNull(message = "Overflow policy is required")
+    private Overflow overflow = Overflow.DISCONNECT;
+
+    @Min(value = 1, message = "Batch size must be positive")
+    private int batchSize = 500;
+
+    /**
+     * Comment line sent to idle subscribers, also detects clients that went away
+     */
+    @NotNull(message = "Heartbeat interval is required")
+    private Duration heartbeatInterval = Duration.ofSeconds(15);
+
+    @NotNull(message = "Subscription timeout is required")
+    private Duration timeout = Duration.ofMinutes(30);
+
+    public enum Overflow {
+        DROP_OLDEST, DISCONNECT
+    }
+}
@@ -0,0 +1,66 @@
+package com.bookingsystem.properties;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "events.writer")
+@PropertySource("classpath:system.properties")
+@Validated
+@Data
+public class EventWriterProperties {
+
+    /**
+     * ASYNC - events are handed to the background writer after the business transaction commits</br>
+     * OUTBOX - events are batch inserted into event_outbox as part of the business transaction and relayed later
+     */
+    @NotNull(message = "Event writer mode is required")
+    private Mode mode = Mode.ASYNC;
+
+    /**
+     * Ring buffer size, callers write synchronously instead of waiting when it is full
+     */
+    @Min(value = 1, message = "Buffer capacity must be positive")
+    private int bufferCapacity = 8192;
+
+    @Min(value = 1, message = "Batch size must be positive")
+    private int batchSize = 500;
+
+    /**
+     * Longest time a buffered event waits for its batch to fill up
+     */
+    @NotNull(message = "Flush interval is required")
+    private Duration flushInterval = Duration.ofMillis(200);
+
+    @NotNull(message = "Shutdown timeout is required")
+    private Duration shutdownTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Tries per batch before its events are dropped and counted in events.writer.dropped
+     */
+    @Min(value = 1, message = "Write attempts must be positive")
+    private int writeAttempts = 3;
+
+    /**
+     * Pause before the second try of a failed batch, doubled for every further one
+     */
+    @NotNull(message = "Retry backoff is required")
+    private Duration retryBackoff = Duration.ofMillis(200);
+
+    /**
+     * One UNITS_TRANSITIONED event per booking and unit status change instead of one UNIT_UPDATED event per unit</br>
+     * Per-unit history is still answered by the unit_events view and {@link com.bookingsystem.repository.EventRepository#findUnitHistoryAfter}
+     */
+    private boolean coalesceUnitTransitions = true;
+
+    public enum Mode {
+        ASYNC, OUTBOX
+    }
+}
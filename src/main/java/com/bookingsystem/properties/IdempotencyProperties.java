@@ -0,0 +1,48 @@
+package com.bookingsystem.properties;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "booking.idempotency")
+@PropertySource("classpath:system.properties")
+@Validated
+@Data
+public class IdempotencyProperties {
+
+    /**
+     * When disabled, the Idempotency-Key header is ignored
+     */
+    private boolean enabled = true;
+
+    @NotBlank(message = "Idempotency key prefix is required")
+    private String keyPrefix = "booking:idempotency:";
+
+    /**
+     * How long a completed response is replayed
+     */
+    @NotNull(message = "Idempotency time to live is required")
+    private Duration ttl = Duration.ofHours(24);
+
+    /**
+     * Lease of a request in flight, renewed while it runs, a duplicate may run again once it lapses, e.g. after a crash
+     */
+    @NotNull(message = "In-flight lease is required")
+    private Duration inFlightTtl = Duration.ofSeconds(30);
+
+    /**
+     * How long a duplicate waits for the request in flight before it is rejected
+     */
+    @NotNull(message = "Wait timeout is required")
+    private Duration waitTimeout = Duration.ofSeconds(10);
+
+    @NotNull(message = "Poll interval is required")
+    private Duration pollInterval = Duration.ofMillis(50);
+}
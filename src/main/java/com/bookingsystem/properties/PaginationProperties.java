@@ -0,0 +1,28 @@
+package com.bookingsystem.properties;
+
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.validation.annotation.Validated;
+
+@Configuration
+@ConfigurationProperties(prefix = "booking.pagination")
+@PropertySource("classpath:system.properties")
+@Validated
+@Data
+public class PaginationProperties {
+
+    /**
+     * Page size of list and search endpoints when the request does not ask for one
+     */
+    @Min(value = 1, message = "Default page size must be positive")
+    private int defaultSize = 20;
+
+    /**
+     * Upper bound of the requested page size, larger requests are capped
+     */
+    @Min(value = 1, message = "Max page size must be positive")
+    private int maxSize = 100;
+}
@@ -0,0 +1,34 @@
+package com.bookingsystem.properties;
+
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.validation.annotation.Validated;
+
+@Configuration
+@ConfigurationProperties(prefix = "booking.expiry")
+@PropertySource("classpath:system.properties")
+@Validated
+@Data
+public class PaymentExpiryProperties {
+
+    /**
+     * When enabled, overdue payments are drained in chunks by the bulk expiry job on startup and on its schedule,
+     * instead of getting one deadline timer each
+     */
+    private boolean bulkEnabled = true;
+
+    /**
+     * Expired payments claimed and expired per transaction
+     */
+    @Min(value = 1, message = "Chunk size must be positive")
+    private int chunkSize = 1000;
+
+    /**
+     * Threads of the scheduler firing the per-booking payment deadline timers, apart from the scheduled jobs
+     */
+    @Min(value = 1, message = "Deadline pool size must be positive")
+    private int deadlinePoolSize = 2;
+}
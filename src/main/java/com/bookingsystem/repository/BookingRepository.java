@@ -1,17 +1,114 @@
 package com.bookingsystem.repository;
 
 import com.bookingsystem.model.Booking;
+import jakarta.annotation.Nullable;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
-    @Query("SELECT b FROM Booking b WHERE b.createdAt < :deadline")
+    /**
+     * Every use case of a single booking (details, update, cancel, payment, expiry) works on its units,
+     * so they are fetched in the same query
+     */
+    @Override
+    @EntityGraph(Booking.WITH_UNITS)
+    Optional<Booking> findById(Long id);
+
+    /**
+     * Bookings past the deadline that have not been paid, paid ones are never expired
+     */
+    @Query("""
+            SELECT b FROM Booking b
+            WHERE b.createdAt < :deadline
+            AND NOT EXISTS (
+                SELECT p FROM Payment p
+                WHERE p.booking = b AND p.status = com.bookingsystem.model.PaymentStatus.COMPLETED
+            )
+            """)
+    @EntityGraph(Booking.WITH_UNITS)
     List<Booking> findExpiredBookings(@Param("deadline") LocalDateTime deadline);
+
+    /**
+     * Stays among the given bookings with their units, whole-unit bookings are left out
+     */
+    @Query("SELECT DISTINCT b FROM Booking b JOIN FETCH b.stayUnits WHERE b.id IN :ids AND b.checkIn IS NOT NULL")
+    List<Booking> findStaysByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Units held by the booking, as a whole or for the nights of a stay
+     */
+    @Query(value = """
+            SELECT u.id FROM units u WHERE u.booking_id = :bookingId
+            UNION
+            SELECT s.unit_id FROM booking_stays s WHERE s.booking_id = :bookingId
+            """, nativeQuery = true)
+    List<Long> findHeldUnitIds(@Param("bookingId") Long bookingId);
+
+    /**
+     * Unlinks the stay units of the given bookings, so they can be deleted in bulk
+     */
+    @Modifying
+    @Query(value = "DELETE FROM booking_stays WHERE booking_id IN :bookingIds", nativeQuery = true)
+    int deleteStayUnits(@Param("bookingIds") Collection<Long> bookingIds);
+
+    @Query("SELECT b.id AS id, b.user.id AS userId, b.createdAt AS createdAt, b.checkIn AS checkIn, b.checkOut AS checkOut " +
+            "FROM Booking b WHERE b.id > :afterId ORDER BY b.id")
+    List<BookingSummary> findSummariesAfter(@Param("afterId") long afterId, Limit limit);
+
+    @Query("SELECT b.id AS id, b.user.id AS userId, b.createdAt AS createdAt, b.checkIn AS checkIn, b.checkOut AS checkOut " +
+            "FROM Booking b WHERE b.id = :id")
+    Optional<BookingSummary> findSummaryById(@Param("id") Long id);
+
+    @Query("""
+            SELECT b.id AS id, b.user.id AS userId, b.createdAt AS createdAt, b.checkIn AS checkIn, b.checkOut AS checkOut
+            FROM Booking b
+            WHERE b.user.id IN :userIds
+            ORDER BY b.id
+            """)
+    List<BookingSummary> findSummariesByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Server-side cursor over bookings created in [from, to), see {@link UnitRepository#streamAllDtos()}
+     */
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = UnitRepository.EXPORT_FETCH_SIZE),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("""
+            SELECT b.id AS id, b.user.id AS userId, b.createdAt AS createdAt, b.checkIn AS checkIn, b.checkOut AS checkOut
+            FROM Booking b
+            WHERE b.createdAt >= :from AND b.createdAt < :to
+            ORDER BY b.id
+            """)
+    Stream<BookingSummary> streamSummaries(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    interface BookingSummary {
+        Long getId();
+
+        Long getUserId();
+
+        LocalDateTime getCreatedAt();
+
+        @Nullable
+        LocalDate getCheckIn();
+
+        @Nullable
+        LocalDate getCheckOut();
+    }
 }
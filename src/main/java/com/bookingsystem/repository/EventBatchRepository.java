@@ -0,0 +1,23 @@
+package com.bookingsystem.repository;
+
+import com.bookingsystem.model.Event;
+
+import java.util.List;
+
+/**
+ * Plain JDBC batch writes for events, bypassing the persistence context
+ */
+public interface EventBatchRepository {
+
+    void insertEvents(List<Event> events);
+
+    void insertOutbox(List<Event> events);
+
+    /**
+     * Moves up to limit of the oldest outbox rows into events in one statement</br>
+     * Rows locked by a concurrent relay are skipped
+     *
+     * @return number of relayed events
+     */
+    int relayOutbox(int limit);
+}
@@ -0,0 +1,80 @@
+package com.bookingsystem.repository;
+
+import com.bookingsystem.model.Event;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class EventBatchRepositoryImpl implements EventBatchRepository {
+    private static final String COLUMNS = "entity_type, event_operation, entity_id, template, payload, created_at";
+    /**
+     * The transaction id is taken before the sequence value, see {@link com.bookingsystem.service.EventHorizon}
+     */
+    private static final String INSERT_EVENTS = "INSERT INTO events (id, " + COLUMNS + ") " +
+            "VALUES ((SELECT nextval('events_id_seq') FROM pg_current_xact_id()), ?, ?, ?, ?, ?::jsonb, ?)";
+    private static final String INSERT_OUTBOX = "INSERT INTO event_outbox (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?::jsonb, ?)";
+    /**
+     * The DELETE gives the transaction its id before the first sequence value is taken
+     */
+    private static final String RELAY_OUTBOX = """
+            WITH relayed AS (
+                DELETE FROM event_outbox
+                WHERE id IN (SELECT id FROM event_outbox ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED)
+                RETURNING id, %1$s
+            )
+            INSERT INTO events (id, %1$s)
+            SELECT nextval('events_id_seq'), %1$s FROM relayed ORDER BY id
+            """.formatted(COLUMNS);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void insertEvents(List<Event> events) {
+        insert(INSERT_EVENTS, events);
+    }
+
+    @Override
+    public void insertOutbox(List<Event> events) {
+        insert(INSERT_OUTBOX, events);
+    }
+
+    @Override
+    public int relayOutbox(int limit) {
+        return jdbcTemplate.update(RELAY_OUTBOX, limit);
+    }
+
+    private void insert(String sql, List<Event> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(sql, events, events.size(), (statement, event) -> {
+            statement.setString(1, event.getEntityType().name());
+            statement.setString(2, event.getEventOperation().name());
+            statement.setLong(3, event.getEntityId());
+            statement.setString(4, event.getTemplate().name());
+            statement.setString(5, toJson(event.getPayload()));
+            statement.setTimestamp(6, Timestamp.valueOf(event.getCreatedAt()));
+        });
+    }
+
+    /**
+     * Events without arguments store NULL rather than an empty object
+     */
+    private String toJson(Map<String, Object> payload) {
+        if (payload.isEmpty()) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Event payload is not serializable: " + payload, e);
+        }
+    }
+}
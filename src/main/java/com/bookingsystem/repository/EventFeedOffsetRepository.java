@@ -0,0 +1,30 @@
+package com.bookingsystem.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * High-water marks of the event change feed, the id of the last event published to each sink
+ */
+@Repository
+@RequiredArgsConstructor
+public class EventFeedOffsetRepository {
+    private static final String CREATE_OFFSET = "INSERT INTO event_feed_offsets (sink, last_event_id) VALUES (?, 0) ON CONFLICT (sink) DO NOTHING";
+    private static final String LOCK_OFFSET = "SELECT last_event_id FROM event_feed_offsets WHERE sink = ? FOR UPDATE";
+    private static final String UPDATE_OFFSET = "UPDATE event_feed_offsets SET last_event_id = ?, updated_at = now() WHERE sink = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Locks the offset of the sink until the transaction ends, so only one node publishes to it at a time
+     */
+    public long lock(String sink) {
+        jdbcTemplate.update(CREATE_OFFSET, sink);
+        return jdbcTemplate.queryForObject(LOCK_OFFSET, Long.class, sink);
+    }
+
+    public void save(String sink, long lastEventId) {
+        jdbcTemplate.update(UPDATE_OFFSET, lastEventId, sink);
+    }
+}
@@ -0,0 +1,92 @@
+package com.bookingsystem.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * DDL on the monthly partitions of the events table, named events_yyyy_mm</br>
+ * Names are only ever built from a {@link YearMonth}, never from input, so they are safe to inline in DDL</br>
+ * Postgres DDL is transactional, every change runs its statements in one transaction and leaves no half-done state
+ */
+@Repository
+@RequiredArgsConstructor
+public class EventPartitionRepository {
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final Pattern PARTITION_NAME = Pattern.compile("events_(\\d{4}_\\d{2})");
+    private static final String FIND_PARTITIONS = """
+            SELECT child.relname
+            FROM pg_inherits
+            JOIN pg_class parent ON parent.oid = pg_inherits.inhparent
+            JOIN pg_class child ON child.oid = pg_inherits.inhrelid
+            WHERE parent.relname = 'events'
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Months that currently have an attached partition, the default partition is left out
+     */
+    public List<YearMonth> findPartitionMonths() {
+        return jdbcTemplate.queryForList(FIND_PARTITIONS, String.class)
+                .stream()
+                .map(EventPartitionRepository::monthOf)
+                .flatMap(Optional::stream)
+                .sorted()
+                .toList();
+    }
+
+    /**
+     * Created standalone and attached once the events of that month that landed in events_default are moved into it,
+     * attaching would fail on them otherwise. The default partition is locked meanwhile so none land there in between
+     */
+    @Transactional
+    public void create(YearMonth month) {
+        val name = name(month);
+        val from = month.atDay(1);
+        val to = month.plusMonths(1).atDay(1);
+        jdbcTemplate.execute("LOCK TABLE events_default IN ACCESS EXCLUSIVE MODE");
+        jdbcTemplate.execute("CREATE TABLE %s (LIKE events INCLUDING DEFAULTS INCLUDING CONSTRAINTS)".formatted(name));
+        jdbcTemplate.execute("""
+                WITH moved AS (
+                    DELETE FROM events_default WHERE created_at >= '%2$s' AND created_at < '%3$s' RETURNING *
+                )
+                INSERT INTO %1$s SELECT * FROM moved
+                """.formatted(name, from, to));
+        jdbcTemplate.execute("ALTER TABLE events ATTACH PARTITION %s FOR VALUES FROM ('%s') TO ('%s')".formatted(name, from, to));
+    }
+
+    /**
+     * Detaches the partition and renames it to events_archive_yyyy_mm, its rows leave every query on events
+     */
+    @Transactional
+    public void archive(YearMonth month) {
+        jdbcTemplate.execute("ALTER TABLE events DETACH PARTITION " + name(month));
+        jdbcTemplate.execute("ALTER TABLE %s RENAME TO events_archive_%s".formatted(name(month), month.format(SUFFIX)));
+    }
+
+    @Transactional
+    public void drop(YearMonth month) {
+        jdbcTemplate.execute("ALTER TABLE events DETACH PARTITION " + name(month));
+        jdbcTemplate.execute("DROP TABLE " + name(month));
+    }
+
+    static String name(YearMonth month) {
+        return "events_" + month.format(SUFFIX);
+    }
+
+    private static Optional<YearMonth> monthOf(String partition) {
+        val matcher = PARTITION_NAME.matcher(partition);
+        return matcher.matches()
+                ? Optional.of(YearMonth.parse(matcher.group(1), SUFFIX))
+                : Optional.empty();
+    }
+}
@@ -1,14 +1,155 @@
 package com.bookingsystem.repository;
 
+import com.bookingsystem.api.dto.EventResponseDto;
 import com.bookingsystem.model.EntityType;
 import com.bookingsystem.model.Event;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface EventRepository extends JpaRepository<Event, Long> {
+public interface EventRepository extends JpaRepository<Event, Long>, EventBatchRepository {
+    String EVENT_DTO = "new com.bookingsystem.api.dto.EventResponseDto(" +
+            "e.id, e.entityType, e.eventOperation, e.entityId, e.template, e.payload, e.description, e.createdAt)";
+    String UNIT_HISTORY = "WHERE e.created_at >= :from AND e.created_at < :to " +
+            "AND ((e.entity_type = 'UNIT' AND e.entity_id = :unitId) " +
+            "OR (e.template = 'UNITS_TRANSITIONED' AND e.payload -> 'unitIds' @> jsonb_build_array(:unitId))) ";
 
-    List<Event> findByEntityType(EntityType entityType);
+    /**
+     * Every paged query is bounded by a creation time window, so the planner only visits the monthly
+     * partitions of events that overlap it, see {@link com.bookingsystem.api.dto.TimeWindow}
+     */
+    @Query("SELECT " + EVENT_DTO + " FROM Event e " +
+            "WHERE e.createdAt >= :from AND e.createdAt < :to AND e.id > :afterId ORDER BY e.id")
+    List<EventResponseDto> findDtosAfter(
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            @Param("afterId") long afterId,
+            Limit limit
+    );
+
+    @Query("SELECT " + EVENT_DTO + " FROM Event e " +
+            "WHERE e.entityType = :entityType AND e.createdAt >= :from AND e.createdAt < :to AND e.id > :afterId " +
+            "ORDER BY e.id")
+    List<EventResponseDto> findDtosByEntityTypeAfter(
+            @Param("entityType") EntityType entityType,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            @Param("afterId") long afterId,
+            Limit limit
+    );
+
+    /**
+     * History of a single entity, served by idx_events_entity_type_entity_id_created_at
+     */
+    @Query("SELECT " + EVENT_DTO + " FROM Event e " +
+            "WHERE e.entityType = :entityType AND e.entityId = :entityId " +
+            "AND e.createdAt >= :from AND e.createdAt < :to AND e.id > :afterId ORDER BY e.id")
+    List<EventResponseDto> findDtosByEntityAfter(
+            @Param("entityType") EntityType entityType,
+            @Param("entityId") Long entityId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            @Param("afterId") long afterId,
+            Limit limit
+    );
+
+    /**
+     * History of a single unit: its own UNIT events plus the UNITS_TRANSITIONED events listing it,
+     * the latter found through idx_events_unit_ids</br>
+     * Same rows as the unit_events view, without expanding every coalesced event of the window
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.readOnly", value = "true"))
+    @Query(value = "SELECT * FROM events e " + UNIT_HISTORY + "AND e.id > :afterId ORDER BY e.id LIMIT :limit", nativeQuery = true)
+    List<Event> findUnitHistoryAfter(
+            @Param("unitId") Long unitId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            @Param("afterId") long afterId,
+            @Param("limit") int limit
+    );
+
+    @Query(value = "SELECT COUNT(*) FROM events e " + UNIT_HISTORY, nativeQuery = true)
+    long countUnitHistory(
+            @Param("unitId") Long unitId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to
+    );
+
+    /**
+     * Next events of the change feed, every partition is visited as there is no time bound
+     */
+    @Query("SELECT " + EVENT_DTO + " FROM Event e WHERE e.id > :afterId ORDER BY e.id")
+    List<EventResponseDto> findFeedAfter(@Param("afterId") long afterId, Limit limit);
+
+    @Query("SELECT COALESCE(MAX(e.id), 0) FROM Event e")
+    long findMaxId();
+
+    /**
+     * Last id handed out by the sequence, its event may not be committed yet
+     */
+    @Query(value = "SELECT last_value FROM events_id_seq", nativeQuery = true)
+    long findLastAllocatedId();
+
+    /**
+     * Transaction id the next transaction will get, every running one has a lower id
+     */
+    @Query(value = "SELECT pg_snapshot_xmax(pg_current_snapshot())::text::bigint", nativeQuery = true)
+    long findNextTransactionId();
+
+    /**
+     * Oldest transaction id still running, every transaction below it has finished
+     */
+    @Query(value = "SELECT pg_snapshot_xmin(pg_current_snapshot())::text::bigint", nativeQuery = true)
+    long findOldestRunningTransactionId();
+
+    @Query("SELECT COUNT(e) FROM Event e WHERE e.createdAt >= :from AND e.createdAt < :to")
+    long countCreatedBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("SELECT COUNT(e) FROM Event e " +
+            "WHERE e.entityType = :entityType AND e.createdAt >= :from AND e.createdAt < :to")
+    long countByEntityTypeCreatedBetween(
+            @Param("entityType") EntityType entityType,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to
+    );
+
+    @Query("SELECT COUNT(e) FROM Event e " +
+            "WHERE e.entityType = :entityType AND e.entityId = :entityId AND e.createdAt >= :from AND e.createdAt < :to")
+    long countByEntityCreatedBetween(
+            @Param("entityType") EntityType entityType,
+            @Param("entityId") Long entityId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to
+    );
+
+    /**
+     * Server-side cursor over events created in [from, to), see {@link UnitRepository#streamAllDtos()}
+     */
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = UnitRepository.EXPORT_FETCH_SIZE),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT " + EVENT_DTO + " FROM Event e WHERE e.createdAt >= :from AND e.createdAt < :to ORDER BY e.id")
+    Stream<EventResponseDto> streamDtos(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = UnitRepository.EXPORT_FETCH_SIZE),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT " + EVENT_DTO + " FROM Event e " +
+            "WHERE e.entityType = :entityType AND e.createdAt >= :from AND e.createdAt < :to ORDER BY e.id")
+    Stream<EventResponseDto> streamDtosByEntityType(
+            @Param("entityType") EntityType entityType,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to
+    );
 }
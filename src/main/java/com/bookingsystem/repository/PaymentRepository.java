@@ -1,13 +1,72 @@
 package com.bookingsystem.repository;
 
 import com.bookingsystem.model.Payment;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
 
     Optional<Payment> findByBookingId(Long bookingId);
+
+    List<Payment> findByIdGreaterThanOrderById(Long afterId, Limit limit);
+
+    /**
+     * Server-side cursor over payments created in [from, to), see {@link UnitRepository#streamAllDtos()}</br>
+     * Rows are loaded read-only, the caller clears the persistence context as it goes so it stays small
+     */
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = UnitRepository.EXPORT_FETCH_SIZE),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT p FROM Payment p WHERE p.paymentTimestamp >= :from AND p.paymentTimestamp < :to ORDER BY p.id")
+    Stream<Payment> streamCreatedBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Payment p WHERE p.booking.id = :bookingId")
+    Optional<Payment> findByBookingIdForUpdate(@Param("bookingId") Long bookingId);
+
+    @Query("""
+            SELECT p.booking.id AS bookingId, p.paymentDeadline AS paymentDeadline
+            FROM Payment p
+            WHERE p.status = com.bookingsystem.model.PaymentStatus.PENDING
+            """)
+    List<PendingDeadline> findPendingDeadlines();
+
+    /**
+     * Oldest expired PENDING payments, rows already claimed by another expiry transaction are skipped
+     */
+    @Query(value = """
+            SELECT p.id AS "paymentId", p.booking_id AS "bookingId"
+            FROM payments p
+            WHERE p.payment_status = 'PENDING' AND p.payment_deadline < :now
+            ORDER BY p.payment_deadline
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<ExpiredPayment> lockExpiredPending(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    interface ExpiredPayment {
+        Long getPaymentId();
+
+        Long getBookingId();
+    }
+
+    interface PendingDeadline {
+        Long getBookingId();
+
+        LocalDateTime getPaymentDeadline();
+    }
 }
@@ -1,49 +1,248 @@
 package com.bookingsystem.repository;
 
+import com.bookingsystem.api.dto.Cursor;
+import com.bookingsystem.api.dto.UnitResponseDto;
+import com.bookingsystem.api.dto.UnitSearchCriteria;
+import com.bookingsystem.api.dto.UnitSortKey;
 import com.bookingsystem.model.AccommodationType;
+import com.bookingsystem.model.Booking;
+import com.bookingsystem.model.Booking_;
+import com.bookingsystem.model.BookingStatus;
 import com.bookingsystem.model.Unit;
 import com.bookingsystem.model.Unit_;
 import jakarta.annotation.Nullable;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import jakarta.persistence.criteria.Path;
+import lombok.val;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
-import java.util.Optional;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 import static com.bookingsystem.model.BookingStatus.AVAILABLE;
 import static org.springframework.data.jpa.domain.Specification.where;
 
 @Repository
 public interface UnitRepository extends JpaRepository<Unit, Long>, JpaSpecificationExecutor<Unit> {
+    String EXPORT_FETCH_SIZE = "500";
+    String UNIT_DTO = "new com.bookingsystem.api.dto.UnitResponseDto(" +
+            "u.id, u.numberOfRooms, u.type, u.status, u.floor, u.bookingDate, u.version, u.baseCost, u.totalCost, u.description)";
 
-    @SuppressWarnings("deprecations")
-    default Page<Unit> searchUnits(
-            @Nullable @Param("rooms") Integer numberOfRooms,
-            @Nullable @Param("type") AccommodationType type,
-            @Nullable @Param("minCost") Double minCost,
-            @Nullable @Param("maxCost") Double maxCost,
-            @Nullable @Param("from") LocalDate from,
-            @Nullable @Param("to") LocalDate to,
-            @Nullable Pageable pageable
+    /**
+     * Keyset page of AVAILABLE units matching the criteria, ordered by (sort key, id) and starting strictly after the cursor</br>
+     * Reads at most {@code limit} rows whatever the depth of the page, there is no count query
+     */
+    default List<UnitResponseDto> searchUnits(
+            UnitSearchCriteria criteria,
+            UnitSortKey sortKey,
+            Sort.Direction direction,
+            @Nullable Cursor after,
+            Limit limit
     ) {
-        Specification<Unit> spec = where(hasRooms(numberOfRooms))
-                .and(hasType(type))
-                .and(costBetween(minCost, maxCost))
-                .and(bookingDateBetweenOrIsNull(from, to))
-                .and(isAvailable());
+        val sort = sortKey == UnitSortKey.ID
+                ? Sort.by(direction, sortKey.getProperty())
+                : Sort.by(direction, sortKey.getProperty(), UnitSortKey.ID.getProperty());
+
+        return findBy(matching(criteria).and(after(sortKey, direction, after)), query -> query
+                .as(UnitResponseDto.class)
+                .sortBy(sort)
+                .limit(limit.max())
+                .all());
+    }
 
-        return findAll(spec, Optional.ofNullable(pageable).orElseGet(Pageable::unpaged));
+    default long countUnits(UnitSearchCriteria criteria) {
+        return count(matching(criteria));
     }
 
+    @Query("SELECT " + UNIT_DTO + " FROM Unit u WHERE u.id > :afterId ORDER BY u.id")
+    List<UnitResponseDto> findDtosAfter(@Param("afterId") long afterId, Limit limit);
+
+    /**
+     * Server-side cursor over the whole catalog, rows are fetched {@value #EXPORT_FETCH_SIZE} at a time</br>
+     * Must be consumed and closed inside a transaction
+     */
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT " + UNIT_DTO + " FROM Unit u ORDER BY u.id")
+    Stream<UnitResponseDto> streamAllDtos();
+
+    /**
+     * Units of the given bookings as read-only rows, used to assemble booking responses without loading entities
+     */
+    @Query("""
+            SELECT u.booking.id AS bookingId, u.id AS id, u.numberOfRooms AS numberOfRooms, u.type AS type,
+                   u.status AS status, u.floor AS floor, u.bookingDate AS bookingDate, u.version AS version,
+                   u.baseCost AS baseCost, u.totalCost AS totalCost, u.description AS description
+            FROM Unit u
+            WHERE u.booking.id IN :bookingIds
+            ORDER BY u.id
+            """)
+    List<BookedUnit> findBookedUnits(@Param("bookingIds") Collection<Long> bookingIds);
+
+    /**
+     * Units of the given stays, same rows as {@link #findBookedUnits}
+     */
+    @Query("""
+            SELECT b.id AS bookingId, u.id AS id, u.numberOfRooms AS numberOfRooms, u.type AS type,
+                   u.status AS status, u.floor AS floor, u.bookingDate AS bookingDate, u.version AS version,
+                   u.baseCost AS baseCost, u.totalCost AS totalCost, u.description AS description
+            FROM Booking b
+            JOIN b.stayUnits u
+            WHERE b.id IN :bookingIds
+            ORDER BY u.id
+            """)
+    List<BookedUnit> findStayUnits(@Param("bookingIds") Collection<Long> bookingIds);
+
+    @Query("SELECT u.id FROM Unit u WHERE u.type = :type AND u.numberOfRooms = :rooms AND u.status = 'AVAILABLE'")
+    List<Long> findAvailableIds(@Param("type") AccommodationType type, @Param("rooms") int numberOfRooms);
+
+    @Query("SELECT u.id FROM Unit u WHERE u.bookedNights IS NOT NULL AND u.id > :afterId ORDER BY u.id")
+    List<Long> findIdsWithBookedNightsAfter(@Param("afterId") long afterId, Limit limit);
+
+    /**
+     * Clears the nights before the given one with prune_nights(), see the changelog, units without past nights are left alone
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            UPDATE units SET booked_nights = prune_nights(booked_nights, :today), version = version + 1
+            WHERE id IN :ids AND booked_nights IS DISTINCT FROM prune_nights(booked_nights, :today)
+            """, nativeQuery = true)
+    int prunePastNights(@Param("ids") Collection<Long> ids, @Param("today") int today);
+
     @Query("SELECT COUNT(distinct u) FROM Unit u WHERE u.status = 'AVAILABLE'")
     long countAvailableUnits();
 
+    /**
+     * Set-based status transition, only rows that are still in the expected status are touched</br>
+     * The returned row count tells whether every unit made the transition
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Unit u SET u.status = :to, u.version = u.version + 1 " +
+            "WHERE u.id IN :ids AND u.status = :from")
+    int updateStatus(
+            @Param("ids") Collection<Long> ids,
+            @Param("from") BookingStatus from,
+            @Param("to") BookingStatus to
+    );
+
+    /**
+     * Units with booked nights are left out, a unit is sold either as a whole or by the night
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Unit u SET u.status = :to, u.booking = :booking, u.version = u.version + 1 " +
+            "WHERE u.id IN :ids AND u.status = :from AND u.bookedNights IS NULL")
+    int updateStatusAndBooking(
+            @Param("ids") Collection<Long> ids,
+            @Param("from") BookingStatus from,
+            @Param("to") BookingStatus to,
+            @Param("booking") Booking booking
+    );
+
+    /**
+     * Only rows still held by the booking are touched, a unit freed and taken by another booking in between keeps it
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Unit u SET u.status = :to, u.booking = null, u.version = u.version + 1 " +
+            "WHERE u.id IN :ids AND u.status = :from AND u.booking = :booking")
+    int updateStatusAndClearBooking(
+            @Param("ids") Collection<Long> ids,
+            @Param("from") BookingStatus from,
+            @Param("to") BookingStatus to,
+            @Param("booking") Booking booking
+    );
+
+    @Query("SELECT u.id AS unitId, u.booking.id AS bookingId FROM Unit u WHERE u.booking.id IN :bookingIds ORDER BY u.id")
+    List<UnitBooking> findUnitBookings(@Param("bookingIds") Collection<Long> bookingIds);
+
+    @Query("SELECT u.id AS unitId, b.id AS bookingId FROM Booking b JOIN b.stayUnits u WHERE b.id IN :bookingIds ORDER BY u.id")
+    List<UnitBooking> findStayUnitBookings(@Param("bookingIds") Collection<Long> bookingIds);
+
+    /**
+     * Frees every unit of the given bookings in one statement, used by the bulk expiry
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Unit u SET u.status = :to, u.booking = null, u.version = u.version + 1 " +
+            "WHERE u.booking.id IN :bookingIds")
+    int updateStatusAndClearBookingByBookingIds(
+            @Param("bookingIds") Collection<Long> bookingIds,
+            @Param("to") BookingStatus to
+    );
+
+    /**
+     * SELECT ... FOR UPDATE, rows are locked in ascending id order so concurrent bookings cannot deadlock
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM Unit u WHERE u.id IN :ids ORDER BY u.id")
+    List<Unit> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    /**
+     * SELECT ... FOR UPDATE NOWAIT, fails immediately when any of the rows is locked
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "0"))
+    @Query("SELECT u FROM Unit u WHERE u.id IN :ids ORDER BY u.id")
+    List<Unit> findAllByIdForUpdateNoWait(@Param("ids") Collection<Long> ids);
+
+    /**
+     * SELECT ... FOR UPDATE SKIP LOCKED (lock timeout -2 in Hibernate), locked rows are left out of the result
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT u FROM Unit u WHERE u.id IN :ids ORDER BY u.id")
+    List<Unit> findAllByIdForUpdateSkipLocked(@Param("ids") Collection<Long> ids);
+
+    private static Specification<Unit> matching(UnitSearchCriteria criteria) {
+        return where(hasRooms(criteria.numberOfRooms()))
+                .and(hasType(criteria.type()))
+                .and(costBetween(criteria.minCost(), criteria.maxCost()))
+                .and(bookingDateBetweenOrIsNull(criteria.from(), criteria.to()))
+                .and(freeBetween(criteria.checkIn(), criteria.checkOut()))
+                .and(isAvailable());
+    }
+
+    /**
+     * (key, id) strictly after the cursor in the given direction: a greater key, or the same key and a greater id
+     */
+    @Nullable
+    private static Specification<Unit> after(UnitSortKey sortKey, Sort.Direction direction, @Nullable Cursor cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            Path<Long> id = root.get(Unit_.id);
+            val idAfter = direction.isAscending() ? cb.gt(id, cursor.id()) : cb.lt(id, cursor.id());
+            if (sortKey == UnitSortKey.ID) {
+                return idAfter;
+            }
+
+            Path<Number> key = root.get(sortKey.getProperty());
+            // not a ternary: it would promote the int back to double
+            final Number bound;
+            if (sortKey == UnitSortKey.NUMBER_OF_ROOMS) {
+                bound = (int) cursor.key();
+            } else {
+                bound = cursor.key();
+            }
+            val keyAfter = direction.isAscending() ? cb.gt(key, bound) : cb.lt(key, bound);
+            return cb.or(keyAfter, cb.and(cb.equal(key, bound), idAfter));
+        };
+    }
+
     private static Specification<Unit> hasRooms(@Nullable Integer rooms) {
         return (root, query, cb) -> rooms == null
                 ? null
@@ -92,7 +291,57 @@ public interface UnitRepository extends JpaRepository<Unit, Long>, JpaSpecificat
         }
     }
 
+    /**
+     * No stay of the unit overlaps [checkIn, checkOut), read from booking_stays while the search index is not built
+     */
+    @Nullable
+    private static Specification<Unit> freeBetween(@Nullable LocalDate checkIn, @Nullable LocalDate checkOut) {
+        if (checkIn == null || checkOut == null) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            val overlapping = query.subquery(Long.class);
+            val booking = overlapping.from(Booking.class);
+            overlapping.select(booking.get(Booking_.id)).where(
+                    cb.equal(booking.join(Booking_.stayUnits), root),
+                    cb.lessThan(booking.get(Booking_.checkIn), checkOut),
+                    cb.greaterThan(booking.get(Booking_.checkOut), checkIn)
+            );
+            return cb.not(cb.exists(overlapping));
+        };
+    }
+
     private static Specification<Unit> isAvailable() {
         return (root, query, cb) -> cb.equal(root.get(Unit_.status), AVAILABLE);
     }
+
+    interface BookedUnit {
+        Long getBookingId();
+
+        Long getId();
+
+        int getNumberOfRooms();
+
+        AccommodationType getType();
+
+        BookingStatus getStatus();
+
+        int getFloor();
+
+        LocalDate getBookingDate();
+
+        int getVersion();
+
+        double getBaseCost();
+
+        double getTotalCost();
+
+        String getDescription();
+    }
+
+    interface UnitBooking {
+        Long getUnitId();
+
+        Long getBookingId();
+    }
 }
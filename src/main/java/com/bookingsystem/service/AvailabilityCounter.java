@@ -0,0 +1,118 @@
+package com.bookingsystem.service;
+
+import com.bookingsystem.properties.AvailabilityCounterProperties;
+import com.bookingsystem.repository.UnitRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Count of AVAILABLE units kept in a Redis counter shared by all nodes</br>
+ * Every status transition applies its delta with INCRBY after commit, so reads are a single GET that never misses</br>
+ * Reconciled against the database on startup and periodically, which also repairs deltas lost to a Redis outage.
+ * Every delta also bumps a version next to the counter, the database count only replaces the counter when no delta
+ * arrived since the version was read before counting, otherwise the next run tries again</br>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AvailabilityCounter {
+    private final StringRedisTemplate redisTemplate;
+    private final UnitRepository unitRepository;
+    private final AvailabilityCounterProperties properties;
+
+    static final RedisScript<Long> ADJUST = RedisScript.of("""
+            redis.call('INCR', KEYS[2])
+            return redis.call('INCRBY', KEYS[1], ARGV[1])
+            """, Long.class);
+    /**
+     * Nil when a delta arrived in between, otherwise the previous counter value or an empty string when there was none
+     */
+    static final RedisScript<String> RESET = RedisScript.of("""
+            if (redis.call('GET', KEYS[2]) or '0') ~= ARGV[1] then
+                return false
+            end
+            local previous = redis.call('GET', KEYS[1]) or ''
+            redis.call('SET', KEYS[1], ARGV[2])
+            return previous
+            """, String.class);
+
+    private volatile boolean ready;
+
+    /**
+     * Falls back to counting in the database while the counter is disabled, not reconciled yet or unreachable
+     */
+    public long getAvailableUnits() {
+        if (properties.isEnabled() && ready) {
+            try {
+                val value = redisTemplate.opsForValue().get(properties.getKey());
+                if (value != null) {
+                    return Long.parseLong(value);
+                }
+            } catch (DataAccessException e) {
+                log.warn("Failed to read availability counter, counting in the database", e);
+            }
+        }
+        return unitRepository.countAvailableUnits();
+    }
+
+    /**
+     * Applies the change in the number of AVAILABLE units once the surrounding transaction commits
+     */
+    public void adjustAfterCommit(long delta) {
+        if (delta == 0 || !properties.isEnabled()) {
+            return;
+        }
+        TransactionCallbacks.afterCommit(() -> adjust(delta));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${booking.scheduler.availability-reconcile-delay-ms}")
+    public void reconcile() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            val version = Optional.ofNullable(redisTemplate.opsForValue().get(versionKey())).orElse("0");
+            val actual = unitRepository.countAvailableUnits();
+            val previous = redisTemplate.execute(RESET, keys(), version, String.valueOf(actual));
+            if (previous == null) {
+                log.debug("Availability counter changed while counting, reconciling on the next run");
+                return;
+            }
+            if (!previous.isEmpty() && Long.parseLong(previous) != actual) {
+                log.warn("Availability counter was {} while the database has {}, reset", previous, actual);
+            }
+            ready = true;
+        } catch (DataAccessException e) {
+            ready = false;
+            log.warn("Failed to reconcile availability counter", e);
+        }
+    }
+
+    private void adjust(long delta) {
+        try {
+            redisTemplate.execute(ADJUST, keys(), String.valueOf(delta));
+        } catch (DataAccessException e) {
+            log.warn("Failed to apply availability delta {}, left to reconciliation", delta, e);
+        }
+    }
+
+    private List<String> keys() {
+        return List.of(properties.getKey(), versionKey());
+    }
+
+    private String versionKey() {
+        return properties.getKey() + ":version";
+    }
+}
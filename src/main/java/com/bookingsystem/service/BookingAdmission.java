@@ -0,0 +1,216 @@
+package com.bookingsystem.service;
+
+import com.bookingsystem.api.dto.BookingCreateDto;
+import com.bookingsystem.api.dto.BookingTicketDto;
+import com.bookingsystem.api.dto.BookingTicketDto.Status;
+import com.bookingsystem.exceptions.AdmissionQueueFullException;
+import com.bookingsystem.exceptions.TicketNotFoundException;
+import com.bookingsystem.mapper.BookingMapper;
+import com.bookingsystem.properties.BookingAdmissionProperties;
+import jakarta.annotation.Nullable;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.bookingsystem.api.dto.BookingTicketDto.Status.*;
+
+/**
+ * Queued intake of booking requests for flash sales, enabled by booking.admission.enabled</br>
+ * Requests wait in a bounded FIFO queue and a fixed number of workers create the bookings, so the database sees
+ * the same few transactions at a time however many clients arrive at once. A full queue turns requests away
+ * right away instead of letting them pile up on locks and retries</br>
+ * Each request gets a ticket that can be long-polled for its outcome. Queue and tickets live on this node,
+ * shutdown stops taking requests, drains the queue for a bounded time and fails the tickets that never started
+ */
+@Slf4j
+@Component
+public class BookingAdmission {
+    private final BookingService bookingService;
+    private final BookingMapper bookingMapper;
+    private final BookingAdmissionProperties properties;
+    private final ConcurrentMap<String, Ticket> tickets = new ConcurrentHashMap<>();
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong started = new AtomicLong();
+    @Nullable
+    private final ThreadPoolExecutor workers;
+
+    public BookingAdmission(
+            BookingService bookingService,
+            BookingMapper bookingMapper,
+            BookingAdmissionProperties properties
+    ) {
+        this.bookingService = bookingService;
+        this.bookingMapper = bookingMapper;
+        this.properties = properties;
+        this.workers = properties.isEnabled() ? startWorkers(properties) : null;
+    }
+
+    public boolean isEnabled() {
+        return workers != null;
+    }
+
+    /**
+     * Minimum time a ticket can be read, so a replayed ticket never points at one that is gone
+     */
+    public Duration getTicketTtl() {
+        return properties.getTicketTtl();
+    }
+
+    /**
+     * @throws AdmissionQueueFullException when the queue is at capacity
+     */
+    public BookingTicketDto submit(BookingCreateDto dto) {
+        if (workers == null) {
+            throw new IllegalStateException("Booking admission queue is disabled");
+        }
+
+        val ticket = new Ticket(UUID.randomUUID().toString(), submitted.incrementAndGet());
+        tickets.put(ticket.id, ticket);
+        try {
+            workers.execute(() -> process(ticket, dto));
+        } catch (RejectedExecutionException e) {
+            tickets.remove(ticket.id);
+            if (workers.isShutdown()) {
+                throw new AdmissionQueueFullException("Booking queue is shutting down, please try again later", e);
+            }
+            throw new AdmissionQueueFullException("Booking queue is full, please try again later", e);
+        }
+        return snapshot(ticket);
+    }
+
+    /**
+     * Completes with the outcome as soon as it is known, or with the current state once the wait is over</br>
+     * The wait is capped by booking.admission.max-wait
+     */
+    public CompletableFuture<BookingTicketDto> await(String ticketId, Duration wait) {
+        val ticket = tickets.get(ticketId);
+        if (ticket == null) {
+            throw new TicketNotFoundException("Ticket not found: " + ticketId);
+        }
+
+        val bounded = wait.compareTo(properties.getMaxWait()) > 0 ? properties.getMaxWait() : wait;
+        if (ticket.outcome.isDone() || bounded.isZero() || bounded.isNegative()) {
+            return CompletableFuture.completedFuture(snapshot(ticket));
+        }
+        return ticket.outcome.copy()
+                .orTimeout(bounded.toMillis(), TimeUnit.MILLISECONDS)
+                .exceptionally(timeout -> snapshot(ticket));
+    }
+
+    @Scheduled(fixedDelayString = "${booking.scheduler.admission-purge-delay-ms}")
+    public void purge() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        val expiredBefore = Instant.now().minus(properties.getTicketTtl());
+        tickets.values().removeIf(ticket -> ticket.doneAt != null && ticket.doneAt.isBefore(expiredBefore));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (workers == null) {
+            return;
+        }
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(properties.getShutdownTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("Booking queue not drained within {}", properties.getShutdownTimeout());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        workers.shutdownNow();
+
+        val abandoned = tickets.values().stream()
+                .filter(ticket -> ticket.abandon("Booking queue shut down before the request was processed"))
+                .count();
+        if (abandoned > 0) {
+            log.warn("Failed {} queued booking requests on shutdown", abandoned);
+        }
+    }
+
+    private void process(Ticket ticket, BookingCreateDto dto) {
+        if (!ticket.start()) {
+            return;
+        }
+        started.accumulateAndGet(ticket.sequence, Math::max);
+        try {
+            val booking = bookingMapper.toDto(bookingService.createBooking(dto));
+            ticket.complete(new BookingTicketDto(ticket.id, COMPLETED, null, booking, null));
+        } catch (RuntimeException e) {
+            log.debug("Queued booking {} failed: {}", ticket.id, e.getMessage());
+            ticket.complete(new BookingTicketDto(ticket.id, FAILED, null, null, e.getMessage()));
+        }
+    }
+
+    private BookingTicketDto snapshot(Ticket ticket) {
+        if (ticket.outcome.isDone()) {
+            return ticket.outcome.join();
+        }
+        val status = ticket.status;
+        // approximate, tickets are numbered before they are enqueued
+        val position = status == QUEUED ? Math.max(0, ticket.sequence - started.get() - 1) : null;
+        return new BookingTicketDto(ticket.id, status, position, null, null);
+    }
+
+    private static ThreadPoolExecutor startWorkers(BookingAdmissionProperties properties) {
+        val index = new AtomicInteger();
+        log.info("Booking admission queue enabled with {} workers and capacity {}", properties.getWorkers(), properties.getCapacity());
+        return new ThreadPoolExecutor(
+                properties.getWorkers(),
+                properties.getWorkers(),
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getCapacity()),
+                runnable -> new Thread(runnable, "booking-admission-" + index.getAndIncrement()),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    private static final class Ticket {
+        private final String id;
+        private final long sequence;
+        private final CompletableFuture<BookingTicketDto> outcome = new CompletableFuture<>();
+        private volatile Status status = QUEUED;
+        private volatile Instant doneAt;
+
+        private Ticket(String id, long sequence) {
+            this.id = id;
+            this.sequence = sequence;
+        }
+
+        /**
+         * Takes the ticket off the queue, false once shutdown failed it
+         */
+        private synchronized boolean start() {
+            if (status != QUEUED) {
+                return false;
+            }
+            status = PROCESSING;
+            return true;
+        }
+
+        private synchronized boolean abandon(String error) {
+            if (status != QUEUED) {
+                return false;
+            }
+            complete(new BookingTicketDto(id, FAILED, null, null, error));
+            return true;
+        }
+
+        private void complete(BookingTicketDto result) {
+            status = result.status();
+            doneAt = Instant.now();
+            outcome.complete(result);
+        }
+    }
+}
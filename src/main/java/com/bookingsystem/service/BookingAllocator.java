@@ -0,0 +1,120 @@
+package com.bookingsystem.service;
+
+import com.bookingsystem.api.dto.BookingAllocateDto;
+import com.bookingsystem.api.dto.BookingCreateDto;
+import com.bookingsystem.exceptions.UnitNotFoundException;
+import com.bookingsystem.model.Booking;
+import com.bookingsystem.model.Unit;
+import com.bookingsystem.properties.BookingAllocationProperties;
+import com.bookingsystem.repository.UnitRepository;
+import com.bookingsystem.service.UnitFreeLists.Bucket;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.bookingsystem.model.BookingStatus.AVAILABLE;
+
+/**
+ * "Book any matching unit": candidates are taken from the {@link UnitFreeLists} bucket of the requested type and
+ * rooms, checked against the rest of the criteria on the indexed copy and booked through
+ * {@link BookingService#createBooking}, which confirms the reservation in the database</br>
+ * A candidate lost to a concurrent booking costs one probe and the next one is tried,
+ * callers no longer pile onto the same units. A booking that failed for any other reason, e.g. one that used up
+ * its retries, ends the allocation instead of multiplying those retries over further probes
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BookingAllocator {
+    private final BookingService bookingService;
+    private final UnitService unitService;
+    private final UnitFreeLists freeLists;
+    private final UnitSearchIndex unitSearchIndex;
+    private final UnitRepository unitRepository;
+    private final BookingAllocationProperties properties;
+
+    public Booking allocateBooking(BookingAllocateDto dto) {
+        val bucket = new Bucket(dto.type(), dto.numberOfRooms());
+
+        for (int probe = 0; probe < properties.getMaxProbes(); probe++) {
+            val unitId = freeLists.poll(bucket, () -> availableIds(bucket));
+            if (unitId.isEmpty()) {
+                break;
+            }
+
+            val unit = candidate(unitId.get()).filter(it -> belongsTo(it, bucket));
+            if (unit.isEmpty()) {
+                // taken as a whole or changed, it comes back with a later refill when it fits the bucket again
+                continue;
+            }
+            if (!matches(unit.get(), dto)) {
+                freeLists.offer(bucket, unitId.get());
+                continue;
+            }
+
+            try {
+                val booking = bookingService.createBooking(
+                        new BookingCreateDto(Set.of(unitId.get()), dto.userId(), dto.checkIn(), dto.checkOut())
+                );
+                if (dto.isStay()) {
+                    freeLists.offer(bucket, unitId.get());
+                }
+                log.info("Allocated unit {} to booking {} after {} probes", unitId.get(), booking.getId(), probe + 1);
+                return booking;
+            } catch (UnitNotFoundException e) {
+                log.debug("Unit {} was taken before it could be booked: {}", unitId.get(), e.getMessage());
+                if (dto.isStay()) {
+                    freeLists.offer(bucket, unitId.get());
+                }
+            } catch (RuntimeException e) {
+                // not taken, only contended: it stays a candidate for the next caller
+                freeLists.offer(bucket, unitId.get());
+                throw e;
+            }
+        }
+
+        // the bucket may only hold candidates of other criteria while released units wait for a refill
+        freeLists.invalidate(bucket);
+        throw new UnitNotFoundException("No free " + dto.type() + " unit with " + dto.numberOfRooms() + " rooms matches the request");
+    }
+
+    private Collection<Long> availableIds(Bucket bucket) {
+        return unitSearchIndex.availableIds(bucket.type(), bucket.numberOfRooms())
+                .orElseGet(() -> unitRepository.findAvailableIds(bucket.type(), bucket.numberOfRooms()));
+    }
+
+    private Optional<Unit> candidate(Long unitId) {
+        if (unitSearchIndex.isReady()) {
+            return unitSearchIndex.find(unitId);
+        }
+        try {
+            return Optional.of(unitService.getUnitById(unitId));
+        } catch (UnitNotFoundException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static boolean belongsTo(Unit unit, Bucket bucket) {
+        return unit.getStatus() == AVAILABLE
+                && unit.getType() == bucket.type()
+                && unit.getNumberOfRooms() == bucket.numberOfRooms();
+    }
+
+    /**
+     * Whole-unit bookings need a unit without booked nights, stays a unit free for all of their nights
+     */
+    private static boolean matches(Unit unit, BookingAllocateDto dto) {
+        if (dto.minCost() != null && unit.getTotalCost() < dto.minCost()) {
+            return false;
+        }
+        if (dto.maxCost() != null && unit.getTotalCost() > dto.maxCost()) {
+            return false;
+        }
+        return dto.isStay() ? unit.isFree(dto.checkIn(), dto.checkOut()) : !unit.hasBookedNights();
+    }
+}
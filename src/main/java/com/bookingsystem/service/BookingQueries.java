@@ -0,0 +1,105 @@
+package com.bookingsystem.service;
+
+import com.bookingsystem.api.dto.BookingResponseDto;
+import com.bookingsystem.api.dto.Cursor;
+import com.bookingsystem.api.dto.CursorPage;
+import com.bookingsystem.api.dto.CursorRequest;
+import com.bookingsystem.api.dto.UnitResponseDto;
+import com.bookingsystem.repository.BookingRepository;
+import com.bookingsystem.repository.BookingRepository.BookingSummary;
+import com.bookingsystem.repository.UnitRepository;
+import com.bookingsystem.repository.UnitRepository.BookedUnit;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.util.stream.Collectors.*;
+
+/**
+ * Read side of bookings: responses are assembled from projections, one query for the bookings
+ * and one for all of their units, no entity is loaded</br>
+ * Units of stays come from the booking_stays join table, with one more query only when the bookings hold a stay
+ */
+@Component
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class BookingQueries {
+    private final BookingRepository bookingRepository;
+    private final UnitRepository unitRepository;
+
+    public CursorPage<BookingResponseDto> findAll(CursorRequest request) {
+        return request.page(
+                assemble(bookingRepository.findSummariesAfter(request.afterId(), request.limit())),
+                booking -> Cursor.byId(booking.id()),
+                bookingRepository::count
+        );
+    }
+
+    public Optional<BookingResponseDto> findById(Long id) {
+        return bookingRepository.findSummaryById(id)
+                .map(booking -> assemble(List.of(booking)).getFirst());
+    }
+
+    public Map<Long, List<BookingResponseDto>> findByUserIds(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return Map.of();
+        }
+        return assemble(bookingRepository.findSummariesByUserIds(userIds))
+                .stream()
+                .collect(groupingBy(BookingResponseDto::userId));
+    }
+
+    List<BookingResponseDto> assemble(List<BookingSummary> bookings) {
+        if (bookings.isEmpty()) {
+            return List.of();
+        }
+
+        val bookingIds = bookings.stream().map(BookingSummary::getId).toList();
+        val unitsByBooking = unitRepository.findBookedUnits(bookingIds)
+                .stream()
+                .collect(groupingBy(BookedUnit::getBookingId, mapping(BookingQueries::toDto, toList())));
+
+        val stayIds = bookings.stream()
+                .filter(booking -> booking.getCheckIn() != null)
+                .map(BookingSummary::getId)
+                .toList();
+        if (!stayIds.isEmpty()) {
+            unitRepository.findStayUnits(stayIds)
+                    .stream()
+                    .collect(groupingBy(BookedUnit::getBookingId, mapping(BookingQueries::toDto, toList())))
+                    .forEach(unitsByBooking::put);
+        }
+
+        return bookings.stream()
+                .map(booking -> new BookingResponseDto(
+                        booking.getId(),
+                        booking.getUserId(),
+                        unitsByBooking.getOrDefault(booking.getId(), List.of()),
+                        booking.getCreatedAt(),
+                        booking.getCheckIn(),
+                        booking.getCheckOut()
+                ))
+                .toList();
+    }
+
+    private static UnitResponseDto toDto(BookedUnit unit) {
+        return new UnitResponseDto(
+                unit.getId(),
+                unit.getNumberOfRooms(),
+                unit.getType(),
+                unit.getStatus(),
+                unit.getFloor(),
+                unit.getBookingDate(),
+                unit.getVersion(),
+                unit.getBaseCost(),
+                unit.getTotalCost(),
+                unit.getDescription()
+        );
+    }
+}
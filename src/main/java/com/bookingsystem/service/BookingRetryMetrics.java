@@ -0,0 +1,60 @@
+package com.bookingsystem.service;
+
+import com.bookingsystem.properties.BookingConcurrencyProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Counts retried and recovered booking attempts, tagged by the failure that caused them</br>
+ * A failed attempt only counts as a retry when another attempt follows it, the last attempt and failures
+ * that are not retried end in the recover methods instead</br>
+ * Registered as the retry listener of {@link BookingService#createBooking}, the {@code @Recover} methods report
+ * through {@link #recovered}
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingRetryMetrics implements RetryListener {
+    static final String RETRIES = "booking.create.retries";
+    static final String RECOVERED = "booking.create.recovered";
+    /**
+     * The retryFor of {@link BookingService#createBooking}
+     */
+    static final List<Class<? extends Throwable>> RETRY_FOR = List.of(
+            ObjectOptimisticLockingFailureException.class,
+            PessimisticLockingFailureException.class,
+            CannotAcquireLockException.class,
+            TransientDataAccessException.class
+    );
+
+    private final MeterRegistry meterRegistry;
+    private final BookingConcurrencyProperties concurrencyProperties;
+
+    /**
+     * Called with the retry count already including this failure
+     */
+    @Override
+    public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+        if (context.getRetryCount() >= concurrencyProperties.getMaxAttempts() || !isRetried(throwable)) {
+            return;
+        }
+        meterRegistry.counter(RETRIES, "exception", throwable.getClass().getSimpleName()).increment();
+    }
+
+    public void recovered(Throwable throwable) {
+        meterRegistry.counter(RECOVERED, "exception", throwable.getClass().getSimpleName()).increment();
+    }
+
+    private static boolean isRetried(Throwable throwable) {
+        return RETRY_FOR.stream().anyMatch(type -> type.isInstance(throwable));
+    }
+}
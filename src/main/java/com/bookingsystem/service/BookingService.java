@@ -1,20 +1,26 @@
 package com.bookingsystem.service;
 
 import com.bookingsystem.api.dto.BookingCreateDto;
+import com.bookingsystem.api.dto.BookingResponseDto;
 import com.bookingsystem.api.dto.BookingUpdateDto;
+import com.bookingsystem.api.dto.CursorPage;
+import com.bookingsystem.api.dto.CursorRequest;
 import com.bookingsystem.exceptions.BookingNotFoundException;
 import com.bookingsystem.exceptions.PaymentNotFoundException;
 import com.bookingsystem.exceptions.UnitNotFoundException;
 import com.bookingsystem.model.Booking;
 import com.bookingsystem.model.Payment;
 import com.bookingsystem.model.Unit;
+import com.bookingsystem.model.User;
+import com.bookingsystem.properties.BookingCalendarProperties;
+import com.bookingsystem.properties.BookingConcurrencyProperties;
 import com.bookingsystem.properties.CancellationTimeProperties;
 import com.bookingsystem.repository.BookingRepository;
 import com.bookingsystem.repository.PaymentRepository;
+import jakarta.annotation.Nullable;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.dao.CannotAcquireLockException;
 import org.springframework.dao.PessimisticLockingFailureException;
 import org.springframework.dao.TransientDataAccessException;
@@ -23,21 +29,19 @@ import org.springframework.retry.annotation.Backoff;
 import org.springframework.retry.annotation.Recover;
 import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Isolation;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.io.IOException;
-import java.util.List;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
-import static com.bookingsystem.configuration.RedisConfig.UNIT_COUNT_CACHE;
 import static com.bookingsystem.model.BookingStatus.AVAILABLE;
-import static com.bookingsystem.model.BookingStatus.RESERVED;
-import static com.bookingsystem.model.EntityType.BOOKING;
-import static com.bookingsystem.model.EventOperation.*;
+import static com.bookingsystem.model.EventTemplate.*;
+import static com.bookingsystem.properties.BookingConcurrencyProperties.Mode.ORDERED_LOCKING;
+import static java.time.temporal.ChronoUnit.DAYS;
 import static java.util.Objects.isNull;
 import static java.util.function.Predicate.not;
 
@@ -51,66 +55,127 @@ public class BookingService {
     private final PaymentRepository paymentRepository;
     private final CancellationTimeProperties cancellationTimeProperties;
     private final EventService eventService;
+    private final BookingConcurrencyProperties concurrencyProperties;
+    private final BookingTransactions bookingTransactions;
+    private final PaymentDeadlineScheduler paymentDeadlineScheduler;
+    private final BookingRetryMetrics retryMetrics;
+    private final BookingQueries bookingQueries;
+    private final BookingCalendarProperties calendarProperties;
+    private final BookingShards bookingShards;
 
     /**
-     * STEP 1: Create booking (Units become RESERVED immediately)</br>
+     * STEP 1: Create booking (Units become RESERVED immediately, or only the nights of a stay are booked)</br>
      * STEP 2: Create payment record with 15-minute deadline</br>
-     * STEP 3: User must call processPayment() to complete payment
+     * STEP 3: User must call processPayment() to complete payment</br>
+     * Runs in the transaction of the configured {@link BookingConcurrencyProperties.Mode},
+     * on the {@link BookingShards} of the units in SHARDED mode
      */
-    @Transactional(isolation = Isolation.SERIALIZABLE)
     @Retryable(
+            // keep in line with BookingRetryMetrics.RETRY_FOR
             retryFor = {
                     ObjectOptimisticLockingFailureException.class,
                     PessimisticLockingFailureException.class,
                     CannotAcquireLockException.class,
                     TransientDataAccessException.class
             },
-            maxAttempts = 5,
+            maxAttemptsExpression = "#{@bookingConcurrencyProperties.maxAttempts}",
+            listeners = "bookingRetryMetrics",
             backoff = @Backoff(
                     delay = 100,      // Start with 100ms
                     multiplier = 2.0, // Double each time: 100ms, 200ms, 400ms
                     maxDelay = 1000   // Cap at 1 second
             )
     )
-    @CacheEvict(value = UNIT_COUNT_CACHE, key = "'count'")
     public Booking createBooking(BookingCreateDto dto) {
-        val user = userService.getUserById(dto.userId());
+        val unitIds = Optional.ofNullable(dto.unitIds()).orElse(Set.of());
+        return bookingShards.execute(unitIds, () -> bookingTransactions.execute(() -> create(dto)));
+    }
+
+    /**
+     * Cancel booking - can only cancel if not paid yet</br>
+     * Makes units available again
+     */
+    public void cancelBooking(Long bookingId, Long userId) {
+        bookingShards.runForBooking(bookingId, () -> bookingTransactions.run(() -> cancel(bookingId, userId)));
+    }
+
+    public Booking updateBooking(Long id, BookingUpdateDto dto) {
+        val unitIds = Optional.ofNullable(dto.unitIds()).orElse(Set.of());
+        return bookingShards.executeForBooking(id, unitIds, () -> bookingTransactions.execute(() -> update(id, dto)));
+    }
+
+    private Booking create(BookingCreateDto dto) {
+        val user = userService.getCachedUser(dto.userId());
+        val stay = isStay(dto.checkIn(), dto.checkOut());
 
         val units = Optional.ofNullable(dto.unitIds())
-                .map(unitService::findAllById)
+                .map(this::loadUnits)
                 .orElseThrow(() -> new IllegalArgumentException("Unit IDs are required"));
 
-        validateAllUnitsAvailable(units);
-        val booking = new Booking(units, user);
-        units.forEach(unit -> unit.setBooking(booking));
-        val savedBooking = bookingRepository.save(booking);
-        unitService.setUnitsBookingStatus(units, RESERVED);
+        val savedBooking = stay
+                ? reserveStay(units, user, dto.checkIn(), dto.checkOut())
+                : reserveWhole(units, user);
 
         val paymentDeadline = savedBooking.getCreatedAt().plusMinutes(cancellationTimeProperties.getMinutesValue());
         val payment = new Payment(savedBooking, paymentDeadline);
         paymentRepository.save(payment);
+        paymentDeadlineScheduler.scheduleAfterCommit(savedBooking.getId(), paymentDeadline);
 
         log.info("Created booking {} for user {} with {} units", savedBooking.getId(), user.getId(), units.size());
         log.info("Payment deadline: {} -- {} minutes", payment.getPaymentDeadline(), cancellationTimeProperties.getMinutesValue());
 
-        eventService.createEvent(
-                BOOKING,
-                CREATE,
-                savedBooking.getId(),
-                String.format("Booking created: %s", savedBooking.getId())
-        );
+        Map<String, Object> payload = new HashMap<>(Map.of("userId", user.getId(), "units", units.size()));
+        if (stay) {
+            payload.put("checkIn", dto.checkIn().toString());
+            payload.put("checkOut", dto.checkOut().toString());
+        }
+        eventService.createEvent(BOOKING_CREATED, savedBooking.getId(), payload);
 
         return savedBooking;
     }
 
+    private Booking reserveWhole(Set<Unit> units, User user) {
+        validateAllUnitsAvailable(units);
+        val booking = bookingRepository.save(new Booking(units, user));
+        unitService.reserveUnits(units, booking);
+        return booking;
+    }
+
+    private Booking reserveStay(Set<Unit> units, User user, LocalDate checkIn, LocalDate checkOut) {
+        requireUnits(units);
+        val booking = bookingRepository.save(new Booking(units, user, checkIn, checkOut));
+        unitService.reserveNights(units, checkIn, checkOut);
+        return booking;
+    }
+
     /**
-     * Cancel booking - can only cancel if not paid yet</br>
-     * Makes units available again
+     * A stay needs both dates, at least one and at most max-nights nights, and must end within the booking horizon
      */
-    @Transactional(isolation = Isolation.SERIALIZABLE)
-    @CacheEvict(value = UNIT_COUNT_CACHE, key = "'count'")
-    public void cancelBooking(Long bookingId, Long userId) {
+    private boolean isStay(@Nullable LocalDate checkIn, @Nullable LocalDate checkOut) {
+        if (checkIn == null && checkOut == null) {
+            return false;
+        }
+        if (checkIn == null || checkOut == null) {
+            throw new IllegalArgumentException("Check-in and check-out must be given together");
+        }
+        if (checkIn.isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("Check-in cannot be in the past");
+        }
+        if (!checkOut.isAfter(checkIn)) {
+            throw new IllegalArgumentException("Check-out must be after check-in");
+        }
+        if (DAYS.between(checkIn, checkOut) > calendarProperties.getMaxNights()) {
+            throw new IllegalArgumentException("A stay cannot be longer than " + calendarProperties.getMaxNights() + " nights");
+        }
+        if (checkOut.isAfter(LocalDate.now().plusDays(calendarProperties.getHorizonDays()))) {
+            throw new IllegalArgumentException("Stays can be booked up to " + calendarProperties.getHorizonDays() + " days ahead");
+        }
+        return true;
+    }
+
+    private void cancel(Long bookingId, Long userId) {
         val booking = getBookingById(bookingId);
+        bookingShards.requireRouted(booking.heldUnits());
 
         if (!booking.getUser().getId().equals(userId)) {
             throw new IllegalStateException("Only booking owner can cancel this booking");
@@ -123,26 +188,22 @@ public class BookingService {
             throw new IllegalStateException("Cannot cancel a paid booking");
         }
 
-        booking.getUnits().forEach(unit -> unit.setBooking(null));
-        unitService.setUnitsBookingStatus(booking.getUnits(), AVAILABLE);
+        lockUnits(booking.heldUnits());
+
+        release(booking);
 
         paymentRepository.delete(payment);
         bookingRepository.delete(booking);
+        paymentDeadlineScheduler.cancelAfterCommit(bookingId);
 
-        eventService.createEvent(
-                BOOKING,
-                DELETE,
-                booking.getId(),
-                String.format("Booking deleted: %s", booking.getId())
-        );
+        eventService.createEvent(BOOKING_DELETED, booking.getId(), Map.of("userId", userId));
 
         log.info("Cancelled booking {} by user {}", bookingId, userId);
     }
 
-    @Transactional(isolation = Isolation.SERIALIZABLE)
-    @CacheEvict(value = UNIT_COUNT_CACHE, key = "'count'")
-    public Booking updateBooking(Long id, BookingUpdateDto dto) {
+    private Booking update(Long id, BookingUpdateDto dto) {
         val booking = getBookingById(id);
+        bookingShards.requireRouted(booking.heldUnits());
 
         if (isNull(dto.unitIds()) || dto.unitIds().isEmpty()) {
             return booking;
@@ -155,30 +216,29 @@ public class BookingService {
             throw new IllegalStateException("Cannot update a paid booking");
         }
 
-        val newUnits = unitService.findAllById(dto.unitIds());
-
-        validateAllUnitsAvailable(newUnits);
-
-        val oldUnits = booking.getUnits();
-
-        booking.update(newUnits);
-        val updated = bookingRepository.save(booking);
-
-        oldUnits.forEach(unit -> unit.setBooking(null));
-        unitService.setUnitsBookingStatus(oldUnits, AVAILABLE);
-
-        newUnits.forEach(unit -> unit.setBooking(updated));
-        unitService.setUnitsBookingStatus(newUnits, RESERVED);
+        val newUnits = loadUnitsForUpdate(booking.heldUnits(), dto.unitIds());
+        val oldUnits = booking.heldUnits();
+
+        final Booking updated;
+        if (booking.isStay()) {
+            // units kept in the booking must give their nights back before they are checked again
+            unitService.releaseNights(oldUnits, booking.getCheckIn(), booking.getCheckOut());
+            requireUnits(newUnits);
+            booking.update(newUnits);
+            updated = bookingRepository.save(booking);
+            unitService.reserveNights(newUnits, booking.getCheckIn(), booking.getCheckOut());
+        } else {
+            validateAllUnitsAvailable(newUnits);
+            booking.update(newUnits);
+            updated = bookingRepository.save(booking);
+            unitService.releaseUnits(oldUnits, booking);
+            unitService.reserveUnits(newUnits, updated);
+        }
 
         log.info("Updated booking {} - replaced {} old units with {} new units",
                 id, oldUnits.size(), newUnits.size());
 
-        eventService.createEvent(
-                BOOKING,
-                UPDATE,
-                id,
-                String.format("Booking updated: %s", id)
-        );
+        eventService.createEvent(BOOKING_UPDATED, id, Map.of("units", newUnits.size()));
 
         return updated;
     }
@@ -188,18 +248,64 @@ public class BookingService {
                 .orElseThrow(() -> new BookingNotFoundException("Booking not found with id: " + id));
     }
 
-    public List<Booking> getAllBookings() {
-        return bookingRepository.findAll();
+    public BookingResponseDto getBookingDetails(Long id) {
+        return bookingQueries.findById(id)
+                .orElseThrow(() -> new BookingNotFoundException("Booking not found with id: " + id));
     }
 
-    private void validateAllUnitsAvailable(Set<Unit> units) {
-        if (units.isEmpty()) {
-            throw new UnitNotFoundException("At least one unit must be selected");
+    public CursorPage<BookingResponseDto> getAllBookings(CursorRequest request) {
+        return bookingQueries.findAll(request);
+    }
+
+    private Set<Unit> loadUnits(Set<Long> unitIds) {
+        return concurrencyProperties.getMode() == ORDERED_LOCKING
+                ? unitService.lockAllById(unitIds, concurrencyProperties.getLockWait())
+                : unitService.findAllById(unitIds);
+    }
+
+    /**
+     * In ORDERED_LOCKING mode the current and the requested units are locked with a single ordered statement,
+     * locking them in two steps would reintroduce lock-order deadlocks between concurrent updates
+     */
+    private Set<Unit> loadUnitsForUpdate(Set<Unit> currentUnits, Set<Long> newUnitIds) {
+        if (concurrencyProperties.getMode() != ORDERED_LOCKING) {
+            return unitService.findAllById(newUnitIds);
+        }
+
+        val allIds = new HashSet<>(newUnitIds);
+        currentUnits.forEach(unit -> allIds.add(unit.getId()));
+
+        return unitService.lockAllById(allIds, concurrencyProperties.getLockWait())
+                .stream()
+                .filter(unit -> newUnitIds.contains(unit.getId()))
+                .collect(Collectors.toSet());
+    }
+
+    private void release(Booking booking) {
+        if (booking.isStay()) {
+            unitService.releaseNights(booking.getStayUnits(), booking.getCheckIn(), booking.getCheckOut());
+        } else {
+            unitService.releaseUnits(booking.getUnits(), booking);
         }
+    }
+
+    private void lockUnits(Set<Unit> units) {
+        if (concurrencyProperties.getMode() == ORDERED_LOCKING) {
+            val ids = units.stream().map(Unit::getId).collect(Collectors.toSet());
+            unitService.lockAllById(ids, concurrencyProperties.getLockWait());
+        }
+    }
+
+    /**
+     * Fast rejection on the loaded state, the conditional UPDATE in {@link UnitService#reserveUnits}
+     * is what actually guards the units against concurrent bookings
+     */
+    static void validateAllUnitsAvailable(Set<Unit> units) {
+        requireUnits(units);
 
         val unavailableUnits = units
                 .stream()
-                .filter(not(unit -> unit.getStatus().equals(AVAILABLE)))
+                .filter(not(unit -> unit.getStatus().equals(AVAILABLE) && !unit.hasBookedNights()))
                 .collect(Collectors.toSet());
 
         if (!unavailableUnits.isEmpty()) {
@@ -211,6 +317,12 @@ public class BookingService {
         }
     }
 
+    private static void requireUnits(Set<Unit> units) {
+        if (units.isEmpty()) {
+            throw new UnitNotFoundException("At least one unit must be selected");
+        }
+    }
+
     /**
      * Recovery method for optimistic locking failures
      * Called after all retry attempts exhausted
@@ -220,6 +332,7 @@ public class BookingService {
             ObjectOptimisticLockingFailureException e,
             BookingCreateDto dto
     ) {
+        retryMetrics.recovered(e);
         log.error("Failed to create booking after retries - Optimistic lock conflict for user {}: {}",
                 dto.userId(), e.getMessage());
         throw new IllegalStateException(
@@ -235,6 +348,7 @@ public class BookingService {
             PessimisticLockingFailureException e,
             BookingCreateDto dto
     ) {
+        retryMetrics.recovered(e);
         log.error("Failed to create booking after retries - Database deadlock for user {}: {}",
                 dto.userId(), e.getMessage());
         throw new IllegalStateException(
@@ -250,6 +364,7 @@ public class BookingService {
             CannotAcquireLockException e,
             BookingCreateDto dto
     ) {
+        retryMetrics.recovered(e);
         log.error("Failed to create booking after retries - Cannot acquire lock for user {}: {}",
                 dto.userId(), e.getMessage());
         throw new IllegalStateException(
@@ -265,6 +380,7 @@ public class BookingService {
             TransientDataAccessException e,
             BookingCreateDto dto
     ) {
+        retryMetrics.recovered(e);
         log.error("Failed to create booking after retries - Transient error for user {}: {}",
                 dto.userId(), e.getMessage(), e);
         throw new IllegalStateException(
@@ -0,0 +1,307 @@
+package com.bookingsystem.service;
+
+import com.bookingsystem.exceptions.ShardsBusyException;
+import com.bookingsystem.model.Unit;
+import com.bookingsystem.properties.BookingConcurrencyProperties;
+import com.bookingsystem.repository.BookingRepository;
+import jakarta.annotation.Nullable;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import static com.bookingsystem.properties.BookingConcurrencyProperties.Mode.SHARDED;
+
+/**
+ * Single-writer engine of the SHARDED {@link BookingConcurrencyProperties.Mode}: booking commands are routed by unit id
+ * to one of N single-threaded shards, so commands touching the same unit run one after another and never wait
+ * on each other's row locks or fail on serialization conflicts</br>
+ * A command runs on the shard of its lowest unit id. When its units span several shards, the other shards are parked
+ * first: the park tasks are enqueued under one lock, so every shard sees multi-shard commands in the same order
+ * and they cannot deadlock</br>
+ * Every shard queues a bounded number of commands, a full shard turns commands away and a caller gives up waiting
+ * after shard-timeout, both surface as {@link ShardsBusyException}</br>
+ * The database stays the source of truth, the conditional updates of {@link UnitService} still guard the units
+ * against the set-based expiry sweeps that run outside the shards</br>
+ * In the other modes commands run on the calling thread
+ */
+@Slf4j
+@Component
+public class BookingShards {
+    private static final int MAX_ROUTE_ATTEMPTS = 3;
+
+    private final BookingRepository bookingRepository;
+    private final Duration timeout;
+    private final ExecutorService[] shards;
+    private final ReentrantLock enqueueLock = new ReentrantLock();
+    private final ThreadLocal<Set<Integer>> route = new ThreadLocal<>();
+
+    public BookingShards(BookingConcurrencyProperties concurrencyProperties, BookingRepository bookingRepository) {
+        this.bookingRepository = bookingRepository;
+        this.timeout = concurrencyProperties.getShardTimeout();
+        this.shards = concurrencyProperties.getMode() == SHARDED
+                ? startShards(concurrencyProperties.getShards(), concurrencyProperties.getShardQueueCapacity())
+                : new ExecutorService[0];
+    }
+
+    public boolean isEnabled() {
+        return shards.length > 0;
+    }
+
+    /**
+     * Runs the command on the shards of the given units and waits for its result
+     */
+    public <T> T execute(Collection<Long> unitIds, Supplier<T> command) {
+        if (!isEnabled()) {
+            return command.get();
+        }
+        return submit(unitIds, command);
+    }
+
+    /**
+     * Routes by the units the booking holds plus the given ones</br>
+     * The held units are read before the command runs, when another command moves a unit into the booking
+     * in between, {@link #requireRouted} fails the command and it is routed again
+     */
+    public <T> T executeForBooking(Long bookingId, Collection<Long> unitIds, Supplier<T> command) {
+        if (!isEnabled()) {
+            return command.get();
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            val routed = new HashSet<>(bookingRepository.findHeldUnitIds(bookingId));
+            routed.addAll(unitIds);
+            try {
+                return submit(routed, command);
+            } catch (StaleRouteException e) {
+                if (attempt == MAX_ROUTE_ATTEMPTS) {
+                    throw new IllegalStateException("Booking " + bookingId + " keeps changing, please try again", e);
+                }
+                log.debug("Routing booking {} again: {}", bookingId, e.getMessage());
+            }
+        }
+    }
+
+    public void runForBooking(Long bookingId, Runnable command) {
+        executeForBooking(bookingId, Set.of(), () -> {
+            command.run();
+            return null;
+        });
+    }
+
+    /**
+     * {@link #runForBooking} without waiting for the shard, for callers that must not block such as timers</br>
+     * Outside sharded mode the command runs on the calling thread, its failure completes the future
+     */
+    public CompletableFuture<Void> submitForBooking(Long bookingId, Runnable command) {
+        if (!isEnabled()) {
+            try {
+                command.run();
+                return CompletableFuture.completedFuture(null);
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        return dispatchForBooking(bookingId, () -> {
+            command.run();
+            return null;
+        }, 1);
+    }
+
+    /**
+     * Called by commands with the units they are about to change, no-op outside the shards
+     */
+    public void requireRouted(Collection<Unit> units) {
+        val current = route.get();
+        if (current == null) {
+            return;
+        }
+        units.stream()
+                .map(Unit::getId)
+                .filter(unitId -> !current.contains(shardOf(unitId)))
+                .findAny()
+                .ifPresent(unitId -> {
+                    throw new StaleRouteException("Unit " + unitId + " is not on shards " + current);
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        Arrays.stream(shards).forEach(ExecutorService::shutdown);
+    }
+
+    private <T> T submit(Collection<Long> unitIds, Supplier<T> command) {
+        return await(dispatch(unitIds, command));
+    }
+
+    private <T> CompletableFuture<T> dispatchForBooking(Long bookingId, Supplier<T> command, int attempt) {
+        final CompletableFuture<T> dispatched;
+        try {
+            dispatched = dispatch(bookingRepository.findHeldUnitIds(bookingId), command);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return dispatched.exceptionallyCompose(failure -> {
+            val cause = failure instanceof CompletionException ? failure.getCause() : failure;
+            if (cause instanceof StaleRouteException && attempt < MAX_ROUTE_ATTEMPTS) {
+                log.debug("Routing booking {} again: {}", bookingId, cause.getMessage());
+                return dispatchForBooking(bookingId, command, attempt + 1);
+            }
+            return CompletableFuture.failedFuture(cause);
+        });
+    }
+
+    private <T> CompletableFuture<T> dispatch(Collection<Long> unitIds, Supplier<T> command) {
+        val routed = new TreeSet<Integer>();
+        unitIds.forEach(unitId -> routed.add(shardOf(unitId)));
+        val primary = unitIds.stream().min(Long::compare).map(this::shardOf).orElse(0);
+        routed.add(primary);
+
+        val current = route.get();
+        if (current != null) {
+            // a command issued from a shard can only touch the shards that are already held
+            if (current.containsAll(routed)) {
+                return CompletableFuture.completedFuture(command.get());
+            }
+            throw new IllegalStateException("Booking command for shards " + routed + " issued from shards " + current);
+        }
+
+        if (routed.size() == 1) {
+            val result = new CompletableFuture<T>();
+            enqueue(primary, () -> complete(result, () -> onShard(routed, command)));
+            return result;
+        }
+        return submitAcross(routed, primary, command);
+    }
+
+    /**
+     * Phase one parks every other shard of the command, phase two runs it on the primary shard and releases them
+     */
+    private <T> CompletableFuture<T> submitAcross(SortedSet<Integer> routed, int primary, Supplier<T> command) {
+        val parked = new CountDownLatch(routed.size() - 1);
+        val done = new CountDownLatch(1);
+        val result = new CompletableFuture<T>();
+
+        enqueueLock.lock();
+        try {
+            for (val shard : routed) {
+                if (shard != primary) {
+                    enqueue(shard, () -> park(parked, done), done);
+                }
+            }
+            enqueue(primary, () -> {
+                try {
+                    parked.await();
+                    complete(result, () -> onShard(routed, command));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    result.completeExceptionally(e);
+                } finally {
+                    done.countDown();
+                }
+            }, done);
+            return result;
+        } finally {
+            enqueueLock.unlock();
+        }
+    }
+
+    private void enqueue(int shard, Runnable task) {
+        enqueue(shard, task, null);
+    }
+
+    /**
+     * @param done released when the shard is full, so the shards already parked for the command go back to work
+     */
+    private void enqueue(int shard, Runnable task, @Nullable CountDownLatch done) {
+        try {
+            shards[shard].execute(task);
+        } catch (RejectedExecutionException e) {
+            if (done != null) {
+                done.countDown();
+            }
+            throw new ShardsBusyException("Booking shard " + shard + " is at capacity, please try again later", e);
+        }
+    }
+
+    private static <T> void complete(CompletableFuture<T> result, Supplier<T> command) {
+        try {
+            result.complete(command.get());
+        } catch (Throwable e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    private <T> T onShard(Set<Integer> routed, Supplier<T> command) {
+        route.set(routed);
+        try {
+            return command.get();
+        } finally {
+            route.remove();
+        }
+    }
+
+    private static void park(CountDownLatch parked, CountDownLatch done) {
+        parked.countDown();
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private <T> T await(Future<T> result) {
+        try {
+            return result.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // the command stays queued for the same reason as below, it may still complete
+            throw new ShardsBusyException("Booking command did not complete within " + timeout + ", please check and try again", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Booking command failed", e.getCause());
+        } catch (InterruptedException e) {
+            // the command stays queued, cancelling it could leave the other shards parked
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the booking command", e);
+        }
+    }
+
+    private int shardOf(Long unitId) {
+        return Math.floorMod(Long.hashCode(unitId), shards.length);
+    }
+
+    private static ExecutorService[] startShards(int count, int capacity) {
+        val shards = new ExecutorService[count];
+        for (int index = 0; index < count; index++) {
+            val name = "booking-shard-" + index;
+            shards[index] = new ThreadPoolExecutor(
+                    1,
+                    1,
+                    0L,
+                    TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(capacity),
+                    runnable -> new Thread(runnable, name),
+                    new ThreadPoolExecutor.AbortPolicy()
+            );
+        }
+        log.info("Started {} booking shards", count);
+        return shards;
+    }
+
+    static final class StaleRouteException extends RuntimeException {
+        StaleRouteException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.bookingsystem.service;
+
+import com.bookingsystem.properties.BookingConcurrencyProperties;
+import lombok.val;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+import static com.bookingsystem.properties.BookingConcurrencyProperties.Mode.SERIALIZABLE;
+
+/**
+ * Runs booking mutations in a transaction whose isolation follows the configured
+ * {@link BookingConcurrencyProperties.Mode}, which cannot be expressed with a static @Transactional
+ */
+@Component
+public class BookingTransactions {
+    private final BookingConcurrencyProperties concurrencyProperties;
+    private final TransactionTemplate serializable;
+    private final TransactionTemplate readCommitted;
+
+    public BookingTransactions(
+            PlatformTransactionManager transactionManager,
+            BookingConcurrencyProperties concurrencyProperties
+    ) {
+        this.concurrencyProperties = concurrencyProperties;
+        this.serializable = template(transactionManager, TransactionDefinition.ISOLATION_SERIALIZABLE);
+        this.readCommitted = template(transactionManager, TransactionDefinition.ISOLATION_READ_COMMITTED);
+    }
+
+    public <T> T execute(Supplier<T> action) {
+        return template().execute(status -> action.get());
+    }
+
+    public void run(Runnable action) {
+        template().executeWithoutResult(status -> action.run());
+    }
+
+    /**
+     * SERIALIZABLE whatever the mode, for payments
+     */
+    public <T> T executeSerializable(Supplier<T> action) {
+        return serializable.execute(status -> action.get());
+    }
+
+    private TransactionTemplate template() {
+        return concurrencyProperties.getMode() == SERIALIZABLE ? serializable : readCommitted;
+    }
+
+    private static TransactionTemplate template(PlatformTransactionManager transactionManager, int isolation) {
+        val template = new TransactionTemplate(transactionManager);
+        template.setIsolationLevel(isolation);
+        return template;
+    }
+}
@@ -0,0 +1,114 @@
+package com.bookingsystem.service;
+
+import com.bookingsystem.properties.PaymentExpiryProperties;
+import com.bookingsystem.repository.BookingRepository;
+import com.bookingsystem.repository.PaymentRepository;
+import com.bookingsystem.repository.PaymentRepository.ExpiredPayment;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static com.bookingsystem.model.EventTemplate.BOOKING_EXPIRED;
+import static com.bookingsystem.model.EventTemplate.PAYMENT_EXPIRED;
+
+/**
+ * Set-based expiry of overdue PENDING payments, e.g. the backlog left behind by an outage</br>
+ * Each chunk claims up to chunk-size payments with FOR UPDATE SKIP LOCKED, frees their units and nights, deletes the payments
+ * and the bookings with one statement each and commits, so several nodes can drain in parallel and no transaction
+ * grows with the backlog</br>
+ * Units of stays are locked with SKIP LOCKED before their nights are released, a stay whose unit is held by a booking
+ * in flight is left out of the chunk and expired by a later one instead of failing the whole chunk
+ */
+@Slf4j
+@Component
+public class BulkPaymentExpiry {
+    private final PaymentRepository paymentRepository;
+    private final BookingRepository bookingRepository;
+    private final UnitService unitService;
+    private final EventService eventService;
+    private final PaymentDeadlineScheduler paymentDeadlineScheduler;
+    private final PaymentExpiryProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    public BulkPaymentExpiry(
+            PaymentRepository paymentRepository,
+            BookingRepository bookingRepository,
+            UnitService unitService,
+            EventService eventService,
+            PaymentDeadlineScheduler paymentDeadlineScheduler,
+            PaymentExpiryProperties properties,
+            PlatformTransactionManager transactionManager
+    ) {
+        this.paymentRepository = paymentRepository;
+        this.bookingRepository = bookingRepository;
+        this.unitService = unitService;
+        this.eventService = eventService;
+        this.paymentDeadlineScheduler = paymentDeadlineScheduler;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${booking.scheduler.bulk-expiry-cron}")
+    public void drain() {
+        if (!properties.isBulkEnabled()) {
+            return;
+        }
+        val now = LocalDateTime.now();
+        int total = 0;
+        Chunk chunk;
+        do {
+            chunk = transactionTemplate.execute(status -> expireChunk(now));
+            total += chunk.expired();
+        } while (chunk.claimed() == properties.getChunkSize() && chunk.expired() > 0);
+
+        if (total > 0) {
+            log.info("Bulk expired {} bookings with overdue payments", total);
+        }
+    }
+
+    /**
+     * Claims fewer than chunk-size payments once the backlog is drained
+     */
+    Chunk expireChunk(LocalDateTime now) {
+        val claimed = paymentRepository.lockExpiredPending(now, properties.getChunkSize());
+        if (claimed.isEmpty()) {
+            return new Chunk(0, 0);
+        }
+        val busy = unitService.lockStayUnits(claimed.stream().map(ExpiredPayment::getBookingId).toList());
+        val chunk = claimed.stream().filter(expired -> !busy.contains(expired.getBookingId())).toList();
+        if (!busy.isEmpty()) {
+            log.debug("Left {} stays with units in use for the next chunk", busy.size());
+        }
+        if (chunk.isEmpty()) {
+            return new Chunk(claimed.size(), 0);
+        }
+        val paymentIds = chunk.stream().map(ExpiredPayment::getPaymentId).toList();
+        val bookingIds = chunk.stream().map(ExpiredPayment::getBookingId).toList();
+
+        unitService.releaseUnitsOfBookings(bookingIds);
+        bookingRepository.findStaysByIdIn(bookingIds)
+                .forEach(stay -> unitService.releaseNights(stay.getStayUnits(), stay.getCheckIn(), stay.getCheckOut()));
+        bookingRepository.deleteStayUnits(bookingIds);
+        paymentRepository.deleteAllByIdInBatch(paymentIds);
+        bookingRepository.deleteAllByIdInBatch(bookingIds);
+
+        chunk.forEach(expired -> {
+            eventService.createEvent(PAYMENT_EXPIRED, expired.getPaymentId(), Map.of("bookingId", expired.getBookingId()));
+            eventService.createEvent(BOOKING_EXPIRED, expired.getBookingId(), Map.of());
+            paymentDeadlineScheduler.cancelAfterCommit(expired.getBookingId());
+        });
+        return new Chunk(claimed.size(), chunk.size());
+    }
+
+    record Chunk(int claimed, int expired) {
+    }
+}
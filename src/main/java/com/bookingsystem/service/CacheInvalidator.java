@@ -0,0 +1,24 @@
+package com.bookingsystem.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Evicts several keys at once, which @CacheEvict cannot express</br>
+ * A no-op when caching is not enabled, e.g. in tests
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheInvalidator {
+    private final ObjectProvider<CacheManager> cacheManager;
+
+    public void evict(String cacheName, Collection<?> keys) {
+        cacheManager.ifAvailable(manager -> Optional.ofNullable(manager.getCache(cacheName))
+                .ifPresent(cache -> keys.forEach(cache::evict)));
+    }
+}
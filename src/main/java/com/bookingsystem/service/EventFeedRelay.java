@@ -0,0 +1,80 @@
+package com.bookingsystem.service;
+
+import com.bookingsystem.properties.EventFeedProperties;
+import com.bookingsystem.repository.EventFeedOffsetRepository;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Change feed of the events table: tails it in id order from a per-sink high-water mark
+ * and publishes every new batch to the configured {@link EventSink}s</br>
+ * Consumers get incremental deltas instead of re-reading /api/events, with OUTBOX mode every event
+ * is in the feed exactly when its business change committed</br>
+ * Delivery is at least once: the mark only moves after the sink accepted the batch
+ */
+@Slf4j
+@Component
+public class EventFeedRelay {
+    private final EventHorizon eventHorizon;
+    private final EventFeedOffsetRepository offsetRepository;
+    private final List<EventSink> sinks;
+    private final EventFeedProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    public EventFeedRelay(
+            EventHorizon eventHorizon,
+            EventFeedOffsetRepository offsetRepository,
+            List<EventSink> sinks,
+            EventFeedProperties properties,
+            PlatformTransactionManager transactionManager
+    ) {
+        this.eventHorizon = eventHorizon;
+        this.offsetRepository = offsetRepository;
+        this.sinks = sinks;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(fixedDelayString = "${booking.scheduler.event-feed-delay-ms}")
+    public void relay() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        sinks.stream()
+                .filter(sink -> properties.getSinks().contains(sink.type()))
+                .forEach(this::relayTo);
+    }
+
+    private void relayTo(EventSink sink) {
+        try {
+            int published;
+            do {
+                published = transactionTemplate.execute(status -> publishBatch(sink));
+            } while (published == properties.getBatchSize());
+        } catch (RuntimeException e) {
+            log.warn("Failed to publish events to {} sink, retrying on the next run", sink.type(), e);
+        }
+    }
+
+    /**
+     * The batch stops at the {@link EventHorizon}, an event committed late with a lower id is never skipped
+     */
+    private int publishBatch(EventSink sink) {
+        val lastEventId = offsetRepository.lock(sink.type().name());
+        val batch = eventHorizon.settledBatch(lastEventId, properties.getBatchSize());
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        sink.publish(batch);
+        offsetRepository.save(sink.type().name(), batch.getLast().id());
+        log.debug("Published events {}..{} to {} sink", batch.getFirst().id(), batch.getLast().id(), sink.type());
+        return batch.size();
+    }
+}
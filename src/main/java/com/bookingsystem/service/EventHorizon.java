@@ -0,0 +1,61 @@
+package com.bookingsystem.service;
+
+import com.bookingsystem.api.dto.EventResponseDto;
+import com.bookingsystem.repository.EventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Highest event id below which no uncommitted event can show up any more, shared by the change feed and the live stream</br>
+ * Ids are taken from the sequence before the inserting transaction commits, so a lower id may become visible after a higher one.
+ * The horizon notes the last id handed out together with the next transaction id, and releases it once every transaction
+ * that was running then has finished: from that point each id up to it is either committed or rolled back for good</br>
+ * Inserts take their transaction id before the sequence value, see {@link com.bookingsystem.repository.EventBatchRepositoryImpl}
+ */
+@Component
+@RequiredArgsConstructor
+public class EventHorizon {
+    private final EventRepository eventRepository;
+
+    private long settledId;
+    private Candidate candidate;
+
+    /**
+     * Next events after the id in id order, cut at the horizon so a high-water mark never moves over an uncommitted one
+     */
+    public List<EventResponseDto> settledBatch(long afterId, int batchSize) {
+        val settled = advance();
+        if (settled <= afterId) {
+            return List.of();
+        }
+        return eventRepository.findFeedAfter(afterId, Limit.of(batchSize))
+                .stream()
+                .takeWhile(event -> event.id() <= settled)
+                .toList();
+    }
+
+    /**
+     * The id is read before the snapshot, so a transaction holding any id up to it already has a transaction id below next
+     */
+    synchronized long advance() {
+        val lastId = eventRepository.findLastAllocatedId();
+        val nextXid = eventRepository.findNextTransactionId();
+        val oldestRunningXid = eventRepository.findOldestRunningTransactionId();
+
+        if (candidate != null && oldestRunningXid >= candidate.nextXid()) {
+            settledId = Math.max(settledId, candidate.lastId());
+            candidate = null;
+        }
+        if (candidate == null && lastId > settledId) {
+            candidate = new Candidate(lastId, nextXid);
+        }
+        return settledId;
+    }
+
+    private record Candidate(long lastId, long nextXid) {
+    }
+}
@@ -0,0 +1,77 @@
+package com.bookingsystem.service;
+
+import com.bookingsystem.model.Event;
+import com.bookingsystem.properties.EventWriterProperties;
+import com.bookingsystem.repository.EventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.bookingsystem.properties.EventWriterProperties.Mode.OUTBOX;
+
+/**
+ * Transactional outbox for events</br>
+ * Events of a transaction are collected in memory and written to event_outbox with one batch insert right before
+ * it commits, so they are durable exactly when the business change is</br>
+ * A scheduled relay then moves them to events in batches
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EventOutbox {
+    private final EventRepository eventRepository;
+    private final EventWriterProperties properties;
+
+    public void append(Event event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eventRepository.insertOutbox(List.of(event));
+            return;
+        }
+        currentBatch().events.add(event);
+    }
+
+    @Scheduled(fixedDelayString = "${booking.scheduler.event-outbox-relay-delay-ms}")
+    public void relay() {
+        if (properties.getMode() != OUTBOX) {
+            return;
+        }
+        int relayed;
+        do {
+            relayed = eventRepository.relayOutbox(properties.getBatchSize());
+            if (relayed > 0) {
+                log.debug("Relayed {} events from outbox", relayed);
+            }
+        } while (relayed == properties.getBatchSize());
+    }
+
+    /**
+     * Looked up among the synchronizations of the current transaction, so a suspended outer transaction keeps its own
+     */
+    private OutboxBatch currentBatch() {
+        return TransactionSynchronizationManager.getSynchronizations()
+                .stream()
+                .filter(OutboxBatch.class::isInstance)
+                .map(OutboxBatch.class::cast)
+                .findFirst()
+                .orElseGet(() -> {
+                    OutboxBatch batch = new OutboxBatch();
+                    TransactionSynchronizationManager.registerSynchronization(batch);
+                    return batch;
+                });
+    }
+
+    private class OutboxBatch implements TransactionSynchronization {
+        private final List<Event> events = new ArrayList<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            eventRepository.insertOutbox(events);
+        }
+    }
+}
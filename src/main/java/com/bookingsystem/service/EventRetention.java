@@ -0,0 +1,63 @@
+package com.bookingsystem.service;
+
+import com.bookingsystem.properties.EventRetentionProperties;
+import com.bookingsystem.repository.EventPartitionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+
+/**
+ * Keeps the monthly partitions of the events table rolling: creates the coming months ahead of time
+ * and detaches or drops the months that fell out of the retention window</br>
+ * Every step is idempotent, a step that fails (e.g. another node got there first) is logged and retried on the next run
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EventRetention {
+    private final EventPartitionRepository partitionRepository;
+    private final EventRetentionProperties properties;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${booking.scheduler.event-retention-cron}")
+    public void maintain() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        val currentMonth = YearMonth.now();
+        val existing = partitionRepository.findPartitionMonths();
+
+        for (int ahead = 0; ahead <= properties.getPremakeMonths(); ahead++) {
+            val month = currentMonth.plusMonths(ahead);
+            if (!existing.contains(month)) {
+                run("create", month, () -> partitionRepository.create(month));
+            }
+        }
+
+        val oldestKept = currentMonth.minusMonths(properties.getRetentionMonths() - 1L);
+        existing.stream()
+                .filter(month -> month.isBefore(oldestKept))
+                .forEach(month -> {
+                    switch (properties.getMode()) {
+                        case DETACH -> run("archive", month, () -> partitionRepository.archive(month));
+                        case DROP -> run("drop", month, () -> partitionRepository.drop(month));
+                    }
+                });
+    }
+
+    private void run(String step, YearMonth month, Runnable ddl) {
+        try {
+            ddl.run();
+            log.info("Events partition {}: {}", step, month);
+        } catch (DataAccessException e) {
+            log.warn("Events partition {} failed for {}: {}", step, month, e.getMessage());
+        }
+    }
+}
@@ -1,35 +1,109 @@
 package com.bookingsystem.service;
 
+import com.bookingsystem.api.dto.Cursor;
+import com.bookingsystem.api.dto.CursorPage;
+import com.bookingsystem.api.dto.CursorRequest;
+import com.bookingsystem.api.dto.EventResponseDto;
+import com.bookingsystem.api.dto.TimeWindow;
+import com.bookingsystem.mapper.EventMapper;
+import com.bookingsystem.model.BookingStatus;
 import com.bookingsystem.model.EntityType;
 import com.bookingsystem.model.Event;
-import com.bookingsystem.model.EventOperation;
+import com.bookingsystem.model.EventTemplate;
+import com.bookingsystem.properties.EventWriterProperties;
 import com.bookingsystem.repository.EventRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+
+import static com.bookingsystem.model.EventTemplate.UNITS_TRANSITIONED;
+import static com.bookingsystem.model.EventTemplate.UNIT_UPDATED;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class EventService {
     private final EventRepository eventRepository;
+    private final EventWriter eventWriter;
+    private final EventOutbox eventOutbox;
+    private final EventWriterProperties eventWriterProperties;
+    private final EventMapper eventMapper;
+
+    /**
+     * Only buffers the event, it is written in batches either by {@link EventWriter} or through {@link EventOutbox}</br>
+     * See {@link EventWriterProperties.Mode} for the durability of each</br>
+     * No description is built here, it is rendered from the template and payload when the event is read
+     */
+    public void createEvent(EventTemplate template, Long entityId, Map<String, Object> payload) {
+        val event = new Event(template, entityId, payload);
+        switch (eventWriterProperties.getMode()) {
+            case ASYNC -> eventWriter.enqueueAfterCommit(event);
+            case OUTBOX -> eventOutbox.append(event);
+        }
+        log.info("Created event: {} with id {}", template, entityId);
+    }
+
+    /**
+     * Records units moving from one status to another, grouped by the booking they belong to</br>
+     * One UNITS_TRANSITIONED event per booking when coalescing, otherwise one UNIT_UPDATED event per unit,
+     * units without a booking always get their own event
+     */
+    public void createUnitTransitionEvents(Map<Long, List<Long>> unitIdsByBooking, BookingStatus from, BookingStatus to) {
+        unitIdsByBooking.forEach((bookingId, unitIds) -> {
+            if (bookingId != null && eventWriterProperties.isCoalesceUnitTransitions()) {
+                createEvent(UNITS_TRANSITIONED, bookingId, Map.of("unitIds", unitIds, "from", from, "to", to));
+            } else {
+                unitIds.forEach(unitId -> createEvent(UNIT_UPDATED, unitId, Map.of("status", to)));
+            }
+        });
+    }
 
-    @Transactional
-    public void createEvent(EntityType entityType, EventOperation eventOperation, Long entityId, String description) {
-        val event = new Event(entityType, eventOperation, entityId, description);
-        eventRepository.save(event);
-        log.info("Created event: {} for {} operation with id {}", entityType, eventOperation, entityId);
+    public CursorPage<EventResponseDto> getAllEvents(TimeWindow window, CursorRequest request) {
+        val from = window.fromOrEarliest();
+        val to = window.toOrLatest();
+        return request.page(
+                eventRepository.findDtosAfter(from, to, request.afterId(), request.limit()),
+                event -> Cursor.byId(event.id()),
+                () -> eventRepository.countCreatedBetween(from, to)
+        );
     }
 
-    public List<Event> getAllEvents() {
-        return eventRepository.findAll();
+    public CursorPage<EventResponseDto> findByEntityType(EntityType entityType, TimeWindow window, CursorRequest request) {
+        val from = window.fromOrEarliest();
+        val to = window.toOrLatest();
+        return request.page(
+                eventRepository.findDtosByEntityTypeAfter(entityType, from, to, request.afterId(), request.limit()),
+                event -> Cursor.byId(event.id()),
+                () -> eventRepository.countByEntityTypeCreatedBetween(entityType, from, to)
+        );
     }
 
-    public List<Event> findByEntityType(EntityType entityType) {
-        return eventRepository.findByEntityType(entityType);
+    public CursorPage<EventResponseDto> findByEntity(
+            EntityType entityType,
+            Long entityId,
+            TimeWindow window,
+            CursorRequest request
+    ) {
+        val from = window.fromOrEarliest();
+        val to = window.toOrLatest();
+        if (entityType == EntityType.UNIT) {
+            return request.page(
+                    eventRepository.findUnitHistoryAfter(entityId, from, to, request.afterId(), request.limit().max())
+                            .stream()
+                            .map(eventMapper::toDto)
+                            .toList(),
+                    event -> Cursor.byId(event.id()),
+                    () -> eventRepository.countUnitHistory(entityId, from, to)
+            );
+        }
+        return request.page(
+                eventRepository.findDtosByEntityAfter(entityType, entityId, from, to, request.afterId(), request.limit()),
+                event -> Cursor.byId(event.id()),
+                () -> eventRepository.countByEntityCreatedBetween(entityType, entityId, from, to)
+        );
     }
 }
@@ -0,0 +1,20 @@
+package com.bookingsystem.service;
+
+import com.bookingsystem.api.dto.EventResponseDto;
+import com.bookingsystem.properties.EventFeedProperties.Sink;
+
+import java.util.List;
+
+/**
+ * Destination of the event change feed, see {@link EventFeedRelay}</br>
+ * A batch may be delivered again after a failure, consumers should deduplicate by event id
+ */
+public interface EventSink {
+
+    Sink type();
+
+    /**
+     * Should throw when the batch was not delivered, the high-water mark then stays where it was
+     */
+    void publish(List<EventResponseDto> events);
+}
@@ -0,0 +1,138 @@
+package com.bookingsystem.service;
+
+import com.bookingsystem.api.dto.EventFilter;
+import com.bookingsystem.api.dto.EventResponseDto;
+import com.bookingsystem.properties.EventStreamProperties;
+import com.bookingsystem.repository.EventRepository;
+import jakarta.annotation.Nullable;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Live event stream: one poller per node tails the events table from an in-memory high-water mark
+ * and fans every committed batch out to the {@link EventSubscription}s, each served by its own virtual thread</br>
+ * A subscriber resuming from an id first gets the missed events from the database, then the live ones,
+ * so dashboards no longer re-read whole event lists to spot what changed
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EventStream {
+    private final EventRepository eventRepository;
+    private final EventHorizon eventHorizon;
+    private final EventStreamProperties properties;
+    private final Set<EventSubscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+    private volatile long lastEventId = -1;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        lastEventId = eventRepository.findMaxId();
+    }
+
+    /**
+     * Batches stop at the {@link EventHorizon} like the change feed, an event committed late with a lower id is not overtaken</br>
+     * The mark moves before the batch is fanned out, so a subscription registered meanwhile either reads
+     * the old mark and receives the batch, or the new one and replays it
+     */
+    @Scheduled(fixedDelayString = "${booking.scheduler.event-stream-poll-ms}")
+    public void poll() {
+        if (!properties.isEnabled() || lastEventId < 0) {
+            return;
+        }
+        int polled;
+        do {
+            val batch = eventHorizon.settledBatch(lastEventId, properties.getBatchSize());
+            polled = batch.size();
+            if (polled > 0) {
+                lastEventId = batch.getLast().id();
+                subscriptions.forEach(subscription -> subscription.offer(batch));
+            }
+        } while (polled == properties.getBatchSize());
+    }
+
+    /**
+     * @param resumeAfter id of the last event the client has seen, only new events are sent when absent
+     */
+    public SseEmitter subscribe(EventFilter filter, @Nullable Long resumeAfter) {
+        if (!properties.isEnabled() || lastEventId < 0) {
+            throw new IllegalStateException("Event stream is not available");
+        }
+        if (subscriptions.size() >= properties.getMaxSubscribers()) {
+            throw new IllegalStateException("Too many event stream subscribers");
+        }
+
+        val emitter = new SseEmitter(properties.getTimeout().toMillis());
+        val subscription = new EventSubscription(emitter, filter, properties);
+        subscriptions.add(subscription);
+        val liveFrom = lastEventId;
+
+        emitter.onCompletion(() -> close(subscription));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(__ -> close(subscription));
+
+        Thread.ofVirtual()
+                .name("event-stream-subscriber")
+                .start(() -> serve(subscription, resumeAfter, liveFrom));
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    private void serve(EventSubscription subscription, @Nullable Long resumeAfter, long liveFrom) {
+        try {
+            if (resumeAfter != null) {
+                replay(subscription, resumeAfter, liveFrom);
+            }
+            subscription.drain(resumeAfter == null ? liveFrom : Math.max(resumeAfter, liveFrom));
+        } catch (IOException e) {
+            log.debug("Event stream subscriber went away: {}", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.warn("Event stream subscriber failed", e);
+            subscription.getEmitter().completeWithError(e);
+        } finally {
+            close(subscription);
+        }
+    }
+
+    /**
+     * Sends the events in (after, until] straight from the database, the buffer meanwhile collects the live ones
+     */
+    private void replay(EventSubscription subscription, long after, long until) throws IOException {
+        long cursor = after;
+        while (cursor < until && !subscription.isClosed()) {
+            val page = eventRepository.findFeedAfter(cursor, Limit.of(properties.getBatchSize()));
+            if (page.isEmpty()) {
+                return;
+            }
+            for (EventResponseDto event : page) {
+                if (event.id() > until) {
+                    return;
+                }
+                subscription.sendReplayed(event);
+            }
+            cursor = page.getLast().id();
+        }
+    }
+
+    private void close(EventSubscription subscription) {
+        if (subscriptions.remove(subscription)) {
+            subscription.close();
+        }
+    }
+}
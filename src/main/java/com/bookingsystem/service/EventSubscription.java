@@ -0,0 +1,144 @@
+package com.bookingsystem.service;
+
+import com.bookingsystem.api.dto.EventFilter;
+import com.bookingsystem.api.dto.EventResponseDto;
+import com.bookingsystem.properties.EventStreamProperties;
+import com.bookingsystem.properties.EventStreamProperties.Overflow;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One SSE subscriber of {@link EventStream}: a bounded buffer filled by the poller and drained
+ * by the subscriber's own virtual thread, so a slow client only ever holds up itself</br>
+ * Events are sent with their id, which the client sends back as Last-Event-ID to resume
+ */
+@Slf4j
+class EventSubscription {
+    /**
+     * Put in the buffer to wake the sender up on close or overflow
+     */
+    private static final EventResponseDto WAKE_UP = new EventResponseDto(null, null, null, null, null, null, null, null);
+
+    private final SseEmitter emitter;
+    private final EventFilter filter;
+    private final BlockingQueue<EventResponseDto> buffer;
+    private final Overflow overflow;
+    private final Duration heartbeatInterval;
+    private final AtomicInteger dropped = new AtomicInteger();
+
+    private volatile boolean closed;
+    private volatile boolean overflowed;
+    private long lastSentId;
+
+    EventSubscription(SseEmitter emitter, EventFilter filter, EventStreamProperties properties) {
+        this.emitter = emitter;
+        this.filter = filter;
+        this.buffer = new ArrayBlockingQueue<>(properties.getBufferCapacity());
+        this.overflow = properties.getOverflow();
+        this.heartbeatInterval = properties.getHeartbeatInterval();
+    }
+
+    SseEmitter getEmitter() {
+        return emitter;
+    }
+
+    /**
+     * Called by the poller, never blocks: a full buffer either drops its oldest event or marks the subscription
+     * overflowed, which the sender thread turns into a disconnect
+     */
+    void offer(List<EventResponseDto> events) {
+        for (EventResponseDto event : events) {
+            if (closed || overflowed) {
+                return;
+            }
+            if (!filter.matches(event)) {
+                continue;
+            }
+            while (!buffer.offer(event)) {
+                if (overflow == Overflow.DISCONNECT) {
+                    overflowed = true;
+                    buffer.clear();
+                    wakeUp();
+                    return;
+                }
+                if (buffer.poll() != null) {
+                    dropped.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends a replayed event directly, ahead of anything buffered
+     */
+    void sendReplayed(EventResponseDto event) throws IOException {
+        if (filter.matches(event)) {
+            send(event);
+        }
+    }
+
+    /**
+     * Drains the buffer until the subscription closes, runs on the subscriber's virtual thread
+     */
+    void drain(long startAfterId) throws IOException, InterruptedException {
+        lastSentId = Math.max(lastSentId, startAfterId);
+        while (!closed) {
+            val event = buffer.poll(heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+            if (closed) {
+                return;
+            }
+            if (overflowed) {
+                log.info("Event stream subscriber fell behind after event {}, disconnecting", lastSentId);
+                emitter.send(SseEmitter.event().name("overflow").data("Subscriber fell behind, resume with Last-Event-ID"));
+                emitter.complete();
+                return;
+            }
+            val missed = dropped.getAndSet(0);
+            if (missed > 0) {
+                emitter.send(SseEmitter.event().name("dropped").data(missed));
+            }
+            if (event == null) {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+            } else if (event != WAKE_UP) {
+                send(event);
+            }
+        }
+    }
+
+    void close() {
+        closed = true;
+        buffer.clear();
+        wakeUp();
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Events already sent by the replay may arrive again from the poller, the id check drops them
+     */
+    private void send(EventResponseDto event) throws IOException {
+        if (event.id() <= lastSentId) {
+            return;
+        }
+        emitter.send(SseEmitter.event()
+                .id(String.valueOf(event.id()))
+                .data(event, MediaType.APPLICATION_JSON));
+        lastSentId = event.id();
+    }
+
+    private void wakeUp() {
+        buffer.offer(WAKE_UP);
+    }
+}
@@ -0,0 +1,186 @@
+package com.bookingsystem.service;
+
+import com.bookingsystem.model.Event;
+import com.bookingsystem.properties.EventWriterProperties;
+import com.bookingsystem.repository.EventRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded ring buffer of events drained by a single background thread</br>
+ * Events are written with one JDBC batch insert once batch-size events are buffered or flush-interval has passed,
+ * so the business transaction only pays for an in-memory offer</br>
+ * When the buffer is full, or the writer is not running, the caller writes its event synchronously instead of
+ * blocking or dropping it</br>
+ * Each batch is inserted in its own transaction, so a failed write leaves no rows behind for the retry to duplicate.
+ * A failed write is retried with backoff by the flusher, synchronous writes get a single attempt so request threads
+ * never sleep. Events are dropped once their attempts are used up, or right away when they cannot be written at all,
+ * and are counted in events.writer.dropped
+ */
+@Slf4j
+@Component
+public class EventWriter implements SmartLifecycle {
+    static final String DROPPED = "events.writer.dropped";
+    private static final long STOP_CHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final EventRepository eventRepository;
+    private final EventWriterProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate transactionTemplate;
+
+    private BlockingQueue<Event> buffer;
+    private Thread flusher;
+    private volatile boolean running;
+
+    public EventWriter(
+            EventRepository eventRepository,
+            EventWriterProperties properties,
+            MeterRegistry meterRegistry,
+            PlatformTransactionManager transactionManager
+    ) {
+        this.eventRepository = eventRepository;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // synchronous writes run in afterCommit, where the finished transaction is still bound to the thread
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Buffers the event once the surrounding transaction commits, or immediately when there is no transaction</br>
+     * Events of rolled back transactions are never written
+     */
+    public void enqueueAfterCommit(Event event) {
+        TransactionCallbacks.afterCommit(() -> enqueue(event));
+    }
+
+    public void enqueue(Event event) {
+        if (running && buffer.offer(event)) {
+            return;
+        }
+        log.warn("Event buffer is full or stopped, writing event for {} {} synchronously",
+                event.getEntityType(), event.getEntityId());
+        write(List.of(event), 1);
+    }
+
+    @Override
+    public void start() {
+        buffer = new ArrayBlockingQueue<>(properties.getBufferCapacity());
+        running = true;
+        flusher = Thread.ofPlatform()
+                .name("event-writer")
+                .daemon()
+                .start(this::flushLoop);
+    }
+
+    /**
+     * Stops accepting events and waits for the buffered ones to be written
+     */
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            flusher.join(properties.getShutdownTimeout());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!buffer.isEmpty()) {
+            log.error("Event writer stopped with {} events still buffered", buffer.size());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void flushLoop() {
+        List<Event> batch = new ArrayList<>(properties.getBatchSize());
+        while ((running || !buffer.isEmpty()) && !Thread.currentThread().isInterrupted()) {
+            fill(batch);
+            if (!batch.isEmpty()) {
+                write(List.copyOf(batch), properties.getWriteAttempts());
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Collects events until the batch is full or the oldest one has waited flush-interval
+     */
+    private void fill(List<Event> batch) {
+        val batchSize = properties.getBatchSize();
+        val deadline = System.nanoTime() + properties.getFlushInterval().toNanos();
+
+        while (batch.size() < batchSize) {
+            buffer.drainTo(batch, batchSize - batch.size());
+            val remaining = deadline - System.nanoTime();
+            if (batch.size() == batchSize || remaining <= 0 || !running) {
+                return;
+            }
+            try {
+                val next = buffer.poll(Math.min(remaining, STOP_CHECK_NANOS), TimeUnit.NANOSECONDS);
+                if (next != null) {
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void write(List<Event> events, int attempts) {
+        var backoff = properties.getRetryBackoff();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> eventRepository.insertEvents(events));
+                log.debug("Written {} events", events.size());
+                return;
+            } catch (DataAccessException e) {
+                if (attempt >= attempts || !pause(backoff)) {
+                    drop(events, "after " + attempt + " attempts", e);
+                    return;
+                }
+                log.warn("Failed to write {} events, retrying in {}: {}", events.size(), backoff, e.getMessage());
+                backoff = backoff.multipliedBy(2);
+            } catch (RuntimeException e) {
+                // not a database failure, e.g. an unserializable payload: a retry would fail the same way
+                drop(events, "that cannot be written", e);
+                return;
+            }
+        }
+    }
+
+    private void drop(List<Event> events, String reason, RuntimeException e) {
+        log.error("Dropping {} events {}", events.size(), reason, e);
+        meterRegistry.counter(DROPPED).increment(events.size());
+    }
+
+    /**
+     * @return false when interrupted, the events are not retried any more
+     */
+    private static boolean pause(Duration backoff) {
+        try {
+            Thread.sleep(backoff);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.bookingsystem.service;
+
+import com.bookingsystem.api.dto.BookingResponseDto;
+import com.bookingsystem.api.dto.EventResponseDto;
+import com.bookingsystem.api.dto.TimeWindow;
+import com.bookingsystem.api.dto.PaymentResponseDto;
+import com.bookingsystem.api.dto.UnitResponseDto;
+import com.bookingsystem.mapper.PaymentMapper;
+import com.bookingsystem.model.EntityType;
+import com.bookingsystem.model.Payment;
+import com.bookingsystem.repository.BookingRepository;
+import com.bookingsystem.repository.BookingRepository.BookingSummary;
+import com.bookingsystem.repository.EventRepository;
+import com.bookingsystem.repository.PaymentRepository;
+import com.bookingsystem.repository.UnitRepository;
+import jakarta.annotation.Nullable;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Bulk exports for reconciliation: rows are read through a server-side cursor and handed to the sink one by one,
+ * so neither the heap nor the persistence context grows with the size of the table</br>
+ * Each export runs in one read-only transaction, which keeps the cursor open and gives a consistent snapshot
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ExportService {
+    private static final int CHUNK_SIZE = Integer.parseInt(UnitRepository.EXPORT_FETCH_SIZE);
+
+    private final UnitRepository unitRepository;
+    private final BookingRepository bookingRepository;
+    private final PaymentRepository paymentRepository;
+    private final EventRepository eventRepository;
+    private final BookingQueries bookingQueries;
+    private final PaymentMapper paymentMapper;
+    private final EntityManager entityManager;
+
+    /**
+     * @return number of exported rows
+     */
+    public long exportUnits(Consumer<UnitResponseDto> sink) {
+        try (Stream<UnitResponseDto> units = unitRepository.streamAllDtos()) {
+            return drain(units, sink);
+        }
+    }
+
+    /**
+     * Bookings are taken from the cursor in chunks, the units of each chunk are read with one extra query
+     */
+    public long exportBookings(TimeWindow window, Consumer<BookingResponseDto> sink) {
+        try (Stream<BookingSummary> bookings = bookingRepository.streamSummaries(window.fromOrEarliest(), window.toOrLatest())) {
+            long exported = 0;
+            List<BookingSummary> chunk = new ArrayList<>(CHUNK_SIZE);
+            for (Iterator<BookingSummary> iterator = bookings.iterator(); iterator.hasNext(); ) {
+                chunk.add(iterator.next());
+                if (chunk.size() == CHUNK_SIZE || !iterator.hasNext()) {
+                    bookingQueries.assemble(chunk).forEach(sink);
+                    exported += chunk.size();
+                    chunk.clear();
+                }
+            }
+            return exported;
+        }
+    }
+
+    /**
+     * Payments are mapped from read-only entities, the persistence context is cleared after every chunk
+     */
+    public long exportPayments(TimeWindow window, Consumer<PaymentResponseDto> sink) {
+        try (Stream<Payment> payments = paymentRepository.streamCreatedBetween(window.fromOrEarliest(), window.toOrLatest())) {
+            long exported = 0;
+            for (Iterator<Payment> iterator = payments.iterator(); iterator.hasNext(); ) {
+                sink.accept(paymentMapper.toDto(iterator.next()));
+                if (++exported % CHUNK_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+            return exported;
+        }
+    }
+
+    public long exportEvents(@Nullable EntityType entityType, TimeWindow window, Consumer<EventResponseDto> sink) {
+        try (Stream<EventResponseDto> events = entityType == null
+                ? eventRepository.streamDtos(window.fromOrEarliest(), window.toOrLatest())
+                : eventRepository.streamDtosByEntityType(entityType, window.fromOrEarliest(), window.toOrLatest())) {
+            return drain(events, sink);
+        }
+    }
+
+    private static <T> long drain(Stream<T> rows, Consumer<T> sink) {
+        long exported = 0;
+        for (Iterator<T> iterator = rows.iterator(); iterator.hasNext(); exported++) {
+            sink.accept(iterator.next());
+        }
+        return exported;
+    }
+}
@@ -0,0 +1,42 @@
+package com.bookingsystem.service;
+
+import com.bookingsystem.api.dto.EventResponseDto;
+import com.bookingsystem.properties.EventFeedProperties;
+import com.bookingsystem.properties.EventFeedProperties.Sink;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+
+/**
+ * Appends the feed to a local NDJSON file, one event per line, for hosts without Redis or for replays
+ */
+@Component
+@RequiredArgsConstructor
+public class FileEventSink implements EventSink {
+    private final ObjectMapper objectMapper;
+    private final EventFeedProperties properties;
+
+    @Override
+    public Sink type() {
+        return Sink.FILE;
+    }
+
+    @Override
+    public synchronized void publish(List<EventResponseDto> events) {
+        try (OutputStream out = Files.newOutputStream(properties.getFilePath(), CREATE, APPEND);
+             NdjsonWriter writer = new NdjsonWriter(objectMapper, out, false)) {
+            events.forEach(writer::write);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append events to " + properties.getFilePath(), e);
+        }
+    }
+}
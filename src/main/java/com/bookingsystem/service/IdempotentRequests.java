@@ -0,0 +1,264 @@
+package com.bookingsystem.service;
+
+import com.bookingsystem.properties.IdempotencyProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.Nullable;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key support for booking creation and payment, keyed by scope and client key in Redis</br>
+ * The first request claims the key with SET NX and a short lease, renewed while it runs, and stores its response
+ * for the TTL, a retry with the same key gets that response back without running again. Renewal, store and release
+ * are Lua scripts that only act while the key still holds the claim, a request whose lease lapsed never overwrites
+ * the one that took the key over. Duplicates arriving while it runs
+ * wait for it, on a local future when it runs on this node or by polling Redis otherwise</br>
+ * Only successful responses are kept, a failed request gives its key back so the client can retry it</br>
+ * Requests run without protection while Redis is unreachable
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IdempotentRequests {
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    public static final String REPLAYED = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+    static final RedisScript<Long> STORE = RedisScript.of("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3])
+                return 1
+            end
+            return 0
+            """, Long.class);
+    static final RedisScript<Long> RENEW = RedisScript.of("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            end
+            return 0
+            """, Long.class);
+    static final RedisScript<Long> RELEASE = RedisScript.of("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final IdempotencyProperties properties;
+    private final ConcurrentMap<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService leases = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("idempotency-lease").daemon().factory()
+    );
+
+    /**
+     * @param request what the key stands for, the same key with a different request is rejected
+     */
+    public <T> Outcome<T> execute(
+            String scope,
+            @Nullable String key,
+            Object request,
+            Class<T> responseType,
+            Supplier<T> action
+    ) {
+        return execute(scope, key, request, responseType, properties.getTtl(), action);
+    }
+
+    /**
+     * @param ttl how long the response is replayed, for responses that point at something kept for a shorter time.
+     *            Capped by booking.idempotency.ttl
+     */
+    public <T> Outcome<T> execute(
+            String scope,
+            @Nullable String key,
+            Object request,
+            Class<T> responseType,
+            Duration ttl,
+            Supplier<T> action
+    ) {
+        if (key == null || !properties.isEnabled()) {
+            return new Outcome<>(action.get(), false);
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must have 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+
+        val redisKey = properties.getKeyPrefix() + scope + ":" + key;
+        val fingerprint = fingerprint(request);
+        val deadline = System.nanoTime() + properties.getWaitTimeout().toNanos();
+
+        while (true) {
+            val claim = write(new Entry(fingerprint, UUID.randomUUID().toString(), null));
+            final boolean claimed;
+            final Optional<Entry> existing;
+            try {
+                claimed = Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(redisKey, claim, properties.getInFlightTtl()));
+                existing = claimed
+                        ? Optional.empty()
+                        : Optional.ofNullable(redisTemplate.opsForValue().get(redisKey)).map(this::entry);
+            } catch (DataAccessException e) {
+                log.warn("Idempotency store unavailable, running the request with key {} unprotected", key, e);
+                return new Outcome<>(action.get(), false);
+            }
+            if (claimed) {
+                val replayFor = ttl.compareTo(properties.getTtl()) < 0 ? ttl : properties.getTtl();
+                return new Outcome<>(run(redisKey, claim, fingerprint, replayFor, action), false);
+            }
+
+            if (existing.isPresent()) {
+                if (!existing.get().fingerprint().equals(fingerprint)) {
+                    throw new IllegalArgumentException("Idempotency-Key " + key + " was already used for a different request");
+                }
+                if (existing.get().response() != null) {
+                    return new Outcome<>(read(existing.get().response(), responseType), true);
+                }
+            }
+
+            val remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                throw new IllegalStateException("A request with Idempotency-Key " + key + " is still in progress");
+            }
+            // gone in between means the first request failed, the next round claims the key
+            if (existing.isPresent()) {
+                awaitInFlight(redisKey, remaining);
+            }
+        }
+    }
+
+    private <T> T run(String redisKey, String claim, String fingerprint, Duration ttl, Supplier<T> action) {
+        val done = new CompletableFuture<Void>();
+        inFlight.put(redisKey, done);
+        val lease = renewWhileRunning(redisKey, claim);
+        try {
+            val response = action.get();
+            store(redisKey, claim, write(new Entry(fingerprint, null, write(response))), ttl);
+            return response;
+        } catch (RuntimeException e) {
+            release(redisKey, claim);
+            throw e;
+        } finally {
+            lease.cancel(false);
+            inFlight.remove(redisKey, done);
+            done.complete(null);
+        }
+    }
+
+    /**
+     * Extends the lease three times per in-flight-ttl, so a request outliving it keeps its key
+     */
+    private ScheduledFuture<?> renewWhileRunning(String redisKey, String claim) {
+        val ttl = properties.getInFlightTtl().toMillis();
+        val period = Math.max(1, ttl / 3);
+        return leases.scheduleAtFixedRate(() -> {
+            try {
+                if (!Long.valueOf(1).equals(redisTemplate.execute(RENEW, List.of(redisKey), claim, String.valueOf(ttl)))) {
+                    log.warn("Lease of {} was lost while the request ran", redisKey);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Failed to renew the lease of {}", redisKey, e);
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    private void store(String redisKey, String claim, String entry, Duration ttl) {
+        try {
+            val ttlMillis = String.valueOf(ttl.toMillis());
+            if (!Long.valueOf(1).equals(redisTemplate.execute(STORE, List.of(redisKey), claim, entry, ttlMillis))) {
+                log.warn("Lease of {} lapsed before the response was stored, a retry will run again", redisKey);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Failed to store the response of {}, a retry will run again", redisKey, e);
+        }
+    }
+
+    /**
+     * Only while the key still holds this claim, after the lease lapsed it may belong to another request
+     */
+    private void release(String redisKey, String claim) {
+        try {
+            redisTemplate.execute(RELEASE, List.of(redisKey), claim);
+        } catch (DataAccessException e) {
+            log.warn("Failed to release {}, it is held until its lease lapses", redisKey, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        leases.shutdownNow();
+    }
+
+    private void awaitInFlight(String redisKey, long remainingNanos) {
+        val local = inFlight.get(redisKey);
+        try {
+            if (local != null) {
+                local.get(remainingNanos, TimeUnit.NANOSECONDS);
+            } else {
+                Thread.sleep(Math.min(properties.getPollInterval().toMillis(), TimeUnit.NANOSECONDS.toMillis(remainingNanos) + 1));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the request in progress", e);
+        } catch (ExecutionException | TimeoutException e) {
+            // checked again against Redis on the next round
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            val digest = MessageDigest.getInstance("SHA-256").digest(write(request).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private Entry entry(String value) {
+        return read(value, Entry.class);
+    }
+
+    private String write(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Not serializable: " + value, e);
+        }
+    }
+
+    private <T> T read(String value, Class<T> type) {
+        try {
+            return objectMapper.readValue(value, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored idempotent response is not readable as " + type.getSimpleName(), e);
+        }
+    }
+
+    /**
+     * @param replayed true when the response comes from an earlier request with the same key
+     */
+    public record Outcome<T>(T response, boolean replayed) {
+    }
+
+    /**
+     * A claim while the owner is set, a completed request once the response is
+     */
+    record Entry(String fingerprint, @Nullable String owner, @Nullable String response) {
+    }
+}
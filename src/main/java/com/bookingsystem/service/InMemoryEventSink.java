@@ -0,0 +1,34 @@
+package com.bookingsystem.service;
+
+import com.bookingsystem.api.dto.EventResponseDto;
+import com.bookingsystem.properties.EventFeedProperties.Sink;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Keeps the published feed in memory, for tests asserting on what consumers would receive
+ */
+@Component
+public class InMemoryEventSink implements EventSink {
+    private final List<EventResponseDto> published = new CopyOnWriteArrayList<>();
+
+    @Override
+    public Sink type() {
+        return Sink.MEMORY;
+    }
+
+    @Override
+    public void publish(List<EventResponseDto> events) {
+        published.addAll(events);
+    }
+
+    public List<EventResponseDto> getPublished() {
+        return List.copyOf(published);
+    }
+
+    public void clear() {
+        published.clear();
+    }
+}
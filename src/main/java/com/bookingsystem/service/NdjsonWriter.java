@@ -0,0 +1,74 @@
+package com.bookingsystem.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.annotation.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes one JSON document per line to a response stream, optionally gzip compressed</br>
+ * Values go through the generator buffer straight to the stream, nothing is flushed per value
+ * and nothing is held after it is written, so memory stays flat however many lines are exported</br>
+ * Closing finishes the gzip trailer but leaves the underlying stream open. A failed export is aborted instead,
+ * which leaves out the buffered tail and the trailer, so a client cannot take a cut gzip stream for a complete file
+ */
+public class NdjsonWriter implements Closeable {
+    private static final int GZIP_BUFFER_SIZE = 8192;
+
+    private final ObjectWriter writer;
+    private final JsonGenerator generator;
+    @Nullable
+    private final AbortableGzipOutputStream gzip;
+
+    public NdjsonWriter(ObjectMapper objectMapper, OutputStream out, boolean compressed) throws IOException {
+        this.gzip = compressed ? new AbortableGzipOutputStream(out) : null;
+        this.writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.generator = objectMapper.getFactory().createGenerator(compressed ? gzip : out);
+        this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.generator.setRootValueSeparator(null);
+    }
+
+    public void write(Object value) {
+        try {
+            writer.writeValue(generator, value);
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+        if (gzip != null) {
+            gzip.finish();
+        }
+    }
+
+    /**
+     * Drops whatever is still buffered and releases the compressor without writing the gzip trailer
+     */
+    public void abort() {
+        if (gzip != null) {
+            gzip.abort();
+        }
+    }
+
+    private static final class AbortableGzipOutputStream extends GZIPOutputStream {
+
+        private AbortableGzipOutputStream(OutputStream out) throws IOException {
+            super(out, GZIP_BUFFER_SIZE);
+        }
+
+        private void abort() {
+            def.end();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.bookingsystem.service;
+
+import com.bookingsystem.api.dto.Cursor;
+import com.bookingsystem.api.dto.CursorRequest;
+import com.bookingsystem.properties.PaginationProperties;
+import jakarta.annotation.Nullable;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Turns the cursor, size and withTotal request parameters of the list endpoints into a {@link CursorRequest}
+ */
+@Component
+@RequiredArgsConstructor
+public class Pagination {
+    private final PaginationProperties paginationProperties;
+
+    public CursorRequest byId(@Nullable String cursor, @Nullable Integer size, boolean withTotal) {
+        return request(Cursor.BY_ID, cursor, size, withTotal);
+    }
+
+    /**
+     * @throws IllegalArgumentException when the cursor is malformed or was produced by another sort
+     */
+    public CursorRequest request(String sort, @Nullable String cursor, @Nullable Integer size, boolean withTotal) {
+        val after = Optional.ofNullable(cursor)
+                .filter(token -> !token.isBlank())
+                .map(Cursor::decode)
+                .orElse(null);
+        if (after != null && !after.sort().equals(sort)) {
+            throw new IllegalArgumentException("Cursor was issued for sort " + after.sort() + ", not " + sort);
+        }
+
+        val pageSize = Optional.ofNullable(size)
+                .map(requested -> Math.clamp(requested, 1, paginationProperties.getMaxSize()))
+                .orElse(paginationProperties.getDefaultSize());
+        return new CursorRequest(sort, after, pageSize, withTotal);
+    }
+}
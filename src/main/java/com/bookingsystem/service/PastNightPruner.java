@@ -0,0 +1,49 @@
+package com.bookingsystem.service;
+
+import com.bookingsystem.properties.BookingCalendarProperties;
+import com.bookingsystem.repository.UnitRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Clears the nights of past stays, bitmaps only keep upcoming nights and units sold by the night
+ * can be booked as a whole again once their stays are over</br>
+ * Walks the units with booked nights in id order, each chunk of prune-chunk-size units is pruned with one UPDATE
+ * in its own transaction, so nothing is loaded per unit and a conflict only ever holds up one chunk
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PastNightPruner {
+    private final UnitRepository unitRepository;
+    private final UnitService unitService;
+    private final BookingCalendarProperties properties;
+
+    @Scheduled(cron = "${booking.scheduler.night-prune-cron}")
+    public void prune() {
+        val today = LocalDate.now();
+        val chunkSize = properties.getPruneChunkSize();
+        long afterId = 0;
+        int pruned = 0;
+        List<Long> unitIds;
+        do {
+            unitIds = unitRepository.findIdsWithBookedNightsAfter(afterId, Limit.of(chunkSize));
+            if (unitIds.isEmpty()) {
+                break;
+            }
+            pruned += unitService.prunePastNights(unitIds, today);
+            afterId = unitIds.getLast();
+        } while (unitIds.size() == chunkSize);
+
+        if (pruned > 0) {
+            log.info("Pruned past nights of {} units", pruned);
+        }
+    }
+}
@@ -8,18 +8,15 @@ import com.bookingsystem.repository.PaymentRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 
-import static com.bookingsystem.configuration.RedisConfig.UNIT_COUNT_CACHE;
-import static com.bookingsystem.model.BookingStatus.AVAILABLE;
-import static com.bookingsystem.model.EntityType.BOOKING;
-import static com.bookingsystem.model.EntityType.PAYMENT;
-import static com.bookingsystem.model.EventOperation.DELETE;
+import static com.bookingsystem.model.EventTemplate.BOOKING_EXPIRED;
+import static com.bookingsystem.model.EventTemplate.PAYMENT_EXPIRED;
 import static com.bookingsystem.model.PaymentStatus.COMPLETED;
 
 @Slf4j
@@ -31,10 +28,14 @@ public class PaymentChecker {
     private final UnitService unitService;
     private final CancellationTimeProperties cancellationTimeProperties;
     private final EventService eventService;
+    private final BookingShards bookingShards;
 
+    /**
+     * Safety sweep for bookings whose deadline timer was lost, e.g. the expiry failed or the node went down</br>
+     * Regular expiry is driven by {@link PaymentDeadlineScheduler}
+     */
     @Scheduled(cron = "${booking.scheduler.payment-check-cron}")
     @Transactional
-    @CacheEvict(value = UNIT_COUNT_CACHE, key = "'count'")
     public void checkExpiredPayments() {
         val now = LocalDateTime.now();
         val timeoutMinutes = cancellationTimeProperties.getMinutesValue();
@@ -55,42 +56,55 @@ public class PaymentChecker {
                 });
     }
 
+    /**
+     * Expires a single booking when its payment deadline is reached</br>
+     * The payment row is locked first, so a payment processed at the same moment either completes before
+     * and the booking is kept, or finds the booking gone
+     */
+    @Transactional
+    public void expireBooking(Long bookingId) {
+        val payment = paymentRepository.findByBookingIdForUpdate(bookingId);
+        if (payment.map(Payment::getStatus).filter(COMPLETED::equals).isPresent()) {
+            return;
+        }
+
+        bookingRepository.findById(bookingId)
+                .ifPresent(booking -> {
+                    bookingShards.requireRouted(booking.heldUnits());
+                    payment.ifPresentOrElse(
+                            it -> expireBookingWithPayment(booking, it),
+                            () -> expireBookingWithoutPayment(booking)
+                    );
+                });
+    }
+
     private void expireBookingWithPayment(Booking booking, Payment payment) {
-        booking.getUnits().forEach(unit -> unit.setBooking(null));
-        unitService.setUnitsBookingStatus(booking.getUnits(), AVAILABLE);
+        release(booking);
 
         paymentRepository.delete(payment);
         bookingRepository.delete(booking);
 
-        eventService.createEvent(
-                PAYMENT,
-                DELETE,
-                payment.getId(),
-                String.format("Payment expired: %s", payment.getId())
-        );
-        eventService.createEvent(
-                BOOKING,
-                DELETE,
-                booking.getId(),
-                String.format("Booking expired without payment: %s", booking.getId())
-        );
+        eventService.createEvent(PAYMENT_EXPIRED, payment.getId(), Map.of("bookingId", booking.getId()));
+        eventService.createEvent(BOOKING_EXPIRED, booking.getId(), Map.of());
 
         log.info("Expired booking {} with payment due to timeout", booking.getId());
     }
 
     private void expireBookingWithoutPayment(Booking booking) {
-        booking.getUnits().forEach(unit -> unit.setBooking(null));
-        unitService.setUnitsBookingStatus(booking.getUnits(), AVAILABLE);
+        release(booking);
 
         bookingRepository.delete(booking);
 
-        eventService.createEvent(
-                BOOKING,
-                DELETE,
-                booking.getId(),
-                String.format("Booking expired without payment: %s", booking.getId())
-        );
+        eventService.createEvent(BOOKING_EXPIRED, booking.getId(), Map.of());
 
         log.info("Expired booking {} without payment", booking.getId());
     }
-}
\ No newline at end of file
+
+    private void release(Booking booking) {
+        if (booking.isStay()) {
+            unitService.releaseNights(booking.getStayUnits(), booking.getCheckIn(), booking.getCheckOut());
+        } else {
+            unitService.releaseUnits(booking.getUnits(), booking);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.bookingsystem.service;
+
+import com.bookingsystem.configuration.SchedulingConfig;
+import com.bookingsystem.properties.PaymentExpiryProperties;
+import com.bookingsystem.repository.PaymentRepository;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * One timer per pending payment, keyed by booking id and fired at its payment deadline</br>
+ * The timers live in the delay queue of a {@link TaskScheduler} of their own, so each booking expires close to its deadline
+ * with a single targeted transaction instead of waiting for the periodic sweep. A fired timer only hands the expiry
+ * over to {@link BookingShards}, its thread is free for the next deadline right away</br>
+ * Seeded from pending payments on startup, fed by booking creation and disarmed by payment or cancellation
+ */
+@Slf4j
+@Component
+public class PaymentDeadlineScheduler {
+    private final TaskScheduler taskScheduler;
+    private final PaymentRepository paymentRepository;
+    private final PaymentChecker paymentChecker;
+    private final PaymentExpiryProperties paymentExpiryProperties;
+    private final BookingShards bookingShards;
+    private final Map<Long, Timer> timers = new ConcurrentHashMap<>();
+
+    public PaymentDeadlineScheduler(
+            @Qualifier(SchedulingConfig.PAYMENT_DEADLINE_TIMERS) TaskScheduler taskScheduler,
+            PaymentRepository paymentRepository,
+            PaymentChecker paymentChecker,
+            PaymentExpiryProperties paymentExpiryProperties,
+            BookingShards bookingShards
+    ) {
+        this.taskScheduler = taskScheduler;
+        this.paymentRepository = paymentRepository;
+        this.paymentChecker = paymentChecker;
+        this.paymentExpiryProperties = paymentExpiryProperties;
+        this.bookingShards = bookingShards;
+    }
+
+    /**
+     * Overdue payments are left to {@link BulkPaymentExpiry} when it is enabled, rather than firing one timer each
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        val now = LocalDateTime.now();
+        val pending = paymentRepository.findPendingDeadlines()
+                .stream()
+                .filter(deadline -> !paymentExpiryProperties.isBulkEnabled() || deadline.getPaymentDeadline().isAfter(now))
+                .toList();
+        pending.forEach(deadline -> schedule(deadline.getBookingId(), deadline.getPaymentDeadline()));
+        log.info("Scheduled payment deadlines for {} pending bookings", pending.size());
+    }
+
+    public void scheduleAfterCommit(Long bookingId, LocalDateTime paymentDeadline) {
+        TransactionCallbacks.afterCommit(() -> schedule(bookingId, paymentDeadline));
+    }
+
+    public void cancelAfterCommit(Long bookingId) {
+        TransactionCallbacks.afterCommit(() -> cancel(bookingId));
+    }
+
+    /**
+     * Deadlines already in the past fire right away</br>
+     * The timer is registered under the lock of its key, so one that fires at once only removes itself
+     * after it is in the map, and never the timer that replaced it
+     */
+    public void schedule(Long bookingId, LocalDateTime paymentDeadline) {
+        val fireAt = paymentDeadline.atZone(ZoneId.systemDefault()).toInstant();
+        val timer = new Timer();
+        timers.compute(bookingId, (id, previous) -> {
+            Optional.ofNullable(previous).ifPresent(Timer::cancel);
+            timer.future = taskScheduler.schedule(() -> expire(bookingId, timer), fireAt);
+            return timer;
+        });
+    }
+
+    public void cancel(Long bookingId) {
+        Optional.ofNullable(timers.remove(bookingId)).ifPresent(Timer::cancel);
+    }
+
+    private void expire(Long bookingId, Timer timer) {
+        timers.remove(bookingId, timer);
+        bookingShards.submitForBooking(bookingId, () -> paymentChecker.expireBooking(bookingId))
+                .exceptionally(failure -> {
+                    log.warn("Failed to expire booking {}, the next sweep will pick it up", bookingId, failure);
+                    return null;
+                });
+    }
+
+    private static final class Timer {
+        private volatile ScheduledFuture<?> future;
+
+        private void cancel() {
+            future.cancel(false);
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.bookingsystem.service;
 
+import com.bookingsystem.api.dto.Cursor;
+import com.bookingsystem.api.dto.CursorPage;
+import com.bookingsystem.api.dto.CursorRequest;
 import com.bookingsystem.api.dto.PaymentResponseDto;
 import com.bookingsystem.exceptions.BookingNotFoundException;
 import com.bookingsystem.exceptions.PaymentNotFoundException;
@@ -9,17 +12,12 @@ import com.bookingsystem.repository.PaymentRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Isolation;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
-import static com.bookingsystem.configuration.RedisConfig.UNIT_COUNT_CACHE;
-import static com.bookingsystem.model.BookingStatus.BOOKED;
-import static com.bookingsystem.model.EntityType.PAYMENT;
-import static com.bookingsystem.model.EventOperation.CREATE;
+import static com.bookingsystem.model.EventTemplate.PAYMENT_CREATED;
 
 @Service
 @RequiredArgsConstructor
@@ -30,17 +28,28 @@ public class PaymentService {
     private final EventService eventService;
     private final UnitService unitService;
     private final PaymentMapper paymentMapper;
+    private final PaymentDeadlineScheduler paymentDeadlineScheduler;
+    private final BookingTransactions bookingTransactions;
+    private final BookingShards bookingShards;
 
     /**
      * EMULATION of payment processing</br>
      * This is called by the user to confirm payment</br>
      * Units remain BOOKED, status changes to COMPLETED</br>
+     * Runs in a SERIALIZABLE transaction, on the {@link BookingShards} of the booking units in SHARDED mode
      */
-    @Transactional(isolation = Isolation.SERIALIZABLE)
-    @CacheEvict(value = UNIT_COUNT_CACHE, key = "'count'")
     public PaymentResponseDto processPayment(Long bookingId, Long userId) {
+        return bookingShards.executeForBooking(
+                bookingId,
+                Set.of(),
+                () -> bookingTransactions.executeSerializable(() -> pay(bookingId, userId))
+        );
+    }
+
+    private PaymentResponseDto pay(Long bookingId, Long userId) {
         val booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new BookingNotFoundException("Booking not found with id: " + bookingId));
+        bookingShards.requireRouted(booking.heldUnits());
 
         if (!booking.getUser().getId().equals(userId)) {
             throw new IllegalArgumentException("Only the booking owner can process payment");
@@ -58,17 +67,20 @@ public class PaymentService {
         }
 
         payment.markAsPaid();
-        unitService.setUnitsBookingStatus(booking.getUnits(), BOOKED);
+        // the nights of a stay are already booked, only whole units move on to BOOKED
+        if (!booking.isStay()) {
+            unitService.confirmUnits(booking.getUnits());
+        }
 
         val paid = paymentRepository.save(payment);
+        paymentDeadlineScheduler.cancelAfterCommit(bookingId);
 
         log.info("Processed payment {} for booking {} by user {}", paid.getId(), bookingId, userId);
 
         eventService.createEvent(
-                PAYMENT,
-                CREATE,
+                PAYMENT_CREATED,
                 paid.getId(),
-                String.format("Payment created: %s", paid.getId())
+                Map.of("bookingId", bookingId, "amount", paid.getPaymentAmount())
         );
         log.info("Payment completed at: {}", paid.getPaidAt());
 
@@ -81,10 +93,11 @@ public class PaymentService {
                 .orElseThrow(() -> new PaymentNotFoundException("Payment not found with id: " + id));
     }
 
-    public List<PaymentResponseDto> getAllPayments() {
-        return paymentRepository.findAll()
-                .stream()
-                .map(paymentMapper::toDto)
-                .toList();
+    public CursorPage<PaymentResponseDto> getAllPayments(CursorRequest request) {
+        return request.page(
+                paymentRepository.findByIdGreaterThanOrderById(request.afterId(), request.limit()),
+                payment -> Cursor.byId(payment.getId()),
+                paymentRepository::count
+        ).map(paymentMapper::toDto);
     }
 }
\ No newline at end of file
@@ -0,0 +1,55 @@
+package com.bookingsystem.service;
+
+import com.bookingsystem.api.dto.EventResponseDto;
+import com.bookingsystem.properties.EventFeedProperties;
+import com.bookingsystem.properties.EventFeedProperties.Sink;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Publishes each event as one entry of a Redis stream, the whole batch in a single pipeline</br>
+ * Entries hold the event id and its JSON, consumers read them with XREAD or a consumer group
+ */
+@Component
+@RequiredArgsConstructor
+public class RedisStreamEventSink implements EventSink {
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final EventFeedProperties properties;
+
+    @Override
+    public Sink type() {
+        return Sink.REDIS;
+    }
+
+    @Override
+    public void publish(List<EventResponseDto> events) {
+        val key = properties.getStreamKey();
+        val entries = events.stream()
+                .map(event -> Map.of("id", String.valueOf(event.id()), "event", toJson(event)))
+                .toList();
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            val strings = (StringRedisConnection) connection;
+            entries.forEach(entry -> strings.xAdd(key, entry));
+            strings.xTrim(key, properties.getStreamMaxLength(), true);
+            return null;
+        });
+    }
+
+    private String toJson(EventResponseDto event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Event is not serializable: " + event.id(), e);
+        }
+    }
+}
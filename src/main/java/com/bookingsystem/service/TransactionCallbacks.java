@@ -0,0 +1,29 @@
+package com.bookingsystem.service;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Defers in-memory side effects until the surrounding transaction commits
+ */
+@UtilityClass
+class TransactionCallbacks {
+
+    /**
+     * Runs the action once the surrounding transaction commits, or immediately when there is no transaction</br>
+     * The action is dropped when the transaction rolls back
+     */
+    void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
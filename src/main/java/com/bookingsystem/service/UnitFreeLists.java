@@ -0,0 +1,71 @@
+package com.bookingsystem.service;
+
+import com.bookingsystem.model.AccommodationType;
+import lombok.val;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Candidate unit ids per (type, rooms) bucket, {@link BookingAllocator} hands every caller a different one
+ * instead of letting them all race for the top search result</br>
+ * Taking a candidate is a lock-free poll. The lists are only hints, the booking is confirmed by the database
+ * and ids that turn out to be taken are simply not offered back</br>
+ * An empty bucket is refilled in random order by one caller while the others of that bucket wait for it
+ */
+@Component
+public class UnitFreeLists {
+    private final ConcurrentMap<Bucket, FreeList> lists = new ConcurrentHashMap<>();
+
+    public Optional<Long> poll(Bucket bucket, Supplier<Collection<Long>> refill) {
+        val list = list(bucket);
+        val unitId = list.ids.poll();
+        return unitId != null ? Optional.of(unitId) : list.refillAndPoll(refill);
+    }
+
+    public void offer(Bucket bucket, Long unitId) {
+        list(bucket).ids.offer(unitId);
+    }
+
+    /**
+     * Drops the bucket, the next poll refills it from scratch
+     */
+    public void invalidate(Bucket bucket) {
+        lists.remove(bucket);
+    }
+
+    private FreeList list(Bucket bucket) {
+        return lists.computeIfAbsent(bucket, __ -> new FreeList());
+    }
+
+    public record Bucket(AccommodationType type, int numberOfRooms) {
+    }
+
+    private static final class FreeList {
+        private final Queue<Long> ids = new ConcurrentLinkedQueue<>();
+        private final ReentrantLock refillLock = new ReentrantLock();
+
+        private Optional<Long> refillAndPoll(Supplier<Collection<Long>> refill) {
+            refillLock.lock();
+            try {
+                // refilled by another caller while this one was waiting
+                val unitId = ids.poll();
+                if (unitId != null) {
+                    return Optional.of(unitId);
+                }
+
+                val fresh = new ArrayList<>(refill.get());
+                Collections.shuffle(fresh);
+                ids.addAll(fresh);
+                return Optional.ofNullable(ids.poll());
+            } finally {
+                refillLock.unlock();
+            }
+        }
+    }
+}
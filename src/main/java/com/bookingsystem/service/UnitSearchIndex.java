@@ -0,0 +1,412 @@
+package com.bookingsystem.service;
+
+import com.bookingsystem.api.dto.Cursor;
+import com.bookingsystem.api.dto.CursorPage;
+import com.bookingsystem.api.dto.CursorRequest;
+import com.bookingsystem.api.dto.UnitSearchCriteria;
+import com.bookingsystem.api.dto.UnitSortKey;
+import com.bookingsystem.model.AccommodationType;
+import com.bookingsystem.model.BookingStatus;
+import com.bookingsystem.model.NightBitmap;
+import com.bookingsystem.model.Unit;
+import com.bookingsystem.repository.UnitRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static com.bookingsystem.model.BookingStatus.AVAILABLE;
+
+/**
+ * In-process columnar index over the unit catalog, used by {@link UnitService#searchUnits} instead of the database</br>
+ * Each unit owns a slot: rooms, cost and booking date live in primitive columns, while type, status and rooms
+ * also have {@link BitSet} posting lists, so a search is a few bitset ANDs plus a range scan over the survivors</br>
+ * Booked nights are posted per night as well, units free for a whole stay are the candidates AND NOT
+ * the posting list of each of its nights, whatever the size of the catalog</br>
+ * Built once on startup and kept current after commit by the unit and booking write paths. A periodic resync picks up
+ * what those never report: writes of other nodes and the set-based expiry sweeps</br>
+ * Updates older than the indexed version of a unit are ignored, so a late after-commit update cannot undo a newer state
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UnitSearchIndex {
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int NO_DATE = Integer.MAX_VALUE;
+    private static final BitSet NO_SLOTS = new BitSet();
+
+    private final UnitRepository unitRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Integer> slotsById = new HashMap<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private final BitSet[] slotsByType = postingLists(AccommodationType.values().length);
+    private final BitSet[] slotsByStatus = postingLists(BookingStatus.values().length);
+    private final Map<Integer, BitSet> slotsByRooms = new HashMap<>();
+    private final Map<Integer, BitSet> slotsByNight = new HashMap<>();
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private int[] rooms = new int[INITIAL_CAPACITY];
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private byte[] statuses = new byte[INITIAL_CAPACITY];
+    private double[] costs = new double[INITIAL_CAPACITY];
+    private int[] versions = new int[INITIAL_CAPACITY];
+    private long[] touched = new long[INITIAL_CAPACITY];
+    private int[] bookingDays = new int[INITIAL_CAPACITY];
+    private NightBitmap[] nights = new NightBitmap[INITIAL_CAPACITY];
+    private Unit[] snapshots = new Unit[INITIAL_CAPACITY];
+    private int allocatedSlots;
+    private long generation;
+    private Set<Long> removedDuringResync;
+
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            clear();
+            unitRepository.findAll().forEach(this::put);
+            ready = true;
+            log.info("Unit search index built with {} units", slotsById.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reloads the catalog without blocking searches, then applies it under the write lock</br>
+     * Units written or removed on this node while the catalog loaded keep that newer state, units missing
+     * from the database are dropped
+     */
+    @Scheduled(fixedDelayString = "${booking.scheduler.unit-index-resync-delay-ms}")
+    public void resync() {
+        if (!ready) {
+            return;
+        }
+
+        final long startedAt;
+        lock.writeLock().lock();
+        try {
+            startedAt = ++generation;
+            removedDuringResync = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            val units = unitRepository.findAll();
+            lock.writeLock().lock();
+            try {
+                val loaded = new HashSet<Long>();
+                units.forEach(unit -> {
+                    loaded.add(unit.getId());
+                    val slot = slotsById.get(unit.getId());
+                    if (!removedDuringResync.contains(unit.getId()) && (slot == null || touched[slot] < startedAt)) {
+                        put(unit);
+                    }
+                });
+                val gone = slotsById.entrySet()
+                        .stream()
+                        .filter(entry -> !loaded.contains(entry.getKey()) && touched[entry.getValue()] < startedAt)
+                        .map(Map.Entry::getKey)
+                        .toList();
+                gone.forEach(unitId -> release(slotsById.remove(unitId)));
+                log.debug("Unit search index resynced with {} units, {} dropped", units.size(), gone.size());
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            lock.writeLock().lock();
+            try {
+                removedDuringResync = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Applies the current state of the given units once the surrounding transaction commits,
+     * or immediately when there is no transaction
+     */
+    public void upsertAfterCommit(Collection<Unit> units) {
+        TransactionCallbacks.afterCommit(() -> upsert(units));
+    }
+
+    public void removeAfterCommit(Long unitId) {
+        TransactionCallbacks.afterCommit(() -> remove(unitId));
+    }
+
+    public void upsert(Collection<Unit> units) {
+        lock.writeLock().lock();
+        try {
+            units.forEach(this::put);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long unitId) {
+        lock.writeLock().lock();
+        try {
+            Optional.ofNullable(slotsById.remove(unitId)).ifPresent(this::release);
+            if (removedDuringResync != null) {
+                removedDuringResync.add(unitId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Same criteria and order as {@link UnitRepository#searchUnits}, only AVAILABLE units are returned</br>
+     * The page starts strictly after the request cursor, so deep pages cost the same as the first one</br>
+     * Empty when the index is not built yet, callers should fall back to the database in that case
+     */
+    public Optional<CursorPage<Unit>> search(
+            UnitSearchCriteria criteria,
+            UnitSortKey sortKey,
+            Sort.Direction direction,
+            CursorRequest request
+    ) {
+        if (!ready) {
+            return Optional.empty();
+        }
+
+        lock.readLock().lock();
+        try {
+            val candidates = (BitSet) slotsByStatus[AVAILABLE.ordinal()].clone();
+            if (criteria.type() != null) {
+                candidates.and(slotsByType[criteria.type().ordinal()]);
+            }
+            if (criteria.numberOfRooms() != null) {
+                candidates.and(slotsByRooms.getOrDefault(criteria.numberOfRooms(), NO_SLOTS));
+            }
+            if (criteria.hasStay()) {
+                val checkOut = NightBitmap.night(criteria.checkOut());
+                for (int night = NightBitmap.night(criteria.checkIn()); night < checkOut; night++) {
+                    candidates.andNot(slotsByNight.getOrDefault(night, NO_SLOTS));
+                }
+            }
+
+            val minCost = criteria.minCost();
+            val maxCost = criteria.maxCost();
+            val dateFiltered = criteria.from() != null || criteria.to() != null;
+            val fromDay = criteria.from() == null ? Integer.MIN_VALUE : (int) criteria.from().toEpochDay();
+            val toDay = criteria.to() == null ? Integer.MAX_VALUE - 1 : (int) criteria.to().toEpochDay();
+            val after = request.after();
+            val sign = direction.isAscending() ? 1 : -1;
+
+            // bounded top-k: the heap keeps the page plus one lookahead row, its head is the last of them in sort order
+            Comparator<Integer> ascending = (left, right) -> compare(left, sortKey, key(right, sortKey), ids[right]);
+            val order = direction.isAscending() ? ascending : ascending.reversed();
+            val limit = request.size() + 1;
+            val top = new PriorityQueue<Integer>(limit + 1, order.reversed());
+
+            int total = 0;
+            for (int slot = candidates.nextSetBit(0); slot >= 0; slot = candidates.nextSetBit(slot + 1)) {
+                if (minCost != null && costs[slot] < minCost) {
+                    continue;
+                }
+                if (maxCost != null && costs[slot] > maxCost) {
+                    continue;
+                }
+                if (dateFiltered && (bookingDays[slot] == NO_DATE || bookingDays[slot] < fromDay || bookingDays[slot] > toDay)) {
+                    continue;
+                }
+                total++;
+                if (after != null && sign * compare(slot, sortKey, after.key(), after.id()) <= 0) {
+                    continue;
+                }
+                if (top.size() == limit && order.compare(slot, top.peek()) >= 0) {
+                    continue;
+                }
+                top.add(slot);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+
+            val rows = top.stream()
+                    .sorted(order)
+                    .map(slot -> snapshots[slot])
+                    .toList();
+            val pageTotal = total;
+            return Optional.of(request.page(rows, unit -> cursor(unit, sortKey, direction), () -> pageTotal));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the AVAILABLE units of one type and number of rooms, the refill of a {@link UnitFreeLists} bucket</br>
+     * Empty when the index is not built yet
+     */
+    public Optional<List<Long>> availableIds(AccommodationType type, int numberOfRooms) {
+        if (!ready) {
+            return Optional.empty();
+        }
+
+        lock.readLock().lock();
+        try {
+            val slots = (BitSet) slotsByStatus[AVAILABLE.ordinal()].clone();
+            slots.and(slotsByType[type.ordinal()]);
+            slots.and(slotsByRooms.getOrDefault(numberOfRooms, NO_SLOTS));
+            return Optional.of(slots.stream().mapToObj(slot -> ids[slot]).toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Indexed copy of the unit, empty when it is unknown or the index is not built yet
+     */
+    public Optional<Unit> find(Long unitId) {
+        if (!ready) {
+            return Optional.empty();
+        }
+
+        lock.readLock().lock();
+        try {
+            return Optional.ofNullable(slotsById.get(unitId)).map(slot -> snapshots[slot]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Orders a slot against a (key, id) position, by key first and by id between equal keys
+     */
+    private int compare(int slot, UnitSortKey sortKey, double key, long id) {
+        val byKey = Double.compare(key(slot, sortKey), key);
+        return byKey != 0 ? byKey : Long.compare(ids[slot], id);
+    }
+
+    private double key(int slot, UnitSortKey sortKey) {
+        return switch (sortKey) {
+            case ID -> 0;
+            case NUMBER_OF_ROOMS -> rooms[slot];
+            case TOTAL_COST -> costs[slot];
+        };
+    }
+
+    private static Cursor cursor(Unit unit, UnitSortKey sortKey, Sort.Direction direction) {
+        val key = switch (sortKey) {
+            case ID -> 0;
+            case NUMBER_OF_ROOMS -> unit.getNumberOfRooms();
+            case TOTAL_COST -> unit.getTotalCost();
+        };
+        return new Cursor(sortKey.sortName(direction), key, unit.getId());
+    }
+
+    private void put(Unit unit) {
+        if (unit.getId() == null) {
+            return;
+        }
+
+        val existing = slotsById.get(unit.getId());
+        final int slot;
+        if (existing != null) {
+            if (unit.getVersion() < versions[existing]) {
+                log.debug("Ignoring version {} of unit {}, version {} is indexed", unit.getVersion(), unit.getId(), versions[existing]);
+                return;
+            }
+            slot = existing;
+            unlink(slot);
+        } else {
+            slot = allocate();
+            slotsById.put(unit.getId(), slot);
+        }
+
+        ids[slot] = unit.getId();
+        rooms[slot] = unit.getNumberOfRooms();
+        types[slot] = (byte) unit.getType().ordinal();
+        statuses[slot] = (byte) unit.getStatus().ordinal();
+        costs[slot] = unit.getTotalCost();
+        versions[slot] = unit.getVersion();
+        touched[slot] = generation;
+        bookingDays[slot] = Optional.ofNullable(unit.getBookingDate())
+                .map(date -> (int) date.toEpochDay())
+                .orElse(NO_DATE);
+        nights[slot] = unit.nights();
+        snapshots[slot] = unit.detachedCopy();
+
+        slotsByType[types[slot]].set(slot);
+        slotsByStatus[statuses[slot]].set(slot);
+        slotsByRooms.computeIfAbsent(rooms[slot], __ -> new BitSet()).set(slot);
+        nights[slot].bookedNights().forEach(night -> slotsByNight.computeIfAbsent(night, __ -> new BitSet()).set(slot));
+    }
+
+    private void release(int slot) {
+        unlink(slot);
+        nights[slot] = null;
+        snapshots[slot] = null;
+        freeSlots.push(slot);
+    }
+
+    private void unlink(int slot) {
+        slotsByType[types[slot]].clear(slot);
+        slotsByStatus[statuses[slot]].clear(slot);
+        Optional.ofNullable(slotsByRooms.get(rooms[slot])).ifPresent(slots -> slots.clear(slot));
+        nights[slot].bookedNights().forEach(night -> {
+            val slots = slotsByNight.get(night);
+            slots.clear(slot);
+            if (slots.isEmpty()) {
+                slotsByNight.remove(night);
+            }
+        });
+    }
+
+    private int allocate() {
+        if (!freeSlots.isEmpty()) {
+            return freeSlots.pop();
+        }
+        if (allocatedSlots == ids.length) {
+            grow(ids.length * 2);
+        }
+        return allocatedSlots++;
+    }
+
+    private void grow(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        rooms = Arrays.copyOf(rooms, capacity);
+        types = Arrays.copyOf(types, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        costs = Arrays.copyOf(costs, capacity);
+        versions = Arrays.copyOf(versions, capacity);
+        touched = Arrays.copyOf(touched, capacity);
+        bookingDays = Arrays.copyOf(bookingDays, capacity);
+        nights = Arrays.copyOf(nights, capacity);
+        snapshots = Arrays.copyOf(snapshots, capacity);
+    }
+
+    private void clear() {
+        slotsById.clear();
+        freeSlots.clear();
+        slotsByRooms.clear();
+        slotsByNight.clear();
+        Arrays.stream(slotsByType).forEach(BitSet::clear);
+        Arrays.stream(slotsByStatus).forEach(BitSet::clear);
+        Arrays.fill(nights, null);
+        Arrays.fill(snapshots, null);
+        allocatedSlots = 0;
+    }
+
+    private static BitSet[] postingLists(int size) {
+        val lists = new BitSet[size];
+        Arrays.setAll(lists, __ -> new BitSet());
+        return lists;
+    }
+}
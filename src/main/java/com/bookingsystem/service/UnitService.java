@@ -1,32 +1,42 @@
 package com.bookingsystem.service;
 
+import com.bookingsystem.api.dto.Cursor;
+import com.bookingsystem.api.dto.CursorPage;
+import com.bookingsystem.api.dto.CursorRequest;
 import com.bookingsystem.api.dto.UnitCreateDto;
+import com.bookingsystem.api.dto.UnitResponseDto;
+import com.bookingsystem.api.dto.UnitSearchCriteria;
+import com.bookingsystem.api.dto.UnitSortKey;
 import com.bookingsystem.api.dto.UnitUpdateDto;
 import com.bookingsystem.exceptions.UnitNotFoundException;
-import com.bookingsystem.model.AccommodationType;
+import com.bookingsystem.mapper.UnitMapper;
+import com.bookingsystem.model.Booking;
 import com.bookingsystem.model.BookingStatus;
+import com.bookingsystem.model.NightBitmap;
 import com.bookingsystem.model.Unit;
+import com.bookingsystem.properties.BookingConcurrencyProperties.LockWait;
 import com.bookingsystem.repository.UnitRepository;
+import com.bookingsystem.repository.UnitRepository.UnitBooking;
 import jakarta.annotation.Nullable;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
+import org.hibernate.Session;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Optional;
-import java.util.Set;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
-import static com.bookingsystem.configuration.RedisConfig.UNIT_COUNT_CACHE;
-import static com.bookingsystem.model.EntityType.UNIT;
-import static com.bookingsystem.model.EventOperation.*;
+import static com.bookingsystem.configuration.RedisConfig.UNIT_CACHE;
+import static com.bookingsystem.model.BookingStatus.*;
+import static com.bookingsystem.model.EventTemplate.*;
 
 @Service
 @RequiredArgsConstructor
@@ -34,111 +44,346 @@ import static com.bookingsystem.model.EventOperation.*;
 public class UnitService {
     private final UnitRepository unitRepository;
     private final EventService eventService;
+    private final UnitSearchIndex unitSearchIndex;
+    private final EntityManager entityManager;
+    private final AvailabilityCounter availabilityCounter;
+    private final CacheInvalidator cacheInvalidator;
+    private final UnitMapper unitMapper;
 
     @Transactional
-    @CacheEvict(value = UNIT_COUNT_CACHE, key = "'count'")
     public Unit createUnit(UnitCreateDto dto) {
-        val newUnit = new Unit(
-                dto.numberOfRooms(),
-                dto.type(),
-                dto.floor(),
-                dto.baseCost(),
-                dto.bookingDate(),
-                dto.description()
-        );
+        val saved = unitRepository.save(toUnit(dto));
+        unitSearchIndex.upsertAfterCommit(List.of(saved));
+        availabilityCounter.adjustAfterCommit(availability(saved.getStatus()));
+
+        eventService.createEvent(UNIT_CREATED, saved.getId(), Map.of());
+        return saved;
+    }
 
-        val saved = unitRepository.save(newUnit);
+    /**
+     * Bulk variant of {@link #createUnit} in a single transaction, the inserts go out in JDBC batches
+     */
+    @Transactional
+    public List<Unit> createUnits(List<UnitCreateDto> dtos) {
+        val saved = unitRepository.saveAll(dtos.stream().map(UnitService::toUnit).toList());
+        unitSearchIndex.upsertAfterCommit(saved);
+        availabilityCounter.adjustAfterCommit(saved.stream().mapToLong(unit -> availability(unit.getStatus())).sum());
 
-        eventService.createEvent(
-                UNIT,
-                CREATE,
-                saved.getId(),
-                String.format("Unit created: %s", saved.getId())
-        );
+        saved.forEach(unit -> eventService.createEvent(UNIT_CREATED, unit.getId(), Map.of()));
         return saved;
     }
 
     @Transactional
+    @CacheEvict(cacheNames = UNIT_CACHE, key = "#unitId")
     public Unit updateUnit(Long unitId, UnitUpdateDto dto) {
-        return unitRepository.findById(unitId)
-                .map(unit -> unit.update(
-                                dto.numberOfRooms(),
-                                dto.type(),
-                                dto.status(),
-                                dto.floor(),
-                                dto.bookingDate(),
-                                dto.baseCost(),
-                                dto.description()
-                        )
-                )
-                .map(unitRepository::save)
-                .map(unit -> {
-                    eventService.createEvent(
-                            UNIT,
-                            UPDATE,
-                            unit.getId(),
-                            String.format("Unit updated: %s", unit.getId())
-                    );
-                    return unit;
-                })
+        val unit = unitRepository.findById(unitId)
                 .orElseThrow(() -> new UnitNotFoundException("Unit not found with id: " + unitId));
+        val previousStatus = unit.getStatus();
+
+        val updated = unitRepository.save(unit.update(
+                dto.numberOfRooms(),
+                dto.type(),
+                dto.status(),
+                dto.floor(),
+                dto.bookingDate(),
+                dto.baseCost(),
+                dto.description()
+        ));
+
+        unitSearchIndex.upsertAfterCommit(List.of(updated));
+        availabilityCounter.adjustAfterCommit(availability(updated.getStatus()) - availability(previousStatus));
+        eventService.createEvent(UNIT_UPDATED, updated.getId(), Map.of("status", updated.getStatus()));
+        return updated;
     }
 
+    /**
+     * Served from the unit cache as a detached copy
+     */
+    @Cacheable(cacheNames = UNIT_CACHE, key = "#id", sync = true)
     public Unit getUnitById(Long id) {
         return unitRepository.findById(id)
+                .map(Unit::detachedCopy)
                 .orElseThrow(() -> new UnitNotFoundException("Unit not found with id: " + id));
     }
 
-    public List<Unit> getAllUnits() {
-        return unitRepository.findAll();
+    public CursorPage<UnitResponseDto> getAllUnits(CursorRequest request) {
+        return request.page(
+                unitRepository.findDtosAfter(request.afterId(), request.limit()),
+                unit -> Cursor.byId(unit.id()),
+                unitRepository::count
+        );
     }
 
-    public Page<Unit> searchUnits(
-            @Nullable Integer numberOfRooms,
-            @Nullable AccommodationType type,
-            @Nullable Double minCost,
-            @Nullable Double maxCost,
-            @Nullable LocalDate from,
-            @Nullable LocalDate to,
-            @Nullable Pageable pageable
+    /**
+     * Served from {@link UnitSearchIndex} once it is built, from a keyset query before that
+     */
+    public CursorPage<UnitResponseDto> searchUnits(
+            UnitSearchCriteria criteria,
+            UnitSortKey sortKey,
+            Sort.Direction direction,
+            CursorRequest request
     ) {
-        return unitRepository.searchUnits(numberOfRooms, type, minCost, maxCost, from, to, Optional.ofNullable(pageable).orElse(Pageable.unpaged()));
+        return unitSearchIndex.search(criteria, sortKey, direction, request)
+                .map(units -> units.map(unitMapper::toDto))
+                .orElseGet(() -> request.page(
+                        unitRepository.searchUnits(criteria, sortKey, direction, request.after(), request.limit()),
+                        unit -> new Cursor(sortKey.sortName(direction), sortKey.keyOf(unit), unit.id()),
+                        () -> unitRepository.countUnits(criteria)
+                ));
     }
 
     public Set<Unit> findAllById(Set<Long> ids) {
         return new HashSet<>(unitRepository.findAllById(ids));
     }
 
+    /**
+     * Loads and row-locks the units in ascending id order</br>
+     * Fails when any of them is missing, or skipped because another booking holds its lock
+     */
     @Transactional
-    @CacheEvict(value = UNIT_COUNT_CACHE, key = "'count'")
-    public void deleteUnit(Long unitId) {
-        if (!unitRepository.existsById(unitId)) {
-            throw new UnitNotFoundException("Unit not found with id: " + unitId);
+    public Set<Unit> lockAllById(Set<Long> ids, LockWait lockWait) {
+        val orderedIds = ids.stream().sorted().toList();
+        List<Unit> locked = switch (lockWait) {
+            case WAIT -> unitRepository.findAllByIdForUpdate(orderedIds);
+            case NOWAIT -> unitRepository.findAllByIdForUpdateNoWait(orderedIds);
+            case SKIP_LOCKED -> unitRepository.findAllByIdForUpdateSkipLocked(orderedIds);
+        };
+
+        if (locked.size() < orderedIds.size()) {
+            val lockedIds = locked.stream().map(Unit::getId).collect(Collectors.toSet());
+            val missingIds = orderedIds.stream()
+                    .filter(id -> !lockedIds.contains(id))
+                    .map(String::valueOf)
+                    .collect(Collectors.joining(", "));
+            throw new UnitNotFoundException("Units are not available: " + missingIds);
         }
+        return new LinkedHashSet<>(locked);
+    }
+
+    @Transactional
+    @CacheEvict(cacheNames = UNIT_CACHE, key = "#unitId")
+    public void deleteUnit(Long unitId) {
+        val unit = unitRepository.findById(unitId)
+                .orElseThrow(() -> new UnitNotFoundException("Unit not found with id: " + unitId));
+
         unitRepository.deleteById(unitId);
-        eventService.createEvent(
-                UNIT,
-                DELETE,
-                unitId,
-                String.format("Unit deleted: %s", unitId)
-        );
+        unitSearchIndex.removeAfterCommit(unitId);
+        availabilityCounter.adjustAfterCommit(-availability(unit.getStatus()));
+        eventService.createEvent(UNIT_DELETED, unitId, Map.of());
     }
 
+    /**
+     * AVAILABLE -> RESERVED for all units with a single conditional UPDATE</br>
+     * Fails, and so rolls the booking back, when any of them has been taken in the meantime, as a whole or by the night
+     */
     @Transactional
-    public void setUnitsBookingStatus(Set<Unit> units, BookingStatus bookingStatus) {
-        units.forEach(unit -> {
-            unit.setStatus(bookingStatus);
-            eventService.createEvent(
-                    UNIT,
-                    UPDATE,
-                    unit.getId(),
-                    String.format("Unit updated: %s", unit.getId())
-            );
+    public void reserveUnits(Set<Unit> units, Booking booking) {
+        // nights of past stays are flushed away first, the UPDATE only takes units without booked nights
+        units.forEach(Unit::prunePastNights);
+        val ids = ids(units);
+        val reserved = unitRepository.updateStatusAndBooking(ids, AVAILABLE, RESERVED, booking);
+
+        if (reserved != ids.size()) {
+            throw new UnitNotFoundException("Units are not available: " + joined(ids));
+        }
+        availabilityCounter.adjustAfterCommit(-reserved);
+        applyTransition(units, AVAILABLE, RESERVED, unit -> {
+            unit.setStatus(RESERVED);
+            unit.setBooking(booking);
+        });
+    }
+
+    /**
+     * Books the nights [checkIn, checkOut) of every unit by OR-ing them into its {@link NightBitmap}, the status stays AVAILABLE</br>
+     * The units must be managed by the current transaction: the new bitmaps are flushed under their version,
+     * so a concurrent booking of the same unit fails with an optimistic lock conflict and is retried
+     */
+    @Transactional
+    public void reserveNights(Set<Unit> units, LocalDate checkIn, LocalDate checkOut) {
+        val taken = units.stream()
+                .filter(unit -> !unit.isFree(checkIn, checkOut))
+                .map(Unit::getId)
+                .sorted()
+                .toList();
+
+        if (!taken.isEmpty()) {
+            throw new UnitNotFoundException("Units are not available from " + checkIn + " to " + checkOut + ": " + joined(taken));
+        }
+        units.forEach(unit -> unit.bookNights(checkIn, checkOut));
+        applyNights(units);
+    }
+
+    /**
+     * Row-locks the units of the given stays in ascending id order, units locked by a booking in flight are skipped</br>
+     * Locked units are loaded fresh, so releasing their nights afterwards cannot fail its optimistic check
+     *
+     * @return stays with a skipped unit, their nights cannot be released without waiting for that booking
+     */
+    @Transactional
+    public Set<Long> lockStayUnits(Collection<Long> bookingIds) {
+        val stayUnits = unitRepository.findStayUnitBookings(bookingIds);
+        if (stayUnits.isEmpty()) {
+            return Set.of();
+        }
+        val unitIds = stayUnits.stream().map(UnitBooking::getUnitId).distinct().toList();
+        val locked = unitRepository.findAllByIdForUpdateSkipLocked(unitIds)
+                .stream()
+                .map(Unit::getId)
+                .collect(Collectors.toSet());
+        return stayUnits.stream()
+                .filter(stayUnit -> !locked.contains(stayUnit.getUnitId()))
+                .map(UnitBooking::getBookingId)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Clears the nights [checkIn, checkOut) of every unit, the AND NOT counterpart of {@link #reserveNights}
+     */
+    @Transactional
+    public void releaseNights(Set<Unit> units, LocalDate checkIn, LocalDate checkOut) {
+        units.forEach(unit -> unit.releaseNights(checkIn, checkOut));
+        applyNights(units);
+    }
+
+    /**
+     * Clears the nights before today on the given units with a single UPDATE, one chunk of {@link PastNightPruner}</br>
+     * The bitmaps are rewritten in the database, so a live booking of one of the units never rolls the prune back
+     *
+     * @return number of units that had past nights
+     */
+    @Transactional
+    public int prunePastNights(List<Long> unitIds, LocalDate today) {
+        val pruned = unitRepository.prunePastNights(unitIds, NightBitmap.night(today));
+        if (pruned > 0) {
+            applyNights(new HashSet<>(unitRepository.findAllById(unitIds)));
+        }
+        return pruned;
+    }
+
+    /**
+     * RESERVED -> BOOKED for all units with a single conditional UPDATE
+     */
+    @Transactional
+    public void confirmUnits(Set<Unit> units) {
+        val ids = ids(units);
+        val confirmed = unitRepository.updateStatus(ids, RESERVED, BOOKED);
+
+        if (confirmed != ids.size()) {
+            throw new IllegalStateException("Units are no longer reserved: " + joined(ids));
+        }
+        applyTransition(units, RESERVED, BOOKED, unit -> unit.setStatus(BOOKED));
+    }
+
+    /**
+     * RESERVED -> AVAILABLE for all units of the booking with a single conditional UPDATE, detaching them from it</br>
+     * Fails, and so rolls the caller back, when any of them is no longer reserved by this booking,
+     * e.g. freed by the bulk expiry and taken by another booking since the units were read
+     */
+    @Transactional
+    public void releaseUnits(Set<Unit> units, Booking booking) {
+        val ids = ids(units);
+        val released = unitRepository.updateStatusAndClearBooking(ids, RESERVED, AVAILABLE, booking);
+
+        if (released != ids.size()) {
+            throw new IllegalStateException("Units are no longer reserved by booking " + booking.getId() + ": " + joined(ids));
+        }
+        availabilityCounter.adjustAfterCommit(released);
+        applyTransition(units, RESERVED, AVAILABLE, unit -> {
+            unit.setStatus(AVAILABLE);
+            unit.setBooking(null);
         });
     }
 
-    @Cacheable(value = UNIT_COUNT_CACHE, key = "'count'")
+    /**
+     * Makes every unit of the given bookings AVAILABLE again with a single UPDATE, for callers that never
+     * loaded the bookings</br>
+     * The freed units are read back once to feed the events and the search index
+     *
+     * @return number of freed units
+     */
+    @Transactional
+    public int releaseUnitsOfBookings(Collection<Long> bookingIds) {
+        val unitBookings = unitRepository.findUnitBookings(bookingIds);
+        if (unitBookings.isEmpty()) {
+            return 0;
+        }
+        val unitIds = unitBookings.stream().map(UnitBooking::getUnitId).toList();
+        val released = unitRepository.updateStatusAndClearBookingByBookingIds(bookingIds, AVAILABLE);
+        availabilityCounter.adjustAfterCommit(released);
+
+        val units = unitRepository.findAllById(unitIds);
+        cacheInvalidator.evict(UNIT_CACHE, unitIds);
+        eventService.createUnitTransitionEvents(
+                unitBookings.stream().collect(Collectors.groupingBy(
+                        UnitBooking::getBookingId,
+                        Collectors.mapping(UnitBooking::getUnitId, Collectors.toList())
+                )),
+                RESERVED,
+                AVAILABLE
+        );
+        unitSearchIndex.upsertAfterCommit(units);
+        return units.size();
+    }
+
     public long getAvailableUnitsCount() {
-        return unitRepository.countAvailableUnits();
+        return availabilityCounter.getAvailableUnits();
+    }
+
+    /**
+     * Mirrors a bulk UPDATE onto the loaded entities so callers see the new state</br>
+     * They are marked read-only first: the database already holds these values,
+     * and dirty checking them would issue one stale-versioned UPDATE per unit
+     */
+    private void applyTransition(Set<Unit> units, BookingStatus from, BookingStatus to, Consumer<Unit> transition) {
+        val session = entityManager.unwrap(Session.class);
+        Map<Long, List<Long>> unitIdsByBooking = new HashMap<>();
+        units.forEach(unit -> {
+            if (entityManager.contains(unit)) {
+                session.setReadOnly(unit, true);
+            }
+            // released units lose their booking in the transition, reserved ones only get it there
+            val bookingBefore = bookingId(unit);
+            transition.accept(unit);
+            val bookingId = bookingBefore != null ? bookingBefore : bookingId(unit);
+
+            unitIdsByBooking.computeIfAbsent(bookingId, __ -> new ArrayList<>()).add(unit.getId());
+        });
+        unitIdsByBooking.values().forEach(Collections::sort);
+        eventService.createUnitTransitionEvents(unitIdsByBooking, from, to);
+        unitSearchIndex.upsertAfterCommit(units);
+        cacheInvalidator.evict(UNIT_CACHE, ids(units));
+    }
+
+    private void applyNights(Set<Unit> units) {
+        unitSearchIndex.upsertAfterCommit(units);
+        cacheInvalidator.evict(UNIT_CACHE, ids(units));
+    }
+
+    private static Unit toUnit(UnitCreateDto dto) {
+        return new Unit(
+                dto.numberOfRooms(),
+                dto.type(),
+                dto.floor(),
+                dto.baseCost(),
+                dto.bookingDate(),
+                dto.description()
+        );
+    }
+
+    private static int availability(BookingStatus status) {
+        return status == AVAILABLE ? 1 : 0;
+    }
+
+    @Nullable
+    private static Long bookingId(Unit unit) {
+        return unit.getBooking() == null ? null : unit.getBooking().getId();
+    }
+
+    private static List<Long> ids(Set<Unit> units) {
+        return units.stream().map(Unit::getId).sorted().toList();
+    }
+
+    private static String joined(List<Long> ids) {
+        return ids.stream().map(String::valueOf).collect(Collectors.joining(", "));
     }
 }
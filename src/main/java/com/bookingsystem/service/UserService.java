@@ -1,25 +1,35 @@
 package com.bookingsystem.service;
 
+import com.bookingsystem.api.dto.BookingResponseDto;
+import com.bookingsystem.api.dto.Cursor;
+import com.bookingsystem.api.dto.CursorPage;
+import com.bookingsystem.api.dto.CursorRequest;
 import com.bookingsystem.api.dto.UserCreateDto;
+import com.bookingsystem.api.dto.UserResponseDto;
 import com.bookingsystem.api.dto.UserUpdateDto;
 import com.bookingsystem.exceptions.UserNotFoundException;
 import com.bookingsystem.model.User;
 import com.bookingsystem.repository.UserRepository;
+import com.bookingsystem.repository.UserRepository.UserSummary;
 import lombok.RequiredArgsConstructor;
 import lombok.val;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 
-import static com.bookingsystem.model.EntityType.USER;
-import static com.bookingsystem.model.EventOperation.*;
+import static com.bookingsystem.configuration.RedisConfig.USER_CACHE;
+import static com.bookingsystem.model.EventTemplate.*;
 
 @Service
 @RequiredArgsConstructor
 public class UserService {
     private final UserRepository userRepository;
     private final EventService eventService;
+    private final BookingQueries bookingQueries;
 
     @Transactional
     public User createUser(UserCreateDto dto) {
@@ -30,51 +40,71 @@ public class UserService {
         val saved = userRepository.save(newUser);
 
         eventService.createEvent(
-                USER,
-                CREATE,
+                USER_CREATED,
                 saved.getId(),
-                String.format("User created: %s (%s)", saved.getUsername(), saved.getEmail())
+                Map.of("username", saved.getUsername(), "email", saved.getEmail())
         );
         return saved;
     }
 
     @Transactional
+    @CacheEvict(cacheNames = USER_CACHE, key = "#id")
     public User updateUser(Long id, UserUpdateDto dto) {
         return userRepository.findById(id)
                 .map(user -> user.update(dto.username(), dto.email()))
                 .map(userRepository::save)
                 .map(user -> {
                     eventService.createEvent(
-                            USER,
-                            UPDATE,
+                            USER_UPDATED,
                             user.getId(),
-                            String.format("User updated: %s (%s)", user.getUsername(), user.getEmail())
+                            Map.of("username", user.getUsername(), "email", user.getEmail())
                     );
                     return user;
                 })
                 .orElseThrow(() -> new UserNotFoundException("User not found with id: " + id));
     }
 
-    public User getUserById(Long id) {
+    /**
+     * User with its bookings, assembled from projections
+     */
+    public UserResponseDto getUserById(Long id) {
+        val user = userRepository.findSummaryById(id)
+                .orElseThrow(() -> new UserNotFoundException("User not found with id: " + id));
+        return toDto(user, bookingQueries.findByUserIds(List.of(id)));
+    }
+
+    /**
+     * Detached copy from the user cache, without bookings</br>
+     * Meant for internal lookups such as the booking owner, the API keeps returning the user with its bookings
+     */
+    @Cacheable(cacheNames = USER_CACHE, key = "#id", sync = true)
+    public User getCachedUser(Long id) {
         return userRepository.findById(id)
+                .map(User::detachedCopy)
                 .orElseThrow(() -> new UserNotFoundException("User not found with id: " + id));
     }
 
-    public List<User> getAllUsers() {
-        return userRepository.findAll();
+    public CursorPage<UserResponseDto> getAllUsers(CursorRequest request) {
+        val users = userRepository.findSummariesAfter(request.afterId(), request.limit());
+        val bookings = bookingQueries.findByUserIds(users.stream().map(UserSummary::getId).toList());
+        return request.page(
+                users.stream().map(user -> toDto(user, bookings)).toList(),
+                user -> Cursor.byId(user.id()),
+                userRepository::count
+        );
     }
 
     @Transactional
+    @CacheEvict(cacheNames = USER_CACHE, key = "#id")
     public void deleteUser(Long id) {
         if (!userRepository.existsById(id)) {
             throw new UserNotFoundException("User not found with id: " + id);
         }
         userRepository.deleteById(id);
-        eventService.createEvent(
-                USER,
-                DELETE,
-                id,
-                String.format("User deleted: %s", id)
-        );
+        eventService.createEvent(USER_DELETED, id, Map.of());
+    }
+
+    private static UserResponseDto toDto(UserSummary user, Map<Long, List<BookingResponseDto>> bookings) {
+        return new UserResponseDto(user.getId(), user.getUsername(), user.getEmail(), bookings.getOrDefault(user.getId(), List.of()));
     }
 }
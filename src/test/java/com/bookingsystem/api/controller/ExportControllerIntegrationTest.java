@@ -0,0 +1,115 @@
+package com.bookingsystem.api.controller;
+
+import com.bookingsystem.api.dto.UnitCreateDto;
+import com.bookingsystem.configuration.TestcontainersConfiguration;
+import com.bookingsystem.model.AccommodationType;
+import com.bookingsystem.service.UnitService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.val;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Not transactional on purpose: the export reads on the async request thread, in its own transaction
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestcontainersConfiguration.class)
+class ExportControllerIntegrationTest {
+    private static final int UNITS = 3;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UnitService unitService;
+
+    @BeforeEach
+    void setUp() {
+        unitService.createUnits(IntStream.range(0, UNITS)
+                .mapToObj(index -> new UnitCreateDto(2, AccommodationType.FLAT, 1, 100.0, LocalDate.of(2025, 7, 15), "Export unit " + index))
+                .toList());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("TRUNCATE TABLE units CASCADE");
+    }
+
+    @Test
+    void should_export_units_as_one_json_document_per_line() throws Exception {
+        //given
+        val started = mockMvc.perform(get("/api/export/units"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        //when
+        val response = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn()
+                .getResponse();
+
+        //then
+        assertEquals(List.of("Export unit 0", "Export unit 1", "Export unit 2"), descriptions(response.getContentAsString(UTF_8)));
+    }
+
+    @Test
+    void should_export_units_gzip_compressed_when_asked() throws Exception {
+        //given
+        val started = mockMvc.perform(get("/api/export/units").param("gzip", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        //when
+        val response = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn()
+                .getResponse();
+
+        //then
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            assertEquals(UNITS, descriptions(new String(in.readAllBytes(), UTF_8)).size());
+        }
+    }
+
+    private List<String> descriptions(String ndjson) throws IOException {
+        List<String> descriptions = new ArrayList<>();
+        for (String line : ndjson.split("\n")) {
+            descriptions.add(objectMapper.readTree(line).get("description").asText());
+        }
+        return descriptions;
+    }
+}
@@ -0,0 +1,150 @@
+package com.bookingsystem.api.controller;
+
+import com.bookingsystem.api.dto.BookingCreateDto;
+import com.bookingsystem.api.dto.UnitCreateDto;
+import com.bookingsystem.api.dto.UserCreateDto;
+import com.bookingsystem.configuration.TestcontainersConfiguration;
+import com.bookingsystem.model.AccommodationType;
+import com.bookingsystem.model.Booking;
+import com.bookingsystem.service.BookingService;
+import com.bookingsystem.service.UnitService;
+import com.bookingsystem.service.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.val;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Guards the fetch plans of the read endpoints: each request must stay within its budget of SQL statements,
+ * whatever the number of rows returned</br>
+ * Not transactional on purpose, so the requests cannot be served from the test's persistence context
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "booking.scheduler.payment-check-cron=-",
+        "booking.scheduler.bulk-expiry-cron=-"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestcontainersConfiguration.class)
+class QueryBudgetIntegrationTest {
+    private static final int BOOKINGS = 5;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UnitService unitService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    private Statistics statistics;
+    private Long userId;
+    private Long bookingId;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        userId = userService.createUser(new UserCreateDto("budget_user", "budget.user@example.com")).getId();
+        val units = unitService.createUnits(IntStream.range(0, BOOKINGS * 2)
+                .mapToObj(index -> new UnitCreateDto(2, AccommodationType.FLAT, 1, 100.0, LocalDate.of(2025, 7, 15), "Query budget unit " + index))
+                .toList());
+
+        bookingId = IntStream.range(0, BOOKINGS)
+                .mapToObj(index -> bookingService.createBooking(new BookingCreateDto(Set.of(units.get(index).getId()), userId, null, null)))
+                .map(Booking::getId)
+                .toList()
+                .getFirst();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("TRUNCATE TABLE payments, units, bookings, users CASCADE");
+    }
+
+    @Test
+    void get_all_units_should_run_a_single_query() throws Exception {
+        assertQueryBudget("/api/units/all", 1);
+    }
+
+    @Test
+    void get_all_units_with_total_should_add_a_single_count_query() throws Exception {
+        assertQueryBudget("/api/units/all?withTotal=true", 2);
+    }
+
+    @Test
+    void search_units_should_not_load_bookings() throws Exception {
+        assertQueryBudget("/api/units/search?type=FLAT", 2);
+    }
+
+    @Test
+    void get_all_bookings_should_load_bookings_and_their_units_with_two_queries() throws Exception {
+        assertQueryBudget("/api/bookings", 2);
+    }
+
+    @Test
+    void get_booking_should_load_booking_and_its_units_with_two_queries() throws Exception {
+        assertQueryBudget("/api/bookings/" + bookingId, 2);
+    }
+
+    @Test
+    void get_all_users_should_load_users_bookings_and_units_with_three_queries() throws Exception {
+        assertQueryBudget("/api/users", 3);
+    }
+
+    @Test
+    void get_user_should_load_user_bookings_and_units_with_three_queries() throws Exception {
+        assertQueryBudget("/api/users/" + userId, 3);
+    }
+
+    @Test
+    void get_all_events_should_run_a_single_query() throws Exception {
+        assertQueryBudget("/api/events", 1);
+    }
+
+    @Test
+    void get_all_payments_should_not_load_bookings() throws Exception {
+        assertQueryBudget("/api/payments", 1);
+    }
+
+    private void assertQueryBudget(String uri, long budget) throws Exception {
+        // given
+        statistics.clear();
+
+        // when
+        mockMvc.perform(get(uri)).andExpect(status().isOk());
+
+        // then
+        val queries = statistics.getPrepareStatementCount();
+        assertTrue(queries <= budget, () -> "GET " + uri + " ran " + queries + " queries, budget is " + budget);
+    }
+}
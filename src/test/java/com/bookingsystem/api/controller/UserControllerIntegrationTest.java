@@ -18,6 +18,7 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.hasSize;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -165,8 +166,9 @@ class UserControllerIntegrationTest {
         mockMvc.perform(get("/api/users"))
                 .andDo(print())
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$").isEmpty());
+                .andExpect(jsonPath("$.items").isArray())
+                .andExpect(jsonPath("$.items").isEmpty())
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
     }
 
     @Test
@@ -180,10 +182,10 @@ class UserControllerIntegrationTest {
         mockMvc.perform(get("/api/users"))
                 .andDo(print())
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$", hasSize(3)))
-                .andExpect(jsonPath("$[*].username", containsInAnyOrder("user1", "user2", "user3")))
-                .andExpect(jsonPath("$[*].email",
+                .andExpect(jsonPath("$.items").isArray())
+                .andExpect(jsonPath("$.items", hasSize(3)))
+                .andExpect(jsonPath("$.items[*].username", containsInAnyOrder("user1", "user2", "user3")))
+                .andExpect(jsonPath("$.items[*].email",
                         containsInAnyOrder(
                                 "user1@example.com",
                                 "user2@example.com",
@@ -191,6 +193,37 @@ class UserControllerIntegrationTest {
                         )));
     }
 
+    @Test
+    void should_return_users_page_by_page_following_the_cursor() throws Exception {
+        //given
+        userService.createUser(new UserCreateDto("user1", "user1@example.com"));
+        userService.createUser(new UserCreateDto("user2", "user2@example.com"));
+        userService.createUser(new UserCreateDto("user3", "user3@example.com"));
+
+        val firstPage = mockMvc.perform(get("/api/users").param("size", "2").param("withTotal", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].username", contains("user1", "user2")))
+                .andExpect(jsonPath("$.total").value(3))
+                .andReturn();
+        val cursor = objectMapper.readTree(firstPage.getResponse().getContentAsString()).get("nextCursor").asText();
+
+        //when & then
+        mockMvc.perform(get("/api/users").param("size", "2").param("cursor", cursor))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].username", contains("user3")))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist())
+                .andExpect(jsonPath("$.total").doesNotExist());
+    }
+
+    @Test
+    void should_return_400_when_cursor_is_invalid() throws Exception {
+        //when & then
+        mockMvc.perform(get("/api/users").param("cursor", "not-a-cursor"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void should_delete_user_successfully() throws Exception {
         //given
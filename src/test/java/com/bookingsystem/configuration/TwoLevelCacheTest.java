@@ -0,0 +1,127 @@
+package com.bookingsystem.configuration;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.val;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TwoLevelCacheTest {
+    private static final String NAME = "units";
+
+    @Mock
+    private Cache redis;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Object> invalidations = new ArrayList<>();
+    private TwoLevelCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new TwoLevelCache(NAME, Caffeine.newBuilder().maximumSize(10).build(), redis, invalidations::add, meterRegistry);
+    }
+
+    @Test
+    void get_should_load_once_and_write_both_levels() {
+        // given
+        given(redis.get(1L)).willReturn(null);
+
+        // when
+        val first = cache.get(1L, () -> "unit 1");
+        val second = cache.get(1L, () -> "reloaded");
+
+        // then
+        assertAll(() -> {
+            assertEquals("unit 1", first);
+            assertEquals("unit 1", second);
+            verify(redis, times(1)).get(1L);
+            verify(redis).put(1L, "unit 1");
+            assertEquals(1.0, meterRegistry.get("cache.redis.gets").tag("result", "miss").counter().count());
+        });
+    }
+
+    @Test
+    void get_should_take_back_a_load_raced_by_an_invalidation() throws Exception {
+        // given
+        given(redis.get(1L)).willReturn(null);
+        val invalidating = new Thread(() -> cache.evictLocal(1L));
+
+        // when
+        val loaded = cache.get(1L, () -> {
+            invalidating.start();
+            Thread.sleep(100);
+            return "stale unit 1";
+        });
+        invalidating.join(5_000);
+
+        // then
+        assertAll(() -> {
+            assertEquals("stale unit 1", loaded);
+            verify(redis).put(1L, "stale unit 1");
+            verify(redis).evict(1L);
+            assertNull(((com.github.benmanes.caffeine.cache.Cache<?, ?>) cache.getNativeCache()).getIfPresent(1L));
+        });
+    }
+
+    @Test
+    void get_should_promote_redis_hit_to_local() {
+        // given
+        given(redis.get(1L)).willReturn(new SimpleValueWrapper("unit 1"));
+
+        // when
+        val first = cache.get(1L);
+        val second = cache.get(1L);
+
+        // then
+        assertAll(() -> {
+            assertEquals("unit 1", first.get());
+            assertEquals("unit 1", second.get());
+            verify(redis, times(1)).get(1L);
+            assertEquals(1.0, meterRegistry.get("cache.redis.gets").tag("result", "hit").counter().count());
+        });
+    }
+
+    @Test
+    void evict_should_clear_both_levels_and_notify_other_nodes() {
+        // given
+        cache.put(1L, "unit 1");
+
+        // when
+        cache.evict(1L);
+
+        // then
+        assertAll(() -> {
+            verify(redis).evict(1L);
+            assertNull(((com.github.benmanes.caffeine.cache.Cache<?, ?>) cache.getNativeCache()).getIfPresent(1L));
+            assertEquals(List.of(1L), invalidations);
+        });
+    }
+
+    @Test
+    void evict_local_should_keep_redis_and_stay_silent() {
+        // given
+        cache.put(1L, "unit 1");
+
+        // when
+        cache.evictLocal(1L);
+
+        // then
+        assertAll(() -> {
+            verify(redis, never()).evict(any());
+            assertTrue(invalidations.isEmpty());
+        });
+    }
+}
@@ -0,0 +1,48 @@
+package com.bookingsystem.model;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NightBitmapTest {
+    private static final LocalDate CHECK_IN = NightBitmap.EPOCH.plusYears(3).plusDays(10);
+
+    @Test
+    void to_bytes_should_start_at_the_first_booked_night() {
+        // given
+        val booked = NightBitmap.empty().book(CHECK_IN, CHECK_IN.plusDays(3));
+
+        // when
+        val bytes = booked.toBytes();
+
+        // then
+        assertAll(() -> {
+            assertNotNull(bytes);
+            assertEquals(Integer.BYTES + 1, bytes.length);
+            assertEquals(booked, NightBitmap.of(bytes));
+            assertFalse(NightBitmap.of(bytes).isFree(CHECK_IN.plusDays(2), CHECK_IN.plusDays(3)));
+            assertTrue(NightBitmap.of(bytes).isFree(CHECK_IN.plusDays(3), CHECK_IN.plusDays(10)));
+        });
+    }
+
+    @Test
+    void prune_before_should_shrink_the_stored_bitmap() {
+        // given
+        val booked = NightBitmap.empty()
+                .book(CHECK_IN, CHECK_IN.plusDays(2))
+                .book(CHECK_IN.plusDays(100), CHECK_IN.plusDays(101));
+
+        // when
+        val pruned = booked.pruneBefore(CHECK_IN.plusDays(50));
+
+        // then
+        assertAll(() -> {
+            assertEquals(Integer.BYTES + 13, booked.toBytes().length);
+            assertEquals(Integer.BYTES + 1, pruned.toBytes().length);
+            assertTrue(NightBitmap.of(pruned.toBytes()).isFree(CHECK_IN, CHECK_IN.plusDays(100)));
+        });
+    }
+}
@@ -0,0 +1,133 @@
+package com.bookingsystem.service;
+
+import com.bookingsystem.properties.AvailabilityCounterProperties;
+import com.bookingsystem.repository.UnitRepository;
+import lombok.val;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AvailabilityCounterTest {
+    private static final String KEY = "booking:available-units";
+    private static final String VERSION_KEY = KEY + ":version";
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private UnitRepository unitRepository;
+
+    private final AvailabilityCounterProperties properties = new AvailabilityCounterProperties();
+
+    private AvailabilityCounter availabilityCounter;
+
+    @BeforeEach
+    void setUp() {
+        availabilityCounter = new AvailabilityCounter(redisTemplate, unitRepository, properties);
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @Test
+    void get_available_units_should_count_in_database_before_reconciliation() {
+        // given
+        given(unitRepository.countAvailableUnits()).willReturn(7L);
+
+        // when
+        val result = availabilityCounter.getAvailableUnits();
+
+        // then
+        assertAll(() -> {
+            assertEquals(7L, result);
+            verify(valueOperations, never()).get(any());
+        });
+    }
+
+    @Test
+    void get_available_units_should_read_counter_after_reconciliation() {
+        // given
+        given(unitRepository.countAvailableUnits()).willReturn(7L);
+        given(redisTemplate.execute(AvailabilityCounter.RESET, List.of(KEY, VERSION_KEY), "0", "7")).willReturn("5");
+        given(valueOperations.get(KEY)).willReturn("6");
+        availabilityCounter.reconcile();
+
+        // when
+        val result = availabilityCounter.getAvailableUnits();
+
+        // then
+        assertAll(() -> {
+            assertEquals(6L, result);
+            verify(unitRepository, times(1)).countAvailableUnits();
+        });
+    }
+
+    @Test
+    void get_available_units_should_fall_back_to_database_when_redis_is_down() {
+        // given
+        given(unitRepository.countAvailableUnits()).willReturn(7L);
+        given(redisTemplate.execute(AvailabilityCounter.RESET, List.of(KEY, VERSION_KEY), "0", "7")).willReturn("");
+        given(valueOperations.get(KEY)).willThrow(new RedisConnectionFailureException("Connection refused"));
+        availabilityCounter.reconcile();
+
+        // when
+        val result = availabilityCounter.getAvailableUnits();
+
+        // then
+        assertEquals(7L, result);
+    }
+
+    @Test
+    void reconcile_should_keep_the_counter_when_a_delta_arrived_while_counting() {
+        // given
+        given(valueOperations.get(VERSION_KEY)).willReturn("41");
+        given(unitRepository.countAvailableUnits()).willReturn(7L);
+        given(redisTemplate.execute(AvailabilityCounter.RESET, List.of(KEY, VERSION_KEY), "41", "7")).willReturn(null);
+        availabilityCounter.reconcile();
+
+        // when
+        val result = availabilityCounter.getAvailableUnits();
+
+        // then
+        assertAll(() -> {
+            assertEquals(7L, result);
+            verify(unitRepository, times(2)).countAvailableUnits();
+            verify(valueOperations, never()).get(KEY);
+        });
+    }
+
+    @Test
+    void adjust_after_commit_should_increment_counter_outside_transaction() {
+        // when
+        availabilityCounter.adjustAfterCommit(-3);
+
+        // then
+        verify(redisTemplate).execute(AvailabilityCounter.ADJUST, List.of(KEY, VERSION_KEY), "-3");
+    }
+
+    @Test
+    void adjust_after_commit_should_do_nothing_when_disabled() {
+        // given
+        properties.setEnabled(false);
+
+        // when
+        availabilityCounter.adjustAfterCommit(2);
+
+        // then
+        verifyNoInteractions(redisTemplate);
+    }
+}
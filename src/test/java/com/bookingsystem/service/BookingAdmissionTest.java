@@ -0,0 +1,197 @@
+package com.bookingsystem.service;
+
+import com.bookingsystem.api.dto.BookingCreateDto;
+import com.bookingsystem.api.dto.BookingResponseDto;
+import com.bookingsystem.exceptions.AdmissionQueueFullException;
+import com.bookingsystem.exceptions.TicketNotFoundException;
+import com.bookingsystem.exceptions.UnitNotFoundException;
+import com.bookingsystem.mapper.BookingMapper;
+import com.bookingsystem.model.Booking;
+import com.bookingsystem.properties.BookingAdmissionProperties;
+import lombok.val;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.bookingsystem.api.dto.BookingTicketDto.Status.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingAdmissionTest {
+    private static final Long USER_ID = 5L;
+    private static final Duration WAIT = Duration.ofSeconds(5);
+
+    @Mock
+    private BookingService bookingService;
+
+    @Mock
+    private BookingMapper bookingMapper;
+
+    private final BookingAdmissionProperties properties = new BookingAdmissionProperties();
+
+    private BookingAdmission bookingAdmission;
+
+    @BeforeEach
+    void setUp() {
+        properties.setEnabled(true);
+        properties.setWorkers(1);
+        properties.setCapacity(1);
+        bookingAdmission = new BookingAdmission(bookingService, bookingMapper, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingAdmission.shutdown();
+    }
+
+    @Test
+    void submit_should_be_refused_while_the_queue_is_disabled() {
+        // given
+        val disabled = new BookingAdmission(bookingService, bookingMapper, new BookingAdmissionProperties());
+
+        // when
+        val exception = assertThrows(IllegalStateException.class, () -> disabled.submit(request(1L)));
+
+        // then
+        assertAll(() -> {
+            assertFalse(disabled.isEnabled());
+            assertEquals("Booking admission queue is disabled", exception.getMessage());
+        });
+    }
+
+    @Test
+    void await_should_complete_with_the_booking() throws Exception {
+        // given
+        val booking = mock(Booking.class);
+        val dto = new BookingResponseDto(1L, USER_ID, List.of(), LocalDateTime.now(), null, null);
+        given(bookingService.createBooking(request(1L))).willReturn(booking);
+        given(bookingMapper.toDto(booking)).willReturn(dto);
+
+        // when
+        val ticket = bookingAdmission.submit(request(1L));
+        val outcome = bookingAdmission.await(ticket.ticket(), WAIT).get(5, TimeUnit.SECONDS);
+
+        // then
+        assertAll(() -> {
+            assertEquals(ticket.ticket(), outcome.ticket());
+            assertEquals(COMPLETED, outcome.status());
+            assertEquals(dto, outcome.booking());
+            assertNull(outcome.error());
+        });
+    }
+
+    @Test
+    void await_should_report_a_failed_booking() throws Exception {
+        // given
+        given(bookingService.createBooking(any())).willThrow(new UnitNotFoundException("Units are not available: 1"));
+
+        // when
+        val ticket = bookingAdmission.submit(request(1L));
+        val outcome = bookingAdmission.await(ticket.ticket(), WAIT).get(5, TimeUnit.SECONDS);
+
+        // then
+        assertAll(() -> {
+            assertEquals(FAILED, outcome.status());
+            assertNull(outcome.booking());
+            assertEquals("Units are not available: 1", outcome.error());
+        });
+    }
+
+    @Test
+    void submit_should_turn_requests_away_once_the_queue_is_full() throws Exception {
+        // given
+        val processing = new CountDownLatch(1);
+        val release = new CountDownLatch(1);
+        given(bookingService.createBooking(any())).willAnswer(invocation -> {
+            processing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return mock(Booking.class);
+        });
+        val first = bookingAdmission.submit(request(1L));
+        assertTrue(processing.await(5, TimeUnit.SECONDS));
+        val second = bookingAdmission.submit(request(2L));
+
+        // when
+        assertThrows(AdmissionQueueFullException.class, () -> bookingAdmission.submit(request(3L)));
+
+        // then
+        val firstState = bookingAdmission.await(first.ticket(), Duration.ofMillis(50)).get(5, TimeUnit.SECONDS);
+        val secondState = bookingAdmission.await(second.ticket(), Duration.ZERO).get(5, TimeUnit.SECONDS);
+        release.countDown();
+        assertAll(() -> {
+            assertEquals(PROCESSING, firstState.status());
+            assertEquals(QUEUED, secondState.status());
+            assertEquals(0L, secondState.position());
+        });
+    }
+
+    @Test
+    void shutdown_should_fail_requests_still_queued_and_refuse_new_ones() throws Exception {
+        // given
+        val processing = new CountDownLatch(1);
+        val release = new CountDownLatch(1);
+        given(bookingService.createBooking(any())).willAnswer(invocation -> {
+            processing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return mock(Booking.class);
+        });
+        bookingAdmission.submit(request(1L));
+        assertTrue(processing.await(5, TimeUnit.SECONDS));
+        val queued = bookingAdmission.submit(request(2L));
+        properties.setShutdownTimeout(Duration.ofMillis(50));
+
+        // when
+        bookingAdmission.shutdown();
+
+        // then
+        val state = bookingAdmission.await(queued.ticket(), Duration.ZERO).get(5, TimeUnit.SECONDS);
+        val exception = assertThrows(AdmissionQueueFullException.class, () -> bookingAdmission.submit(request(3L)));
+        assertAll(() -> {
+            assertEquals(FAILED, state.status());
+            assertEquals("Booking queue shut down before the request was processed", state.error());
+            assertEquals("Booking queue is shutting down, please try again later", exception.getMessage());
+            verify(bookingService, times(1)).createBooking(any());
+        });
+    }
+
+    @Test
+    void await_should_fail_for_an_unknown_ticket() {
+        // when
+        val exception = assertThrows(TicketNotFoundException.class, () -> bookingAdmission.await("missing", WAIT));
+
+        // then
+        assertEquals("Ticket not found: missing", exception.getMessage());
+    }
+
+    @Test
+    void purge_should_drop_tickets_past_their_time_to_live() throws Exception {
+        // given
+        given(bookingService.createBooking(any())).willReturn(mock(Booking.class));
+        val ticket = bookingAdmission.submit(request(1L));
+        bookingAdmission.await(ticket.ticket(), WAIT).get(5, TimeUnit.SECONDS);
+        properties.setTicketTtl(Duration.ofSeconds(-1));
+
+        // when
+        bookingAdmission.purge();
+
+        // then
+        assertThrows(TicketNotFoundException.class, () -> bookingAdmission.await(ticket.ticket(), WAIT));
+    }
+
+    private static BookingCreateDto request(Long unitId) {
+        return new BookingCreateDto(Set.of(unitId), USER_ID, null, null);
+    }
+}
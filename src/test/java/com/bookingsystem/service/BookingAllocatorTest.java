@@ -0,0 +1,198 @@
+package com.bookingsystem.service;
+
+import com.bookingsystem.api.dto.BookingAllocateDto;
+import com.bookingsystem.api.dto.BookingCreateDto;
+import com.bookingsystem.exceptions.UnitNotFoundException;
+import com.bookingsystem.model.Booking;
+import com.bookingsystem.model.BookingStatus;
+import com.bookingsystem.model.Unit;
+import com.bookingsystem.properties.BookingAllocationProperties;
+import com.bookingsystem.repository.UnitRepository;
+import com.bookingsystem.service.UnitFreeLists.Bucket;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.bookingsystem.model.AccommodationType.FLAT;
+import static com.bookingsystem.model.BookingStatus.AVAILABLE;
+import static com.bookingsystem.model.BookingStatus.RESERVED;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingAllocatorTest {
+    private static final Long USER_ID = 5L;
+    private static final Bucket BUCKET = new Bucket(FLAT, 2);
+    private static final LocalDate CHECK_IN = LocalDate.now().plusDays(1);
+
+    @Mock
+    private BookingService bookingService;
+
+    @Mock
+    private UnitService unitService;
+
+    @Mock
+    private UnitSearchIndex unitSearchIndex;
+
+    @Mock
+    private UnitRepository unitRepository;
+
+    @Spy
+    private UnitFreeLists freeLists = new UnitFreeLists();
+
+    @Spy
+    private BookingAllocationProperties properties = new BookingAllocationProperties();
+
+    @InjectMocks
+    private BookingAllocator bookingAllocator;
+
+    @Test
+    void allocate_should_book_a_matching_unit_from_the_bucket() {
+        // given
+        val booking = mock(Booking.class);
+        indexed(unit(1L, AVAILABLE, 100.0));
+        given(bookingService.createBooking(new BookingCreateDto(Set.of(1L), USER_ID, null, null))).willReturn(booking);
+
+        // when
+        val result = bookingAllocator.allocateBooking(whole(null));
+
+        // then
+        assertAll(() -> {
+            assertSame(booking, result);
+            assertTrue(freeLists.poll(BUCKET, List::of).isEmpty());
+        });
+    }
+
+    @Test
+    void allocate_should_skip_units_outside_the_cost_range_and_keep_them_listed() {
+        // given
+        val booking = mock(Booking.class);
+        indexed(unit(1L, AVAILABLE, 300.0), unit(2L, AVAILABLE, 100.0));
+        given(bookingService.createBooking(new BookingCreateDto(Set.of(2L), USER_ID, null, null))).willReturn(booking);
+
+        // when
+        val result = bookingAllocator.allocateBooking(whole(150.0));
+
+        // then
+        assertAll(() -> {
+            assertSame(booking, result);
+            assertEquals(Optional.of(1L), freeLists.poll(BUCKET, List::of));
+        });
+    }
+
+    @Test
+    void allocate_should_move_on_when_a_unit_is_taken_concurrently() {
+        // given
+        val booking = mock(Booking.class);
+        indexed(unit(1L, AVAILABLE, 100.0), unit(2L, AVAILABLE, 100.0));
+        given(bookingService.createBooking(any())).willThrow(new UnitNotFoundException("taken")).willReturn(booking);
+
+        // when
+        val result = bookingAllocator.allocateBooking(whole(null));
+
+        // then
+        assertAll(() -> {
+            assertSame(booking, result);
+            verify(bookingService, times(2)).createBooking(any());
+            assertTrue(freeLists.poll(BUCKET, List::of).isEmpty());
+        });
+    }
+
+    @Test
+    void allocate_should_give_up_once_a_booking_used_up_its_retries() {
+        // given
+        indexed(unit(1L, AVAILABLE, 100.0), unit(2L, AVAILABLE, 100.0));
+        given(bookingService.createBooking(any()))
+                .willThrow(new IllegalStateException("Unable to create booking due to concurrent modifications. Please try again."));
+
+        // when
+        val exception = assertThrows(IllegalStateException.class, () -> bookingAllocator.allocateBooking(whole(null)));
+
+        // then
+        assertAll(() -> {
+            assertEquals("Unable to create booking due to concurrent modifications. Please try again.", exception.getMessage());
+            verify(bookingService, times(1)).createBooking(any());
+            assertTrue(freeLists.poll(BUCKET, List::of).isPresent());
+        });
+    }
+
+    @Test
+    void allocate_should_keep_a_stay_unit_listed_for_other_nights() {
+        // given
+        val booking = mock(Booking.class);
+        val dto = new BookingAllocateDto(USER_ID, FLAT, 2, null, null, CHECK_IN, CHECK_IN.plusDays(2));
+        indexed(unit(1L, AVAILABLE, 100.0));
+        given(bookingService.createBooking(new BookingCreateDto(Set.of(1L), USER_ID, CHECK_IN, CHECK_IN.plusDays(2))))
+                .willReturn(booking);
+
+        // when
+        val result = bookingAllocator.allocateBooking(dto);
+
+        // then
+        assertAll(() -> {
+            assertSame(booking, result);
+            assertEquals(Optional.of(1L), freeLists.poll(BUCKET, List::of));
+        });
+    }
+
+    @Test
+    void allocate_should_throw_when_no_unit_matches() {
+        // given
+        indexed(unit(1L, RESERVED, 100.0));
+
+        // when
+        val exception = assertThrows(UnitNotFoundException.class, () -> bookingAllocator.allocateBooking(whole(null)));
+
+        // then
+        assertAll(() -> {
+            assertEquals("No free FLAT unit with 2 rooms matches the request", exception.getMessage());
+            verify(bookingService, never()).createBooking(any());
+        });
+    }
+
+    @Test
+    void allocate_should_refill_from_the_database_until_the_index_is_built() {
+        // given
+        val booking = mock(Booking.class);
+        val unit = unit(1L, AVAILABLE, 100.0);
+        given(unitSearchIndex.availableIds(FLAT, 2)).willReturn(Optional.empty());
+        given(unitRepository.findAvailableIds(FLAT, 2)).willReturn(List.of(1L));
+        given(unitService.getUnitById(1L)).willReturn(unit);
+        given(bookingService.createBooking(any())).willReturn(booking);
+
+        // when
+        val result = bookingAllocator.allocateBooking(whole(null));
+
+        // then
+        assertSame(booking, result);
+    }
+
+    private void indexed(Unit... units) {
+        given(unitSearchIndex.isReady()).willReturn(true);
+        given(unitSearchIndex.availableIds(FLAT, 2)).willReturn(Optional.of(
+                List.of(units).stream().map(Unit::getId).toList()
+        ));
+        for (val unit : units) {
+            lenient().when(unitSearchIndex.find(unit.getId())).thenReturn(Optional.of(unit));
+        }
+    }
+
+    private static BookingAllocateDto whole(Double maxCost) {
+        return new BookingAllocateDto(USER_ID, FLAT, 2, null, maxCost, null, null);
+    }
+
+    private static Unit unit(Long id, BookingStatus status, double totalCost) {
+        return new Unit(id, 2, FLAT, status, 1, null, 0, totalCost, totalCost, "Unit " + id, null, null);
+    }
+}
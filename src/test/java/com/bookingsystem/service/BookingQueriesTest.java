@@ -0,0 +1,137 @@
+package com.bookingsystem.service;
+
+import com.bookingsystem.api.dto.BookingResponseDto;
+import com.bookingsystem.api.dto.Cursor;
+import com.bookingsystem.api.dto.CursorRequest;
+import com.bookingsystem.repository.BookingRepository;
+import com.bookingsystem.repository.BookingRepository.BookingSummary;
+import com.bookingsystem.repository.UnitRepository;
+import com.bookingsystem.repository.UnitRepository.BookedUnit;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.quality.Strictness;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static com.bookingsystem.model.BookingStatus.RESERVED;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingQueriesTest {
+    private static final Long USER_ID = 1L;
+    private static final LocalDateTime CREATED_AT = LocalDateTime.now();
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private UnitRepository unitRepository;
+
+    @InjectMocks
+    private BookingQueries bookingQueries;
+
+    @Test
+    void find_all_should_attach_units_to_their_bookings_with_one_query() {
+        // given
+        val first = booking(1L);
+        val second = booking(2L);
+        val firstUnits = List.of(bookedUnit(1L, 10L), bookedUnit(1L, 11L));
+        val secondUnits = List.of(bookedUnit(2L, 12L));
+
+        val request = CursorRequest.first(Cursor.BY_ID, 2);
+
+        given(bookingRepository.findSummariesAfter(0, request.limit())).willReturn(List.of(first, second));
+        given(unitRepository.findBookedUnits(List.of(1L, 2L))).willReturn(
+                List.of(firstUnits.get(0), firstUnits.get(1), secondUnits.get(0))
+        );
+
+        // when
+        val result = bookingQueries.findAll(request).items();
+
+        // then
+        assertAll(() -> {
+            assertEquals(2, result.size());
+            assertEquals(List.of(10L, 11L), result.get(0).units().stream().map(unit -> unit.id()).toList());
+            assertEquals(List.of(12L), result.get(1).units().stream().map(unit -> unit.id()).toList());
+            assertEquals(USER_ID, result.get(0).userId());
+            verify(unitRepository, times(1)).findBookedUnits(any());
+        });
+    }
+
+    @Test
+    void find_all_should_skip_units_query_when_there_are_no_bookings() {
+        // given
+        val request = CursorRequest.first(Cursor.BY_ID, 20);
+        given(bookingRepository.findSummariesAfter(0, request.limit())).willReturn(List.of());
+
+        // when
+        val result = bookingQueries.findAll(request);
+
+        // then
+        assertAll(() -> {
+            assertTrue(result.items().isEmpty());
+            assertNull(result.nextCursor());
+            verifyNoInteractions(unitRepository);
+        });
+    }
+
+    @Test
+    void find_all_should_return_cursor_of_last_booking_when_there_is_a_next_page() {
+        // given
+        val request = new CursorRequest(Cursor.BY_ID, Cursor.byId(1L), 1, false);
+        given(bookingRepository.findSummariesAfter(1L, request.limit())).willReturn(List.of(booking(2L), booking(3L)));
+        given(unitRepository.findBookedUnits(List.of(2L, 3L))).willReturn(List.of());
+
+        // when
+        val result = bookingQueries.findAll(request);
+
+        // then
+        assertAll(() -> {
+            assertEquals(List.of(2L), result.items().stream().map(BookingResponseDto::id).toList());
+            assertEquals(Cursor.byId(2L), Cursor.decode(result.nextCursor()));
+            assertNull(result.total());
+            verify(bookingRepository, never()).count();
+        });
+    }
+
+    @Test
+    void find_by_user_ids_should_group_bookings_by_user() {
+        // given
+        val booking = booking(1L);
+        given(bookingRepository.findSummariesByUserIds(Set.of(USER_ID))).willReturn(List.of(booking));
+        given(unitRepository.findBookedUnits(List.of(1L))).willReturn(List.of());
+
+        // when
+        val result = bookingQueries.findByUserIds(Set.of(USER_ID));
+
+        // then
+        assertAll(() -> {
+            assertEquals(Set.of(USER_ID), result.keySet());
+            assertTrue(result.get(USER_ID).getFirst().units().isEmpty());
+        });
+    }
+
+    private static BookingSummary booking(Long id) {
+        val booking = mock(BookingSummary.class, withSettings().strictness(Strictness.LENIENT));
+        given(booking.getId()).willReturn(id);
+        given(booking.getUserId()).willReturn(USER_ID);
+        given(booking.getCreatedAt()).willReturn(CREATED_AT);
+        return booking;
+    }
+
+    private static BookedUnit bookedUnit(Long bookingId, Long unitId) {
+        val unit = mock(BookedUnit.class, withSettings().strictness(Strictness.LENIENT));
+        given(unit.getBookingId()).willReturn(bookingId);
+        given(unit.getId()).willReturn(unitId);
+        given(unit.getStatus()).willReturn(RESERVED);
+        return unit;
+    }
+}
@@ -0,0 +1,63 @@
+package com.bookingsystem.service;
+
+import com.bookingsystem.properties.BookingConcurrencyProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.val;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class BookingRetryMetricsTest {
+    private static final String EXCEPTION = "CannotAcquireLockException";
+
+    @Mock
+    private RetryContext context;
+
+    @Mock
+    private RetryCallback<Object, RuntimeException> callback;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private BookingRetryMetrics retryMetrics;
+
+    @BeforeEach
+    void setUp() {
+        retryMetrics = new BookingRetryMetrics(meterRegistry, new BookingConcurrencyProperties());
+    }
+
+    @Test
+    void on_error_should_count_failures_followed_by_another_attempt() {
+        // given
+        given(context.getRetryCount()).willReturn(1, 4);
+
+        // when
+        retryMetrics.onError(context, callback, new CannotAcquireLockException("could not serialize access"));
+        retryMetrics.onError(context, callback, new CannotAcquireLockException("could not serialize access"));
+
+        // then
+        assertEquals(2.0, meterRegistry.counter(BookingRetryMetrics.RETRIES, "exception", EXCEPTION).count());
+    }
+
+    @Test
+    void on_error_should_skip_the_last_attempt_and_failures_that_are_not_retried() {
+        // given
+        given(context.getRetryCount()).willReturn(5, 1);
+
+        // when
+        retryMetrics.onError(context, callback, new CannotAcquireLockException("could not serialize access"));
+        retryMetrics.onError(context, callback, new IllegalStateException("Units are not available"));
+
+        // then
+        val retries = meterRegistry.find(BookingRetryMetrics.RETRIES).counters();
+        assertEquals(0, retries.size());
+    }
+}
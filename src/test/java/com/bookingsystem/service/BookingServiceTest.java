@@ -5,23 +5,32 @@ import com.bookingsystem.api.dto.BookingUpdateDto;
 import com.bookingsystem.exceptions.BookingNotFoundException;
 import com.bookingsystem.exceptions.PaymentNotFoundException;
 import com.bookingsystem.exceptions.UnitNotFoundException;
+import com.bookingsystem.model.AccommodationType;
 import com.bookingsystem.model.Unit;
+import com.bookingsystem.properties.BookingCalendarProperties;
+import com.bookingsystem.properties.BookingConcurrencyProperties;
 import com.bookingsystem.properties.CancellationTimeProperties;
 import com.bookingsystem.repository.BookingRepository;
 import com.bookingsystem.repository.PaymentRepository;
 import lombok.val;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import static com.bookingsystem.model.BookingStatus.*;
+import static com.bookingsystem.properties.BookingConcurrencyProperties.LockWait.NOWAIT;
+import static com.bookingsystem.properties.BookingConcurrencyProperties.Mode.ORDERED_LOCKING;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.*;
@@ -37,6 +46,8 @@ class BookingServiceTest {
     private static final Long NON_EXISTENT_BOOKING_ID = 999L;
     private static final int TIMEOUT_MINUTES = 15;
     private static final LocalDateTime CREATED_AT = LocalDateTime.now();
+    private static final LocalDate CHECK_IN = LocalDate.now().plusDays(10);
+    private static final LocalDate CHECK_OUT = CHECK_IN.plusDays(3);
 
     @Mock
     private BookingRepository bookingRepository;
@@ -56,9 +67,48 @@ class BookingServiceTest {
     @Mock
     private EventService eventService;
 
+    @Mock
+    private BookingConcurrencyProperties concurrencyProperties;
+
+    @Mock
+    private BookingTransactions bookingTransactions;
+
+    @Mock
+    private PaymentDeadlineScheduler paymentDeadlineScheduler;
+
+    @Mock
+    private BookingRetryMetrics retryMetrics;
+
+    @Mock
+    private BookingQueries bookingQueries;
+
+    @Mock
+    private BookingCalendarProperties calendarProperties;
+
+    @Mock
+    private BookingShards bookingShards;
+
     @InjectMocks
     private BookingService bookingService;
 
+    @BeforeEach
+    void setUp() {
+        lenient().when(bookingTransactions.execute(any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+        lenient().doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(bookingTransactions).run(any());
+        lenient().when(bookingShards.execute(any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+        lenient().when(bookingShards.executeForBooking(any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(2).get());
+        lenient().doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return null;
+        }).when(bookingShards).runForBooking(any(), any());
+    }
+
     @Test
     void create_booking_should_create_booking_with_payment_and_reserve_units() {
         // given
@@ -67,17 +117,17 @@ class BookingServiceTest {
         val unit2 = EntitiesUtil.unit().id(UNIT_ID_2).status(AVAILABLE).build();
         val units = Set.of(unit1, unit2);
         val unitIds = Set.of(UNIT_ID_1, UNIT_ID_2);
-        val dto = new BookingCreateDto(unitIds, USER_ID);
+        val dto = new BookingCreateDto(unitIds, USER_ID, null, null);
         val booking = EntitiesUtil.booking().id(BOOKING_ID).user(user).units(units).createdAt(CREATED_AT).build();
         val payment = EntitiesUtil.payment().id(PAYMENT_ID).paid(false).build();
 
-        given(userService.getUserById(any())).willReturn(user);
+        given(userService.getCachedUser(any())).willReturn(user);
         given(unitService.findAllById(any())).willReturn(units);
         given(bookingRepository.save(any())).willReturn(booking);
         given(cancellationTimeProperties.getMinutesValue()).willReturn(TIMEOUT_MINUTES);
-        doNothing().when(unitService).setUnitsBookingStatus(any(), any());
+        doNothing().when(unitService).reserveUnits(any(), any());
         given(paymentRepository.save(any())).willReturn(payment);
-        doNothing().when(eventService).createEvent(any(), any(), anyLong(), anyString());
+        doNothing().when(eventService).createEvent(any(), anyLong(), anyMap());
 
         // when
         val result = bookingService.createBooking(dto);
@@ -87,16 +137,46 @@ class BookingServiceTest {
             assertNotNull(result);
             assertEquals(BOOKING_ID, result.getId());
             assertEquals(user, result.getUser());
+            verify(paymentDeadlineScheduler).scheduleAfterCommit(BOOKING_ID, CREATED_AT.plusMinutes(TIMEOUT_MINUTES));
+        });
+    }
+
+    @Test
+    void create_booking_should_lock_units_in_ordered_locking_mode() {
+        // given
+        val user = EntitiesUtil.user().build();
+        val unit1 = EntitiesUtil.unit().id(UNIT_ID_1).status(AVAILABLE).build();
+        val unit2 = EntitiesUtil.unit().id(UNIT_ID_2).status(AVAILABLE).build();
+        val units = Set.of(unit1, unit2);
+        val unitIds = Set.of(UNIT_ID_1, UNIT_ID_2);
+        val dto = new BookingCreateDto(unitIds, USER_ID, null, null);
+        val booking = EntitiesUtil.booking().id(BOOKING_ID).user(user).units(units).createdAt(CREATED_AT).build();
+
+        given(concurrencyProperties.getMode()).willReturn(ORDERED_LOCKING);
+        given(concurrencyProperties.getLockWait()).willReturn(NOWAIT);
+        given(userService.getCachedUser(any())).willReturn(user);
+        given(unitService.lockAllById(unitIds, NOWAIT)).willReturn(units);
+        given(bookingRepository.save(any())).willReturn(booking);
+        given(cancellationTimeProperties.getMinutesValue()).willReturn(TIMEOUT_MINUTES);
+
+        // when
+        val result = bookingService.createBooking(dto);
+
+        // then
+        assertAll(() -> {
+            assertEquals(BOOKING_ID, result.getId());
+            verify(unitService).lockAllById(unitIds, NOWAIT);
+            verify(unitService, never()).findAllById(any());
         });
     }
 
     @Test
     void create_booking_should_throw_exception_when_unit_ids_null() {
         // given
-        val dto = new BookingCreateDto(null, USER_ID);
+        val dto = new BookingCreateDto(null, USER_ID, null, null);
         val user = EntitiesUtil.user().build();
 
-        given(userService.getUserById(any())).willReturn(user);
+        given(userService.getCachedUser(any())).willReturn(user);
 
         // when & then
         assertAll(() -> {
@@ -109,7 +189,7 @@ class BookingServiceTest {
             verify(unitService, never()).findAllById(any());
             verify(bookingRepository, never()).save(any());
             verify(paymentRepository, never()).save(any());
-            verify(eventService, never()).createEvent(any(), any(), anyLong(), anyString());
+            verify(eventService, never()).createEvent(any(), anyLong(), anyMap());
         });
     }
 
@@ -119,9 +199,9 @@ class BookingServiceTest {
         val user = EntitiesUtil.user().build();
         val unitIds = Set.of(UNIT_ID_1);
         val emptyUnits = Collections.<Unit>emptySet();
-        val dto = new BookingCreateDto(unitIds, USER_ID);
+        val dto = new BookingCreateDto(unitIds, USER_ID, null, null);
 
-        given(userService.getUserById(any())).willReturn(user);
+        given(userService.getCachedUser(any())).willReturn(user);
         given(unitService.findAllById(any())).willReturn(emptyUnits);
 
         // when & then
@@ -145,9 +225,9 @@ class BookingServiceTest {
         val unit2 = EntitiesUtil.unit().id(UNIT_ID_2).status(BOOKED).build();
         val units = Set.of(unit1, unit2);
         val unitIds = Set.of(UNIT_ID_1, UNIT_ID_2);
-        val dto = new BookingCreateDto(unitIds, USER_ID);
+        val dto = new BookingCreateDto(unitIds, USER_ID, null, null);
 
-        given(userService.getUserById(any())).willReturn(user);
+        given(userService.getCachedUser(any())).willReturn(user);
         given(unitService.findAllById(any())).willReturn(units);
 
         // when & then
@@ -164,6 +244,130 @@ class BookingServiceTest {
         });
     }
 
+    @Test
+    void create_booking_should_reserve_nights_of_a_stay() {
+        // given
+        val user = EntitiesUtil.user().id(USER_ID).build();
+        val unit1 = EntitiesUtil.unit().id(UNIT_ID_1).status(AVAILABLE).build();
+        val unit2 = EntitiesUtil.unit().id(UNIT_ID_2).status(AVAILABLE).build();
+        val units = Set.of(unit1, unit2);
+        val unitIds = Set.of(UNIT_ID_1, UNIT_ID_2);
+        val dto = new BookingCreateDto(unitIds, USER_ID, CHECK_IN, CHECK_OUT);
+        val booking = EntitiesUtil.booking().id(BOOKING_ID).user(user).units(units).createdAt(CREATED_AT)
+                .checkIn(CHECK_IN).checkOut(CHECK_OUT).build();
+
+        given(calendarProperties.getMaxNights()).willReturn(30);
+        given(calendarProperties.getHorizonDays()).willReturn(365);
+        given(userService.getCachedUser(any())).willReturn(user);
+        given(unitService.findAllById(any())).willReturn(units);
+        given(bookingRepository.save(any())).willReturn(booking);
+        given(cancellationTimeProperties.getMinutesValue()).willReturn(TIMEOUT_MINUTES);
+
+        // when
+        val result = bookingService.createBooking(dto);
+
+        // then
+        assertAll(() -> {
+            assertEquals(BOOKING_ID, result.getId());
+            verify(unitService).reserveNights(units, CHECK_IN, CHECK_OUT);
+            verify(unitService, never()).reserveUnits(any(), any());
+            verify(paymentRepository).save(any());
+        });
+    }
+
+    @Test
+    void create_booking_should_reject_stay_without_check_out() {
+        // given
+        val dto = new BookingCreateDto(Set.of(UNIT_ID_1), USER_ID, CHECK_IN, null);
+
+        // when
+        val exception = assertThrows(IllegalArgumentException.class, () -> bookingService.createBooking(dto));
+
+        // then
+        assertAll(() -> {
+            assertEquals("Check-in and check-out must be given together", exception.getMessage());
+            verify(unitService, never()).findAllById(any());
+            verify(bookingRepository, never()).save(any());
+        });
+    }
+
+    @Test
+    void create_booking_should_reject_stay_longer_than_max_nights() {
+        // given
+        val dto = new BookingCreateDto(Set.of(UNIT_ID_1), USER_ID, CHECK_IN, CHECK_IN.plusDays(31));
+
+        given(calendarProperties.getMaxNights()).willReturn(30);
+
+        // when & then
+        assertAll(() -> {
+            assertThrows(IllegalArgumentException.class, () -> bookingService.createBooking(dto));
+            verify(bookingRepository, never()).save(any());
+        });
+    }
+
+    @Test
+    void create_booking_should_reject_check_in_in_the_past() {
+        // given
+        val checkIn = LocalDate.now().minusDays(1);
+        val dto = new BookingCreateDto(Set.of(UNIT_ID_1), USER_ID, checkIn, checkIn.plusDays(2));
+
+        // when
+        val exception = assertThrows(IllegalArgumentException.class, () -> bookingService.createBooking(dto));
+
+        // then
+        assertAll(() -> {
+            assertEquals("Check-in cannot be in the past", exception.getMessage());
+            verify(unitService, never()).findAllById(any());
+            verify(bookingRepository, never()).save(any());
+        });
+    }
+
+    @Test
+    void validate_all_units_available_should_accept_a_unit_whose_stays_are_over() {
+        // given
+        val unit = new Unit(UNIT_ID_1, 2, AccommodationType.FLAT, AVAILABLE, 1, LocalDate.now(), 0, 115.0, 132.25, "Unit 1", null, null);
+        unit.bookNights(LocalDate.now().minusDays(5), LocalDate.now().minusDays(2));
+
+        // when & then
+        assertAll(() -> {
+            assertFalse(unit.hasBookedNights());
+            assertDoesNotThrow(() -> BookingService.validateAllUnitsAvailable(Set.of(unit)));
+        });
+    }
+
+    @Test
+    void validate_all_units_available_should_reject_a_unit_with_upcoming_nights() {
+        // given
+        val unit = new Unit(UNIT_ID_1, 2, AccommodationType.FLAT, AVAILABLE, 1, LocalDate.now(), 0, 115.0, 132.25, "Unit 1", null, null);
+        unit.bookNights(LocalDate.now().minusDays(2), LocalDate.now().plusDays(1));
+
+        // when & then
+        assertThrows(UnitNotFoundException.class, () -> BookingService.validateAllUnitsAvailable(Set.of(unit)));
+    }
+
+    @Test
+    void cancel_booking_should_release_nights_of_a_stay() {
+        // given
+        val user = EntitiesUtil.user().id(USER_ID).build();
+        val units = Set.of(EntitiesUtil.unit().id(UNIT_ID_1).status(AVAILABLE).build());
+        val booking = EntitiesUtil.booking().id(BOOKING_ID).user(user).units(units)
+                .checkIn(CHECK_IN).checkOut(CHECK_OUT).build();
+        val payment = EntitiesUtil.payment().id(PAYMENT_ID).paid(false).build();
+
+        given(bookingRepository.findById(any())).willReturn(Optional.of(booking));
+        given(paymentRepository.findByBookingId(any())).willReturn(Optional.of(payment));
+
+        // when
+        bookingService.cancelBooking(BOOKING_ID, USER_ID);
+
+        // then
+        assertAll(() -> {
+            verify(unitService).releaseNights(units, CHECK_IN, CHECK_OUT);
+            verify(unitService, never()).releaseUnits(any(), any());
+            verify(bookingRepository).delete(booking);
+        });
+    }
+
     @Test
     void cancel_booking_should_delete_booking_and_free_units() {
         // given
@@ -176,10 +380,10 @@ class BookingServiceTest {
 
         given(bookingRepository.findById(any())).willReturn(Optional.of(booking));
         given(paymentRepository.findByBookingId(any())).willReturn(Optional.of(payment));
-        doNothing().when(unitService).setUnitsBookingStatus(any(), any());
+        doNothing().when(unitService).releaseUnits(any(), any());
         doNothing().when(paymentRepository).delete(any());
         doNothing().when(bookingRepository).delete(booking);
-        doNothing().when(eventService).createEvent(any(), any(), anyLong(), anyString());
+        doNothing().when(eventService).createEvent(any(), anyLong(), anyMap());
 
         // when & then
         assertAll(() -> {
@@ -187,12 +391,11 @@ class BookingServiceTest {
 
             verify(bookingRepository).findById(any());
             verify(paymentRepository).findByBookingId(any());
-            verify(unit1).setBooking(null);
-            verify(unit2).setBooking(null);
-            verify(unitService).setUnitsBookingStatus(any(), any());
+            verify(unitService).releaseUnits(units, booking);
             verify(paymentRepository).delete(any());
             verify(bookingRepository).delete(any());
-            verify(eventService).createEvent(any(), any(), any(), any());
+            verify(paymentDeadlineScheduler).cancelAfterCommit(BOOKING_ID);
+            verify(eventService).createEvent(any(), any(), any());
         });
     }
 
@@ -282,7 +485,7 @@ class BookingServiceTest {
             verify(paymentRepository, never()).findByBookingId(any());
             verify(unitService, never()).findAllById(any());
             verify(bookingRepository, never()).save(any());
-            verify(eventService, never()).createEvent(any(), any(), anyLong(), anyString());
+            verify(eventService, never()).createEvent(any(), anyLong(), anyMap());
         });
     }
 
@@ -392,4 +595,21 @@ class BookingServiceTest {
             verify(bookingRepository, never()).save(any());
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    void recover_create_booking_should_report_recovery_and_throw() {
+        // given
+        val dto = new BookingCreateDto(Set.of(UNIT_ID_1), USER_ID, null, null);
+        val cause = new CannotAcquireLockException("lock timeout");
+
+        // when & then
+        assertAll(() -> {
+            assertThrows(
+                    IllegalStateException.class,
+                    () -> bookingService.recoverCreateBooking(cause, dto)
+            );
+
+            verify(retryMetrics).recovered(cause);
+        });
+    }
+}
@@ -0,0 +1,248 @@
+package com.bookingsystem.service;
+
+import com.bookingsystem.exceptions.ShardsBusyException;
+import com.bookingsystem.model.Unit;
+import com.bookingsystem.properties.BookingConcurrencyProperties;
+import com.bookingsystem.repository.BookingRepository;
+import lombok.val;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.bookingsystem.properties.BookingConcurrencyProperties.Mode.SERIALIZABLE;
+import static com.bookingsystem.properties.BookingConcurrencyProperties.Mode.SHARDED;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingShardsTest {
+    private static final Long BOOKING_ID = 1L;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    private BookingShards bookingShards;
+
+    @BeforeEach
+    void setUp() {
+        val properties = new BookingConcurrencyProperties();
+        properties.setMode(SHARDED);
+        properties.setShards(2);
+        bookingShards = new BookingShards(properties, bookingRepository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingShards.shutdown();
+    }
+
+    @Test
+    void execute_should_run_on_the_calling_thread_outside_sharded_mode() {
+        // given
+        val properties = new BookingConcurrencyProperties();
+        properties.setMode(SERIALIZABLE);
+        val inline = new BookingShards(properties, bookingRepository);
+
+        // when
+        val thread = inline.execute(List.of(1L), () -> Thread.currentThread().getName());
+
+        // then
+        assertAll(() -> {
+            assertFalse(inline.isEnabled());
+            assertEquals(Thread.currentThread().getName(), thread);
+        });
+    }
+
+    @Test
+    void execute_should_run_on_the_shard_of_the_lowest_unit() {
+        // when
+        val even = bookingShards.execute(List.of(4L, 2L), () -> Thread.currentThread().getName());
+        val odd = bookingShards.execute(List.of(3L), () -> Thread.currentThread().getName());
+        val mixed = bookingShards.execute(List.of(6L, 3L), () -> Thread.currentThread().getName());
+
+        // then
+        assertAll(() -> {
+            assertEquals("booking-shard-0", even);
+            assertEquals("booking-shard-1", odd);
+            assertEquals("booking-shard-1", mixed);
+        });
+    }
+
+    @Test
+    void execute_should_rethrow_the_command_failure() {
+        // when
+        val exception = assertThrows(
+                IllegalStateException.class,
+                () -> bookingShards.execute(List.of(1L), () -> {
+                    throw new IllegalStateException("Cannot cancel a paid booking");
+                })
+        );
+
+        // then
+        assertEquals("Cannot cancel a paid booking", exception.getMessage());
+    }
+
+    @Test
+    void execute_should_park_the_other_shards_of_a_multi_shard_command() throws Exception {
+        // given
+        val started = new CountDownLatch(1);
+        val release = new CountDownLatch(1);
+        val running = new AtomicInteger();
+        val overlaps = new AtomicInteger();
+        val callers = Executors.newFixedThreadPool(2);
+
+        // when
+        val multi = callers.submit(() -> bookingShards.execute(List.of(1L, 2L), () -> {
+            running.incrementAndGet();
+            started.countDown();
+            awaitQuietly(release);
+            return running.decrementAndGet();
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        val single = callers.submit(() -> bookingShards.execute(List.of(2L), () -> overlaps.addAndGet(running.get())));
+        Thread.sleep(100);
+        release.countDown();
+
+        // then
+        assertAll(() -> {
+            assertEquals(0, multi.get(5, TimeUnit.SECONDS));
+            assertEquals(0, single.get(5, TimeUnit.SECONDS));
+            assertEquals(0, overlaps.get());
+        });
+        callers.shutdown();
+    }
+
+    @Test
+    void execute_for_booking_should_route_again_when_the_booking_gained_a_unit() {
+        // given
+        val unit = mock(Unit.class);
+        given(unit.getId()).willReturn(2L);
+        given(bookingRepository.findHeldUnitIds(BOOKING_ID)).willReturn(List.of(1L), List.of(1L, 2L));
+        val attempts = new AtomicInteger();
+
+        // when
+        val result = bookingShards.executeForBooking(BOOKING_ID, Set.of(), () -> {
+            attempts.incrementAndGet();
+            bookingShards.requireRouted(Set.of(unit));
+            return "cancelled";
+        });
+
+        // then
+        assertAll(() -> {
+            assertEquals("cancelled", result);
+            assertEquals(2, attempts.get());
+            verify(bookingRepository, times(2)).findHeldUnitIds(BOOKING_ID);
+        });
+    }
+
+    @Test
+    void submit_for_booking_should_hand_the_command_over_without_waiting() throws Exception {
+        // given
+        val started = new CountDownLatch(1);
+        val release = new CountDownLatch(1);
+        val caller = Executors.newSingleThreadExecutor();
+        given(bookingRepository.findHeldUnitIds(BOOKING_ID)).willReturn(List.of(1L));
+        caller.submit(() -> bookingShards.execute(List.of(1L), () -> {
+            started.countDown();
+            awaitQuietly(release);
+            return null;
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        val expired = new AtomicInteger();
+
+        // when
+        val submitted = bookingShards.submitForBooking(BOOKING_ID, expired::incrementAndGet);
+
+        // then
+        assertFalse(submitted.isDone());
+        release.countDown();
+        submitted.get(5, TimeUnit.SECONDS);
+        assertEquals(1, expired.get());
+        caller.shutdown();
+    }
+
+    @Test
+    void submit_for_booking_should_route_again_when_the_booking_gained_a_unit() throws Exception {
+        // given
+        val unit = mock(Unit.class);
+        given(unit.getId()).willReturn(2L);
+        given(bookingRepository.findHeldUnitIds(BOOKING_ID)).willReturn(List.of(1L), List.of(1L, 2L));
+        val attempts = new AtomicInteger();
+
+        // when
+        bookingShards.submitForBooking(BOOKING_ID, () -> {
+            attempts.incrementAndGet();
+            bookingShards.requireRouted(Set.of(unit));
+        }).get(5, TimeUnit.SECONDS);
+
+        // then
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    void execute_should_turn_commands_away_from_a_full_shard() throws Exception {
+        // given
+        val properties = new BookingConcurrencyProperties();
+        properties.setMode(SHARDED);
+        properties.setShards(1);
+        properties.setShardQueueCapacity(1);
+        properties.setShardTimeout(Duration.ofMillis(100));
+        val bounded = new BookingShards(properties, bookingRepository);
+        val started = new CountDownLatch(1);
+        val release = new CountDownLatch(1);
+        val callers = Executors.newFixedThreadPool(2);
+        callers.submit(() -> bounded.execute(List.of(1L), () -> {
+            started.countDown();
+            awaitQuietly(release);
+            return null;
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        val queued = callers.submit(() -> bounded.execute(List.of(1L), () -> "queued"));
+        Thread.sleep(50);
+
+        // when
+        val rejected = assertThrows(ShardsBusyException.class, () -> bounded.execute(List.of(1L), () -> "rejected"));
+        val timedOut = assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+
+        // then
+        release.countDown();
+        assertAll(() -> {
+            assertEquals("Booking shard 0 is at capacity, please try again later", rejected.getMessage());
+            assertInstanceOf(ShardsBusyException.class, timedOut.getCause());
+        });
+        callers.shutdown();
+        bounded.shutdown();
+    }
+
+    @Test
+    void nested_command_should_run_inline_on_shards_already_held() {
+        // when
+        val thread = bookingShards.execute(List.of(1L, 2L), () ->
+                bookingShards.execute(List.of(2L), () -> Thread.currentThread().getName())
+        );
+
+        // then
+        assertEquals("booking-shard-1", thread);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.bookingsystem.service;
+
+import com.bookingsystem.properties.PaymentExpiryProperties;
+import com.bookingsystem.repository.BookingRepository;
+import com.bookingsystem.repository.PaymentRepository;
+import com.bookingsystem.repository.PaymentRepository.ExpiredPayment;
+import lombok.val;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BulkPaymentExpiryTest {
+    private static final int CHUNK_SIZE = 2;
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private UnitService unitService;
+
+    @Mock
+    private EventService eventService;
+
+    @Mock
+    private PaymentDeadlineScheduler paymentDeadlineScheduler;
+
+    @Mock
+    private PaymentExpiryProperties properties;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BulkPaymentExpiry bulkPaymentExpiry;
+
+    @BeforeEach
+    void setUp() {
+        bulkPaymentExpiry = new BulkPaymentExpiry(
+                paymentRepository,
+                bookingRepository,
+                unitService,
+                eventService,
+                paymentDeadlineScheduler,
+                properties,
+                transactionManager
+        );
+    }
+
+    @Test
+    void expire_chunk_should_expire_claimed_payments_with_set_based_statements() {
+        // given
+        val chunk = List.of(expired(10L, 1L), expired(20L, 2L));
+        given(properties.getChunkSize()).willReturn(CHUNK_SIZE);
+        given(paymentRepository.lockExpiredPending(any(), eq(CHUNK_SIZE))).willReturn(chunk);
+
+        // when
+        val result = bulkPaymentExpiry.expireChunk(LocalDateTime.now());
+
+        // then
+        assertAll(() -> {
+            assertEquals(new BulkPaymentExpiry.Chunk(2, 2), result);
+            verify(unitService).releaseUnitsOfBookings(List.of(1L, 2L));
+            verify(paymentRepository).deleteAllByIdInBatch(List.of(10L, 20L));
+            verify(bookingRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+            verify(eventService, times(4)).createEvent(any(), anyLong(), anyMap());
+            verify(paymentDeadlineScheduler).cancelAfterCommit(1L);
+            verify(paymentDeadlineScheduler).cancelAfterCommit(2L);
+        });
+    }
+
+    @Test
+    void expire_chunk_should_leave_out_stays_whose_units_are_in_use() {
+        // given
+        val chunk = List.of(expired(10L, 1L), expired(20L, 2L));
+        given(properties.getChunkSize()).willReturn(CHUNK_SIZE);
+        given(paymentRepository.lockExpiredPending(any(), eq(CHUNK_SIZE))).willReturn(chunk);
+        given(unitService.lockStayUnits(List.of(1L, 2L))).willReturn(Set.of(2L));
+
+        // when
+        val result = bulkPaymentExpiry.expireChunk(LocalDateTime.now());
+
+        // then
+        assertAll(() -> {
+            assertEquals(new BulkPaymentExpiry.Chunk(2, 1), result);
+            verify(unitService).releaseUnitsOfBookings(List.of(1L));
+            verify(bookingRepository).findStaysByIdIn(List.of(1L));
+            verify(paymentRepository).deleteAllByIdInBatch(List.of(10L));
+            verify(bookingRepository).deleteAllByIdInBatch(List.of(1L));
+            verify(paymentDeadlineScheduler, never()).cancelAfterCommit(2L);
+        });
+    }
+
+    @Test
+    void drain_should_stop_when_a_chunk_makes_no_progress() {
+        // given
+        val busyChunk = List.of(expired(10L, 1L), expired(20L, 2L));
+        given(properties.isBulkEnabled()).willReturn(true);
+        given(properties.getChunkSize()).willReturn(CHUNK_SIZE);
+        given(paymentRepository.lockExpiredPending(any(), eq(CHUNK_SIZE))).willReturn(busyChunk);
+        given(unitService.lockStayUnits(List.of(1L, 2L))).willReturn(Set.of(1L, 2L));
+
+        // when
+        bulkPaymentExpiry.drain();
+
+        // then
+        assertAll(() -> {
+            verify(paymentRepository, times(1)).lockExpiredPending(any(), eq(CHUNK_SIZE));
+            verify(bookingRepository, never()).deleteAllByIdInBatch(any());
+        });
+    }
+
+    @Test
+    void expire_chunk_should_do_nothing_when_nothing_is_expired() {
+        // given
+        given(properties.getChunkSize()).willReturn(CHUNK_SIZE);
+        given(paymentRepository.lockExpiredPending(any(), eq(CHUNK_SIZE))).willReturn(Collections.emptyList());
+
+        // when
+        val result = bulkPaymentExpiry.expireChunk(LocalDateTime.now());
+
+        // then
+        assertAll(() -> {
+            assertEquals(new BulkPaymentExpiry.Chunk(0, 0), result);
+            verify(unitService, never()).releaseUnitsOfBookings(any());
+            verify(paymentRepository, never()).deleteAllByIdInBatch(any());
+            verify(bookingRepository, never()).deleteAllByIdInBatch(any());
+        });
+    }
+
+    @Test
+    void drain_should_commit_chunks_until_backlog_is_empty() {
+        // given
+        val fullChunk = List.of(expired(10L, 1L), expired(20L, 2L));
+        val lastChunk = List.of(expired(30L, 3L));
+        given(properties.isBulkEnabled()).willReturn(true);
+        given(properties.getChunkSize()).willReturn(CHUNK_SIZE);
+        given(paymentRepository.lockExpiredPending(any(), eq(CHUNK_SIZE))).willReturn(fullChunk, lastChunk);
+
+        // when
+        bulkPaymentExpiry.drain();
+
+        // then
+        assertAll(() -> {
+            verify(paymentRepository, times(2)).lockExpiredPending(any(), eq(CHUNK_SIZE));
+            verify(transactionManager, times(2)).commit(any());
+            verify(bookingRepository).deleteAllByIdInBatch(List.of(3L));
+        });
+    }
+
+    @Test
+    void drain_should_do_nothing_when_disabled() {
+        // given
+        given(properties.isBulkEnabled()).willReturn(false);
+
+        // when
+        bulkPaymentExpiry.drain();
+
+        // then
+        verifyNoInteractions(paymentRepository, transactionManager);
+    }
+
+    private static ExpiredPayment expired(Long paymentId, Long bookingId) {
+        val expired = mock(ExpiredPayment.class);
+        given(expired.getPaymentId()).willReturn(paymentId);
+        given(expired.getBookingId()).willReturn(bookingId);
+        return expired;
+    }
+}
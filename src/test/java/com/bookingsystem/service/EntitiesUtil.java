@@ -9,6 +9,7 @@ import org.mockito.quality.Strictness;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.Set;
 
 import static org.mockito.BDDMockito.given;
@@ -21,6 +22,7 @@ class EntitiesUtil {
     @Builder(builderMethodName = "user")
     User getUser(@Nullable Long id, @Nullable String username, @Nullable String email) {
         val user = mock(User.class, withSettings().strictness(Strictness.LENIENT));
+        given(user.detachedCopy()).willReturn(user);
         if (id != null) {
             given(user.getId()).willReturn(id);
         }
@@ -42,9 +44,11 @@ class EntitiesUtil {
             @Nullable Integer floor,
             @Nullable Double baseCost,
             @Nullable LocalDate bookingDate,
-            @Nullable String description
+            @Nullable String description,
+            @Nullable Booking booking
     ) {
         val unit = mock(Unit.class, withSettings().strictness(Strictness.LENIENT));
+        given(unit.detachedCopy()).willReturn(unit);
         if (id != null) {
             given(unit.getId()).willReturn(id);
         }
@@ -69,6 +73,9 @@ class EntitiesUtil {
         if (description != null) {
             given(unit.getDescription()).willReturn(description);
         }
+        if (booking != null) {
+            given(unit.getBooking()).willReturn(booking);
+        }
         return unit;
     }
 
@@ -77,9 +84,18 @@ class EntitiesUtil {
             @Nullable Long id,
             @Nullable User user,
             @Nullable LocalDateTime createdAt,
-            @Nullable Set<Unit> units
+            @Nullable Set<Unit> units,
+            @Nullable LocalDate checkIn,
+            @Nullable LocalDate checkOut
     ) {
         val booking = mock(Booking.class, withSettings().strictness(Strictness.LENIENT));
+        val stay = checkIn != null && checkOut != null;
+        given(booking.isStay()).willReturn(stay);
+        given(booking.nights()).willReturn(stay ? (int) ChronoUnit.DAYS.between(checkIn, checkOut) : 1);
+        if (stay) {
+            given(booking.getCheckIn()).willReturn(checkIn);
+            given(booking.getCheckOut()).willReturn(checkOut);
+        }
         if (id != null) {
             given(booking.getId()).willReturn(id);
         }
@@ -90,7 +106,8 @@ class EntitiesUtil {
             given(booking.getCreatedAt()).willReturn(createdAt);
         }
         if (units != null) {
-            given(booking.getUnits()).willReturn(units);
+            given(booking.heldUnits()).willReturn(units);
+            given(stay ? booking.getStayUnits() : booking.getUnits()).willReturn(units);
         }
         return booking;
     }
@@ -0,0 +1,120 @@
+package com.bookingsystem.service;
+
+import com.bookingsystem.api.dto.EventResponseDto;
+import com.bookingsystem.properties.EventFeedProperties;
+import com.bookingsystem.properties.EventFeedProperties.Sink;
+import com.bookingsystem.repository.EventFeedOffsetRepository;
+import lombok.val;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.bookingsystem.model.EntityType.BOOKING;
+import static com.bookingsystem.model.EventOperation.CREATE;
+import static com.bookingsystem.model.EventTemplate.BOOKING_CREATED;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EventFeedRelayTest {
+    private static final String MEMORY = Sink.MEMORY.name();
+
+    @Mock
+    private EventHorizon eventHorizon;
+
+    @Mock
+    private EventFeedOffsetRepository offsetRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final InMemoryEventSink sink = new InMemoryEventSink();
+
+    private EventFeedProperties properties;
+
+    private EventFeedRelay eventFeedRelay;
+
+    @BeforeEach
+    void setUp() {
+        properties = new EventFeedProperties();
+        properties.setSinks(Set.of(Sink.MEMORY));
+        properties.setBatchSize(2);
+        eventFeedRelay = new EventFeedRelay(eventHorizon, offsetRepository, List.of(sink), properties, transactionManager);
+    }
+
+    @Test
+    void relay_should_publish_from_the_high_water_mark_and_advance_it() {
+        // given
+        given(offsetRepository.lock(MEMORY)).willReturn(10L, 12L, 13L);
+        given(eventHorizon.settledBatch(10L, 2)).willReturn(List.of(event(11L), event(12L)));
+        given(eventHorizon.settledBatch(12L, 2)).willReturn(List.of(event(13L)));
+
+        // when
+        eventFeedRelay.relay();
+
+        // then
+        assertAll(() -> {
+            assertEquals(List.of(11L, 12L, 13L), sink.getPublished().stream().map(EventResponseDto::id).toList());
+            verify(offsetRepository).save(MEMORY, 12L);
+            verify(offsetRepository).save(MEMORY, 13L);
+        });
+    }
+
+    @Test
+    void relay_should_wait_while_no_event_is_settled() {
+        // given
+        given(offsetRepository.lock(MEMORY)).willReturn(10L);
+        given(eventHorizon.settledBatch(10L, 2)).willReturn(List.of());
+
+        // when
+        eventFeedRelay.relay();
+
+        // then
+        assertAll(() -> {
+            assertTrue(sink.getPublished().isEmpty());
+            verify(offsetRepository, never()).save(any(), anyLong());
+        });
+    }
+
+    @Test
+    void relay_should_keep_the_high_water_mark_when_the_sink_fails() {
+        // given
+        val failing = mock(EventSink.class);
+        given(failing.type()).willReturn(Sink.MEMORY);
+        doThrow(new IllegalStateException("sink down")).when(failing).publish(any());
+        given(offsetRepository.lock(MEMORY)).willReturn(10L);
+        given(eventHorizon.settledBatch(10L, 2)).willReturn(List.of(event(11L)));
+        val relay = new EventFeedRelay(eventHorizon, offsetRepository, List.of(failing), properties, transactionManager);
+
+        // when
+        relay.relay();
+
+        // then
+        verify(offsetRepository, never()).save(any(), anyLong());
+    }
+
+    @Test
+    void relay_should_skip_sinks_that_are_not_configured() {
+        // given
+        properties.setSinks(Set.of(Sink.REDIS));
+
+        // when
+        eventFeedRelay.relay();
+
+        // then
+        verifyNoInteractions(offsetRepository, eventHorizon);
+    }
+
+    private static EventResponseDto event(Long id) {
+        return new EventResponseDto(id, BOOKING, CREATE, 5L, BOOKING_CREATED, Map.of("userId", 2L, "units", 1), null, LocalDateTime.now());
+    }
+}
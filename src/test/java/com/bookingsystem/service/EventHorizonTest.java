@@ -0,0 +1,79 @@
+package com.bookingsystem.service;
+
+import com.bookingsystem.api.dto.EventResponseDto;
+import com.bookingsystem.repository.EventRepository;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static com.bookingsystem.model.EntityType.BOOKING;
+import static com.bookingsystem.model.EventOperation.CREATE;
+import static com.bookingsystem.model.EventTemplate.BOOKING_CREATED;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EventHorizonTest {
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @InjectMocks
+    private EventHorizon eventHorizon;
+
+    @Test
+    void settled_batch_should_hold_back_events_committed_ahead_of_a_lower_id() {
+        // given
+        // transaction 100 holds id 51 while transaction 101 commits id 101, then 100 commits and 103 takes id 151
+        given(eventRepository.findLastAllocatedId()).willReturn(101L, 101L, 151L);
+        given(eventRepository.findNextTransactionId()).willReturn(102L, 102L, 104L);
+        given(eventRepository.findOldestRunningTransactionId()).willReturn(100L, 100L, 102L);
+        given(eventRepository.findFeedAfter(0L, Limit.of(10))).willReturn(List.of(event(51L), event(101L), event(151L)));
+
+        // when
+        val whileRunning = eventHorizon.settledBatch(0L, 10);
+        val stillRunning = eventHorizon.settledBatch(0L, 10);
+        val committed = eventHorizon.settledBatch(0L, 10);
+
+        // then
+        assertAll(() -> {
+            assertTrue(whileRunning.isEmpty());
+            assertTrue(stillRunning.isEmpty());
+            assertEquals(List.of(51L, 101L), committed.stream().map(EventResponseDto::id).toList());
+            verify(eventRepository, times(1)).findFeedAfter(anyLong(), any());
+        });
+    }
+
+    @Test
+    void advance_should_keep_the_horizon_while_no_new_id_was_handed_out() {
+        // given
+        given(eventRepository.findLastAllocatedId()).willReturn(51L);
+        given(eventRepository.findNextTransactionId()).willReturn(100L, 105L, 105L);
+        given(eventRepository.findOldestRunningTransactionId()).willReturn(99L, 100L, 105L);
+
+        // when
+        val first = eventHorizon.advance();
+        val second = eventHorizon.advance();
+        val third = eventHorizon.advance();
+
+        // then
+        assertAll(() -> {
+            assertEquals(0L, first);
+            assertEquals(51L, second);
+            assertEquals(51L, third);
+        });
+    }
+
+    private static EventResponseDto event(Long id) {
+        return new EventResponseDto(id, BOOKING, CREATE, 5L, BOOKING_CREATED, Map.of("userId", 2L, "units", 1), null, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,100 @@
+package com.bookingsystem.service;
+
+import com.bookingsystem.properties.EventRetentionProperties;
+import com.bookingsystem.properties.EventRetentionProperties.Mode;
+import com.bookingsystem.repository.EventPartitionRepository;
+import lombok.val;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EventRetentionTest {
+    private static final YearMonth NOW = YearMonth.now();
+
+    @Mock
+    private EventPartitionRepository partitionRepository;
+
+    private EventRetentionProperties properties;
+
+    private EventRetention eventRetention;
+
+    @BeforeEach
+    void setUp() {
+        properties = new EventRetentionProperties();
+        properties.setRetentionMonths(2);
+        properties.setPremakeMonths(1);
+        eventRetention = new EventRetention(partitionRepository, properties);
+    }
+
+    @Test
+    void maintain_should_create_missing_months_and_archive_expired_ones() {
+        // given
+        given(partitionRepository.findPartitionMonths())
+                .willReturn(List.of(NOW.minusMonths(3), NOW.minusMonths(2), NOW.minusMonths(1), NOW));
+
+        // when
+        eventRetention.maintain();
+
+        // then
+        verify(partitionRepository).create(NOW.plusMonths(1));
+        verify(partitionRepository).archive(NOW.minusMonths(3));
+        verify(partitionRepository).archive(NOW.minusMonths(2));
+        verify(partitionRepository, never()).create(NOW);
+        verify(partitionRepository, never()).archive(NOW.minusMonths(1));
+        verify(partitionRepository, never()).drop(any());
+    }
+
+    @Test
+    void maintain_should_drop_expired_months_in_drop_mode() {
+        // given
+        properties.setMode(Mode.DROP);
+        given(partitionRepository.findPartitionMonths()).willReturn(List.of(NOW.minusMonths(2), NOW, NOW.plusMonths(1)));
+
+        // when
+        eventRetention.maintain();
+
+        // then
+        verify(partitionRepository).drop(NOW.minusMonths(2));
+        verify(partitionRepository, never()).create(any());
+        verify(partitionRepository, never()).archive(any());
+    }
+
+    @Test
+    void maintain_should_go_on_after_a_failed_step() {
+        // given
+        val expired = NOW.minusMonths(5);
+        given(partitionRepository.findPartitionMonths()).willReturn(List.of(expired));
+        willThrow(new DataIntegrityViolationException("default partition holds rows"))
+                .given(partitionRepository).create(NOW);
+
+        // when
+        eventRetention.maintain();
+
+        // then
+        verify(partitionRepository).create(NOW.plusMonths(1));
+        verify(partitionRepository).archive(expired);
+    }
+
+    @Test
+    void maintain_should_do_nothing_when_disabled() {
+        // given
+        properties.setEnabled(false);
+
+        // when
+        eventRetention.maintain();
+
+        // then
+        verifyNoInteractions(partitionRepository);
+    }
+}
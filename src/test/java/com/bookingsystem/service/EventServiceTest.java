@@ -0,0 +1,95 @@
+package com.bookingsystem.service;
+
+import com.bookingsystem.model.Event;
+import com.bookingsystem.properties.EventWriterProperties;
+import lombok.val;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.bookingsystem.model.BookingStatus.BOOKED;
+import static com.bookingsystem.model.BookingStatus.RESERVED;
+import static com.bookingsystem.model.EntityType.BOOKING;
+import static com.bookingsystem.model.EventTemplate.UNITS_TRANSITIONED;
+import static com.bookingsystem.model.EventTemplate.UNIT_UPDATED;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EventServiceTest {
+
+    @Mock
+    private EventWriter eventWriter;
+
+    @Mock
+    private EventWriterProperties eventWriterProperties;
+
+    @InjectMocks
+    private EventService eventService;
+
+    private final ArgumentCaptor<Event> captor = ArgumentCaptor.forClass(Event.class);
+
+    @BeforeEach
+    void setUp() {
+        given(eventWriterProperties.getMode()).willReturn(EventWriterProperties.Mode.ASYNC);
+    }
+
+    @Test
+    void create_unit_transition_events_should_write_one_event_per_booking_when_coalescing() {
+        // given
+        given(eventWriterProperties.isCoalesceUnitTransitions()).willReturn(true);
+
+        // when
+        eventService.createUnitTransitionEvents(Map.of(7L, List.of(1L, 2L, 3L)), RESERVED, BOOKED);
+
+        // then
+        verify(eventWriter).enqueueAfterCommit(captor.capture());
+        val event = captor.getValue();
+        assertAll(() -> {
+            assertEquals(UNITS_TRANSITIONED, event.getTemplate());
+            assertEquals(BOOKING, event.getEntityType());
+            assertEquals(7L, event.getEntityId());
+            assertEquals(Map.of("unitIds", List.of(1L, 2L, 3L), "from", RESERVED, "to", BOOKED), event.getPayload());
+            assertEquals("Units of booking 7 RESERVED -> BOOKED: [1, 2, 3]", event.getTemplate().render(7L, event.getPayload()));
+        });
+    }
+
+    @Test
+    void create_unit_transition_events_should_write_one_event_per_unit_when_not_coalescing() {
+        // given
+        given(eventWriterProperties.isCoalesceUnitTransitions()).willReturn(false);
+
+        // when
+        eventService.createUnitTransitionEvents(Map.of(7L, List.of(1L, 2L)), RESERVED, BOOKED);
+
+        // then
+        verify(eventWriter, times(2)).enqueueAfterCommit(captor.capture());
+        assertAll(() -> {
+            assertTrue(captor.getAllValues().stream().allMatch(event -> event.getTemplate() == UNIT_UPDATED));
+            assertEquals(List.of(1L, 2L), captor.getAllValues().stream().map(Event::getEntityId).toList());
+        });
+    }
+
+    @Test
+    void create_unit_transition_events_should_write_per_unit_events_for_units_without_booking() {
+        // given
+        Map<Long, List<Long>> unitIdsByBooking = new HashMap<>();
+        unitIdsByBooking.put(null, List.of(4L));
+
+        // when
+        eventService.createUnitTransitionEvents(unitIdsByBooking, RESERVED, BOOKED);
+
+        // then
+        verify(eventWriter).enqueueAfterCommit(captor.capture());
+        assertEquals(UNIT_UPDATED, captor.getValue().getTemplate());
+    }
+}
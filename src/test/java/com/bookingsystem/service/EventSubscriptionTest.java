@@ -0,0 +1,104 @@
+package com.bookingsystem.service;
+
+import com.bookingsystem.api.dto.EventFilter;
+import com.bookingsystem.api.dto.EventResponseDto;
+import com.bookingsystem.model.EntityType;
+import com.bookingsystem.properties.EventStreamProperties;
+import com.bookingsystem.properties.EventStreamProperties.Overflow;
+import lombok.val;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.bookingsystem.model.EntityType.BOOKING;
+import static com.bookingsystem.model.EntityType.UNIT;
+import static com.bookingsystem.model.EventOperation.CREATE;
+import static com.bookingsystem.model.EventTemplate.BOOKING_CREATED;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EventSubscriptionTest {
+
+    @Mock
+    private SseEmitter emitter;
+
+    private EventStreamProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new EventStreamProperties();
+        properties.setBufferCapacity(2);
+        properties.setHeartbeatInterval(Duration.ofMinutes(1));
+    }
+
+    @Test
+    void drain_should_disconnect_a_subscriber_that_overflowed() throws Exception {
+        // given
+        properties.setOverflow(Overflow.DISCONNECT);
+        val subscription = new EventSubscription(emitter, EventFilter.of(null, null), properties);
+        subscription.offer(List.of(event(1L, BOOKING), event(2L, BOOKING), event(3L, BOOKING)));
+
+        // when
+        subscription.drain(0);
+
+        // then
+        verify(emitter).send(any(SseEventBuilder.class));
+        verify(emitter).complete();
+    }
+
+    @Test
+    void drain_should_drop_the_oldest_events_and_report_them() throws Exception {
+        // given
+        properties.setOverflow(Overflow.DROP_OLDEST);
+        val subscription = new EventSubscription(emitter, EventFilter.of(null, null), properties);
+        subscription.offer(List.of(event(1L, BOOKING), event(2L, BOOKING), event(3L, BOOKING)));
+
+        // when
+        val sender = Thread.ofVirtual().start(() -> drainQuietly(subscription));
+
+        // then
+        verify(emitter, timeout(1000).times(3)).send(any(SseEventBuilder.class));
+        subscription.close();
+        sender.join(1000);
+        verify(emitter, never()).complete();
+        assertFalse(sender.isAlive());
+    }
+
+    @Test
+    void offer_should_skip_events_outside_the_filter() throws Exception {
+        // given
+        val subscription = new EventSubscription(emitter, EventFilter.of(Set.of(UNIT), null), properties);
+        subscription.offer(List.of(event(1L, BOOKING), event(2L, BOOKING)));
+
+        // when
+        val sender = Thread.ofVirtual().start(() -> drainQuietly(subscription));
+        subscription.close();
+        sender.join(1000);
+
+        // then
+        verifyNoInteractions(emitter);
+    }
+
+    private static void drainQuietly(EventSubscription subscription) {
+        try {
+            subscription.drain(0);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static EventResponseDto event(Long id, EntityType entityType) {
+        return new EventResponseDto(id, entityType, CREATE, 5L, BOOKING_CREATED, Map.of(), null, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,171 @@
+package com.bookingsystem.service;
+
+import com.bookingsystem.model.Event;
+import com.bookingsystem.properties.EventWriterProperties;
+import com.bookingsystem.repository.EventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.val;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static com.bookingsystem.model.BookingStatus.AVAILABLE;
+import static com.bookingsystem.model.EventTemplate.UNIT_UPDATED;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EventWriterTest {
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private EventWriter eventWriter;
+
+    @BeforeEach
+    void setUp() {
+        val properties = new EventWriterProperties();
+        properties.setBatchSize(3);
+        properties.setFlushInterval(Duration.ofSeconds(10));
+        properties.setRetryBackoff(Duration.ofMillis(1));
+        eventWriter = new EventWriter(eventRepository, properties, meterRegistry, transactionManager);
+    }
+
+    @Test
+    void enqueue_should_write_synchronously_when_writer_is_not_running() {
+        // given
+        val event = event(1L);
+
+        // when
+        eventWriter.enqueue(event);
+
+        // then
+        verify(eventRepository).insertEvents(List.of(event));
+    }
+
+    @Test
+    void writer_should_batch_buffered_events() {
+        // given
+        val events = IntStream.rangeClosed(1, 3).mapToObj(id -> event((long) id)).toList();
+        eventWriter.start();
+
+        // when
+        events.forEach(eventWriter::enqueue);
+
+        // then
+        verify(eventRepository, timeout(1000)).insertEvents(events);
+        eventWriter.stop();
+    }
+
+    @Test
+    void stop_should_flush_partial_batch() {
+        // given
+        val captor = ArgumentCaptor.<List<Event>>captor();
+        eventWriter.start();
+
+        // when
+        eventWriter.enqueue(event(1L));
+        eventWriter.enqueue(event(2L));
+        eventWriter.stop();
+
+        // then
+        assertAll(() -> {
+            assertFalse(eventWriter.isRunning());
+            verify(eventRepository, atLeastOnce()).insertEvents(captor.capture());
+            assertEquals(2, captor.getAllValues().stream().mapToInt(List::size).sum());
+        });
+    }
+
+    @Test
+    void write_should_retry_a_failed_batch() {
+        // given
+        val events = IntStream.rangeClosed(1, 3).mapToObj(id -> event((long) id)).toList();
+        doThrow(new DataAccessResourceFailureException("Connection refused"))
+                .doNothing()
+                .when(eventRepository).insertEvents(events);
+        eventWriter.start();
+
+        // when
+        events.forEach(eventWriter::enqueue);
+
+        // then
+        verify(eventRepository, timeout(1000).times(2)).insertEvents(events);
+        eventWriter.stop();
+        assertAll(() -> {
+            verify(transactionManager, times(2)).getTransaction(any());
+            assertEquals(0.0, meterRegistry.counter(EventWriter.DROPPED).count());
+        });
+    }
+
+    @Test
+    void enqueue_should_write_synchronously_only_once() {
+        // given
+        val event = event(1L);
+        doThrow(new DataAccessResourceFailureException("Connection refused")).when(eventRepository).insertEvents(List.of(event));
+
+        // when
+        eventWriter.enqueue(event);
+
+        // then
+        assertAll(() -> {
+            verify(eventRepository, times(1)).insertEvents(List.of(event));
+            assertEquals(1.0, meterRegistry.counter(EventWriter.DROPPED).count());
+        });
+    }
+
+    @Test
+    void writer_should_keep_running_after_a_batch_that_cannot_be_written() {
+        // given
+        val broken = IntStream.rangeClosed(1, 3).mapToObj(id -> event((long) id)).toList();
+        val next = IntStream.rangeClosed(4, 6).mapToObj(id -> event((long) id)).toList();
+        doThrow(new IllegalArgumentException("Event payload is not serializable")).when(eventRepository).insertEvents(broken);
+        eventWriter.start();
+
+        // when
+        broken.forEach(eventWriter::enqueue);
+        next.forEach(eventWriter::enqueue);
+
+        // then
+        verify(eventRepository, timeout(1000)).insertEvents(next);
+        eventWriter.stop();
+        assertAll(() -> {
+            verify(eventRepository, times(1)).insertEvents(broken);
+            assertEquals(3.0, meterRegistry.counter(EventWriter.DROPPED).count());
+        });
+    }
+
+    @Test
+    void write_should_count_events_dropped_after_the_last_attempt() {
+        // given
+        val events = IntStream.rangeClosed(1, 3).mapToObj(id -> event((long) id)).toList();
+        doThrow(new DataAccessResourceFailureException("Connection refused")).when(eventRepository).insertEvents(events);
+        eventWriter.start();
+
+        // when
+        events.forEach(eventWriter::enqueue);
+
+        // then
+        verify(eventRepository, timeout(1000).times(3)).insertEvents(events);
+        eventWriter.stop();
+        assertEquals(3.0, meterRegistry.counter(EventWriter.DROPPED).count());
+    }
+
+    private static Event event(Long id) {
+        return new Event(UNIT_UPDATED, id, Map.of("status", AVAILABLE));
+    }
+}
@@ -0,0 +1,145 @@
+package com.bookingsystem.service;
+
+import com.bookingsystem.api.dto.BookingResponseDto;
+import com.bookingsystem.api.dto.EventResponseDto;
+import com.bookingsystem.api.dto.TimeWindow;
+import com.bookingsystem.api.dto.PaymentResponseDto;
+import com.bookingsystem.mapper.PaymentMapper;
+import com.bookingsystem.model.Payment;
+import com.bookingsystem.repository.BookingRepository;
+import com.bookingsystem.repository.BookingRepository.BookingSummary;
+import com.bookingsystem.repository.EventRepository;
+import com.bookingsystem.repository.PaymentRepository;
+import com.bookingsystem.repository.UnitRepository;
+import jakarta.persistence.EntityManager;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static com.bookingsystem.model.EntityType.BOOKING;
+import static com.bookingsystem.model.EventOperation.CREATE;
+import static com.bookingsystem.model.EventTemplate.BOOKING_CREATED;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExportServiceTest {
+    private static final LocalDateTime FROM = LocalDateTime.of(2025, 10, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2025, 10, 2, 0, 0);
+
+    @Mock
+    private UnitRepository unitRepository;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @Mock
+    private BookingQueries bookingQueries;
+
+    @Mock
+    private PaymentMapper paymentMapper;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private ExportService exportService;
+
+    @Test
+    void export_bookings_should_assemble_units_once_per_chunk_and_close_the_cursor() {
+        // given
+        val closed = new AtomicBoolean();
+        val first = mock(BookingSummary.class);
+        val second = mock(BookingSummary.class);
+        val dtos = List.of(booking(1L), booking(2L));
+        given(bookingRepository.streamSummaries(FROM, TO)).willReturn(Stream.of(first, second).onClose(() -> closed.set(true)));
+        given(bookingQueries.assemble(List.of(first, second))).willReturn(dtos);
+        List<BookingResponseDto> written = new ArrayList<>();
+
+        // when
+        val exported = exportService.exportBookings(new TimeWindow(FROM, TO), written::add);
+
+        // then
+        assertAll(() -> {
+            assertEquals(2, exported);
+            assertEquals(dtos, written);
+            assertTrue(closed.get());
+            verify(bookingQueries, times(1)).assemble(any());
+        });
+    }
+
+    @Test
+    void export_bookings_should_skip_units_query_when_nothing_matches() {
+        // given
+        given(bookingRepository.streamSummaries(any(), any())).willReturn(Stream.empty());
+
+        // when
+        val exported = exportService.exportBookings(new TimeWindow(null, null), booking -> fail());
+
+        // then
+        assertAll(() -> {
+            assertEquals(0, exported);
+            verifyNoInteractions(bookingQueries);
+        });
+    }
+
+    @Test
+    void export_events_should_filter_by_entity_type_when_given() {
+        // given
+        val event = new EventResponseDto(1L, BOOKING, CREATE, 5L, BOOKING_CREATED, Map.of("userId", 2L), null, FROM);
+        given(eventRepository.streamDtosByEntityType(BOOKING, FROM, TO)).willReturn(Stream.of(event));
+        List<EventResponseDto> written = new ArrayList<>();
+
+        // when
+        val exported = exportService.exportEvents(BOOKING, new TimeWindow(FROM, TO), written::add);
+
+        // then
+        assertAll(() -> {
+            assertEquals(1, exported);
+            assertEquals(List.of(event), written);
+            verify(eventRepository, never()).streamDtos(any(), any());
+        });
+    }
+
+    @Test
+    void export_payments_should_map_each_payment_without_clearing_a_partial_chunk() {
+        // given
+        val payment = EntitiesUtil.payment().id(1L).build();
+        val dto = mock(PaymentResponseDto.class);
+        given(paymentRepository.streamCreatedBetween(FROM, TO)).willReturn(Stream.of(payment));
+        given(paymentMapper.toDto(payment)).willReturn(dto);
+        List<PaymentResponseDto> written = new ArrayList<>();
+
+        // when
+        val exported = exportService.exportPayments(new TimeWindow(FROM, TO), written::add);
+
+        // then
+        assertAll(() -> {
+            assertEquals(1, exported);
+            assertEquals(List.of(dto), written);
+            verify(entityManager, never()).clear();
+        });
+    }
+
+    private static BookingResponseDto booking(Long id) {
+        return new BookingResponseDto(id, 1L, List.of(), FROM, null, null);
+    }
+}
@@ -0,0 +1,225 @@
+package com.bookingsystem.service;
+
+import com.bookingsystem.properties.IdempotencyProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.val;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotentRequestsTest {
+    private static final String KEY = "3f2c9a6e-5b1d-4e7a-9c0b-8d4f1e2a7b6c";
+    private static final String REDIS_KEY = "booking:idempotency:payments:" + KEY;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private final IdempotencyProperties properties = new IdempotencyProperties();
+
+    private final AtomicInteger executions = new AtomicInteger();
+
+    private IdempotentRequests idempotentRequests;
+
+    @BeforeEach
+    void setUp() {
+        idempotentRequests = new IdempotentRequests(redisTemplate, new ObjectMapper(), properties);
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @AfterEach
+    void tearDown() {
+        idempotentRequests.shutdown();
+    }
+
+    @Test
+    void execute_should_run_requests_without_key() {
+        // when
+        val outcome = pay(null, 1L);
+
+        // then
+        assertAll(() -> {
+            assertEquals(new Receipt(1L, 1), outcome.response());
+            assertFalse(outcome.replayed());
+            verifyNoInteractions(redisTemplate);
+        });
+    }
+
+    @Test
+    void execute_should_store_the_response_of_the_first_request() {
+        // given
+        val claim = ArgumentCaptor.forClass(String.class);
+        given(valueOperations.setIfAbsent(eq(REDIS_KEY), claim.capture(), eq(properties.getInFlightTtl()))).willReturn(true);
+        given(redisTemplate.execute(eq(IdempotentRequests.STORE), eq(List.of(REDIS_KEY)), anyString(), anyString(), anyString()))
+                .willReturn(1L);
+
+        // when
+        val outcome = pay(KEY, 1L);
+
+        // then
+        val stored = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).execute(
+                eq(IdempotentRequests.STORE), eq(List.of(REDIS_KEY)), eq(claim.getValue()), stored.capture(), eq("86400000")
+        );
+        assertAll(() -> {
+            assertFalse(outcome.replayed());
+            assertTrue(stored.getValue().contains("\\\"bookingId\\\":1"));
+        });
+    }
+
+    @Test
+    void execute_should_keep_the_response_no_longer_than_asked() {
+        // given
+        given(valueOperations.setIfAbsent(eq(REDIS_KEY), anyString(), any(Duration.class))).willReturn(true);
+
+        // when
+        idempotentRequests.execute("payments", KEY, List.of(1L, 5L), Receipt.class, Duration.ofMinutes(10),
+                () -> new Receipt(1L, executions.incrementAndGet()));
+
+        // then
+        verify(redisTemplate).execute(eq(IdempotentRequests.STORE), eq(List.of(REDIS_KEY)), anyString(), anyString(), eq("600000"));
+    }
+
+    @Test
+    void execute_should_renew_the_lease_while_the_request_runs() {
+        // given
+        properties.setInFlightTtl(Duration.ofMillis(30));
+        given(valueOperations.setIfAbsent(eq(REDIS_KEY), anyString(), any(Duration.class))).willReturn(true);
+        lenient().when(redisTemplate.execute(eq(IdempotentRequests.RENEW), eq(List.of(REDIS_KEY)), anyString(), eq("30")))
+                .thenReturn(1L);
+
+        // when
+        idempotentRequests.execute("payments", KEY, List.of(1L, 5L), Receipt.class, () -> {
+            sleep(200);
+            return new Receipt(1L, executions.incrementAndGet());
+        });
+
+        // then
+        verify(redisTemplate, atLeast(2)).execute(eq(IdempotentRequests.RENEW), eq(List.of(REDIS_KEY)), anyString(), eq("30"));
+    }
+
+    @Test
+    void execute_should_replay_a_completed_request() {
+        // given
+        val stored = completed(1L);
+        given(valueOperations.setIfAbsent(eq(REDIS_KEY), anyString(), any(Duration.class))).willReturn(false);
+        given(valueOperations.get(REDIS_KEY)).willReturn(stored);
+
+        // when
+        val outcome = pay(KEY, 1L);
+
+        // then
+        assertAll(() -> {
+            assertTrue(outcome.replayed());
+            assertEquals(new Receipt(1L, 1), outcome.response());
+            assertEquals(1, executions.get());
+        });
+    }
+
+    @Test
+    void execute_should_reject_a_key_reused_for_another_request() {
+        // given
+        val stored = completed(1L);
+        given(valueOperations.setIfAbsent(eq(REDIS_KEY), anyString(), any(Duration.class))).willReturn(false);
+        given(valueOperations.get(REDIS_KEY)).willReturn(stored);
+
+        // when
+        val exception = assertThrows(IllegalArgumentException.class, () -> pay(KEY, 2L));
+
+        // then
+        assertAll(() -> {
+            assertEquals("Idempotency-Key " + KEY + " was already used for a different request", exception.getMessage());
+            assertEquals(1, executions.get());
+        });
+    }
+
+    @Test
+    void execute_should_give_the_key_back_when_the_request_fails() {
+        // given
+        val claim = ArgumentCaptor.forClass(String.class);
+        given(valueOperations.setIfAbsent(eq(REDIS_KEY), claim.capture(), any(Duration.class))).willReturn(true);
+
+        // when
+        assertThrows(IllegalStateException.class, () -> idempotentRequests.execute(
+                "payments", KEY, List.of(1L, 5L), Receipt.class, () -> {
+                    throw new IllegalStateException("Payment already completed");
+                }
+        ));
+
+        // then
+        assertAll(() -> {
+            verify(redisTemplate).execute(IdempotentRequests.RELEASE, List.of(REDIS_KEY), claim.getValue());
+            verify(redisTemplate, never()).execute(eq(IdempotentRequests.STORE), anyList(), anyString(), anyString(), anyString());
+        });
+    }
+
+    @Test
+    void execute_should_run_the_request_while_redis_is_unavailable() {
+        // given
+        given(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+                .willThrow(new RedisConnectionFailureException("Connection refused"));
+
+        // when
+        val outcome = pay(KEY, 1L);
+
+        // then
+        assertAll(() -> {
+            assertFalse(outcome.replayed());
+            assertEquals(1, executions.get());
+        });
+    }
+
+    /**
+     * Runs a first request with the key and returns what it stored
+     */
+    private String completed(Long bookingId) {
+        val stored = ArgumentCaptor.forClass(String.class);
+        given(valueOperations.setIfAbsent(eq(REDIS_KEY), anyString(), any(Duration.class))).willReturn(true);
+        pay(KEY, bookingId);
+        verify(redisTemplate).execute(eq(IdempotentRequests.STORE), eq(List.of(REDIS_KEY)), anyString(), stored.capture(), anyString());
+        return stored.getValue();
+    }
+
+    private IdempotentRequests.Outcome<Receipt> pay(String key, Long bookingId) {
+        return idempotentRequests.execute(
+                "payments",
+                key,
+                List.of(bookingId, 5L),
+                Receipt.class,
+                () -> new Receipt(bookingId, executions.incrementAndGet())
+        );
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    record Receipt(Long bookingId, int execution) {
+    }
+}
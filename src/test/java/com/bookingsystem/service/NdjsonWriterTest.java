@@ -0,0 +1,52 @@
+package com.bookingsystem.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class NdjsonWriterTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void close_should_finish_the_gzip_stream() throws Exception {
+        // given
+        val out = new ByteArrayOutputStream();
+        val writer = new NdjsonWriter(objectMapper, out, true);
+
+        // when
+        writer.write(Map.of("id", 1));
+        writer.write(Map.of("id", 2));
+        writer.close();
+
+        // then
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals("{\"id\":1}\n{\"id\":2}\n", new String(in.readAllBytes(), UTF_8));
+        }
+    }
+
+    @Test
+    void abort_should_leave_the_gzip_stream_unfinished() throws Exception {
+        // given
+        val out = new ByteArrayOutputStream();
+        val writer = new NdjsonWriter(objectMapper, out, true);
+        writer.write(Map.of("id", 1));
+
+        // when
+        writer.abort();
+
+        // then
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            assertThrows(EOFException.class, in::readAllBytes);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.bookingsystem.service;
+
+import com.bookingsystem.properties.BookingCalendarProperties;
+import com.bookingsystem.repository.UnitRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PastNightPrunerTest {
+
+    @Mock
+    private UnitRepository unitRepository;
+
+    @Mock
+    private UnitService unitService;
+
+    private final BookingCalendarProperties properties = new BookingCalendarProperties();
+
+    private PastNightPruner pastNightPruner;
+
+    @BeforeEach
+    void setUp() {
+        properties.setPruneChunkSize(2);
+        pastNightPruner = new PastNightPruner(unitRepository, unitService, properties);
+    }
+
+    @Test
+    void prune_should_walk_the_units_in_id_ordered_chunks() {
+        // given
+        given(unitRepository.findIdsWithBookedNightsAfter(0L, Limit.of(2))).willReturn(List.of(1L, 4L));
+        given(unitRepository.findIdsWithBookedNightsAfter(4L, Limit.of(2))).willReturn(List.of(9L));
+
+        // when
+        pastNightPruner.prune();
+
+        // then
+        assertAll(() -> {
+            verify(unitService).prunePastNights(eq(List.of(1L, 4L)), any());
+            verify(unitService).prunePastNights(eq(List.of(9L)), any());
+            verify(unitRepository, times(2)).findIdsWithBookedNightsAfter(anyLong(), any());
+        });
+    }
+}
@@ -15,7 +15,6 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
-import static com.bookingsystem.model.BookingStatus.AVAILABLE;
 import static com.bookingsystem.model.PaymentStatus.COMPLETED;
 import static com.bookingsystem.model.PaymentStatus.PENDING;
 import static org.junit.jupiter.api.Assertions.assertAll;
@@ -49,6 +48,9 @@ class PaymentCheckerTest {
     @Mock
     private EventService eventService;
 
+    @Mock
+    private BookingShards bookingShards;
+
     @InjectMocks
     private PaymentChecker paymentChecker;
 
@@ -64,10 +66,10 @@ class PaymentCheckerTest {
         given(cancellationTimeProperties.getMinutesValue()).willReturn(TIMEOUT_MINUTES);
         given(bookingRepository.findExpiredBookings(any())).willReturn(List.of(booking));
         given(paymentRepository.findByBookingId(any())).willReturn(Optional.of(payment));
-        doNothing().when(unitService).setUnitsBookingStatus(any(), any());
+        doNothing().when(unitService).releaseUnits(any(), any());
         doNothing().when(paymentRepository).delete(any());
         doNothing().when(bookingRepository).delete(any());
-        doNothing().when(eventService).createEvent(any(), any(), anyLong(), anyString());
+        doNothing().when(eventService).createEvent(any(), anyLong(), anyMap());
 
         // when & then
         assertAll(() -> {
@@ -75,12 +77,10 @@ class PaymentCheckerTest {
 
             verify(bookingRepository).findExpiredBookings(any());
             verify(paymentRepository).findByBookingId(any());
-            verify(unit1).setBooking(null);
-            verify(unit2).setBooking(null);
-            verify(unitService).setUnitsBookingStatus(any(), any());
+            verify(unitService).releaseUnits(units, booking);
             verify(paymentRepository).delete(any());
             verify(bookingRepository).delete(any());
-            verify(eventService, times(2)).createEvent(any(), any(), any(), any());
+            verify(eventService, times(2)).createEvent(any(), any(), any());
         });
     }
 
@@ -94,9 +94,9 @@ class PaymentCheckerTest {
         given(cancellationTimeProperties.getMinutesValue()).willReturn(TIMEOUT_MINUTES);
         given(bookingRepository.findExpiredBookings(any())).willReturn(List.of(booking));
         given(paymentRepository.findByBookingId(any())).willReturn(Optional.empty());
-        doNothing().when(unitService).setUnitsBookingStatus(any(), any());
+        doNothing().when(unitService).releaseUnits(any(), any());
         doNothing().when(bookingRepository).delete(any());
-        doNothing().when(eventService).createEvent(any(), any(), anyLong(), anyString());
+        doNothing().when(eventService).createEvent(any(), anyLong(), anyMap());
 
         // when & then
         assertAll(() -> {
@@ -104,12 +104,11 @@ class PaymentCheckerTest {
 
             verify(bookingRepository).findExpiredBookings(any());
             verify(paymentRepository).findByBookingId(any());
-            verify(unit).setBooking(null);
-            verify(unitService).setUnitsBookingStatus(any(), any());
+            verify(unitService).releaseUnits(units, booking);
             verify(paymentRepository, never()).delete(any());
             verify(bookingRepository).delete(any());
-            verify(eventService).createEvent(any(), any(), any(), any());
-            verify(eventService, times(1)).createEvent(any(), any(), anyLong(), anyString());
+            verify(eventService).createEvent(any(), any(), any());
+            verify(eventService, times(1)).createEvent(any(), anyLong(), anyMap());
         });
     }
 
@@ -128,10 +127,10 @@ class PaymentCheckerTest {
         assertAll(() -> {
             assertDoesNotThrow(() -> paymentChecker.checkExpiredPayments());
 
-            verify(unitService, never()).setUnitsBookingStatus(any(), any());
+            verify(unitService, never()).releaseUnits(any(), any());
             verify(paymentRepository, never()).delete(any());
             verify(bookingRepository, never()).delete(any());
-            verify(eventService, never()).createEvent(any(), any(), anyLong(), anyString());
+            verify(eventService, never()).createEvent(any(), anyLong(), anyMap());
         });
     }
 
@@ -159,10 +158,10 @@ class PaymentCheckerTest {
 
             verify(bookingRepository).findExpiredBookings(any());
             verify(paymentRepository, times(3)).findByBookingId(any());
-            verify(unitService, times(3)).setUnitsBookingStatus(any(), eq(AVAILABLE));
+            verify(unitService, times(3)).releaseUnits(any(), any());
             verify(paymentRepository, times(2)).delete(any());
             verify(bookingRepository, times(3)).delete(any());
-            verify(eventService, times(5)).createEvent(any(), any(), anyLong(), anyString());
+            verify(eventService, times(5)).createEvent(any(), anyLong(), anyMap());
         });
     }
 
@@ -178,10 +177,10 @@ class PaymentCheckerTest {
 
             verify(bookingRepository).findExpiredBookings(any());
             verify(paymentRepository, never()).findByBookingId(any());
-            verify(unitService, never()).setUnitsBookingStatus(any(), any());
+            verify(unitService, never()).releaseUnits(any(), any());
             verify(paymentRepository, never()).delete(any());
             verify(bookingRepository, never()).delete(any());
-            verify(eventService, never()).createEvent(any(), any(), anyLong(), anyString());
+            verify(eventService, never()).createEvent(any(), anyLong(), anyMap());
         });
     }
 
@@ -204,13 +203,68 @@ class PaymentCheckerTest {
         assertAll(() -> {
             assertDoesNotThrow(() -> paymentChecker.checkExpiredPayments());
 
-            verify(unit1).setBooking(null);
-            verify(unit2).setBooking(null);
-            verify(unit3).setBooking(null);
-            verify(unit4).setBooking(null);
-            verify(unitService).setUnitsBookingStatus(any(), any());
+            verify(unitService).releaseUnits(units, booking);
             verify(paymentRepository).delete(any());
             verify(bookingRepository).delete(any());
         });
     }
+
+    @Test
+    void expire_booking_should_expire_booking_with_pending_payment() {
+        // given
+        val units = Set.of(EntitiesUtil.unit().id(UNIT_ID_1).build());
+        val booking = EntitiesUtil.booking().id(BOOKING_ID_1).units(units).build();
+        val payment = EntitiesUtil.payment().id(PAYMENT_ID_1).status(PENDING).build();
+
+        given(paymentRepository.findByBookingIdForUpdate(BOOKING_ID_1)).willReturn(Optional.of(payment));
+        given(bookingRepository.findById(BOOKING_ID_1)).willReturn(Optional.of(booking));
+
+        // when
+        paymentChecker.expireBooking(BOOKING_ID_1);
+
+        // then
+        assertAll(() -> {
+            verify(unitService).releaseUnits(units, booking);
+            verify(paymentRepository).delete(payment);
+            verify(bookingRepository).delete(booking);
+            verify(eventService, times(2)).createEvent(any(), anyLong(), anyMap());
+            verify(bookingRepository, never()).findExpiredBookings(any());
+        });
+    }
+
+    @Test
+    void expire_booking_should_keep_booking_paid_before_deadline() {
+        // given
+        val payment = EntitiesUtil.payment().id(PAYMENT_ID_1).status(COMPLETED).build();
+
+        given(paymentRepository.findByBookingIdForUpdate(BOOKING_ID_1)).willReturn(Optional.of(payment));
+
+        // when
+        paymentChecker.expireBooking(BOOKING_ID_1);
+
+        // then
+        assertAll(() -> {
+            verify(bookingRepository, never()).findById(any());
+            verify(unitService, never()).releaseUnits(any(), any());
+            verify(paymentRepository, never()).delete(any());
+            verify(bookingRepository, never()).delete(any());
+        });
+    }
+
+    @Test
+    void expire_booking_should_do_nothing_when_booking_is_already_gone() {
+        // given
+        given(paymentRepository.findByBookingIdForUpdate(BOOKING_ID_1)).willReturn(Optional.empty());
+        given(bookingRepository.findById(BOOKING_ID_1)).willReturn(Optional.empty());
+
+        // when
+        paymentChecker.expireBooking(BOOKING_ID_1);
+
+        // then
+        assertAll(() -> {
+            verify(unitService, never()).releaseUnits(any(), any());
+            verify(bookingRepository, never()).delete(any());
+            verify(eventService, never()).createEvent(any(), anyLong(), anyMap());
+        });
+    }
 }
@@ -0,0 +1,201 @@
+package com.bookingsystem.service;
+
+import com.bookingsystem.properties.PaymentExpiryProperties;
+import com.bookingsystem.repository.PaymentRepository;
+import lombok.val;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentDeadlineSchedulerTest {
+    private static final Long BOOKING_ID = 1L;
+    private static final LocalDateTime DEADLINE = LocalDateTime.of(2025, 7, 15, 12, 15);
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private PaymentChecker paymentChecker;
+
+    @Mock
+    private PaymentExpiryProperties paymentExpiryProperties;
+
+    @Mock
+    private ScheduledFuture<Object> timer;
+
+    @Mock
+    private BookingShards bookingShards;
+
+    @InjectMocks
+    private PaymentDeadlineScheduler paymentDeadlineScheduler;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(bookingShards.submitForBooking(any(), any())).thenAnswer(invocation -> {
+            try {
+                invocation.<Runnable>getArgument(1).run();
+                return CompletableFuture.completedFuture(null);
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        });
+    }
+
+    @Test
+    void schedule_should_expire_booking_at_payment_deadline() {
+        // given
+        val task = ArgumentCaptor.forClass(Runnable.class);
+        doReturn(timer).when(taskScheduler).schedule(any(Runnable.class), any(Instant.class));
+
+        // when
+        paymentDeadlineScheduler.schedule(BOOKING_ID, DEADLINE);
+
+        // then
+        verify(taskScheduler).schedule(task.capture(), eq(DEADLINE.atZone(ZoneId.systemDefault()).toInstant()));
+        task.getValue().run();
+        verify(paymentChecker).expireBooking(BOOKING_ID);
+    }
+
+    @Test
+    void schedule_should_replace_previous_timer_of_booking() {
+        // given
+        doReturn(timer).when(taskScheduler).schedule(any(Runnable.class), any(Instant.class));
+
+        // when
+        paymentDeadlineScheduler.schedule(BOOKING_ID, DEADLINE);
+        paymentDeadlineScheduler.schedule(BOOKING_ID, DEADLINE.plusMinutes(1));
+
+        // then
+        verify(timer).cancel(false);
+    }
+
+    @Test
+    void schedule_should_not_keep_a_timer_that_fired_right_away() throws Exception {
+        // given
+        val fired = new Thread[1];
+        doAnswer(invocation -> {
+            fired[0] = Thread.ofPlatform().start(invocation.getArgument(0));
+            return timer;
+        }).when(taskScheduler).schedule(any(Runnable.class), any(Instant.class));
+
+        // when
+        paymentDeadlineScheduler.schedule(BOOKING_ID, LocalDateTime.now().minusMinutes(1));
+        fired[0].join(5_000);
+        paymentDeadlineScheduler.cancel(BOOKING_ID);
+
+        // then
+        assertAll(() -> {
+            verify(paymentChecker).expireBooking(BOOKING_ID);
+            verify(timer, never()).cancel(anyBoolean());
+        });
+    }
+
+    @Test
+    void expire_should_keep_the_timer_that_replaced_it() {
+        // given
+        @SuppressWarnings("unchecked")
+        ScheduledFuture<Object> replacement = mock(ScheduledFuture.class);
+        val task = ArgumentCaptor.forClass(Runnable.class);
+        doReturn(timer, replacement).when(taskScheduler).schedule(task.capture(), any(Instant.class));
+        paymentDeadlineScheduler.schedule(BOOKING_ID, DEADLINE);
+        paymentDeadlineScheduler.schedule(BOOKING_ID, DEADLINE.plusMinutes(1));
+
+        // when
+        task.getAllValues().getFirst().run();
+        paymentDeadlineScheduler.cancel(BOOKING_ID);
+
+        // then
+        verify(replacement).cancel(false);
+    }
+
+    @Test
+    void cancel_should_disarm_timer() {
+        // given
+        doReturn(timer).when(taskScheduler).schedule(any(Runnable.class), any(Instant.class));
+        paymentDeadlineScheduler.schedule(BOOKING_ID, DEADLINE);
+
+        // when
+        paymentDeadlineScheduler.cancel(BOOKING_ID);
+        paymentDeadlineScheduler.cancel(BOOKING_ID);
+
+        // then
+        verify(timer, times(1)).cancel(false);
+    }
+
+    @Test
+    void expiry_failure_should_be_left_to_the_sweep() {
+        // given
+        val task = ArgumentCaptor.forClass(Runnable.class);
+        doReturn(timer).when(taskScheduler).schedule(task.capture(), any(Instant.class));
+        doThrow(new IllegalStateException("Units are no longer reserved")).when(paymentChecker).expireBooking(BOOKING_ID);
+        paymentDeadlineScheduler.schedule(BOOKING_ID, DEADLINE);
+
+        // when
+        task.getValue().run();
+
+        // then
+        verify(paymentChecker).expireBooking(BOOKING_ID);
+    }
+
+    @Test
+    void seed_should_schedule_all_pending_payments() {
+        // given
+        val first = mock(PaymentRepository.PendingDeadline.class);
+        val second = mock(PaymentRepository.PendingDeadline.class);
+        given(first.getBookingId()).willReturn(1L);
+        given(first.getPaymentDeadline()).willReturn(DEADLINE);
+        given(second.getBookingId()).willReturn(2L);
+        given(second.getPaymentDeadline()).willReturn(DEADLINE.minusDays(1));
+        given(paymentRepository.findPendingDeadlines()).willReturn(List.of(first, second));
+        doReturn(timer).when(taskScheduler).schedule(any(Runnable.class), any(Instant.class));
+
+        // when
+        paymentDeadlineScheduler.seed();
+
+        // then
+        assertAll(() -> {
+            verify(taskScheduler, times(2)).schedule(any(Runnable.class), any(Instant.class));
+            verify(timer, never()).cancel(anyBoolean());
+        });
+    }
+
+    @Test
+    void seed_should_leave_overdue_payments_to_bulk_expiry() {
+        // given
+        val overdue = mock(PaymentRepository.PendingDeadline.class);
+        val upcoming = mock(PaymentRepository.PendingDeadline.class);
+        val upcomingDeadline = LocalDateTime.now().plusMinutes(10);
+        given(overdue.getPaymentDeadline()).willReturn(LocalDateTime.now().minusMinutes(1));
+        given(upcoming.getBookingId()).willReturn(2L);
+        given(upcoming.getPaymentDeadline()).willReturn(upcomingDeadline);
+        given(paymentExpiryProperties.isBulkEnabled()).willReturn(true);
+        given(paymentRepository.findPendingDeadlines()).willReturn(List.of(overdue, upcoming));
+        doReturn(timer).when(taskScheduler).schedule(any(Runnable.class), any(Instant.class));
+
+        // when
+        paymentDeadlineScheduler.seed();
+
+        // then
+        verify(taskScheduler).schedule(any(Runnable.class), eq(upcomingDeadline.atZone(ZoneId.systemDefault()).toInstant()));
+    }
+}
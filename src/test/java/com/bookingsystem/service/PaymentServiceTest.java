@@ -8,6 +8,7 @@ import com.bookingsystem.model.Unit;
 import com.bookingsystem.repository.BookingRepository;
 import com.bookingsystem.repository.PaymentRepository;
 import lombok.val;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -16,6 +17,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.BDDMockito.given;
@@ -45,9 +47,26 @@ class PaymentServiceTest {
     @Mock
     private PaymentMapper paymentMapper;
 
+    @Mock
+    private PaymentDeadlineScheduler paymentDeadlineScheduler;
+
+    @Mock
+    private BookingTransactions bookingTransactions;
+
+    @Mock
+    private BookingShards bookingShards;
+
     @InjectMocks
     private PaymentService paymentService;
 
+    @BeforeEach
+    void setUp() {
+        lenient().when(bookingTransactions.executeSerializable(any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+        lenient().when(bookingShards.executeForBooking(any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(2).get());
+    }
+
     @Test
     void process_payment_should_complete_payment_and_update_units() {
         // given
@@ -67,8 +86,8 @@ class PaymentServiceTest {
         given(paymentRepository.findByBookingId(any())).willReturn(Optional.of(payment));
         given(paymentRepository.save(any())).willReturn(payment);
         given(paymentMapper.toDto(any())).willReturn(paymentDto);
-        doNothing().when(unitService).setUnitsBookingStatus(any(), any());
-        doNothing().when(eventService).createEvent(any(), any(), anyLong(), anyString());
+        doNothing().when(unitService).confirmUnits(any());
+        doNothing().when(eventService).createEvent(any(), anyLong(), anyMap());
 
         // when
         val result = paymentService.processPayment(BOOKING_ID, USER_ID);
@@ -77,6 +96,7 @@ class PaymentServiceTest {
         assertAll(() -> {
             assertNotNull(result);
             assertEquals(paymentDto, result);
+            verify(paymentDeadlineScheduler).cancelAfterCommit(BOOKING_ID);
         });
     }
 
@@ -94,8 +114,8 @@ class PaymentServiceTest {
             );
             verify(paymentRepository, never()).findByBookingId(any());
             verify(paymentRepository, never()).save(any());
-            verify(unitService, never()).setUnitsBookingStatus(any(), any());
-            verify(eventService, never()).createEvent(any(), any(), anyLong(), anyString());
+            verify(unitService, never()).confirmUnits(any());
+            verify(eventService, never()).createEvent(any(), anyLong(), anyMap());
         });
     }
 
@@ -117,8 +137,8 @@ class PaymentServiceTest {
 
             verify(paymentRepository, never()).findByBookingId(any());
             verify(paymentRepository, never()).save(any());
-            verify(unitService, never()).setUnitsBookingStatus(any(), any());
-            verify(eventService, never()).createEvent(any(), any(), anyLong(), anyString());
+            verify(unitService, never()).confirmUnits(any());
+            verify(eventService, never()).createEvent(any(), anyLong(), anyMap());
         });
     }
 
@@ -140,8 +160,8 @@ class PaymentServiceTest {
             );
 
             verify(paymentRepository, never()).save(any());
-            verify(unitService, never()).setUnitsBookingStatus(any(), any());
-            verify(eventService, never()).createEvent(any(), any(), anyLong(), anyString());
+            verify(unitService, never()).confirmUnits(any());
+            verify(eventService, never()).createEvent(any(), anyLong(), anyMap());
         });
     }
 
@@ -164,8 +184,8 @@ class PaymentServiceTest {
             );
 
             verify(paymentRepository, never()).save(any());
-            verify(unitService, never()).setUnitsBookingStatus(any(), any());
-            verify(eventService, never()).createEvent(any(), any(), anyLong(), anyString());
+            verify(unitService, never()).confirmUnits(any());
+            verify(eventService, never()).createEvent(any(), anyLong(), anyMap());
         });
     }
 
@@ -189,8 +209,8 @@ class PaymentServiceTest {
 
             verify(payment, never()).markAsPaid();
             verify(paymentRepository, never()).save(any());
-            verify(unitService, never()).setUnitsBookingStatus(any(), any());
-            verify(eventService, never()).createEvent(any(), any(), anyLong(), anyString());
+            verify(unitService, never()).confirmUnits(any());
+            verify(eventService, never()).createEvent(any(), anyLong(), anyMap());
         });
     }
 }
@@ -0,0 +1,282 @@
+package com.bookingsystem.service;
+
+import com.bookingsystem.api.dto.Cursor;
+import com.bookingsystem.api.dto.CursorRequest;
+import com.bookingsystem.api.dto.UnitSearchCriteria;
+import com.bookingsystem.api.dto.UnitSortKey;
+import com.bookingsystem.model.AccommodationType;
+import com.bookingsystem.model.BookingStatus;
+import com.bookingsystem.model.Unit;
+import com.bookingsystem.repository.UnitRepository;
+import lombok.val;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static com.bookingsystem.api.dto.UnitSortKey.*;
+import static com.bookingsystem.model.AccommodationType.*;
+import static com.bookingsystem.model.BookingStatus.AVAILABLE;
+import static com.bookingsystem.model.BookingStatus.RESERVED;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.data.domain.Sort.Direction.ASC;
+import static org.springframework.data.domain.Sort.Direction.DESC;
+
+@ExtendWith(MockitoExtension.class)
+class UnitSearchIndexTest {
+    private static final LocalDate DATE = LocalDate.of(2025, 7, 15);
+
+    @Mock
+    private UnitRepository unitRepository;
+
+    @InjectMocks
+    private UnitSearchIndex unitSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        given(unitRepository.findAll()).willReturn(List.of(
+                unit(1L, 2, FLAT, AVAILABLE, 115.0, DATE),
+                unit(2L, 3, APARTMENT, AVAILABLE, 172.5, DATE.plusDays(10)),
+                unit(3L, 2, FLAT, RESERVED, 126.5, DATE.plusDays(1)),
+                unit(4L, 2, FLAT, AVAILABLE, 92.0, null),
+                unit(5L, 4, HOME, AVAILABLE, 230.0, DATE.plusDays(2))
+        ));
+        unitSearchIndex.rebuild();
+    }
+
+    @Test
+    void search_should_return_only_available_units() {
+        // when
+        val result = unitSearchIndex.search(UnitSearchCriteria.any(), ID, ASC, new CursorRequest(ID.sortName(ASC), null, 20, true));
+
+        // then
+        assertAll(() -> {
+            assertTrue(result.isPresent());
+            assertEquals(List.of(1L, 2L, 4L, 5L), ids(result.get().items()));
+            assertNull(result.get().nextCursor());
+            assertEquals(4, result.get().total());
+        });
+    }
+
+    @Test
+    void search_should_combine_all_criteria() {
+        // given
+        val criteria = new UnitSearchCriteria(2, FLAT, 100.0, 120.0, DATE.minusDays(1), DATE.plusDays(1), null, null);
+
+        // when
+        val result = unitSearchIndex.search(criteria, ID, ASC, firstPage(ID, ASC, 20));
+
+        // then
+        assertEquals(List.of(1L), ids(result.orElseThrow().items()));
+    }
+
+    @Test
+    void search_should_walk_pages_by_cursor_in_sort_order() {
+        // given
+        val first = unitSearchIndex.search(UnitSearchCriteria.any(), TOTAL_COST, DESC, firstPage(TOTAL_COST, DESC, 2)).orElseThrow();
+        val next = new CursorRequest(TOTAL_COST.sortName(DESC), Cursor.decode(first.nextCursor()), 2, true);
+
+        // when
+        val second = unitSearchIndex.search(UnitSearchCriteria.any(), TOTAL_COST, DESC, next).orElseThrow();
+
+        // then
+        assertAll(() -> {
+            assertEquals(List.of(5L, 2L), ids(first.items()));
+            assertEquals(List.of(1L, 4L), ids(second.items()));
+            assertNull(second.nextCursor());
+            assertEquals(4, second.total());
+        });
+    }
+
+    @Test
+    void search_should_break_ties_between_equal_keys_by_id() {
+        // given
+        val first = unitSearchIndex.search(UnitSearchCriteria.any(), NUMBER_OF_ROOMS, ASC, firstPage(NUMBER_OF_ROOMS, ASC, 1)).orElseThrow();
+        val next = new CursorRequest(NUMBER_OF_ROOMS.sortName(ASC), Cursor.decode(first.nextCursor()), 10, false);
+
+        // when
+        val rest = unitSearchIndex.search(UnitSearchCriteria.any(), NUMBER_OF_ROOMS, ASC, next).orElseThrow();
+
+        // then
+        assertAll(() -> {
+            assertEquals(List.of(1L), ids(first.items()));
+            assertEquals(List.of(4L, 2L, 5L), ids(rest.items()));
+            assertNull(rest.total());
+        });
+    }
+
+    @Test
+    void search_should_decline_until_the_index_is_built() {
+        // given
+        val notBuilt = new UnitSearchIndex(unitRepository);
+
+        // when
+        val result = notBuilt.search(UnitSearchCriteria.any(), ID, ASC, firstPage(ID, ASC, 10));
+
+        // then
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void upsert_should_move_unit_between_posting_lists() {
+        // when
+        unitSearchIndex.upsert(List.of(unit(1L, 2, FLAT, RESERVED, 115.0, DATE), unit(3L, 2, FLAT, AVAILABLE, 126.5, DATE)));
+
+        // then
+        val criteria = new UnitSearchCriteria(2, FLAT, null, null, null, null, null, null);
+        val result = unitSearchIndex.search(criteria, ID, ASC, firstPage(ID, ASC, 20)).orElseThrow();
+        assertEquals(List.of(3L, 4L), ids(result.items()));
+    }
+
+    @Test
+    void remove_should_drop_unit_and_reuse_its_slot() {
+        // when
+        unitSearchIndex.remove(2L);
+        unitSearchIndex.upsert(List.of(unit(6L, 3, APARTMENT, AVAILABLE, 99.0, DATE)));
+
+        // then
+        val criteria = new UnitSearchCriteria(3, APARTMENT, null, null, null, null, null, null);
+        val result = unitSearchIndex.search(criteria, ID, ASC, firstPage(ID, ASC, 20)).orElseThrow();
+        assertEquals(List.of(6L), ids(result.items()));
+    }
+
+    @Test
+    void search_should_keep_units_free_every_night_of_the_stay() {
+        // given
+        val overlapping = unit(1L, 2, FLAT, AVAILABLE, 115.0, DATE);
+        overlapping.bookNights(DATE.plusDays(2), DATE.plusDays(4));
+        val bookedAfter = unit(2L, 3, APARTMENT, AVAILABLE, 172.5, DATE);
+        bookedAfter.bookNights(DATE.plusDays(3), DATE.plusDays(5));
+        unitSearchIndex.upsert(List.of(overlapping, bookedAfter));
+
+        // when
+        val result = unitSearchIndex.search(stay(DATE, DATE.plusDays(3)), ID, ASC, firstPage(ID, ASC, 20)).orElseThrow();
+
+        // then
+        assertEquals(List.of(2L, 4L, 5L), ids(result.items()));
+    }
+
+    @Test
+    void upsert_should_move_unit_between_night_posting_lists() {
+        // given
+        val unit = unit(1L, 2, FLAT, AVAILABLE, 115.0, DATE);
+        unit.bookNights(DATE, DATE.plusDays(1));
+        unitSearchIndex.upsert(List.of(unit));
+
+        // when
+        unit.releaseNights(DATE, DATE.plusDays(1));
+        unit.bookNights(DATE.plusDays(7), DATE.plusDays(8));
+        unitSearchIndex.upsert(List.of(unit));
+
+        // then
+        assertAll(() -> {
+            val freed = unitSearchIndex.search(stay(DATE, DATE.plusDays(1)), ID, ASC, firstPage(ID, ASC, 20)).orElseThrow();
+            val taken = unitSearchIndex.search(stay(DATE.plusDays(7), DATE.plusDays(8)), ID, ASC, firstPage(ID, ASC, 20)).orElseThrow();
+            assertEquals(List.of(1L, 2L, 4L, 5L), ids(freed.items()));
+            assertEquals(List.of(2L, 4L, 5L), ids(taken.items()));
+        });
+    }
+
+    @Test
+    void upsert_should_ignore_a_version_older_than_the_indexed_one() {
+        // given
+        unitSearchIndex.upsert(List.of(unit(1L, 2, FLAT, RESERVED, 115.0, DATE, 2)));
+
+        // when
+        unitSearchIndex.upsert(List.of(unit(1L, 2, FLAT, AVAILABLE, 115.0, DATE, 1)));
+
+        // then
+        assertEquals(RESERVED, unitSearchIndex.find(1L).orElseThrow().getStatus());
+    }
+
+    @Test
+    void resync_should_apply_changes_made_outside_this_node() {
+        // given
+        given(unitRepository.findAll()).willReturn(List.of(
+                unit(1L, 2, FLAT, RESERVED, 115.0, DATE, 1),
+                unit(2L, 3, APARTMENT, AVAILABLE, 172.5, DATE.plusDays(10)),
+                unit(3L, 2, FLAT, AVAILABLE, 126.5, DATE.plusDays(1), 1),
+                unit(5L, 4, HOME, AVAILABLE, 230.0, DATE.plusDays(2)),
+                unit(6L, 1, FLAT, AVAILABLE, 80.0, DATE)
+        ));
+
+        // when
+        unitSearchIndex.resync();
+
+        // then
+        val result = unitSearchIndex.search(UnitSearchCriteria.any(), ID, ASC, firstPage(ID, ASC, 20)).orElseThrow();
+        assertAll(() -> {
+            assertEquals(List.of(2L, 3L, 5L, 6L), ids(result.items()));
+            assertTrue(unitSearchIndex.find(4L).isEmpty());
+        });
+    }
+
+    @Test
+    void resync_should_keep_units_written_while_the_catalog_loaded() {
+        // given
+        given(unitRepository.findAll()).willAnswer(invocation -> {
+            unitSearchIndex.upsert(List.of(unit(1L, 2, FLAT, RESERVED, 115.0, DATE), unit(7L, 2, FLAT, AVAILABLE, 99.0, DATE)));
+            unitSearchIndex.remove(5L);
+            return List.of(
+                    unit(1L, 2, FLAT, AVAILABLE, 115.0, DATE),
+                    unit(2L, 3, APARTMENT, AVAILABLE, 172.5, DATE.plusDays(10)),
+                    unit(3L, 2, FLAT, RESERVED, 126.5, DATE.plusDays(1)),
+                    unit(4L, 2, FLAT, AVAILABLE, 92.0, null),
+                    unit(5L, 4, HOME, AVAILABLE, 230.0, DATE.plusDays(2))
+            );
+        });
+
+        // when
+        unitSearchIndex.resync();
+
+        // then
+        val result = unitSearchIndex.search(UnitSearchCriteria.any(), ID, ASC, firstPage(ID, ASC, 20)).orElseThrow();
+        assertEquals(List.of(2L, 4L, 7L), ids(result.items()));
+    }
+
+    @Test
+    void search_should_select_the_page_from_many_matches_in_sort_order() {
+        // given
+        unitSearchIndex.upsert(LongStream.rangeClosed(10, 40)
+                .mapToObj(id -> unit(id, 2, FLAT, AVAILABLE, 1000.0 - id, DATE))
+                .toList());
+
+        // when
+        val result = unitSearchIndex.search(UnitSearchCriteria.any(), TOTAL_COST, ASC, firstPage(TOTAL_COST, ASC, 3)).orElseThrow();
+
+        // then
+        assertAll(() -> {
+            assertEquals(List.of(4L, 1L, 2L), ids(result.items()));
+            assertEquals(35, result.total());
+            assertNotNull(result.nextCursor());
+        });
+    }
+
+    private static UnitSearchCriteria stay(LocalDate checkIn, LocalDate checkOut) {
+        return new UnitSearchCriteria(null, null, null, null, null, null, checkIn, checkOut);
+    }
+
+    private static CursorRequest firstPage(UnitSortKey sortKey, Sort.Direction direction, int size) {
+        return CursorRequest.first(sortKey.sortName(direction), size);
+    }
+
+    private static Unit unit(Long id, int rooms, AccommodationType type, BookingStatus status, double totalCost, LocalDate date) {
+        return unit(id, rooms, type, status, totalCost, date, 0);
+    }
+
+    private static Unit unit(Long id, int rooms, AccommodationType type, BookingStatus status, double totalCost, LocalDate date, int version) {
+        return new Unit(id, rooms, type, status, 1, date, version, totalCost, totalCost, "Unit " + id, null, null);
+    }
+
+    private static List<Long> ids(List<Unit> units) {
+        return units.stream().map(Unit::getId).toList();
+    }
+}
@@ -1,10 +1,19 @@
 package com.bookingsystem.service;
 
+import com.bookingsystem.api.dto.Cursor;
+import com.bookingsystem.api.dto.CursorPage;
+import com.bookingsystem.api.dto.CursorRequest;
 import com.bookingsystem.api.dto.UnitCreateDto;
+import com.bookingsystem.api.dto.UnitResponseDto;
+import com.bookingsystem.api.dto.UnitSearchCriteria;
 import com.bookingsystem.api.dto.UnitUpdateDto;
 import com.bookingsystem.exceptions.UnitNotFoundException;
+import com.bookingsystem.mapper.UnitMapper;
+import com.bookingsystem.model.NightBitmap;
 import com.bookingsystem.model.Unit;
 import com.bookingsystem.repository.UnitRepository;
+import com.bookingsystem.repository.UnitRepository.UnitBooking;
+import jakarta.persistence.EntityManager;
 import lombok.val;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,15 +22,22 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
+import static com.bookingsystem.api.dto.UnitSortKey.TOTAL_COST;
+import static com.bookingsystem.configuration.RedisConfig.UNIT_CACHE;
 import static com.bookingsystem.model.AccommodationType.APARTMENT;
 import static com.bookingsystem.model.AccommodationType.HOME;
 import static com.bookingsystem.model.BookingStatus.*;
+import static com.bookingsystem.properties.BookingConcurrencyProperties.LockWait.SKIP_LOCKED;
+import static com.bookingsystem.properties.BookingConcurrencyProperties.LockWait.WAIT;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.*;
+import static org.springframework.data.domain.Sort.Direction.ASC;
 
 @ExtendWith(MockitoExtension.class)
 class UnitServiceTest {
@@ -39,6 +55,21 @@ class UnitServiceTest {
     @Mock
     private EventService eventService;
 
+    @Mock
+    private UnitSearchIndex unitSearchIndex;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private AvailabilityCounter availabilityCounter;
+
+    @Mock
+    private CacheInvalidator cacheInvalidator;
+
+    @Mock
+    private UnitMapper unitMapper;
+
     @InjectMocks
     private UnitService unitService;
 
@@ -56,7 +87,7 @@ class UnitServiceTest {
         val unit = EntitiesUtil.unit().id(UNIT_ID).numberOfRooms(NUMBER_OF_ROOMS).type(APARTMENT).build();
 
         given(unitRepository.save(any(Unit.class))).willReturn(unit);
-        doNothing().when(eventService).createEvent(any(), any(), anyLong(), anyString());
+        doNothing().when(eventService).createEvent(any(), anyLong(), anyMap());
 
         // when
         val result = unitService.createUnit(dto);
@@ -70,6 +101,37 @@ class UnitServiceTest {
         });
     }
 
+    @Test
+    void create_units_should_save_all_units_at_once_and_create_events() {
+        // given
+        val dto = new UnitCreateDto(
+                NUMBER_OF_ROOMS,
+                APARTMENT,
+                FLOOR,
+                BASE_COST,
+                BOOKING_DATE,
+                DESCRIPTION
+        );
+        val units = List.of(
+                EntitiesUtil.unit().id(UNIT_ID).status(AVAILABLE).build(),
+                EntitiesUtil.unit().id(2L).status(AVAILABLE).build()
+        );
+
+        given(unitRepository.saveAll(anyList())).willReturn(units);
+
+        // when
+        val result = unitService.createUnits(List.of(dto, dto));
+
+        // then
+        assertAll(() -> {
+            assertEquals(units, result);
+            verify(unitRepository).saveAll(anyList());
+            verify(unitRepository, never()).save(any(Unit.class));
+            verify(availabilityCounter).adjustAfterCommit(2L);
+            verify(eventService, times(2)).createEvent(any(), anyLong(), anyMap());
+        });
+    }
+
     @Test
     void update_unit_should_update_existing_unit_and_create_event() {
         // given
@@ -87,7 +149,7 @@ class UnitServiceTest {
         given(unitRepository.findById(any())).willReturn(Optional.of(existingUnit));
         given(existingUnit.update(any(), any(), any(), any(), any(), any(), any())).willReturn(existingUnit);
         given(unitRepository.save(any())).willReturn(existingUnit);
-        doNothing().when(eventService).createEvent(any(), any(), anyLong(), anyString());
+        doNothing().when(eventService).createEvent(any(), anyLong(), anyMap());
 
         // when
         val result = unitService.updateUnit(UNIT_ID, dto);
@@ -114,7 +176,7 @@ class UnitServiceTest {
             );
 
             verify(unitRepository, never()).save(any());
-            verify(eventService, never()).createEvent(any(), any(), anyLong(), anyString());
+            verify(eventService, never()).createEvent(any(), anyLong(), anyMap());
         });
     }
 
@@ -157,28 +219,124 @@ class UnitServiceTest {
         });
     }
 
+    @Test
+    void search_units_should_be_served_by_index_when_available() {
+        // given
+        val unit = EntitiesUtil.unit().id(UNIT_ID).build();
+        val dto = unitDto(UNIT_ID);
+        val criteria = new UnitSearchCriteria(NUMBER_OF_ROOMS, APARTMENT, null, null, null, null, null, null);
+        val request = CursorRequest.first(TOTAL_COST.sortName(ASC), 20);
+        given(unitSearchIndex.search(criteria, TOTAL_COST, ASC, request)).willReturn(Optional.of(new CursorPage<>(List.of(unit), null, null)));
+        given(unitMapper.toDto(unit)).willReturn(dto);
+
+        // when
+        val result = unitService.searchUnits(criteria, TOTAL_COST, ASC, request);
+
+        // then
+        assertAll(() -> {
+            assertEquals(List.of(dto), result.items());
+            assertNull(result.nextCursor());
+            verifyNoInteractions(unitRepository);
+        });
+    }
+
+    @Test
+    void search_units_should_fall_back_to_keyset_query_when_index_is_not_ready() {
+        // given
+        val criteria = new UnitSearchCriteria(NUMBER_OF_ROOMS, APARTMENT, null, null, null, null, null, null);
+        val request = CursorRequest.first(TOTAL_COST.sortName(ASC), 1);
+        given(unitSearchIndex.search(any(), any(), any(), any())).willReturn(Optional.empty());
+        given(unitRepository.searchUnits(criteria, TOTAL_COST, ASC, null, request.limit()))
+                .willReturn(List.of(unitDto(UNIT_ID), unitDto(2L)));
+
+        // when
+        val result = unitService.searchUnits(criteria, TOTAL_COST, ASC, request);
+
+        // then
+        assertAll(() -> {
+            assertEquals(List.of(unitDto(UNIT_ID)), result.items());
+            assertEquals(
+                    new Cursor(TOTAL_COST.sortName(ASC), unitDto(UNIT_ID).totalCost(), UNIT_ID),
+                    Cursor.decode(result.nextCursor())
+            );
+            assertNull(result.total());
+            verify(unitRepository, never()).countUnits(any());
+        });
+    }
+
+    @Test
+    void get_all_units_should_read_one_page_after_the_cursor() {
+        // given
+        val request = new CursorRequest(Cursor.BY_ID, Cursor.byId(UNIT_ID), 20, true);
+        given(unitRepository.findDtosAfter(UNIT_ID, request.limit())).willReturn(List.of(unitDto(2L)));
+        given(unitRepository.count()).willReturn(2L);
+
+        // when
+        val result = unitService.getAllUnits(request);
+
+        // then
+        assertAll(() -> {
+            assertEquals(List.of(unitDto(2L)), result.items());
+            assertNull(result.nextCursor());
+            assertEquals(2L, result.total());
+        });
+    }
+
+    @Test
+    void lock_all_by_id_should_lock_units_in_ascending_id_order() {
+        // given
+        val unit1 = EntitiesUtil.unit().id(1L).build();
+        val unit2 = EntitiesUtil.unit().id(2L).build();
+        given(unitRepository.findAllByIdForUpdate(List.of(1L, 2L, 3L))).willReturn(List.of(unit1, unit2, EntitiesUtil.unit().id(3L).build()));
+
+        // when
+        val result = unitService.lockAllById(Set.of(3L, 1L, 2L), WAIT);
+
+        // then
+        assertAll(() -> {
+            assertEquals(3, result.size());
+            verify(unitRepository).findAllByIdForUpdate(List.of(1L, 2L, 3L));
+        });
+    }
+
+    @Test
+    void lock_all_by_id_should_throw_exception_when_units_are_skipped() {
+        // given
+        val unit1 = EntitiesUtil.unit().id(1L).build();
+        given(unitRepository.findAllByIdForUpdateSkipLocked(List.of(1L, 2L))).willReturn(List.of(unit1));
+
+        // when & then
+        val exception = assertThrows(
+                UnitNotFoundException.class,
+                () -> unitService.lockAllById(Set.of(1L, 2L), SKIP_LOCKED)
+        );
+        assertEquals("Units are not available: 2", exception.getMessage());
+    }
+
     @Test
     void delete_unit_should_delete_existing_unit_and_create_event() {
         // given
-        given(unitRepository.existsById(any())).willReturn(true);
+        val unit = EntitiesUtil.unit().id(UNIT_ID).status(AVAILABLE).build();
+        given(unitRepository.findById(any())).willReturn(Optional.of(unit));
         doNothing().when(unitRepository).deleteById(any());
-        doNothing().when(eventService).createEvent(any(), any(), anyLong(), anyString());
+        doNothing().when(eventService).createEvent(any(), anyLong(), anyMap());
 
         // when
         unitService.deleteUnit(UNIT_ID);
 
         // then
         assertAll(() -> {
-            verify(unitRepository).existsById(any());
+            verify(unitRepository).findById(any());
             verify(unitRepository).deleteById(any());
-            verify(eventService).createEvent(any(), any(), any(), any());
+            verify(availabilityCounter).adjustAfterCommit(-1);
+            verify(eventService).createEvent(any(), any(), any());
         });
     }
 
     @Test
     void delete_unit_should_throw_exception_when_unit_not_found() {
         // given
-        given(unitRepository.existsById(any())).willReturn(false);
+        given(unitRepository.findById(any())).willReturn(Optional.empty());
 
         // when & then
         assertAll(() -> {
@@ -189,32 +347,317 @@ class UnitServiceTest {
             );
 
             verify(unitRepository, never()).deleteById(any());
-            verify(eventService, never()).createEvent(any(), any(), anyLong(), anyString());
+            verify(eventService, never()).createEvent(any(), anyLong(), anyMap());
         });
     }
 
     @Test
-    void set_units_booking_status_should_update_status_for_all_units() {
+    void reserve_units_should_update_all_units_in_one_statement() {
         // given
-        val unit1 = EntitiesUtil.unit().id(1L).status(RESERVED).build();
-        val unit2 = EntitiesUtil.unit().id(2L).status(RESERVED).build();
-        val unit3 = EntitiesUtil.unit().id(3L).status(RESERVED).build();
+        val booking = EntitiesUtil.booking().id(1L).build();
+        val unit1 = EntitiesUtil.unit().id(1L).status(AVAILABLE).booking(booking).build();
+        val unit2 = EntitiesUtil.unit().id(2L).status(AVAILABLE).booking(booking).build();
+        val unit3 = EntitiesUtil.unit().id(3L).status(AVAILABLE).booking(booking).build();
         val units = Set.of(unit1, unit2, unit3);
 
-        given(unitRepository.save(any())).willReturn(unit1);
-        given(unitRepository.save(any())).willReturn(unit2);
-        given(unitRepository.save(any())).willReturn(unit3);
+        given(unitRepository.updateStatusAndBooking(List.of(1L, 2L, 3L), AVAILABLE, RESERVED, booking)).willReturn(3);
+
+        // when
+        unitService.reserveUnits(units, booking);
+
+        // then
+        assertAll(() -> {
+            verify(unit1).setStatus(RESERVED);
+            verify(unit2).setStatus(RESERVED);
+            verify(unit3).setStatus(RESERVED);
+            verify(unit1).setBooking(booking);
+            verify(unitRepository, never()).save(any());
+            verify(eventService).createUnitTransitionEvents(Map.of(1L, List.of(1L, 2L, 3L)), AVAILABLE, RESERVED);
+            verify(unitSearchIndex).upsertAfterCommit(units);
+            verify(availabilityCounter).adjustAfterCommit(-3);
+            verify(cacheInvalidator).evict(UNIT_CACHE, List.of(1L, 2L, 3L));
+        });
+    }
+
+    @Test
+    void reserve_units_should_throw_when_some_units_were_taken() {
+        // given
+        val booking = EntitiesUtil.booking().id(1L).build();
+        val unit1 = EntitiesUtil.unit().id(1L).status(AVAILABLE).build();
+        val unit2 = EntitiesUtil.unit().id(2L).status(AVAILABLE).build();
+        val units = Set.of(unit1, unit2);
+
+        given(unitRepository.updateStatusAndBooking(List.of(1L, 2L), AVAILABLE, RESERVED, booking)).willReturn(1);
+
+        // when
+        val exception = assertThrows(UnitNotFoundException.class,
+                () -> unitService.reserveUnits(units, booking));
+
+        // then
+        assertAll(() -> {
+            assertEquals("Units are not available: 1, 2", exception.getMessage());
+            verify(unit1, never()).setStatus(any());
+            verify(eventService, never()).createUnitTransitionEvents(any(), any(), any());
+            verify(unitSearchIndex, never()).upsertAfterCommit(any());
+            verify(availabilityCounter, never()).adjustAfterCommit(anyLong());
+        });
+    }
+
+    @Test
+    void reserve_units_should_clear_nights_of_past_stays_before_reserving() {
+        // given
+        val booking = EntitiesUtil.booking().id(1L).build();
+        val unit = new Unit(1L, NUMBER_OF_ROOMS, APARTMENT, AVAILABLE, FLOOR, BOOKING_DATE, 0, 115.0, 132.25, DESCRIPTION, null, null);
+        unit.bookNights(LocalDate.now().minusDays(5), LocalDate.now().minusDays(2));
+
+        given(unitRepository.updateStatusAndBooking(List.of(1L), AVAILABLE, RESERVED, booking)).willAnswer(invocation -> {
+            assertTrue(unit.nights().isEmpty());
+            return 1;
+        });
 
         // when
-        unitService.setUnitsBookingStatus(units, BOOKED);
+        unitService.reserveUnits(Set.of(unit), booking);
+
+        // then
+        assertAll(() -> {
+            assertTrue(unit.nights().isEmpty());
+            assertEquals(RESERVED, unit.getStatus());
+            assertEquals(booking, unit.getBooking());
+        });
+    }
+
+    @Test
+    void prune_past_nights_should_clear_a_chunk_with_one_statement() {
+        // given
+        val today = LocalDate.now();
+        val unitIds = List.of(1L, 2L);
+        val unit1 = EntitiesUtil.unit().id(1L).build();
+        val unit2 = EntitiesUtil.unit().id(2L).build();
+        given(unitRepository.prunePastNights(unitIds, NightBitmap.night(today))).willReturn(1);
+        given(unitRepository.findAllById(unitIds)).willReturn(List.of(unit1, unit2));
+
+        // when
+        val result = unitService.prunePastNights(unitIds, today);
+
+        // then
+        assertAll(() -> {
+            assertEquals(1, result);
+            verify(unitSearchIndex).upsertAfterCommit(Set.of(unit1, unit2));
+            verify(cacheInvalidator).evict(UNIT_CACHE, unitIds);
+        });
+    }
+
+    @Test
+    void prune_past_nights_should_leave_the_index_alone_when_nothing_was_pruned() {
+        // given
+        val today = LocalDate.now();
+        given(unitRepository.prunePastNights(List.of(3L), NightBitmap.night(today))).willReturn(0);
+
+        // when
+        val result = unitService.prunePastNights(List.of(3L), today);
+
+        // then
+        assertAll(() -> {
+            assertEquals(0, result);
+            verify(unitRepository, never()).findAllById(any());
+            verifyNoInteractions(unitSearchIndex);
+        });
+    }
+
+    @Test
+    void reserve_nights_should_book_the_stay_on_every_unit() {
+        // given
+        val checkIn = LocalDate.of(2025, 8, 1);
+        val checkOut = checkIn.plusDays(2);
+        val unit1 = EntitiesUtil.unit().id(1L).status(AVAILABLE).build();
+        val unit2 = EntitiesUtil.unit().id(2L).status(AVAILABLE).build();
+        val units = Set.of(unit1, unit2);
+
+        given(unit1.isFree(checkIn, checkOut)).willReturn(true);
+        given(unit2.isFree(checkIn, checkOut)).willReturn(true);
+
+        // when
+        unitService.reserveNights(units, checkIn, checkOut);
+
+        // then
+        assertAll(() -> {
+            verify(unit1).bookNights(checkIn, checkOut);
+            verify(unit2).bookNights(checkIn, checkOut);
+            verify(unitRepository, never()).updateStatusAndBooking(any(), any(), any(), any());
+            verify(unitSearchIndex).upsertAfterCommit(units);
+            verify(cacheInvalidator).evict(UNIT_CACHE, List.of(1L, 2L));
+        });
+    }
+
+    @Test
+    void reserve_nights_should_throw_when_some_nights_are_taken() {
+        // given
+        val checkIn = LocalDate.of(2025, 8, 1);
+        val checkOut = checkIn.plusDays(2);
+        val unit1 = EntitiesUtil.unit().id(1L).status(AVAILABLE).build();
+        val unit2 = EntitiesUtil.unit().id(2L).status(AVAILABLE).build();
+
+        given(unit1.isFree(checkIn, checkOut)).willReturn(true);
+        given(unit2.isFree(checkIn, checkOut)).willReturn(false);
+
+        // when
+        val exception = assertThrows(UnitNotFoundException.class,
+                () -> unitService.reserveNights(Set.of(unit1, unit2), checkIn, checkOut));
+
+        // then
+        assertAll(() -> {
+            assertEquals("Units are not available from 2025-08-01 to 2025-08-03: 2", exception.getMessage());
+            verify(unit1, never()).bookNights(any(), any());
+            verify(unitSearchIndex, never()).upsertAfterCommit(any());
+        });
+    }
+
+    @Test
+    void confirm_units_should_book_reserved_units() {
+        // given
+        val booking = EntitiesUtil.booking().id(7L).build();
+        val unit1 = EntitiesUtil.unit().id(1L).status(RESERVED).booking(booking).build();
+        val unit2 = EntitiesUtil.unit().id(2L).status(RESERVED).booking(booking).build();
+        val units = Set.of(unit1, unit2);
+
+        given(unitRepository.updateStatus(List.of(1L, 2L), RESERVED, BOOKED)).willReturn(2);
+
+        // when
+        unitService.confirmUnits(units);
 
         // then
         assertAll(() -> {
             verify(unit1).setStatus(BOOKED);
             verify(unit2).setStatus(BOOKED);
-            verify(unit3).setStatus(BOOKED);
-            verify(unitRepository, times(3)).save(any());
-            verify(eventService, times(3)).createEvent(any(), any(), anyLong(), anyString());
+            verify(eventService).createUnitTransitionEvents(Map.of(7L, List.of(1L, 2L)), RESERVED, BOOKED);
+        });
+    }
+
+    @Test
+    void confirm_units_should_throw_when_units_are_no_longer_reserved() {
+        // given
+        val unit = EntitiesUtil.unit().id(1L).status(AVAILABLE).build();
+
+        given(unitRepository.updateStatus(List.of(1L), RESERVED, BOOKED)).willReturn(0);
+
+        // when
+        val exception = assertThrows(IllegalStateException.class,
+                () -> unitService.confirmUnits(Set.of(unit)));
+
+        // then
+        assertAll(() -> {
+            assertEquals("Units are no longer reserved: 1", exception.getMessage());
+            verify(unit, never()).setStatus(any());
         });
     }
+
+    @Test
+    void release_units_should_make_units_available_and_clear_booking() {
+        // given
+        val booking = EntitiesUtil.booking().id(7L).build();
+        val unit1 = EntitiesUtil.unit().id(1L).status(RESERVED).booking(booking).build();
+        val unit2 = EntitiesUtil.unit().id(2L).status(RESERVED).booking(booking).build();
+        val units = Set.of(unit1, unit2);
+
+        given(unitRepository.updateStatusAndClearBooking(List.of(1L, 2L), RESERVED, AVAILABLE, booking)).willReturn(2);
+
+        // when
+        unitService.releaseUnits(units, booking);
+
+        // then
+        assertAll(() -> {
+            verify(unit1).setStatus(AVAILABLE);
+            verify(unit2).setStatus(AVAILABLE);
+            verify(unit1).setBooking(null);
+            verify(unit2).setBooking(null);
+            verify(availabilityCounter).adjustAfterCommit(2);
+            verify(eventService).createUnitTransitionEvents(Map.of(7L, List.of(1L, 2L)), RESERVED, AVAILABLE);
+        });
+    }
+
+    @Test
+    void release_units_should_fail_when_a_unit_is_no_longer_held_by_the_booking() {
+        // given
+        val booking = EntitiesUtil.booking().id(7L).build();
+        val unit1 = EntitiesUtil.unit().id(1L).status(RESERVED).booking(booking).build();
+        val unit2 = EntitiesUtil.unit().id(2L).status(RESERVED).booking(booking).build();
+
+        given(unitRepository.updateStatusAndClearBooking(List.of(1L, 2L), RESERVED, AVAILABLE, booking)).willReturn(1);
+
+        // when
+        val exception = assertThrows(IllegalStateException.class, () -> unitService.releaseUnits(Set.of(unit1, unit2), booking));
+
+        // then
+        assertAll(() -> {
+            assertEquals("Units are no longer reserved by booking 7: 1, 2", exception.getMessage());
+            verify(unit1, never()).setStatus(any());
+            verify(availabilityCounter, never()).adjustAfterCommit(anyLong());
+            verifyNoInteractions(eventService);
+        });
+    }
+
+    @Test
+    void lock_stay_units_should_report_stays_with_units_locked_elsewhere() {
+        // given
+        val stayUnits = List.of(unitBooking(1L, 7L), unitBooking(2L, 7L), unitBooking(2L, 8L), unitBooking(3L, 9L));
+        given(unitRepository.findStayUnitBookings(List.of(7L, 8L, 9L))).willReturn(stayUnits);
+        given(unitRepository.findAllByIdForUpdateSkipLocked(List.of(1L, 2L, 3L)))
+                .willReturn(List.of(EntitiesUtil.unit().id(1L).build(), EntitiesUtil.unit().id(3L).build()));
+
+        // when
+        val busy = unitService.lockStayUnits(List.of(7L, 8L, 9L));
+
+        // then
+        assertEquals(Set.of(7L, 8L), busy);
+    }
+
+    @Test
+    void release_units_of_bookings_should_free_units_with_one_statement() {
+        // given
+        val bookingIds = List.of(1L, 2L);
+        val unit1 = EntitiesUtil.unit().id(10L).build();
+        val unit2 = EntitiesUtil.unit().id(20L).build();
+
+        given(unitRepository.findUnitBookings(bookingIds)).willReturn(List.of(unitBooking(10L, 1L), unitBooking(20L, 2L)));
+        given(unitRepository.updateStatusAndClearBookingByBookingIds(bookingIds, AVAILABLE)).willReturn(2);
+        given(unitRepository.findAllById(List.of(10L, 20L))).willReturn(List.of(unit1, unit2));
+
+        // when
+        val result = unitService.releaseUnitsOfBookings(bookingIds);
+
+        // then
+        assertAll(() -> {
+            assertEquals(2, result);
+            verify(availabilityCounter).adjustAfterCommit(2);
+            verify(eventService).createUnitTransitionEvents(Map.of(1L, List.of(10L), 2L, List.of(20L)), RESERVED, AVAILABLE);
+            verify(unitSearchIndex).upsertAfterCommit(List.of(unit1, unit2));
+            verify(cacheInvalidator).evict(UNIT_CACHE, List.of(10L, 20L));
+        });
+    }
+
+    @Test
+    void release_units_of_bookings_should_skip_update_when_bookings_have_no_units() {
+        // given
+        given(unitRepository.findUnitBookings(List.of(1L))).willReturn(List.of());
+
+        // when
+        val result = unitService.releaseUnitsOfBookings(List.of(1L));
+
+        // then
+        assertAll(() -> {
+            assertEquals(0, result);
+            verify(unitRepository, never()).updateStatusAndClearBookingByBookingIds(any(), any());
+        });
+    }
+
+    private static UnitBooking unitBooking(Long unitId, Long bookingId) {
+        val unitBooking = mock(UnitBooking.class);
+        given(unitBooking.getUnitId()).willReturn(unitId);
+        given(unitBooking.getBookingId()).willReturn(bookingId);
+        return unitBooking;
+    }
+
+    private static UnitResponseDto unitDto(Long id) {
+        return new UnitResponseDto(id, NUMBER_OF_ROOMS, APARTMENT, AVAILABLE, FLOOR, BOOKING_DATE, 0, BASE_COST, BASE_COST, DESCRIPTION);
+    }
 }
@@ -1,9 +1,13 @@
 package com.bookingsystem.service;
 
+import com.bookingsystem.api.dto.BookingResponseDto;
 import com.bookingsystem.api.dto.UserCreateDto;
 import com.bookingsystem.api.dto.UserUpdateDto;
 import com.bookingsystem.exceptions.UserNotFoundException;
+import com.bookingsystem.model.Booking;
+import com.bookingsystem.model.User;
 import com.bookingsystem.repository.UserRepository;
+import com.bookingsystem.repository.UserRepository.UserSummary;
 import lombok.val;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,8 +15,12 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import static com.bookingsystem.model.EventTemplate.USER_CREATED;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.*;
@@ -32,6 +40,9 @@ class UserServiceTest {
     @Mock
     private EventService eventService;
 
+    @Mock
+    private BookingQueries bookingQueries;
+
     @InjectMocks
     private UserService userService;
 
@@ -42,7 +53,7 @@ class UserServiceTest {
         val dto = new UserCreateDto(USER_NAME, USER_EMAIL);
 
         given(userRepository.save(any())).willReturn(user);
-        doNothing().when(eventService).createEvent(any(), any(), anyLong(), anyString());
+        doNothing().when(eventService).createEvent(any(), anyLong(), anyMap());
 
         //when
         val result = userService.createUser(dto);
@@ -53,6 +64,7 @@ class UserServiceTest {
             assertEquals(USER_ID, result.getId());
             assertEquals(USER_NAME, result.getUsername());
             assertEquals(USER_EMAIL, result.getEmail());
+            verify(eventService).createEvent(USER_CREATED, USER_ID, Map.of("username", USER_NAME, "email", USER_EMAIL));
         });
     }
 
@@ -70,7 +82,7 @@ class UserServiceTest {
         given(userRepository.findById(any())).willReturn(Optional.of(existingUser));
         given(existingUser.update(any(), any())).willReturn(updatedUser);
         given(userRepository.save(any())).willAnswer(invocation -> invocation.getArgument(0));
-        doNothing().when(eventService).createEvent(any(), any(), anyLong(), anyString());
+        doNothing().when(eventService).createEvent(any(), anyLong(), anyMap());
 
         //when
         val result = userService.updateUser(USER_ID, dto);
@@ -98,15 +110,21 @@ class UserServiceTest {
                     "User not found with id: 999"
             );
             verify(userRepository, never()).save(any());
-            verify(eventService, never()).createEvent(any(), any(), anyLong(), anyString());
+            verify(eventService, never()).createEvent(any(), anyLong(), anyMap());
         });
     }
 
     @Test
-    void get_user_by_id_should_return_user_when_exists() {
+    void get_user_by_id_should_return_user_with_bookings_when_exists() {
         //given
-        val user = EntitiesUtil.user().id(USER_ID).username(USER_NAME).email(USER_EMAIL).build();
-        given(userRepository.findById(USER_ID)).willReturn(Optional.of(user));
+        val user = mock(UserSummary.class);
+        given(user.getId()).willReturn(USER_ID);
+        given(user.getUsername()).willReturn(USER_NAME);
+        given(user.getEmail()).willReturn(USER_EMAIL);
+        val booking = new BookingResponseDto(1L, USER_ID, List.of(), LocalDateTime.now(), null, null);
+
+        given(userRepository.findSummaryById(USER_ID)).willReturn(Optional.of(user));
+        given(bookingQueries.findByUserIds(List.of(USER_ID))).willReturn(Map.of(USER_ID, List.of(booking)));
 
         //when
         val result = userService.getUserById(USER_ID);
@@ -114,9 +132,11 @@ class UserServiceTest {
         //then
         assertAll(() -> {
             assertNotNull(result);
-            assertEquals(USER_ID, result.getId());
-            assertEquals(USER_NAME, result.getUsername());
-            assertEquals(USER_EMAIL, result.getEmail());
+            assertEquals(USER_ID, result.id());
+            assertEquals(USER_NAME, result.username());
+            assertEquals(USER_EMAIL, result.email());
+            assertEquals(List.of(booking), result.bookings());
+            verify(userRepository, never()).findById(any());
             verifyNoInteractions(eventService);
         });
     }
@@ -124,7 +144,7 @@ class UserServiceTest {
     @Test
     void get_user_by_id_should_throw_exception_when_user_not_found() {
         //given
-        given(userRepository.findById(NON_EXISTENT_ID)).willReturn(Optional.empty());
+        given(userRepository.findSummaryById(NON_EXISTENT_ID)).willReturn(Optional.empty());
 
         //when & then
         assertAll(() -> {
@@ -142,7 +162,7 @@ class UserServiceTest {
         //given
         given(userRepository.existsById(any())).willReturn(true);
         doNothing().when(userRepository).deleteById(USER_ID);
-        doNothing().when(eventService).createEvent(any(), any(), anyLong(), anyString());
+        doNothing().when(eventService).createEvent(any(), anyLong(), anyMap());
 
         //when
         userService.deleteUser(USER_ID);
@@ -151,7 +171,7 @@ class UserServiceTest {
         assertAll(() -> {
             verify(userRepository).existsById(USER_ID);
             verify(userRepository).deleteById(USER_ID);
-            verify(eventService).createEvent(any(), any(), anyLong(), anyString());
+            verify(eventService).createEvent(any(), anyLong(), anyMap());
         });
     }
 
@@ -170,7 +190,25 @@ class UserServiceTest {
 
             verify(userRepository).existsById(NON_EXISTENT_ID);
             verify(userRepository, never()).deleteById(any());
-            verify(eventService, never()).createEvent(any(), any(), anyLong(), anyString());
+            verify(eventService, never()).createEvent(any(), anyLong(), anyMap());
+        });
+    }
+
+    @Test
+    void get_cached_user_should_return_copy_without_bookings() {
+        //given
+        val user = new User(USER_ID, USER_NAME, USER_EMAIL, List.of(mock(Booking.class)));
+        given(userRepository.findById(USER_ID)).willReturn(Optional.of(user));
+
+        //when
+        val result = userService.getCachedUser(USER_ID);
+
+        //then
+        assertAll(() -> {
+            assertNotSame(user, result);
+            assertEquals(USER_ID, result.getId());
+            assertEquals(USER_NAME, result.getUsername());
+            assertNull(result.getBookings());
         });
     }
-}
\ No newline at end of file
+}